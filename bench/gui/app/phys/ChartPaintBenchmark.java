@@ -0,0 +1,100 @@
+package gui.app.phys;
+
+import ohm.low.phys.CircuitSweep;
+import org.knowm.xchart.style.markers.SeriesMarkers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting of the P(I) chart into an image, with all the sweep points and with the points
+ * downsampled to twice the chart width. firstPaint creates the chart and paints it once,
+ * as the graphs window does on opening, repaint paints the existing chart again
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ChartPaintBenchmark {
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 400;
+    private static final String[] SERIES = {"Pexternal", "Ploss", "Pfull"};
+
+    @Param({"1000", "5000", "20000", "40000"})
+    private int points;
+
+    @Param({"false", "true"})
+    private boolean downsampled;
+
+    private double[][] x;
+    private double[][] y;
+    private ZoomableChart chart;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        CircuitSweep sweep = CircuitSweep.uniform(12, 2, 0.000001, 10000, points);
+        double[][] values = {sweep.getExternalPower(), sweep.getPowerLoss(), sweep.getFullPower()};
+
+        x = new double[SERIES.length][];
+        y = new double[SERIES.length][];
+        for (int s = 0; s < SERIES.length; ++s) {
+            int[] indices = Downsampler.select(sweep.getCurrent(), values[s], points,
+                    downsampled ? 2 * WIDTH : points);
+            x[s] = new double[indices.length];
+            y[s] = new double[indices.length];
+            for (int i = 0; i < indices.length; ++i) {
+                x[s][i] = sweep.getCurrent()[indices[i]];
+                y[s][i] = values[s][indices[i]];
+            }
+        }
+
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+        chart = createChart();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage firstPaint() {
+        createChart().paint(graphics, WIDTH, HEIGHT);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage repaint() {
+        chart.paint(graphics, WIDTH, HEIGHT);
+        return image;
+    }
+
+    private ZoomableChart createChart() {
+        ZoomableChart result = new ZoomableChart(WIDTH, HEIGHT);
+        result.setTitle("P(I)");
+        result.setXAxisTitle("I, A");
+        result.setYAxisTitle("P, Watt");
+        for (int s = 0; s < SERIES.length; ++s) {
+            result.addSeries(SERIES[s], x[s], y[s]).setMarker(SeriesMarkers.NONE);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package gui.app.phys;
+
+import ohm.low.phys.AdaptiveSampler;
+import ohm.low.phys.CircuitSweep;
+import ohm.low.phys.DCPowerSupplyConnection;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import ohm.low.phys.base.Potentiometer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Graph values calculation at every max resistance tier the graphs had fixed STEPS for:
+ * 1000 steps below 1 kOhm, 5000 below 5 kOhm, 20000 below 10 kOhm and 40000 above.
+ * tierLoop is the per-step potentiometer loop the graphs used before, uniformSweep is the same points
+ * calculated column by column, adaptiveSampling is what GraphsCreator does now
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GraphsCreatorBenchmark {
+    private static final double EMF = 12;
+    private static final double INTERNAL_RESISTANCE = 2;
+
+    @Param({"500", "2500", "7500", "20000"})
+    private double maxResistance;
+
+    private int steps;
+    private Potentiometer potentiometer;
+    private DCPowerSupplyConnection circuit;
+    private CircuitSweep sweep;
+    private AdaptiveSampler sampler;
+
+    private double[] current;
+    private double[] uExt;
+    private double[] uInt;
+    private double[] pFull;
+    private double[] pLoss;
+    private double[] pExt;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        if (maxResistance < 1000) {
+            steps = 1000;
+        } else if (maxResistance < 5000) {
+            steps = 5000;
+        } else if (maxResistance < 10000) {
+            steps = 20000;
+        } else {
+            steps = 40000;
+        }
+
+        potentiometer = new Potentiometer(maxResistance);
+        circuit = new DCPowerSupplyConnection(new DCPowerSupply(EMF, new FixedResistor(INTERNAL_RESISTANCE)),
+                potentiometer);
+        sweep = new CircuitSweep(steps);
+        sampler = new AdaptiveSampler(0.0001, 40000);
+    }
+
+    @Benchmark
+    public double[] tierLoop() throws WrongPhysicsParameterException {
+        current = new double[steps];
+        uExt = new double[steps];
+        uInt = new double[steps];
+        pFull = new double[steps];
+        pLoss = new double[steps];
+        pExt = new double[steps];
+
+        for (int i = 0; i < steps; ++i) {
+            potentiometer.setPosition((double) i / steps * 100);
+            if (circuit.getCurrent() == Double.POSITIVE_INFINITY) {
+                potentiometer.setResistance(potentiometer.getResistance() + 0.000001);
+            }
+
+            current[i] = circuit.getCurrent();
+            uExt[i] = circuit.getExternalResistorVoltage();
+            uInt[i] = circuit.getInternalResistorVoltage();
+            pFull[i] = circuit.getFullPower();
+            pExt[i] = circuit.getExternalPower();
+            pLoss[i] = circuit.getPowerLoss();
+        }
+        return current;
+    }
+
+    @Benchmark
+    public CircuitSweep uniformSweep() {
+        sweep.fillResistanceUniform(0, maxResistance);
+        sweep.calculate(EMF, INTERNAL_RESISTANCE);
+        return sweep;
+    }
+
+    @Benchmark
+    public CircuitSweep adaptiveSampling() {
+        return sampler.sample(EMF, INTERNAL_RESISTANCE, 0, maxResistance);
+    }
+}
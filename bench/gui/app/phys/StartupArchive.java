@@ -0,0 +1,53 @@
+package gui.app.phys;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Creates the application class data sharing archive of the GUI startup: the simulator is launched
+ * with the class path of the ohm.startup.classPath property up to the first frame, the loaded classes are listed
+ * and dumped into the archive, so the next launches map them instead of loading and verifying them.
+ * The archive is valid for the same JVM and the same class path only, the class path must consist of jars.
+ * Two steps of JDK 11 are used, they work on the later JDKs too.
+ * Usage: java -Dohm.startup.classPath=target/physics-ohmlaw-1.0-SNAPSHOT.jar -cp target/benchmarks.jar
+ * gui.app.phys.StartupArchive [archive.jsa]
+ * Then:  java -XX:SharedArchiveFile=archive.jsa -cp target/physics-ohmlaw-1.0-SNAPSHOT.jar OhmLawSimulator
+ */
+public class StartupArchive {
+    private static final String DEFAULT_ARCHIVE = "ohm.jsa";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path archive = Paths.get((args.length > 0) ? args[0] : DEFAULT_ARCHIVE).toAbsolutePath();
+        for (String entry : StartupBenchmark.CLASS_PATH.split(File.pathSeparator)) {
+            if (Files.isDirectory(Paths.get(entry))) {
+                throw new IllegalArgumentException("Class path entry " + entry + " is a directory, "
+                        + "classes are archived from jars only");
+            }
+        }
+
+        Path classList = Files.createTempFile("ohm", ".classlist");
+        try {
+            StartupBenchmark.Launch training = StartupBenchmark.launch("-Xshare:off",
+                    "-XX:DumpLoadedClassList=" + classList);
+            System.out.println("Training run: first frame in " + training.firstFrame + " ms");
+
+            Process dump = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xshare:dump",
+                    "-XX:SharedClassListFile=" + classList,
+                    "-XX:SharedArchiveFile=" + archive,
+                    "-cp", StartupBenchmark.CLASS_PATH)
+                    .inheritIO()
+                    .start();
+            int code = dump.waitFor();
+            if (code != 0) {
+                throw new IllegalStateException("Archive dump exited with code " + code);
+            }
+            System.out.println("Archive " + archive + ", " + Files.size(archive) / 1024 + " KiB");
+        } finally {
+            Files.deleteIfExists(classList);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package gui.app.phys;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startup benchmark of the GUI: launches the simulator in new JVMs with the class path of the
+ * ohm.startup.classPath property, the class path of this JVM by default, every run exits as soon as
+ * the first frame is shown. Reports min, median and max of the time from the JVM start
+ * to the first frame, as seen by the launched JVM, and of the wall time from the launch, JVM creation included.
+ * The first run is a warmup of the disk cache and is not counted. With the archive argument the same runs
+ * are repeated with the class data sharing archive made by StartupArchive.
+ * Needs a display and the GUI jar, e.g. the one of mvn package with its lib directory next to it.
+ * Usage: java -Dohm.startup.classPath=target/physics-ohmlaw-1.0-SNAPSHOT.jar -cp target/benchmarks.jar
+ * gui.app.phys.StartupBenchmark [runs [archive.jsa]]
+ */
+public class StartupBenchmark {
+    private static final int DEFAULT_RUNS = 10;
+    private static final String MAIN_CLASS = "OhmLawSimulator";
+    private static final String REPORT_PREFIX = "first frame ";
+    private static final String REPORT_SUFFIX = " ms";
+    private static final long NANOS_PER_MILLISECOND = 1_000_000;
+    /**
+     * Class path of the launched simulator, the tools are built with the benchmarks and not shipped in the GUI jar
+     */
+    static final String CLASS_PATH = System.getProperty("ohm.startup.classPath", System.getProperty("java.class.path"));
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        if (runs < 1) {
+            throw new IllegalArgumentException("Wrong count of runs " + runs);
+        }
+
+        System.out.println(measure("default", runs));
+        if (args.length > 1) {
+            Path archive = Paths.get(args[1]);
+            if (!Files.isRegularFile(archive)) {
+                throw new IllegalArgumentException("No archive " + archive);
+            }
+            System.out.println(measure("archive", runs, "-Xshare:auto", "-XX:SharedArchiveFile=" + archive));
+        }
+    }
+
+    private static String measure(String name, int runs, String... options) throws IOException, InterruptedException {
+        long[] firstFrame = new long[runs];
+        long[] wall = new long[runs];
+        launch(options);
+        for (int run = 0; run < runs; ++run) {
+            Launch launch = launch(options);
+            firstFrame[run] = launch.firstFrame;
+            wall[run] = launch.wall;
+        }
+        return String.format("%s: first frame %s, wall %s, %d runs", name, summary(firstFrame), summary(wall), runs);
+    }
+
+    private static String summary(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return String.format("min=%d ms, median=%d ms, max=%d ms",
+                sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+
+    /**
+     * Launches the simulator, which reports its first frame and exits
+     * @param options JVM options
+     */
+    static Launch launch(String... options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options));
+        command.add("-Dohm.gui.startupProbe=true");
+        command.add("-cp");
+        command.add(CLASS_PATH);
+        command.add(MAIN_CLASS);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Launch launch = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (launch == null && line.startsWith(REPORT_PREFIX) && line.endsWith(REPORT_SUFFIX)) {
+                    long wall = (System.nanoTime() - start) / NANOS_PER_MILLISECOND;
+                    launch = new Launch(Long.parseLong(line.substring(REPORT_PREFIX.length(),
+                            line.length() - REPORT_SUFFIX.length())), wall);
+                }
+            }
+        }
+        int code = process.waitFor();
+        if (code != 0 || launch == null) {
+            throw new IllegalStateException("Simulator exited with code " + code + " without the first frame");
+        }
+        return launch;
+    }
+
+    static class Launch {
+        /**
+         * Time from the JVM start to the first frame [ Milliseconds ]
+         */
+        final long firstFrame;
+        /**
+         * Time from the launch to the first frame [ Milliseconds ]
+         */
+        final long wall;
+
+        private Launch(long firstFrame, long wall) {
+            this.firstFrame = firstFrame;
+            this.wall = wall;
+        }
+    }
+}
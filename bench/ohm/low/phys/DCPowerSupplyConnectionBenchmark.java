@@ -0,0 +1,67 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import ohm.low.phys.base.Potentiometer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading all the circuit values, one by one through the getters and once through the state holder.
+ * Run with -prof gc to see that solving into CircuitState does not allocate
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DCPowerSupplyConnectionBenchmark {
+    private DCPowerSupplyConnection circuit;
+    private final CircuitState state = new CircuitState();
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        Potentiometer potentiometer = new Potentiometer(100);
+        potentiometer.setPosition(40);
+        circuit = new DCPowerSupplyConnection(new DCPowerSupply(12, new FixedResistor(2)), potentiometer);
+    }
+
+    @Benchmark
+    public double current() {
+        return circuit.getCurrent();
+    }
+
+    @Benchmark
+    public void allGetters(Blackhole blackhole) {
+        blackhole.consume(circuit.getCurrent());
+        blackhole.consume(circuit.getExternalResistorVoltage());
+        blackhole.consume(circuit.getInternalResistorVoltage());
+        blackhole.consume(circuit.getFullPower());
+        blackhole.consume(circuit.getPowerLoss());
+        blackhole.consume(circuit.getExternalPower());
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        circuit.solve(state);
+        blackhole.consume(state.getCurrent());
+        blackhole.consume(state.getExternalResistorVoltage());
+        blackhole.consume(state.getInternalResistorVoltage());
+        blackhole.consume(state.getFullPower());
+        blackhole.consume(state.getPowerLoss());
+        blackhole.consume(state.getExternalPower());
+    }
+}
@@ -0,0 +1,54 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving the potentiometer slider through all the positions, as the GUI slider does
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PotentiometerBenchmark {
+    private static final int POSITIONS = 1000;
+
+    @Param({"0", "1"})
+    private int listeners;
+
+    private Potentiometer potentiometer;
+    private double sum;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        potentiometer = new Potentiometer(1000);
+        for (int i = 0; i < listeners; ++i) {
+            potentiometer.addResistanceChangeListener(resistor -> sum += resistor.getResistance());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public double setPosition() throws WrongPhysicsParameterException {
+        double result = 0;
+        for (int i = 0; i < POSITIONS; ++i) {
+            result += potentiometer.setPosition((double) i / POSITIONS * 100);
+        }
+        return result + sum;
+    }
+}
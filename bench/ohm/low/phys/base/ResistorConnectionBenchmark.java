@@ -0,0 +1,63 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Series and parallel connection of resistors, object and primitive versions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResistorConnectionBenchmark {
+    @Param({"2", "8", "64"})
+    private int arity;
+
+    private Resistor[] resistors;
+    private double[] resistances;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        resistors = new Resistor[arity];
+        resistances = new double[arity];
+        for (int i = 0; i < arity; ++i) {
+            resistances[i] = 1 + i * 0.5;
+            resistors[i] = new FixedResistor(resistances[i]);
+        }
+    }
+
+    @Benchmark
+    public FixedResistor connectInSeries() throws WrongPhysicsParameterException {
+        return ResistorConnection.ConnectInSeries(resistors);
+    }
+
+    @Benchmark
+    public FixedResistor connectParallel() throws WrongPhysicsParameterException {
+        return ResistorConnection.ConnectParallel(resistors);
+    }
+
+    @Benchmark
+    public double seriesResistance() {
+        return ResistorConnection.SeriesResistance(resistances);
+    }
+
+    @Benchmark
+    public double parallelResistance() {
+        return ResistorConnection.ParallelResistance(resistances);
+    }
+}
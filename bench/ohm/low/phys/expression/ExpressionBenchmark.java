@@ -0,0 +1,90 @@
+package ohm.low.phys.expression;
+
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.CompactSweep;
+import ohm.low.phys.SweepColumn;
+import ohm.low.phys.SweepPrecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Efficiency Pext / Pfull calculated by the compiled expression and by the hand-written code,
+ * for solved circuits one by one and for the sweep. Time is per point
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+    private static final int POINTS = 100_000;
+
+    private final Expression efficiency = Expression.parse("Pext / Pfull");
+    private final CircuitState state = new CircuitState();
+    private final double[] resistance = new double[POINTS];
+    private final double[] values = new double[POINTS];
+    private final double[] fullPower = new double[POINTS];
+    private CompactSweep sweep;
+
+    @Setup
+    public void setUp() {
+        double[] current = new double[POINTS];
+        for (int i = 0; i < POINTS; ++i) {
+            resistance[i] = 0.01 * (i + 1);
+            current[i] = 12 / (2 + resistance[i]);
+        }
+        sweep = CompactSweep.of(12, 2, current, SweepPrecision.DOUBLE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double pointHandWritten() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; ++i) {
+            state.solve(12, 2, resistance[i]);
+            sum += state.getExternalPower() / state.getFullPower();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double pointExpression() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; ++i) {
+            state.solve(12, 2, resistance[i]);
+            sum += efficiency.evaluate(state);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] sweepHandWritten() {
+        sweep.fill(SweepColumn.EXTERNAL_POWER, 0, POINTS, values, 0);
+        sweep.fill(SweepColumn.FULL_POWER, 0, POINTS, fullPower, 0);
+        for (int i = 0; i < POINTS; ++i) {
+            values[i] /= fullPower[i];
+        }
+        return values;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] sweepExpression() {
+        efficiency.fill(sweep, 0, POINTS, values, 0);
+        return values;
+    }
+}
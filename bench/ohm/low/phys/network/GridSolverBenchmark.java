@@ -0,0 +1,61 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.Tolerance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Square sensor mesh with 1% spread driven from one corner to the opposite one.
+ * Compares the cold solve with the warm start after a small change of the source
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+@State(Scope.Thread)
+public class GridSolverBenchmark {
+    @Param({"300", "1000", "3162"})
+    private int side;
+
+    private ResistorGrid grid;
+    private GridSolver solver;
+    private double voltage = 1;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        grid = ResistorGrid.mesh(side, side, 1);
+        grid.applyTolerance(Tolerance.normal(0.01), 1);
+        grid.fixVoltage(0, 0, voltage);
+        grid.fixVoltage(side - 1, side - 1, 0);
+        solver = new GridSolver(grid);
+    }
+
+    @Benchmark
+    public int coldSolve() throws IllegalPhysicsSystemStateException {
+        solver.reset();
+        solver.solve();
+        return solver.getIterations();
+    }
+
+    @Benchmark
+    public int warmSolve() throws IllegalPhysicsSystemStateException {
+        voltage = (voltage == 1) ? 1.01 : 1;
+        grid.fixVoltage(0, 0, voltage);
+        solver.solve();
+        return solver.getIterations();
+    }
+}
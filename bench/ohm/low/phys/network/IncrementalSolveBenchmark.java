@@ -0,0 +1,86 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import ohm.low.phys.base.Potentiometer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Square resistor grid with a potentiometer in the middle.
+ * Compares the solve after one potentiometer move with the full refactorization of the network
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IncrementalSolveBenchmark {
+    @Param({"30", "100", "300"})
+    private int side;
+
+    private Potentiometer potentiometer;
+    private NetworkSolver solver;
+    private String probe;
+    private int position;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        Netlist netlist = new Netlist();
+        Random random = new Random(1);
+        for (int i = 0; i < side; ++i) {
+            for (int j = 0; j < side; ++j) {
+                String node = name(i, j);
+                if (i + 1 < side) {
+                    netlist.addResistor(node, name(i + 1, j), new FixedResistor(1 + random.nextDouble()));
+                }
+                if (j + 1 < side) {
+                    netlist.addResistor(node, name(i, j + 1), new FixedResistor(1 + random.nextDouble()));
+                }
+            }
+        }
+        netlist.addPowerSupply(name(0, 0), Netlist.GROUND, new DCPowerSupply(1, new FixedResistor(0.5)));
+        netlist.addResistor(name(side - 1, side - 1), Netlist.GROUND, new FixedResistor(1));
+
+        potentiometer = new Potentiometer(100);
+        netlist.addResistor(name(side / 2, side / 2), Netlist.GROUND, potentiometer);
+
+        probe = name(1, 1);
+        solver = new NetworkSolver(netlist);
+        solver.solve();
+    }
+
+    @Benchmark
+    public double potentiometerMove() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        position = position % 97 + 1;
+        potentiometer.setPosition(position);
+        return solver.solve().getVoltage(probe);
+    }
+
+    @Benchmark
+    public double fullRefactorization() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        position = position % 97 + 1;
+        potentiometer.setPosition(position);
+        solver.factorize();
+        return solver.solve().getVoltage(probe);
+    }
+
+    private static String name(int i, int j) {
+        return "n" + i + "_" + j;
+    }
+}
@@ -0,0 +1,62 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-heap square mesh with every node leaking to the ground, solved in a small heap.
+ * Run with -prof gc to see that the allocation does not depend on the mesh size
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx64m", "-XX:MaxDirectMemorySize=2g"})
+@State(Scope.Thread)
+public class StoreSolverBenchmark {
+    @Param({"300", "1000"})
+    private int side;
+
+    private StoreSolver solver;
+
+    @Setup
+    public void setUp() throws WrongPhysicsParameterException {
+        int nodes = side * side;
+        ResistorStore store = ResistorStore.allocate(nodes, 3L * nodes);
+        Random random = new Random(1);
+        long element = 0;
+        for (int node = 0; node < nodes; ++node) {
+            if (node % side < side - 1) {
+                store.setResistor(element++, node, node + 1, 1 + 0.01 * random.nextGaussian());
+            }
+            if (node + side < nodes) {
+                store.setResistor(element++, node, node + side, 1 + 0.01 * random.nextGaussian());
+            }
+            store.setResistor(element++, node, ResistorStore.GROUND, 100);
+        }
+        store.setInjectedCurrent(nodes / 2, 1);
+        solver = new StoreSolver(store);
+        solver.setTolerance(1e-8, 10_000);
+    }
+
+    @Benchmark
+    public int coldSolve() throws IllegalPhysicsSystemStateException {
+        solver.reset();
+        solver.solve();
+        return solver.getIterations();
+    }
+}
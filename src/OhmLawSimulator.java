@@ -1,7 +1,21 @@
+import batch.app.phys.BatchSimulator;
 import gui.app.phys.PhysGui;
+import service.app.phys.EvaluationServer;
+
+import java.util.Arrays;
 
 public class OhmLawSimulator {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(BatchSimulator.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int code = EvaluationServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (code != 0) {
+                System.exit(code);
+            }
+            return;
+        }
         javax.swing.SwingUtilities.invokeLater(PhysGui::new);
     }
 }
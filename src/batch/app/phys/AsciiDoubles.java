@@ -0,0 +1,287 @@
+package batch.app.phys;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsing and formatting of double values straight from and to ASCII bytes, without creating strings.
+ * Parsing is exact for the numbers with up to 15 significant digits and decimal exponent up to 22,
+ * other numbers fall back to Double.parseDouble.
+ * Formatting writes the value rounded half up to 15 significant digits, trailing zeroes are dropped
+ */
+final class AsciiDoubles {
+    /**
+     * Max length of the formatted value in bytes
+     */
+    static final int MAX_LENGTH = 24;
+
+    private static final int SIGNIFICANT_DIGITS = 15;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final long MAX_MANTISSA = 999_999_999_999_999_999L;
+    private static final int MAX_EXACT_EXPONENT = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_EXPONENT + 1];
+    private static final long LOW_MANTISSA = 100_000_000_000_000L;
+    private static final long HIGH_MANTISSA = 1_000_000_000_000_000L;
+
+    /**
+     * Smaller values are formatted through BigDecimal, their scale factor does not fit into double
+     */
+    private static final double MIN_SCALED_VALUE = 1e-290;
+    private static final int POWER_OFFSET = 310;
+    private static final int MAX_POWER = 308;
+    private static final double[] POWERS_HIGH = new double[POWER_OFFSET + MAX_POWER + 1];
+    private static final double[] POWERS_LOW = new double[POWER_OFFSET + MAX_POWER + 1];
+    private static final double LOG10_2 = 0.30102999566398120;
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+    private static final MathContext ROUNDING = new MathContext(SIGNIFICANT_DIGITS, RoundingMode.HALF_UP);
+
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = Double.parseDouble("1e" + i);
+        }
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+        for (int i = -POWER_OFFSET; i <= MAX_POWER; ++i) {
+            BigDecimal power = BigDecimal.ONE.scaleByPowerOfTen(i);
+            double high = power.doubleValue();
+            POWERS_HIGH[i + POWER_OFFSET] = high;
+            POWERS_LOW[i + POWER_OFFSET] = power.subtract(new BigDecimal(high)).doubleValue();
+        }
+    }
+
+    private AsciiDoubles() {
+
+    }
+
+    /**
+     * Parses decimal number, spaces around the number are skipped
+     * @param bytes Source bytes
+     * @param from Index of the first byte
+     * @param to Index after the last byte
+     * @return Parsed value, NaN if the bytes are not a decimal number
+     */
+    static double parse(byte[] bytes, int from, int to) {
+        while (from < to && isSpace(bytes[from])) {
+            ++from;
+        }
+        while (to > from && isSpace(bytes[to - 1])) {
+            --to;
+        }
+
+        int start = from;
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            ++i;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean truncated = false;
+
+        for (; i < to && isDigit(bytes[i]); ++i, ++digits) {
+            if (mantissa <= MAX_MANTISSA / 10) {
+                mantissa = mantissa * 10 + (bytes[i] - '0');
+            } else {
+                truncated |= bytes[i] != '0';
+                ++exponent;
+            }
+        }
+        if (i < to && bytes[i] == '.') {
+            for (++i; i < to && isDigit(bytes[i]); ++i, ++digits) {
+                if (mantissa <= MAX_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (bytes[i] - '0');
+                    --exponent;
+                } else {
+                    truncated |= bytes[i] != '0';
+                }
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            ++i;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                ++i;
+            }
+            if (i == to) {
+                return Double.NaN;
+            }
+
+            int value = 0;
+            for (; i < to && isDigit(bytes[i]); ++i) {
+                value = Math.min(value * 10 + (bytes[i] - '0'), 100_000);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0;
+        } else if (!truncated && mantissa <= MAX_EXACT_MANTISSA && Math.abs(exponent) <= MAX_EXACT_EXPONENT) {
+            result = (exponent >= 0) ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.parseDouble(new String(bytes, start, to - start, StandardCharsets.US_ASCII));
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Writes value as decimal number, scientific notation is used for very small and very large values
+     * @param value Value to write
+     * @param bytes Destination, must have at least MAX_LENGTH bytes after the position
+     * @param position Index of the first byte to write
+     * @return Index after the last written byte
+     */
+    static int format(double value, byte[] bytes, int position) {
+        if (Double.isNaN(value)) {
+            return put(NAN, bytes, position);
+        }
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            return put(INFINITY, bytes, position);
+        }
+        if (value == 0) {
+            bytes[position++] = '0';
+            return position;
+        }
+
+        if (value < MIN_SCALED_VALUE) {
+            return put(new BigDecimal(value).round(ROUNDING).stripTrailingZeros().toString().getBytes(StandardCharsets.US_ASCII),
+                    bytes, position);
+        }
+
+        int exponent = (int) Math.floor(Math.getExponent(value) * LOG10_2);
+        double scaled = scaleEstimate(value, SIGNIFICANT_DIGITS - 1 - exponent);
+        if (scaled < LOW_MANTISSA) {
+            --exponent;
+        } else if (scaled >= HIGH_MANTISSA) {
+            ++exponent;
+        }
+
+        long mantissa = scale(value, SIGNIFICANT_DIGITS - 1 - exponent);
+        if (mantissa >= HIGH_MANTISSA) {
+            mantissa /= 10;
+            ++exponent;
+        }
+
+        int digits = SIGNIFICANT_DIGITS;
+        while (digits > 1 && mantissa % 10 == 0) {
+            mantissa /= 10;
+            --digits;
+        }
+
+        if (exponent >= -5 && exponent < SIGNIFICANT_DIGITS) {
+            if (exponent < 0) {
+                bytes[position++] = '0';
+                bytes[position++] = '.';
+                for (int k = -1; k > exponent; --k) {
+                    bytes[position++] = '0';
+                }
+                return putDigits(mantissa, digits, bytes, position);
+            }
+
+            int integerDigits = exponent + 1;
+            if (digits <= integerDigits) {
+                position = putDigits(mantissa, digits, bytes, position);
+                for (int k = digits; k < integerDigits; ++k) {
+                    bytes[position++] = '0';
+                }
+                return position;
+            }
+
+            long divider = (long) POWERS_OF_TEN[digits - integerDigits];
+            position = putDigits(mantissa / divider, integerDigits, bytes, position);
+            bytes[position++] = '.';
+            return putDigits(mantissa % divider, digits - integerDigits, bytes, position);
+        }
+
+        long divider = (long) POWERS_OF_TEN[digits - 1];
+        bytes[position++] = (byte) ('0' + mantissa / divider);
+        if (digits > 1) {
+            bytes[position++] = '.';
+            position = putDigits(mantissa % divider, digits - 1, bytes, position);
+        }
+        bytes[position++] = 'E';
+        if (exponent < 0) {
+            bytes[position++] = '-';
+            exponent = -exponent;
+        }
+        return putDigits(exponent, (exponent >= 100) ? 3 : (exponent >= 10) ? 2 : 1, bytes, position);
+    }
+
+    private static double scaleEstimate(double value, int power) {
+        return value * POWERS_HIGH[power + POWER_OFFSET];
+    }
+
+    /**
+     * Rounds value * 10^power to long, half up.
+     * Power of ten is stored as the sum of two doubles and the product error is taken by fma,
+     * so the rounding is right for all but the values within 1e-16 of the half
+     */
+    private static long scale(double value, int power) {
+        double high = POWERS_HIGH[power + POWER_OFFSET];
+        double product = value * high;
+        double error = Math.fma(value, high, -product) + value * POWERS_LOW[power + POWER_OFFSET];
+
+        double floor = Math.floor(product);
+        double fraction = (product - floor) + error;
+        if (fraction < 0) {
+            floor -= 1;
+            fraction += 1;
+        } else if (fraction >= 1) {
+            floor += 1;
+            fraction -= 1;
+        }
+        return (long) floor + ((fraction >= 0.5) ? 1 : 0);
+    }
+
+    /**
+     * Writes exactly count digits of the value, leading zeroes included
+     */
+    private static int putDigits(long value, int count, byte[] bytes, int position) {
+        int k = position + count - 1;
+        for (; k > position; k -= 2) {
+            int pair = (int) (value % 100);
+            value /= 100;
+            bytes[k] = DIGIT_PAIRS[2 * pair + 1];
+            bytes[k - 1] = DIGIT_PAIRS[2 * pair];
+        }
+        if (k == position) {
+            bytes[k] = (byte) ('0' + value % 10);
+        }
+        return position + count;
+    }
+
+    private static int put(byte[] source, byte[] bytes, int position) {
+        System.arraycopy(source, 0, bytes, position, source.length);
+        return position + source.length;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
@@ -0,0 +1,262 @@
+package batch.app.phys;
+
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.expression.Expression;
+import ohm.low.phys.metrics.Metrics;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Headless simulator, reads circuit rows and writes solved values as CSV.
+ * Every input row is either "emf,r,R" for one circuit or "emf,r,Rmin,Rmax,N" for N circuits
+ * with external resistance from Rmin to Rmax, both included.
+ * Every output row is "emf,r,R,I,Uext,Uint,Pfull,Ploss,Pext" followed by the derived columns, if any.
+ * Input and output are streamed through fixed buffers, so memory does not depend on the data size
+ */
+public class BatchSimulator {
+    /**
+     * First line of the output
+     */
+    public static final String HEADER = "emf,r,R,I,Uext,Uint,Pfull,Ploss,Pext";
+
+    private static final String USAGE = "Usage: --batch [--column name=formula]... [input.csv|- [output.csv|-]]";
+    private static final String COLUMN_OPTION = "--column";
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_INPUT_FIELDS = 5;
+    private static final int OUTPUT_FIELDS = 9;
+
+    private final PrintStream errors;
+    private final int bufferSize;
+    private final CircuitState state = new CircuitState();
+    private final double[] input = new double[MAX_INPUT_FIELDS];
+    private String header = HEADER;
+    private Expression[] columns = new Expression[0];
+    private double[] output = new double[OUTPUT_FIELDS];
+
+    private long rowCount;
+    private long resultCount;
+    private long errorCount;
+
+    /**
+     * @param errors Stream to report wrong rows to
+     */
+    public BatchSimulator(PrintStream errors) {
+        this(errors, BUFFER_SIZE);
+    }
+
+    /**
+     * @param errors Stream to report wrong rows to
+     * @param bufferSize Size of the input and output buffers, the longest line must fit in it [ Bytes ]
+     */
+    public BatchSimulator(PrintStream errors, int bufferSize) {
+        this.errors = errors;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Adds derived column after the solved values
+     * @param name Column name in the header
+     * @param expression Value of the column
+     * @throws IllegalArgumentException If the name is empty or has commas or spaces
+     */
+    public void addColumn(String name, Expression expression) {
+        if (name.isEmpty() || name.chars().anyMatch(c -> c == ',' || Character.isWhitespace(c))) {
+            throw new IllegalArgumentException("Wrong column name \"" + name + "\"");
+        }
+        header = header + ',' + name;
+        columns = Arrays.copyOf(columns, columns.length + 1);
+        columns[columns.length - 1] = expression;
+        output = new double[OUTPUT_FIELDS + columns.length];
+    }
+
+    /**
+     * Runs simulator from the command line
+     * @param args Derived columns as "--column name=formula", then input and output file names,
+     *             "-" or nothing for standard input and output
+     * @return Process exit code: 0 if all the rows are solved, 1 if some rows are wrong, 2 if it failed
+     */
+    public static int run(String[] args) {
+        BatchSimulator simulator = new BatchSimulator(System.err);
+        int first = 0;
+        try {
+            while (first + 1 < args.length && args[first].equals(COLUMN_OPTION)) {
+                String column = args[first + 1];
+                int split = column.indexOf('=');
+                if (split < 0) {
+                    throw new IllegalArgumentException("Column \"" + column + "\" is not name=formula");
+                }
+                simulator.addColumn(column.substring(0, split).trim(),
+                        Expression.parse(column.substring(split + 1)));
+                first += 2;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+        if (args.length - first > 2 || (first < args.length && args[first].equals(COLUMN_OPTION))) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        String inputName = (args.length > first) ? args[first] : "-";
+        String outputName = (args.length > first + 1) ? args[first + 1] : "-";
+        try (ReadableByteChannel in = openInput(inputName);
+             WritableByteChannel out = openOutput(outputName)) {
+            simulator.run(in, out);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 2;
+        }
+
+        if (Metrics.ENABLED) {
+            System.err.print(Metrics.snapshot());
+        }
+        return (simulator.getErrorCount() == 0) ? 0 : 1;
+    }
+
+    /**
+     * Solves all the rows of the input
+     * @param in Channel with CSV rows
+     * @param out Channel for the results
+     * @throws IOException If reading or writing fails
+     */
+    public void run(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        CsvRowReader reader = new CsvRowReader(in, bufferSize);
+        CsvRowWriter writer = new CsvRowWriter(out, bufferSize, output.length);
+        writer.writeLine(header);
+
+        int count;
+        while ((count = reader.readRow(input)) >= 0) {
+            ++rowCount;
+            if (reader.isMalformed()) {
+                error(reader, "value is not a number");
+            } else if (count == 3) {
+                solveRow(reader, writer);
+            } else if (count == 5) {
+                solveSweep(reader, writer);
+            } else {
+                error(reader, "expected 3 or 5 values, found " + count);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * @return Count of the read rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return Count of the written results
+     */
+    public long getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * @return Count of the wrong rows
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    private void solveRow(CsvRowReader reader, CsvRowWriter writer) throws IOException {
+        double emf = input[0];
+        double internalResistance = input[1];
+        double externalResistance = input[2];
+        if (checkParameters(reader, emf, internalResistance, externalResistance, externalResistance)) {
+            write(writer, emf, internalResistance, externalResistance);
+        }
+    }
+
+    private void solveSweep(CsvRowReader reader, CsvRowWriter writer) throws IOException {
+        double emf = input[0];
+        double internalResistance = input[1];
+        double minResistance = input[2];
+        double maxResistance = input[3];
+        double steps = input[4];
+        if (!checkParameters(reader, emf, internalResistance, minResistance, maxResistance)) {
+            return;
+        }
+        if (!(steps >= 1) || steps != Math.rint(steps) || steps > Long.MAX_VALUE) {
+            error(reader, "sweep points count is not a positive integer");
+            return;
+        }
+
+        long count = (long) steps;
+        double range = maxResistance - minResistance;
+        for (long i = 0; i < count; ++i) {
+            double resistance = (count == 1) ? minResistance : minResistance + range * i / (count - 1);
+            write(writer, emf, internalResistance, resistance);
+        }
+    }
+
+    private boolean checkParameters(CsvRowReader reader, double emf, double internalResistance,
+                                    double minResistance, double maxResistance) {
+        if (emf < 0) {
+            error(reader, "EMF is lesser than zero");
+            return false;
+        }
+        if (internalResistance < 0 || minResistance < 0 || maxResistance < 0) {
+            error(reader, "Resistance value lower than zero");
+            return false;
+        }
+        if (Double.isInfinite(emf) || Double.isInfinite(internalResistance)
+                || Double.isInfinite(minResistance) || Double.isInfinite(maxResistance)) {
+            error(reader, "value is infinite");
+            return false;
+        }
+        return true;
+    }
+
+    private void write(CsvRowWriter writer, double emf, double internalResistance, double externalResistance)
+            throws IOException {
+        state.solve(emf, internalResistance, externalResistance);
+        output[0] = emf;
+        output[1] = internalResistance;
+        output[2] = externalResistance;
+        output[3] = state.getCurrent();
+        output[4] = state.getExternalResistorVoltage();
+        output[5] = state.getInternalResistorVoltage();
+        output[6] = state.getFullPower();
+        output[7] = state.getPowerLoss();
+        output[8] = state.getExternalPower();
+        for (int i = 0; i < columns.length; ++i) {
+            output[OUTPUT_FIELDS + i] = columns[i].evaluate(state);
+        }
+        writer.writeRow(output, output.length);
+        ++resultCount;
+    }
+
+    private void error(CsvRowReader reader, String message) {
+        ++errorCount;
+        errors.println("Line " + reader.getLine() + ": " + message);
+    }
+
+    private static ReadableByteChannel openInput(String name) throws IOException {
+        if (name.equals("-")) {
+            return new FileInputStream(FileDescriptor.in).getChannel();
+        }
+        return FileChannel.open(Paths.get(name), StandardOpenOption.READ);
+    }
+
+    private static WritableByteChannel openOutput(String name) throws IOException {
+        if (name.equals("-")) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        return FileChannel.open(Paths.get(name), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
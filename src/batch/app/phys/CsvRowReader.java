@@ -0,0 +1,137 @@
+package batch.app.phys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads rows of comma separated numbers from the channel through one reused buffer.
+ * Empty lines, lines starting with '#' (comments) and the first line if it starts with a letter (header) are skipped,
+ * any other line is a row, so a row of not numbers is reported as malformed
+ */
+class CsvRowReader {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+
+    private int position;
+    private boolean endOfInput;
+    private long line;
+    private boolean malformed;
+
+    /**
+     * @param channel Channel to read from
+     * @param bufferSize Size of the buffer, the longest line must fit in it [ Bytes ]
+     */
+    CsvRowReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(bufferSize);
+        buffer.limit(0);
+        bytes = buffer.array();
+    }
+
+    /**
+     * Reads next row with numbers
+     * @param fields Destination of the row values
+     * @return Count of the values in the row, may be greater than fields length; -1 if there are no more rows
+     * @throws IOException If channel fails or line does not fit into the buffer
+     */
+    int readRow(double[] fields) throws IOException {
+        while (true) {
+            int end = findLineEnd();
+            if (end < 0) {
+                return -1;
+            }
+
+            int start = position;
+            position = (end < buffer.limit()) ? end + 1 : end;
+            ++line;
+
+            if (end > start && bytes[end - 1] == '\r') {
+                --end;
+            }
+            int first = start;
+            while (first < end && (bytes[first] == ' ' || bytes[first] == '\t')) {
+                ++first;
+            }
+            if (first == end || bytes[first] == '#' || (line == 1 && isLetter(bytes[first]))) {
+                continue;
+            }
+
+            return parseFields(first, end, fields);
+        }
+    }
+
+    /**
+     * @return Number of the last read line, starting from 1
+     */
+    long getLine() {
+        return line;
+    }
+
+    /**
+     * @return true if any field of the last row is not a number
+     */
+    boolean isMalformed() {
+        return malformed;
+    }
+
+    private int parseFields(int from, int to, double[] fields) {
+        malformed = false;
+        int count = 0;
+        int fieldStart = from;
+        for (int i = from; i <= to; ++i) {
+            if (i == to || bytes[i] == ',') {
+                double value = AsciiDoubles.parse(bytes, fieldStart, i);
+                malformed |= Double.isNaN(value);
+                if (count < fields.length) {
+                    fields[count] = value;
+                }
+                ++count;
+                fieldStart = i + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the end of the current line, reads the channel if the line is not complete in the buffer
+     * @return Index of the line feed or the end of input, -1 if there is no more input
+     */
+    private int findLineEnd() throws IOException {
+        int scanned = position;
+        while (true) {
+            int limit = buffer.limit();
+            for (int i = scanned; i < limit; ++i) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+
+            if (endOfInput) {
+                return (position < limit) ? limit : -1;
+            }
+
+            int length = limit - position;
+            if (position > 0) {
+                System.arraycopy(bytes, position, bytes, 0, length);
+                position = 0;
+            } else if (length == buffer.capacity()) {
+                throw new IOException("Line " + (line + 1) + " is longer than " + buffer.capacity() + " bytes");
+            }
+            scanned = length;
+
+            buffer.clear().position(length);
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            endOfInput = read < 0;
+            buffer.flip();
+        }
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+}
@@ -0,0 +1,79 @@
+package batch.app.phys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes rows of comma separated numbers to the channel through one reused buffer
+ */
+class CsvRowWriter {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final int flushThreshold;
+
+    private int position;
+
+    /**
+     * @param channel Channel to write to
+     * @param bufferSize Size of the buffer [ Bytes ]
+     * @param maxFields Max count of values in one row
+     */
+    CsvRowWriter(WritableByteChannel channel, int bufferSize, int maxFields) {
+        flushThreshold = bufferSize - maxFields * (AsciiDoubles.MAX_LENGTH + 1);
+        if (flushThreshold <= 0) {
+            throw new IllegalArgumentException("Buffer is too small for the row");
+        }
+
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(bufferSize);
+        bytes = buffer.array();
+    }
+
+    /**
+     * Writes text line as is
+     * @param text ASCII text without line feed
+     * @throws IOException If channel fails
+     */
+    void writeLine(String text) throws IOException {
+        flush();
+        ByteBuffer line = ByteBuffer.wrap((text + '\n').getBytes(StandardCharsets.US_ASCII));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+    }
+
+    /**
+     * Writes row of values
+     * @param values Values to write
+     * @param count Count of values from the start of the array
+     * @throws IOException If channel fails
+     */
+    void writeRow(double[] values, int count) throws IOException {
+        if (position > flushThreshold) {
+            flush();
+        }
+
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                bytes[position++] = ',';
+            }
+            position = AsciiDoubles.format(values[i], bytes, position);
+        }
+        bytes[position++] = '\n';
+    }
+
+    /**
+     * Writes all the buffered rows to the channel
+     * @throws IOException If channel fails
+     */
+    void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+}
@@ -0,0 +1,100 @@
+package gui.app.phys;
+
+/**
+ * Reduces a curve to the given count of points with the Largest-Triangle-Three-Buckets algorithm.
+ * Points with min and max y are always kept, so peaks of the curve stay on the chart
+ */
+final class Downsampler {
+    private Downsampler() {
+
+    }
+
+    /**
+     * Selects points to draw
+     * @param x X values, monotone
+     * @param y Y values
+     * @param size Count of points of the curve
+     * @param threshold Count of points to keep, at least 3
+     * @return Indices of the kept points, ascending
+     */
+    static int[] select(double[] x, double[] y, int size, int threshold) {
+        if (threshold >= size || threshold < 3) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; ++i) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] indices = new int[threshold + 2];
+        int count = 0;
+        indices[count++] = 0;
+
+        double every = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; ++bucket) {
+            int averageFrom = (int) ((bucket + 1) * every) + 1;
+            int averageTo = Math.min((int) ((bucket + 2) * every) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = averageFrom; i < averageTo; ++i) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int averageCount = averageTo - averageFrom;
+            averageX /= averageCount;
+            averageY /= averageCount;
+
+            int rangeFrom = (int) (bucket * every) + 1;
+            int rangeTo = (int) ((bucket + 1) * every) + 1;
+            int selected = rangeFrom;
+            double maxArea = -1;
+            for (int i = rangeFrom; i < rangeTo; ++i) {
+                double area = Math.abs((x[a] - averageX) * (y[i] - y[a]) - (x[a] - x[i]) * (averageY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+
+            indices[count++] = selected;
+            a = selected;
+        }
+        indices[count++] = size - 1;
+
+        int min = 0;
+        int max = 0;
+        for (int i = 1; i < size; ++i) {
+            if (y[i] < y[min]) {
+                min = i;
+            }
+            if (y[i] > y[max]) {
+                max = i;
+            }
+        }
+        count = insert(indices, count, min);
+        count = insert(indices, count, max);
+
+        int[] result = new int[count];
+        System.arraycopy(indices, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Inserts index into the ascending array if it is not there
+     * @return New count of indices
+     */
+    private static int insert(int[] indices, int count, int index) {
+        int position = 0;
+        while (position < count && indices[position] < index) {
+            ++position;
+        }
+        if (position < count && indices[position] == index) {
+            return count;
+        }
+
+        System.arraycopy(indices, position, indices, position + 1, count - position);
+        indices[position] = index;
+        return count + 1;
+    }
+}
@@ -1,122 +1,535 @@
 package gui.app.phys;
 
+import ohm.low.phys.AdaptiveSampler;
+import ohm.low.phys.CircuitSnapshot;
+import ohm.low.phys.CircuitSweep;
+import ohm.low.phys.CompactSweep;
 import ohm.low.phys.DCPowerSupplyConnection;
-import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.SweepCache;
+import ohm.low.phys.SweepColumn;
+import ohm.low.phys.SweepPrecision;
 import ohm.low.phys.base.Potentiometer;
-import org.knowm.xchart.QuickChart;
+import ohm.low.phys.expression.Expression;
 import org.knowm.xchart.XChartPanel;
+import org.knowm.xchart.XYChart;
+import org.knowm.xchart.XYSeries;
+import org.knowm.xchart.style.markers.SeriesMarkers;
 
 import javax.swing.*;
+
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 class GraphsCreator {
-    private DCPowerSupplyConnection circuit;
-    private Potentiometer potentiometer;
-
-    private double[] current;
-    private double[] uExt;
-    private double[] uInt;
-    private double[] pFull;
-    private double[] pLoss;
-    private double[] pExt;
-
-    private JPanel uPanel;
-    private JPanel pPanel;
+    private static final double SHORT_CIRCUIT_OFFSET = 0.000001;
+    private static final double SAMPLING_TOLERANCE = 0.0001;
+    private static final int SAMPLING_MAX_POINTS = 40000;
+    private static final int COARSE_INTERVALS = 32;
+
+    private static final int CHART_WIDTH = 600;
+    private static final int CHART_HEIGHT = 400;
+    private static final int POINTS_PER_PIXEL = 2;
+    private static final double ZOOM_STEP = 1.25;
+
+    private static final String[] U_SERIES = {"Uexternal", "Uinternal"};
+    private static final String[] P_SERIES = {"Pexternal", "Ploss", "Pfull"};
+    private static final SweepColumn[] U_COLUMNS = {SweepColumn.EXTERNAL_VOLTAGE, SweepColumn.INTERNAL_VOLTAGE};
+    private static final SweepColumn[] P_COLUMNS =
+            {SweepColumn.EXTERNAL_POWER, SweepColumn.POWER_LOSS, SweepColumn.FULL_POWER};
+    private static final String FORMULA_SEPARATOR = ";";
+
+    /**
+     * Sampler not used by any worker, a worker takes it or creates its own when the previous one is still running
+     */
+    private final AtomicReference<AdaptiveSampler> idleSampler =
+            new AtomicReference<>(new AdaptiveSampler(SAMPLING_TOLERANCE, SAMPLING_MAX_POINTS));
+    private final SweepCache cache;
+    private SweepWorker worker;
+
+    private double emf;
+    private double internalResistance;
+    private double minResistance;
+    private double maxResistance;
+
+    private CompactSweep sweep;
+
+    private double fullMinCurrent;
+    private double fullMaxCurrent;
+    private double minCurrent;
+    private double maxCurrent;
+
+    private ZoomableChart uChart;
+    private ZoomableChart pChart;
+    private XChartPanel<XYChart> uPanel;
+    private XChartPanel<XYChart> pPanel;
     private Container container = new Container();
+    private final Container charts = new Container();
+    private final JTextField formulaField = new JTextField();
+
+    /**
+     * Derived quantities shown on the third chart, the chart is there only if the list is not empty
+     */
+    private List<Expression> expressions = new ArrayList<>();
+    private ZoomableChart fChart;
+    private XChartPanel<XYChart> fPanel;
+
+    private final long createdTime = System.nanoTime();
+    private long firstPaintTime = -1;
+    private long lastPaintDuration = -1;
 
 
     /**
      * Creates object to print graphs describe circuit
      * @param connection Circuit with potentiometer connected as extenral resistor
+     * @param cache Cache of sampled sweeps shared between graphs
+     * @param formulas Derived quantities to show, separated by ";", wrong formulas are left in the field to edit
      */
-    GraphsCreator(DCPowerSupplyConnection connection) throws IllegalArgumentException {
+    GraphsCreator(DCPowerSupplyConnection connection, SweepCache cache, String formulas)
+            throws IllegalArgumentException {
+        this.cache = cache;
         if (! (connection.getExternalResistor() instanceof Potentiometer)) {
             throw new IllegalArgumentException("Wrong argument: External resistor not a potentiometer");
         }
 
-        var pTemp = (Potentiometer) connection.getExternalResistor();
+        var circuit = CircuitSnapshot.of(connection);
+        maxResistance = ((Potentiometer) connection.getExternalResistor()).getMaxResistance();
+
+        emf = circuit.getPowerSupply().getEmf();
+        internalResistance = circuit.getPowerSupply().getInternalResistor().getResistance();
+        minResistance = (internalResistance == 0) ? SHORT_CIRCUIT_OFFSET : 0;
+
+        calculateCoarseValues(minResistance, maxResistance);
+        fullMinCurrent = minCurrent;
+        fullMaxCurrent = maxCurrent;
+
+        createPanels();
+        charts.setLayout(new GridLayout(1, 0, 10, 10));
+        charts.add(uPanel);
+        charts.add(pPanel);
+
+        JPanel formulaPanel = new JPanel(new BorderLayout(10, 10));
+        formulaPanel.add(new JLabel("f(I) ="), BorderLayout.WEST);
+        formulaPanel.add(formulaField, BorderLayout.CENTER);
+        formulaField.setToolTipText("Formulas of emf, r, R, I, Uext, Uint, Pfull, Ploss, Pext separated by \""
+                + FORMULA_SEPARATOR + "\", e.g. Pext / Pfull");
+        formulaField.setText(formulas);
+        formulaField.addActionListener(e -> applyFormulas());
+
+        container.setLayout(new BorderLayout(10, 10));
+        container.add(formulaPanel, BorderLayout.NORTH);
+        container.add(charts, BorderLayout.CENTER);
         try {
-            potentiometer = new Potentiometer(pTemp.getMaxResistance());
-        } catch (WrongPhysicsParameterException e) {
-            throw new RuntimeException();
+            setExpressions(parseFormulas(formulas));
+        } catch (IllegalArgumentException e) {
+            setExpressions(new ArrayList<>());
         }
 
-        circuit = new DCPowerSupplyConnection(connection.getPowerSupply(), potentiometer);
+        sampleInBackground(minResistance, maxResistance);
+    }
 
-        calculateValues();
-        createPanels();
-        container.setLayout (new GridLayout(1, 2, 10, 10));
+    /**
+     * Calculates coarse curves for the range of external resistance to show them at once,
+     * the previous sampling is abandoned.
+     * Only the current is kept, voltages and powers are calculated when the series are updated
+     */
+    private void calculateCoarseValues(double fromResistance, double toResistance) {
+        cancel();
+
+        CircuitSweep coarse = new CircuitSweep(COARSE_INTERVALS + 1);
+        double[] resistance = coarse.getResistance();
+        double step = (toResistance - fromResistance) / COARSE_INTERVALS;
+        for (int i = 0; i <= COARSE_INTERVALS; ++i) {
+            resistance[i] = (i == COARSE_INTERVALS) ? toResistance : fromResistance + step * i;
+        }
+        coarse.calculate(emf, internalResistance);
+        setSweep(CompactSweep.of(coarse, emf, internalResistance, SweepPrecision.DOUBLE));
+    }
 
-        container.add(uPanel, BorderLayout.WEST);
-        container.add(pPanel, BorderLayout.EAST);
+    /**
+     * Samples shown coarse curves at full resolution in the background or takes them from the cache
+     */
+    private void sampleInBackground(double fromResistance, double toResistance) {
+        worker = new SweepWorker(fromResistance, toResistance, sweep.toArray(SweepColumn.CURRENT));
+        worker.execute();
     }
 
-    private void calculateValues() {
-        double resistanceValue = potentiometer.getMaxResistance();
+    private void setSweep(CompactSweep sweep) {
+        this.sweep = sweep;
+        minCurrent = Double.POSITIVE_INFINITY;
+        maxCurrent = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < sweep.getSize(); ++i) {
+            double current = sweep.getCurrent(i);
+            minCurrent = Math.min(minCurrent, current);
+            maxCurrent = Math.max(maxCurrent, current);
+        }
+    }
 
-        int STEPS;
-        if (resistanceValue < 1000) {
-            STEPS = 1000;
-        } else if (resistanceValue < 5000) {
-            STEPS = 5000;
-        } else if (resistanceValue < 10000){
-            STEPS = 20000;
-        } else {
-            STEPS = 40000;
+    private void createPanels() {
+        uChart = createChart("U(I)", "U, V", U_SERIES);
+        pChart = createChart("P(I)", "P, Watt", P_SERIES);
+        updateSeries();
+
+        uPanel = createPanel(uChart);
+        pPanel = createPanel(pChart);
+    }
+
+    private ZoomableChart createChart(String title, String yTitle, String[] seriesNames) {
+        var chart = new ZoomableChart(CHART_WIDTH, CHART_HEIGHT);
+        chart.setTitle(title);
+        chart.setXAxisTitle("I, A");
+        chart.setYAxisTitle(yTitle);
+        for (String name : seriesNames) {
+            chart.addSeries(name, new double[] {0}, new double[] {0}).setMarker(SeriesMarkers.NONE);
         }
+        return chart;
+    }
 
-        current = new double[STEPS];
-        uExt = new double[STEPS];
-        uInt = new double[STEPS];
-        pFull = new double[STEPS];
-        pLoss = new double[STEPS];
-        pExt = new double[STEPS];
+    private XChartPanel<XYChart> createPanel(ZoomableChart chart) {
+        XChartPanel<XYChart> panel = new XChartPanel<>(chart) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                long start = System.nanoTime();
+                super.paintComponent(g);
+                long end = System.nanoTime();
 
-        for (int i = 0; i < STEPS; ++i) {
-            double position = (double) i / STEPS * 100;
+                lastPaintDuration = end - start;
+                if (firstPaintTime < 0) {
+                    firstPaintTime = end - createdTime;
+                }
+            }
+        };
+
+        panel.addMouseWheelListener(e -> zoom(chart, e));
+        panel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    showRange(fullMinCurrent, fullMaxCurrent);
+                }
+            }
+        });
+        panel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateSeries();
+                repaint();
+            }
+        });
+        return panel;
+    }
+
+    /**
+     * Parses formulas of the field and shows them, wrong formula is reported and the shown ones are kept
+     */
+    private void applyFormulas() {
+        try {
+            setExpressions(parseFormulas(formulaField.getText()));
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(container, e.getMessage(), "Wrong formula", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Window window = SwingUtilities.getWindowAncestor(container);
+        if (window != null) {
+            window.pack();
+        }
+    }
+
+    private static List<Expression> parseFormulas(String formulas) {
+        List<Expression> parsed = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (String formula : formulas.split(FORMULA_SEPARATOR)) {
+            String text = formula.trim();
+            if (!text.isEmpty() && !texts.contains(text)) {
+                parsed.add(Expression.parse(text));
+                texts.add(text);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Replaces the chart of derived quantities, series are named by the formulas
+     */
+    private void setExpressions(List<Expression> expressions) {
+        this.expressions = expressions;
+        if (fPanel != null) {
+            charts.remove(fPanel);
+            fChart = null;
+            fPanel = null;
+        }
+
+        if (!expressions.isEmpty()) {
+            String[] names = new String[expressions.size()];
+            for (int i = 0; i < names.length; ++i) {
+                names[i] = expressions.get(i).getFormula();
+            }
+            fChart = createChart("f(I)", "f", names);
+            fPanel = createPanel(fChart);
+            charts.add(fPanel);
+        }
+        updateSeries();
+        charts.revalidate();
+        repaint();
+    }
+
+    /**
+     * Zooms both charts around the current value under the mouse
+     */
+    private void zoom(ZoomableChart chart, MouseWheelEvent event) {
+        double center = chart.toXValue(event.getX());
+        if (Double.isNaN(center) || !(fullMaxCurrent > fullMinCurrent)) {
+            return;
+        }
+
+        double factor = Math.pow(ZOOM_STEP, event.getPreciseWheelRotation());
+        center = Math.max(minCurrent, Math.min(maxCurrent, center));
+        showRange(center - (center - minCurrent) * factor, center + (maxCurrent - center) * factor);
+    }
+
+    /**
+     * Samples curves again for the range of current and shows them
+     */
+    private void showRange(double fromCurrent, double toCurrent) {
+        fromCurrent = Math.max(fullMinCurrent, fromCurrent);
+        toCurrent = Math.min(fullMaxCurrent, toCurrent);
+        if (!(toCurrent > fromCurrent)) {
+            return;
+        }
+
+        // Current falls while external resistance grows: R = EMF / I - r
+        double fromResistance = Math.max(minResistance, emf / toCurrent - internalResistance);
+        double toResistance = Math.min(maxResistance, emf / fromCurrent - internalResistance);
+        if (!(toResistance > fromResistance)) {
+            return;
+        }
+
+        calculateCoarseValues(fromResistance, toResistance);
+        updateSeries();
+        repaint();
+        sampleInBackground(fromResistance, toResistance);
+    }
+
+    /**
+     * Downsamples full resolution curves to the width of the panels and puts them to the charts.
+     * Full resolution columns are calculated from the current only for the update and are not kept
+     */
+    private void updateSeries() {
+        int threshold = POINTS_PER_PIXEL * getPlotWidth();
+        double[] current = sweep.toArray(SweepColumn.CURRENT);
+        double[] values = new double[current.length];
+        updateSeries(uChart, U_SERIES, U_COLUMNS, current, values, threshold);
+        updateSeries(pChart, P_SERIES, P_COLUMNS, current, values, threshold);
+        if (fChart != null) {
+            updateDerivedSeries(current, values, threshold);
+        }
+    }
+
+    private void updateSeries(ZoomableChart chart, String[] names, SweepColumn[] columns, double[] current,
+                              double[] values, int threshold) {
+        setCurrentRange(chart);
+
+        int size = current.length;
+        for (int s = 0; s < names.length; ++s) {
+            sweep.fill(columns[s], 0, size, values, 0);
+            int[] indices = Downsampler.select(current, values, size, threshold);
+            double[] x = new double[indices.length];
+            double[] y = new double[indices.length];
+            for (int i = 0; i < indices.length; ++i) {
+                x[i] = current[indices[i]];
+                y[i] = values[indices[i]];
+            }
+            chart.updateXYSeries(names[s], x, y, null);
+        }
+    }
+
+    /**
+     * Derived quantities may be infinite or not defined, e.g. 1 / R of the short circuit,
+     * such points are left out of the curve, the series without points is hidden
+     */
+    private void updateDerivedSeries(double[] current, double[] values, int threshold) {
+        setCurrentRange(fChart);
+
+        int size = current.length;
+        double[] finiteX = new double[size];
+        double[] finiteY = new double[size];
+        for (Expression expression : expressions) {
+            expression.fill(sweep, 0, size, values, 0);
+            int count = 0;
+            for (int i = 0; i < size; ++i) {
+                if (Double.isFinite(current[i]) && Double.isFinite(values[i])) {
+                    finiteX[count] = current[i];
+                    finiteY[count] = values[i];
+                    ++count;
+                }
+            }
+
+            XYSeries series;
+            if (count == 0) {
+                series = fChart.updateXYSeries(expression.getFormula(), new double[] {0}, new double[] {0}, null);
+            } else {
+                int[] indices = Downsampler.select(finiteX, finiteY, count, threshold);
+                double[] x = new double[indices.length];
+                double[] y = new double[indices.length];
+                for (int i = 0; i < indices.length; ++i) {
+                    x[i] = finiteX[indices[i]];
+                    y[i] = finiteY[indices[i]];
+                }
+                series = fChart.updateXYSeries(expression.getFormula(), x, y, null);
+            }
+            series.setEnabled(count > 0);
+        }
+    }
+
+    private void setCurrentRange(ZoomableChart chart) {
+        boolean hasRange = maxCurrent > minCurrent;
+        chart.getStyler().setXAxisMin(hasRange ? minCurrent : null);
+        chart.getStyler().setXAxisMax(hasRange ? maxCurrent : null);
+    }
+
+    private int getPlotWidth() {
+        int width = (uPanel == null) ? 0 : Math.max(uPanel.getWidth(), pPanel.getWidth());
+        return (width > 0) ? width : CHART_WIDTH;
+    }
+
+    private void repaint() {
+        uPanel.repaint();
+        pPanel.repaint();
+        if (fPanel != null) {
+            fPanel.repaint();
+        }
+    }
+
+    /**
+     * Abandons the background sampling, charts keep the curves shown
+     */
+    void cancel() {
+        if (worker != null) {
+            worker.cancel(false);
+            worker = null;
+        }
+    }
+
+    /**
+     * Samples the sweep at full resolution and publishes its points while they come.
+     * Shown curves are the sampled points followed by the coarse points not reached yet,
+     * so they are refined from the left to the right. Series are updated, charts are not created again
+     */
+    private final class SweepWorker extends SwingWorker<CompactSweep, double[]> {
+        private final double fromResistance;
+        private final double toResistance;
+        private final double[] coarse;
+
+        private double[] sampled = new double[4 * COARSE_INTERVALS];
+        private int sampledCount;
+
+        SweepWorker(double fromResistance, double toResistance, double[] coarse) {
+            this.fromResistance = fromResistance;
+            this.toResistance = toResistance;
+            this.coarse = coarse;
+        }
+
+        @Override
+        protected CompactSweep doInBackground() {
+            AdaptiveSampler sampler = idleSampler.getAndSet(null);
+            if (sampler == null) {
+                sampler = new AdaptiveSampler(SAMPLING_TOLERANCE, SAMPLING_MAX_POINTS);
+            }
             try {
-                potentiometer.setPosition(position);
-            } catch (WrongPhysicsParameterException e) {
-                throw new RuntimeException(e);
+                return cache.sample(sampler, emf, internalResistance, fromResistance, toResistance, points -> {
+                    publish(points);
+                    return !isCancelled();
+                });
+            } finally {
+                idleSampler.set(sampler);
             }
+        }
 
-            if (circuit.getCurrent() == Double.POSITIVE_INFINITY) {
-                try {
-                    potentiometer.setResistance(potentiometer.getResistance() + 0.000001);
-                } catch (WrongPhysicsParameterException e) {
-                    throw new RuntimeException(e);
+        @Override
+        protected void process(List<double[]> chunks) {
+            if (isCancelled()) {
+                return;
+            }
+
+            for (double[] chunk : chunks) {
+                if (sampledCount + chunk.length > sampled.length) {
+                    double[] grown = new double[Math.max(2 * sampled.length, sampledCount + chunk.length)];
+                    System.arraycopy(sampled, 0, grown, 0, sampledCount);
+                    sampled = grown;
                 }
+                System.arraycopy(chunk, 0, sampled, sampledCount, chunk.length);
+                sampledCount += chunk.length;
+            }
+
+            // Current falls while external resistance grows, coarse points not reached have lesser current
+            double last = sampled[sampledCount - 1];
+            int tail = 0;
+            while (tail < coarse.length && coarse[tail] >= last) {
+                ++tail;
             }
+            double[] current = new double[sampledCount + coarse.length - tail];
+            System.arraycopy(sampled, 0, current, 0, sampledCount);
+            System.arraycopy(coarse, tail, current, sampledCount, coarse.length - tail);
 
-            current[i] = circuit.getCurrent();
-            uExt[i] = circuit.getExternalResistorVoltage();
-            uInt[i] = circuit.getInternalResistorVoltage();
-            pFull[i] = circuit.getFullPower();
-            pExt[i] = circuit.getExternalPower();
-            pLoss[i] = circuit.getPowerLoss();
+            setSweep(CompactSweep.of(emf, internalResistance, current, SweepPrecision.DOUBLE));
+            updateSeries();
+            repaint();
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+
+            try {
+                CompactSweep full = get();
+                if (full != null) {
+                    setSweep(full);
+                    updateSeries();
+                    repaint();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Coarse curves stay on the charts, only the refinement is lost
+                JOptionPane.showMessageDialog(container, "Curves are not refined: " + e.getCause(),
+                        "Sweep sampling failed", JOptionPane.WARNING_MESSAGE);
+            }
         }
     }
 
-    private void createPanels() {
-        var uChart = QuickChart.getChart("U(I)",
-                "I, A",
-                "U, V",
-                new String[] {"Uexternal", "Uinternal"},
-                current,
-                new double[][] { uExt, uInt });
-        uPanel = new XChartPanel<>(uChart);
-
-        var pChart = QuickChart.getChart("P(I)",
-                "I, A",
-                "P, Watt",
-                new String[]{"Pexternal", "Ploss", "Pfull"},
-                current,
-                new double[][] { pExt, pLoss, pFull });
-        pPanel = new XChartPanel<>(pChart);
+    /**
+     * @return Time from creation to the end of the first chart paint, -1 if charts were not painted [ Nanoseconds ]
+     */
+    long getFirstPaintTime() {
+        return firstPaintTime;
+    }
+
+    /**
+     * @return Duration of the last chart paint, -1 if charts were not painted [ Nanoseconds ]
+     */
+    long getLastPaintDuration() {
+        return lastPaintDuration;
     }
 
     Container getContainer() {
         return container;
     }
 
+    /**
+     * @return Text of the formula field
+     */
+    String getFormulas() {
+        return formulaField.getText();
+    }
+
 }
@@ -0,0 +1,72 @@
+package gui.app.phys;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last latency samples and reports their percentiles
+ */
+class LatencyRecorder {
+    private final long[] samples;
+    private long count;
+    private long max;
+    private long last;
+
+    /**
+     * @param capacity Count of the last samples percentiles are calculated for
+     */
+    LatencyRecorder(int capacity) {
+        samples = new long[capacity];
+    }
+
+    /**
+     * @param latency Latency of one event [ Nanoseconds ]
+     */
+    synchronized void record(long latency) {
+        samples[(int) (count % samples.length)] = latency;
+        ++count;
+        last = latency;
+        max = Math.max(max, latency);
+    }
+
+    /**
+     * @return Count of all recorded samples
+     */
+    synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Last recorded latency [ Nanoseconds ]
+     */
+    synchronized long getLast() {
+        return last;
+    }
+
+    /**
+     * @return Max recorded latency [ Nanoseconds ]
+     */
+    synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * @param probability Probability in range [0..1]
+     * @return Latency percentile of the last samples, 0 if there are no samples [ Nanoseconds ]
+     */
+    synchronized long getPercentile(double probability) {
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(size - 1, Math.round(probability * (size - 1)))];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("latency: n=%d, last=%.2f ms, p50=%.2f ms, p99=%.2f ms, max=%.2f ms",
+                count, last / 1e6, getPercentile(0.5) / 1e6, getPercentile(0.99) / 1e6, max / 1e6);
+    }
+}
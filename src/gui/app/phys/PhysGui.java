@@ -1,21 +1,42 @@
 package gui.app.phys;
 
+import com.intellij.uiDesigner.core.GridConstraints;
+import com.intellij.uiDesigner.core.GridLayoutManager;
+import com.intellij.uiDesigner.core.Spacer;
+import ohm.low.phys.CircuitState;
 import ohm.low.phys.DCPowerSupplyConnection;
 import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.SweepCache;
+import ohm.low.phys.SweepPrecision;
 import ohm.low.phys.base.DCPowerSupply;
 import ohm.low.phys.base.FixedResistor;
 import ohm.low.phys.base.Potentiometer;
+import ohm.low.phys.metrics.Metrics;
 
 import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.plaf.FontUIResource;
+import javax.swing.text.StyleContext;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
 
 public class PhysGui extends JFrame {
     private enum Status {STOPPED, ACTIVE}
     private Status status = Status.STOPPED;
 
     private static final int SLIDER_MAX = 10_000_000;
+    private static final int FRAME_RATE = 60;
+    private static final boolean REPORT_LATENCY = Boolean.getBoolean("ohm.gui.latency");
+    private static final boolean STARTUP_PROBE = Boolean.getBoolean("ohm.gui.startupProbe");
+    private static final long SWEEP_CACHE_BYTES = Long.getLong("ohm.gui.sweepCacheBytes", 32L << 20);
+    private static final String GRAPH_FORMULAS = System.getProperty("ohm.gui.formulas", "");
+    private static final SweepPrecision SWEEP_PRECISION =
+            parsePrecision(System.getProperty("ohm.gui.sweepPrecision"));
     private static final String LABEL_STOPPED = "STATUS: STOPPED";
     private static final String LABEL_ACTIVE_NORMAL = "STATUS: NORMAL";
     private static final String LABEL_ACTIVE_SHORT_CIRCUIT = "STATUS: SHORT CIRCUIT";
@@ -40,8 +61,37 @@ public class PhysGui extends JFrame {
     private Potentiometer externalResistor;
     private DCPowerSupply powerSupply;
     private DCPowerSupplyConnection circuit;
+    private final CircuitState circuitState = new CircuitState();
+    private final SolvePipeline solvePipeline = new SolvePipeline(this::showState, FRAME_RATE);
+    private final SweepCache sweepCache = new SweepCache(SWEEP_CACHE_BYTES, SWEEP_PRECISION);
 
-    private JFrame graphsFrame = new JFrame();
+    private final Image iconImage;
+    /**
+     * Created on the first capture, so neither the frame nor XChart classes are loaded before the first window
+     */
+    private JFrame graphsFrame;
+    private GraphsCreator graphsCreator;
+    /**
+     * Derived quantities of the graphs, kept from one capture to the next
+     */
+    private String graphFormulas = GRAPH_FORMULAS;
+
+    /**
+     * Wrong property value must not fail the class initialization, so it falls back to the default
+     * @param value Property value, DOUBLE, FLOAT or QUANTIZED, may be null
+     * @return Sweep cache precision, DOUBLE if value is null or unknown
+     */
+    static SweepPrecision parsePrecision(String value) {
+        if (value == null) {
+            return SweepPrecision.DOUBLE;
+        }
+        try {
+            return SweepPrecision.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown sweep precision " + value + ", DOUBLE is used");
+            return SweepPrecision.DOUBLE;
+        }
+    }
 
     /**
      * Creates GUI for interactive Ohm's law simulator control panel
@@ -49,15 +99,10 @@ public class PhysGui extends JFrame {
     public PhysGui() {
         super("Ohm's Law simulator for DC circuit");
 
-        Image img = Toolkit.getDefaultToolkit().getImage(getClass().getClassLoader().getResource("img/ico.png"));
-        setIconImage(img);
+        iconImage = Toolkit.getDefaultToolkit().getImage(getClass().getClassLoader().getResource("img/ico.png"));
+        setIconImage(iconImage);
         setTitle("Ohm's Law simulator for DC circuit");
 
-        graphsFrame.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
-        graphsFrame.setVisible(false);
-        graphsFrame.setIconImage(img);
-        graphsFrame.setTitle("Ohm's Law simulator graphs");
-
         loadImage();
         fillFieldsZeroes();
         updateModeButton();
@@ -70,19 +115,50 @@ public class PhysGui extends JFrame {
         setContentPane(mainPanel);
         pack();
         centring(this);
+        if (STARTUP_PROBE) {
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    reportStartup();
+                }
+            });
+        }
         setVisible(true);
     }
 
     /**
-     * Loads image with circuit from img/circuit.png
+     * Loads image with circuit from img/circuit-350x200.png, the image is scaled beforehand,
+     * so nothing is scaled on the event thread before the first frame
      */
     private void loadImage() {
-        Image image = Toolkit.getDefaultToolkit().getImage(getClass().getClassLoader().getResource("img/circuit.png"));
+        imageLabel.setIcon(new ImageIcon(getClass().getClassLoader().getResource("img/circuit-350x200.png")));
+    }
+
+    /**
+     * Prints time from the JVM start to the first frame and exits, used by StartupBenchmark and StartupArchive
+     */
+    private static void reportStartup() {
+        long now = System.currentTimeMillis();
+        System.out.println("first frame " + (now - ManagementFactory.getRuntimeMXBean().getStartTime()) + " ms");
+        System.out.flush();
+        SwingUtilities.invokeLater(() -> System.exit(0));
+    }
 
-        int width = 350;
-        int height = 200;
-        image = image.getScaledInstance(width, height, java.awt.Image.SCALE_SMOOTH);
-        imageLabel.setIcon(new ImageIcon(image));
+    /**
+     * Creates hidden frame for the graphs
+     */
+    private JFrame createGraphsFrame() {
+        JFrame frame = new JFrame();
+        frame.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        frame.setIconImage(iconImage);
+        frame.setTitle("Ohm's Law simulator graphs");
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                closeGraphs();
+            }
+        });
+        return frame;
     }
 
     /**
@@ -165,6 +241,16 @@ public class PhysGui extends JFrame {
      * Stop doing simulating
      */
     private void stopSimulation() {
+        solvePipeline.stop();
+        if (REPORT_LATENCY) {
+            System.err.println("Slider " + solvePipeline.getLatency()
+                    + ", dropped=" + solvePipeline.getDroppedCount());
+            System.err.println(sweepCache);
+        }
+        if (Metrics.ENABLED) {
+            System.err.print(Metrics.snapshot());
+        }
+
         status = Status.STOPPED;
         updateModeButton();
         captureButton.setEnabled(false);
@@ -234,6 +320,7 @@ public class PhysGui extends JFrame {
 
         circuit = new DCPowerSupplyConnection(powerSupply, externalResistor);
         updateAll();
+        solvePipeline.start();
     }
 
     private void showWrongArgumentMessage(String mgs) {
@@ -241,21 +328,41 @@ public class PhysGui extends JFrame {
     }
 
     /**
-     * Capture status of the simulation
+     * Capture status of the simulation, coarse graphs are shown at once and refined while the sweep is sampled
      */
     private void showGraphs() {
         if (circuit.getCurrent() == Double.POSITIVE_INFINITY) {
             showWrongArgumentMessage("Can't create graphs for this parameters");
             return;
         }
-        graphsFrame.setContentPane(new GraphsCreator(circuit).getContainer());
+        closeGraphs();
+        if (graphsFrame == null) {
+            graphsFrame = createGraphsFrame();
+        }
+        graphsCreator = new GraphsCreator(circuit, sweepCache, graphFormulas);
+        graphsFrame.setContentPane(graphsCreator.getContainer());
         graphsFrame.pack();
         centring(graphsFrame);
         graphsFrame.setVisible(true);
     }
 
     /**
-     * Handle slider change
+     * Abandons sampling of the shown graphs
+     */
+    private void closeGraphs() {
+        if (graphsCreator != null) {
+            if (REPORT_LATENCY && graphsCreator.getFirstPaintTime() >= 0) {
+                System.err.println(String.format("Charts: first paint=%.2f ms, last paint=%.2f ms",
+                        graphsCreator.getFirstPaintTime() / 1e6, graphsCreator.getLastPaintDuration() / 1e6));
+            }
+            graphFormulas = graphsCreator.getFormulas();
+            graphsCreator.cancel();
+            graphsCreator = null;
+        }
+    }
+
+    /**
+     * Handle slider change, the circuit is solved out of the event thread and shown on the next frame
      */
     private void handleSliderChange() {
         if (externalResistor == null)
@@ -267,8 +374,8 @@ public class PhysGui extends JFrame {
             throw new RuntimeException(e);
         }
 
-        currentExtResistance.setText(Double.toString(externalResistor.getResistance()));
-        updateAll();
+        solvePipeline.submit(powerSupply.getEmf(), powerSupply.getInternalResistor().getResistance(),
+                externalResistor.getResistance());
     }
 
     /**
@@ -294,19 +401,30 @@ public class PhysGui extends JFrame {
      * Update fields values after change
      */
     private void updateAll() {
+        showState(circuit.solve(circuitState));
+    }
 
-        if (circuit.isShortCircuit()) {
+    /**
+     * Show values of the solved circuit
+     */
+    private void showState(CircuitState state) {
+        if (status != Status.ACTIVE) {
+            return;
+        }
+
+        if (state.isShortCircuit()) {
             setLabelActiveShortCircuit();
         } else {
             setLabelActiveNormal();
         }
 
-        uIntRField.setText(Double.toString(circuit.getInternalResistorVoltage()));
-        uExtRField.setText(Double.toString(circuit.getExternalResistorVoltage()));
-        currentField.setText(Double.toString(circuit.getCurrent()));
-        pFullField.setText(Double.toString(circuit.getFullPower()));
-        pLossField.setText(Double.toString(circuit.getPowerLoss()));
-        pExtField.setText(Double.toString(circuit.getExternalPower()));
+        currentExtResistance.setText(Double.toString(state.getExternalResistance()));
+        uIntRField.setText(Double.toString(state.getInternalResistorVoltage()));
+        uExtRField.setText(Double.toString(state.getExternalResistorVoltage()));
+        currentField.setText(Double.toString(state.getCurrent()));
+        pFullField.setText(Double.toString(state.getFullPower()));
+        pLossField.setText(Double.toString(state.getPowerLoss()));
+        pExtField.setText(Double.toString(state.getExternalPower()));
     }
 
     /**
@@ -333,5 +451,284 @@ public class PhysGui extends JFrame {
         statusLabel.setForeground(Color.red);
     }
 
+    {
+// GUI initializer generated by IntelliJ IDEA GUI Designer
+// >>> IMPORTANT!! <<<
+// DO NOT EDIT OR ADD ANY CODE HERE!
+        $$$setupUI$$$();
+    }
+
+    /**
+     * Method generated by IntelliJ IDEA GUI Designer
+     * >>> IMPORTANT!! <<<
+     * DO NOT edit this method OR call it in your code!
+     *
+     * @noinspection ALL
+     */
+    private void $$$setupUI$$$() {
+        mainPanel = new JPanel();
+        mainPanel.setLayout(new GridLayoutManager(4, 1, new Insets(10, 10, 10, 10), -1, -1));
+        mainPanel.setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(new Color(-4473925)), "Ohm's law DC simulation", TitledBorder.DEFAULT_JUSTIFICATION, TitledBorder.DEFAULT_POSITION, null, null));
+        final JPanel panel1 = new JPanel();
+        panel1.setLayout(new GridLayoutManager(1, 2, new Insets(0, 0, 0, 0), -1, -1));
+        mainPanel.add(panel1, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, new Dimension(800, -1), new Dimension(800, -1), null, 1, false));
+        final JPanel panel2 = new JPanel();
+        panel2.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel1.add(panel2, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(350, 200), new Dimension(350, -1), 0, false));
+        imageLabel = new JLabel();
+        imageLabel.setText("");
+        panel2.add(imageLabel, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel3 = new JPanel();
+        panel3.setLayout(new GridLayoutManager(1, 3, new Insets(0, 0, 0, 0), -1, -1));
+        panel1.add(panel3, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel4 = new JPanel();
+        panel4.setLayout(new GridLayoutManager(3, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel3.add(panel4, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel5 = new JPanel();
+        panel5.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel4.add(panel5, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        emfField = new JTextField();
+        Font emfFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, emfField.getFont());
+        if (emfFieldFont != null) emfField.setFont(emfFieldFont);
+        panel5.add(emfField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(150, -1), null, 0, false));
+        final JPanel panel6 = new JPanel();
+        panel6.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel4.add(panel6, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        intResistanceField = new JTextField();
+        Font intResistanceFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, intResistanceField.getFont());
+        if (intResistanceFieldFont != null) intResistanceField.setFont(intResistanceFieldFont);
+        panel6.add(intResistanceField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(150, -1), null, 0, false));
+        final JPanel panel7 = new JPanel();
+        panel7.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel4.add(panel7, new GridConstraints(2, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        extResistanceField = new JTextField();
+        Font extResistanceFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, extResistanceField.getFont());
+        if (extResistanceFieldFont != null) extResistanceField.setFont(extResistanceFieldFont);
+        panel7.add(extResistanceField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(150, -1), null, 0, false));
+        final JPanel panel8 = new JPanel();
+        panel8.setLayout(new GridLayoutManager(3, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel3.add(panel8, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel9 = new JPanel();
+        panel9.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel8.add(panel9, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JLabel label1 = new JLabel();
+        Font label1Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label1.getFont());
+        if (label1Font != null) label1.setFont(label1Font);
+        label1.setText("    ε, V =  ");
+        panel9.add(label1, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel10 = new JPanel();
+        panel10.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel8.add(panel10, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JLabel label2 = new JLabel();
+        Font label2Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label2.getFont());
+        if (label2Font != null) label2.setFont(label2Font);
+        label2.setText("r, Ohm =");
+        panel10.add(label2, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel11 = new JPanel();
+        panel11.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel8.add(panel11, new GridConstraints(2, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JLabel label3 = new JLabel();
+        Font label3Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label3.getFont());
+        if (label3Font != null) label3.setFont(label3Font);
+        label3.setText("Rmax, Ohm =");
+        panel11.add(label3, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final Spacer spacer1 = new Spacer();
+        panel3.add(spacer1, new GridConstraints(0, 2, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK, null, null, null, 0, false));
+        final JPanel panel12 = new JPanel();
+        panel12.setLayout(new GridLayoutManager(1, 2, new Insets(0, 0, 0, 0), -1, -1));
+        mainPanel.add(panel12, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, new Dimension(800, -1), new Dimension(800, 40), new Dimension(-1, 40), 2, false));
+        final JPanel panel13 = new JPanel();
+        panel13.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel12.add(panel13, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(400, -1), null, 0, false));
+        statusLabel = new JLabel();
+        Font statusLabelFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, statusLabel.getFont());
+        if (statusLabelFont != null) statusLabel.setFont(statusLabelFont);
+        statusLabel.setText("STATUS: NORMAL");
+        panel13.add(statusLabel, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel14 = new JPanel();
+        panel14.setLayout(new GridLayoutManager(1, 2, new Insets(0, 0, 0, 0), -1, -1));
+        panel12.add(panel14, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(400, -1), null, 0, false));
+        modeButton = new JButton();
+        Font modeButtonFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, modeButton.getFont());
+        if (modeButtonFont != null) modeButton.setFont(modeButtonFont);
+        modeButton.setText("START");
+        panel14.add(modeButton, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_FIXED, new Dimension(100, -1), new Dimension(130, -1), new Dimension(130, -1), 0, false));
+        captureButton = new JButton();
+        Font captureButtonFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, captureButton.getFont());
+        if (captureButtonFont != null) captureButton.setFont(captureButtonFont);
+        captureButton.setText("GRAPHS");
+        panel14.add(captureButton, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_FIXED, new Dimension(100, -1), new Dimension(130, -1), new Dimension(130, -1), 0, false));
+        final JPanel panel15 = new JPanel();
+        panel15.setLayout(new GridLayoutManager(1, 2, new Insets(0, 0, 0, 0), -1, -1));
+        mainPanel.add(panel15, new GridConstraints(2, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, new Dimension(800, -1), new Dimension(800, 30), new Dimension(-1, 30), 3, false));
+        final JPanel panel16 = new JPanel();
+        panel16.setLayout(new GridLayoutManager(1, 2, new Insets(0, 0, 0, 0), -1, -1));
+        panel15.add(panel16, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(200, -1), null, 0, false));
+        final JLabel label4 = new JLabel();
+        Font label4Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label4.getFont());
+        if (label4Font != null) label4.setFont(label4Font);
+        label4.setText("R, Ohm =");
+        panel16.add(label4, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        currentExtResistance = new JTextField();
+        currentExtResistance.setEditable(false);
+        Font currentExtResistanceFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, currentExtResistance.getFont());
+        if (currentExtResistanceFont != null) currentExtResistance.setFont(currentExtResistanceFont);
+        currentExtResistance.setText("");
+        panel16.add(currentExtResistance, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(130, -1), null, 0, false));
+        final JPanel panel17 = new JPanel();
+        panel17.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel17.setEnabled(true);
+        panel15.add(panel17, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, new Dimension(450, -1), new Dimension(450, 24), new Dimension(450, -1), 0, false));
+        resistanceSlider = new JSlider();
+        resistanceSlider.setEnabled(false);
+        panel17.add(resistanceSlider, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel18 = new JPanel();
+        panel18.setLayout(new GridLayoutManager(1, 6, new Insets(0, 0, 0, 0), -1, -1));
+        mainPanel.add(panel18, new GridConstraints(3, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, new Dimension(850, -1), new Dimension(800, -1), null, 1, false));
+        final JPanel panel19 = new JPanel();
+        panel19.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel19, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel20 = new JPanel();
+        panel20.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel19.add(panel20, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label5 = new JLabel();
+        Font label5Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label5.getFont());
+        if (label5Font != null) label5.setFont(label5Font);
+        label5.setText("UR, V =");
+        panel20.add(label5, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel21 = new JPanel();
+        panel21.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel19.add(panel21, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label6 = new JLabel();
+        Font label6Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label6.getFont());
+        if (label6Font != null) label6.setFont(label6Font);
+        label6.setText("Pfull, W =");
+        panel21.add(label6, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel22 = new JPanel();
+        panel22.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel22, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel23 = new JPanel();
+        panel23.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel22.add(panel23, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        uExtRField = new JTextField();
+        uExtRField.setEditable(false);
+        Font uExtRFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, uExtRField.getFont());
+        if (uExtRFieldFont != null) uExtRField.setFont(uExtRFieldFont);
+        uExtRField.setText("");
+        panel23.add(uExtRField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+        final JPanel panel24 = new JPanel();
+        panel24.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel22.add(panel24, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        pFullField = new JTextField();
+        pFullField.setEditable(false);
+        Font pFullFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, pFullField.getFont());
+        if (pFullFieldFont != null) pFullField.setFont(pFullFieldFont);
+        panel24.add(pFullField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+        final JPanel panel25 = new JPanel();
+        panel25.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel25, new GridConstraints(0, 2, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel26 = new JPanel();
+        panel26.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel25.add(panel26, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label7 = new JLabel();
+        Font label7Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label7.getFont());
+        if (label7Font != null) label7.setFont(label7Font);
+        label7.setText("Ur, V =");
+        panel26.add(label7, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel27 = new JPanel();
+        panel27.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel25.add(panel27, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label8 = new JLabel();
+        Font label8Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label8.getFont());
+        if (label8Font != null) label8.setFont(label8Font);
+        label8.setText("Ploss, W =");
+        panel27.add(label8, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel28 = new JPanel();
+        panel28.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel28, new GridConstraints(0, 3, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel29 = new JPanel();
+        panel29.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel28.add(panel29, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        uIntRField = new JTextField();
+        uIntRField.setEditable(false);
+        Font uIntRFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, uIntRField.getFont());
+        if (uIntRFieldFont != null) uIntRField.setFont(uIntRFieldFont);
+        panel29.add(uIntRField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+        final JPanel panel30 = new JPanel();
+        panel30.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel28.add(panel30, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        pLossField = new JTextField();
+        pLossField.setEditable(false);
+        Font pLossFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, pLossField.getFont());
+        if (pLossFieldFont != null) pLossField.setFont(pLossFieldFont);
+        panel30.add(pLossField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+        final JPanel panel31 = new JPanel();
+        panel31.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel31, new GridConstraints(0, 4, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel32 = new JPanel();
+        panel32.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel31.add(panel32, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label9 = new JLabel();
+        Font label9Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label9.getFont());
+        if (label9Font != null) label9.setFont(label9Font);
+        label9.setText("I, A =");
+        panel32.add(label9, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel33 = new JPanel();
+        panel33.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel31.add(panel33, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, new Dimension(-1, 40), new Dimension(-1, 40), 0, false));
+        final JLabel label10 = new JLabel();
+        Font label10Font = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, label10.getFont());
+        if (label10Font != null) label10.setFont(label10Font);
+        label10.setText("Pext, W =");
+        panel33.add(label10, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        final JPanel panel34 = new JPanel();
+        panel34.setLayout(new GridLayoutManager(2, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel18.add(panel34, new GridConstraints(0, 5, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JPanel panel35 = new JPanel();
+        panel35.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel34.add(panel35, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        currentField = new JTextField();
+        currentField.setEditable(false);
+        Font currentFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, currentField.getFont());
+        if (currentFieldFont != null) currentField.setFont(currentFieldFont);
+        panel35.add(currentField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+        final JPanel panel36 = new JPanel();
+        panel36.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
+        panel34.add(panel36, new GridConstraints(1, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        pExtField = new JTextField();
+        pExtField.setEditable(false);
+        Font pExtFieldFont = this.$$$getFont$$$("Noto Sans", Font.PLAIN, 16, pExtField.getFont());
+        if (pExtFieldFont != null) pExtField.setFont(pExtFieldFont);
+        panel36.add(pExtField, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_CAN_GROW | GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(100, -1), null, 0, false));
+    }
+
+    /**
+     * @noinspection ALL
+     */
+    private Font $$$getFont$$$(String fontName, int style, int size, Font currentFont) {
+        if (currentFont == null) return null;
+        String resultName;
+        if (fontName == null) {
+            resultName = currentFont.getName();
+        } else {
+            Font testFont = new Font(fontName, Font.PLAIN, 10);
+            if (testFont.canDisplay('a') && testFont.canDisplay('1')) {
+                resultName = fontName;
+            } else {
+                resultName = currentFont.getName();
+            }
+        }
+        Font font = new Font(resultName, style >= 0 ? style : currentFont.getStyle(), size >= 0 ? size : currentFont.getSize());
+        boolean isMac = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).startsWith("mac");
+        Font fontWithFallback = isMac ? new Font(font.getFamily(), font.getStyle(), font.getSize()) : new StyleContext().getFont(font.getFamily(), font.getStyle(), font.getSize());
+        return fontWithFallback instanceof FontUIResource ? fontWithFallback : new FontUIResource(fontWithFallback);
+    }
+
+    /**
+     * @noinspection ALL
+     */
+    public JComponent $$$getRootComponent$$$() {
+        return mainPanel;
+    }
 
 }
@@ -0,0 +1,176 @@
+package gui.app.phys;
+
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.metrics.Metrics;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest-value-wins solving of the circuit out of the event dispatch thread.
+ * Input events post the circuit parameters, a worker thread solves only the newest ones,
+ * and a Swing timer shows the newest solved state at most once per frame.
+ * Parameters replaced before solving and states replaced before showing are dropped
+ */
+class SolvePipeline {
+    /**
+     * Receives solved states in the event dispatch thread
+     */
+    interface Display {
+        void show(CircuitState state);
+    }
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final Display display;
+    private final Timer timer;
+    private final LatencyRecorder latency = new LatencyRecorder(LATENCY_SAMPLES);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicReference<Frame> solved = new AtomicReference<>();
+
+    private final Object lock = new Object();
+    private boolean pending;
+    private double emf;
+    private double internalResistance;
+    private double externalResistance;
+    private long inputTime;
+
+    private Thread worker;
+
+    /**
+     * @param display Receiver of the solved states
+     * @param frameRate Max count of shown states per second
+     */
+    SolvePipeline(Display display, int frameRate) {
+        this.display = display;
+        timer = new Timer(1000 / frameRate, e -> showNewest());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Starts worker thread and display timer
+     */
+    void start() {
+        synchronized (lock) {
+            if (worker != null) {
+                return;
+            }
+            solved.set(null);
+            worker = new Thread(this::solveLoop, "Circuit solver");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        timer.start();
+    }
+
+    /**
+     * Stops worker thread and display timer, not shown states are dropped
+     */
+    void stop() {
+        timer.stop();
+        synchronized (lock) {
+            if (worker == null) {
+                return;
+            }
+            worker.interrupt();
+            worker = null;
+            pending = false;
+            solved.set(null);
+        }
+    }
+
+    /**
+     * Posts new circuit parameters, parameters posted before and not solved yet are dropped
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param externalResistance External resistance [ Ohms ]
+     */
+    void submit(double emf, double internalResistance, double externalResistance) {
+        synchronized (lock) {
+            if (pending) {
+                dropped.incrementAndGet();
+            }
+            this.emf = emf;
+            this.internalResistance = internalResistance;
+            this.externalResistance = externalResistance;
+            inputTime = System.nanoTime();
+            pending = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @return Latency from the input to the end of showing its state
+     */
+    LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Count of inputs which were never shown
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void solveLoop() {
+        try {
+            while (true) {
+                double emf;
+                double internalResistance;
+                double externalResistance;
+                long inputTime;
+                synchronized (lock) {
+                    while (!pending) {
+                        lock.wait();
+                    }
+                    emf = this.emf;
+                    internalResistance = this.internalResistance;
+                    externalResistance = this.externalResistance;
+                    inputTime = this.inputTime;
+                    pending = false;
+                }
+
+                CircuitState state = new CircuitState().solve(emf, internalResistance, externalResistance);
+                synchronized (lock) {
+                    if (worker != Thread.currentThread()) {
+                        return;
+                    }
+                    if (solved.getAndSet(new Frame(state, inputTime)) != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Shows the newest solved state, runs in the event dispatch thread
+     */
+    private void showNewest() {
+        Frame frame = solved.getAndSet(null);
+        if (frame == null) {
+            return;
+        }
+
+        display.show(frame.state);
+        long frameLatency = System.nanoTime() - frame.inputTime;
+        latency.record(frameLatency);
+        if (Metrics.ENABLED) {
+            Metrics.guiRefresh(frameLatency, dropped.get());
+        }
+    }
+
+    private static class Frame {
+        private final CircuitState state;
+        private final long inputTime;
+
+        Frame(CircuitState state, long inputTime) {
+            this.state = state;
+            this.inputTime = inputTime;
+        }
+    }
+}
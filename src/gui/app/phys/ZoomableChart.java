@@ -0,0 +1,32 @@
+package gui.app.phys;
+
+import org.knowm.xchart.XYChart;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * XY chart which converts panel coordinates back to the x values, so the chart can be zoomed by mouse.
+ * X axis range must be set explicitly
+ */
+class ZoomableChart extends XYChart {
+    ZoomableChart(int width, int height) {
+        super(width, height);
+    }
+
+    /**
+     * @param coordinate X coordinate in the panel the chart is painted on
+     * @return X value at the coordinate, NaN if chart was not painted yet
+     */
+    double toXValue(double coordinate) {
+        Rectangle2D bounds = plot.getBounds();
+        Double min = getStyler().getXAxisMin();
+        Double max = getStyler().getXAxisMax();
+        if (bounds == null || bounds.getWidth() <= 0 || min == null || max == null) {
+            return Double.NaN;
+        }
+
+        double space = getStyler().getPlotContentSize() * bounds.getWidth();
+        double left = bounds.getX() + (bounds.getWidth() - space) / 2;
+        return min + (coordinate - left) / space * (max - min);
+    }
+}
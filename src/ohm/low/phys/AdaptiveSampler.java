@@ -0,0 +1,264 @@
+package ohm.low.phys;
+
+import ohm.low.phys.metrics.Metrics;
+import ohm.low.phys.metrics.SweepEvent;
+
+import java.util.Arrays;
+
+/**
+ * Samples U(I) and P(I) curves of the power supply circuit over external resistance range.
+ * Interval is split in two while its midpoint is further from the chord than the tolerance,
+ * so points are placed where curves bend and not where they are flat.
+ * Distances are measured in the chart space: I is scaled by its range, U and P by ranges of their charts
+ */
+public class AdaptiveSampler {
+    private static final int INITIAL_INTERVALS = 32;
+    private static final int MAX_DEPTH = 40;
+
+    private final double tolerance;
+    private final int maxPoints;
+
+    private double emf;
+    private double internalResistance;
+
+    private double[] resistance;
+    private double[] current;
+    private double[] uExt;
+    private double[] uInt;
+    private double[] pFull;
+    private double[] pLoss;
+    private double[] pExt;
+    private int count;
+    private int evaluations;
+
+    private int[] order;
+    private int orderSize;
+    /**
+     * Points of the sweep including the initial grid and the midpoints of the intervals chosen to split,
+     * some of them are not appended to the order yet
+     */
+    private int plannedPoints;
+    private boolean budgetExhausted;
+
+    private double currentScale;
+    private double voltageScale;
+    private double powerScale;
+    private double errorBound;
+
+    /**
+     * Creates sampler
+     * @param tolerance Allowed distance between curve and its polyline, part of the chart size, e.g. 0.001
+     * @param maxPoints Max count of points in one sampled sweep
+     */
+    public AdaptiveSampler(double tolerance, int maxPoints) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance is not positive");
+        }
+        if (maxPoints < INITIAL_INTERVALS + 1) {
+            throw new IllegalArgumentException("Max points count is lesser than " + (INITIAL_INTERVALS + 1));
+        }
+
+        this.tolerance = tolerance;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Samples circuit curves
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance Last external resistance value [ Ohms ]
+     * @return Calculated sweep with points sorted by external resistance
+     */
+    public CircuitSweep sample(double emf, double internalResistance, double minResistance, double maxResistance) {
+        return sample(emf, internalResistance, minResistance, maxResistance, null);
+    }
+
+    /**
+     * Samples circuit curves and reports the points interval by interval of the initial grid,
+     * so the curves can be shown before the sampling ends
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance Last external resistance value [ Ohms ]
+     * @param progress Receiver of the finished points, null for none
+     * @return Calculated sweep with points sorted by external resistance, null if progress abandoned the sampling
+     */
+    public CircuitSweep sample(double emf, double internalResistance, double minResistance, double maxResistance,
+                               SweepProgress progress) {
+        SweepEvent event = Metrics.ENABLED ? Metrics.beginSweep("adaptive") : null;
+        this.emf = emf;
+        this.internalResistance = internalResistance;
+        count = 0;
+        evaluations = 0;
+        orderSize = 0;
+        errorBound = 0;
+        budgetExhausted = false;
+
+        int capacity = 2 * maxPoints;
+        if (resistance == null || resistance.length < capacity) {
+            resistance = new double[capacity];
+            current = new double[capacity];
+            uExt = new double[capacity];
+            uInt = new double[capacity];
+            pFull = new double[capacity];
+            pLoss = new double[capacity];
+            pExt = new double[capacity];
+            order = new int[capacity];
+        }
+
+        double step = (maxResistance - minResistance) / INITIAL_INTERVALS;
+        for (int i = 0; i <= INITIAL_INTERVALS; ++i) {
+            double value = (i == INITIAL_INTERVALS) ? maxResistance : minResistance + step * i;
+            evaluate(value);
+        }
+        calculateScales();
+
+        order[orderSize++] = 0;
+        plannedPoints = INITIAL_INTERVALS + 1;
+        int reported = 0;
+        for (int i = 0; i < INITIAL_INTERVALS; ++i) {
+            refine(i, i + 1, 0);
+            order[orderSize++] = i + 1;
+
+            if (progress != null) {
+                double[] points = new double[orderSize - reported];
+                for (int k = 0; k < points.length; ++k) {
+                    points[k] = current[order[reported + k]];
+                }
+                reported = orderSize;
+                if (!progress.accept(points)) {
+                    if (Metrics.ENABLED) {
+                        Metrics.endSweep(event, evaluations);
+                    }
+                    return null;
+                }
+            }
+        }
+
+        CircuitSweep sweep = new CircuitSweep(orderSize);
+        double[] sweepResistance = sweep.getResistance();
+        for (int i = 0; i < orderSize; ++i) {
+            sweepResistance[i] = resistance[order[i]];
+        }
+        sweep.calculate(emf, internalResistance);
+
+        if (Metrics.ENABLED) {
+            Metrics.endSweep(event, evaluations);
+        }
+        return sweep;
+    }
+
+    /**
+     * @return Max distance between curves and their polylines in the last sweep, part of the chart size.
+     * It is greater than the tolerance if the points budget was exhausted and some intervals were left unrefined
+     */
+    public double getErrorBound() {
+        return errorBound;
+    }
+
+    /**
+     * @return true if the last sweep reached max count of points before the tolerance
+     */
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /**
+     * @return Count of circuit evaluations in the last sweep
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return Tolerance the sampler refines to
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return Max count of points in one sampled sweep
+     */
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    private void refine(int left, int right, int depth) {
+        int middle = evaluate(0.5 * (resistance[left] + resistance[right]));
+        double error = error(left, middle, right);
+
+        boolean overBudget = plannedPoints + 1 > maxPoints;
+        if (!(error > tolerance) || depth >= MAX_DEPTH || overBudget) {
+            if (error > tolerance && overBudget) {
+                budgetExhausted = true;
+            }
+            if (error > errorBound) {
+                errorBound = error;
+            }
+            --count;
+            return;
+        }
+
+        ++plannedPoints;
+        refine(left, middle, depth + 1);
+        order[orderSize++] = middle;
+        refine(middle, right, depth + 1);
+    }
+
+    private int evaluate(double externalResistance) {
+        ++evaluations;
+        int index = count++;
+        double i = SweepColumn.current(emf, internalResistance, externalResistance);
+
+        resistance[index] = externalResistance;
+        current[index] = i;
+        uExt[index] = i * externalResistance;
+        uInt[index] = i * internalResistance;
+        pFull[index] = emf * i;
+        pLoss[index] = i * i * internalResistance;
+        pExt[index] = i * uExt[index];
+        return index;
+    }
+
+    private void calculateScales() {
+        currentScale = range(current);
+        voltageScale = Math.max(range(uExt), range(uInt));
+        powerScale = Math.max(range(pFull), Math.max(range(pLoss), range(pExt)));
+    }
+
+    private double range(double[] values) {
+        double min = Arrays.stream(values, 0, count).min().orElse(0);
+        double max = Arrays.stream(values, 0, count).max().orElse(0);
+        double range = max - min;
+        return (range > 0 && range < Double.POSITIVE_INFINITY) ? range : 1;
+    }
+
+    private double error(int left, int middle, int right) {
+        double error = distance(current, uExt, voltageScale, left, middle, right);
+        error = Math.max(error, distance(current, uInt, voltageScale, left, middle, right));
+        error = Math.max(error, distance(current, pFull, powerScale, left, middle, right));
+        error = Math.max(error, distance(current, pLoss, powerScale, left, middle, right));
+        error = Math.max(error, distance(current, pExt, powerScale, left, middle, right));
+        return error;
+    }
+
+    /**
+     * Distance from the middle point to the chord between left and right points in scaled coordinates
+     */
+    private double distance(double[] x, double[] y, double yScale, int left, int middle, int right) {
+        double ax = x[left] / currentScale;
+        double ay = y[left] / yScale;
+        double dx = x[right] / currentScale - ax;
+        double dy = y[right] / yScale - ay;
+        double mx = x[middle] / currentScale - ax;
+        double my = y[middle] / yScale - ay;
+
+        double chord = Math.hypot(dx, dy);
+        if (chord == 0) {
+            return Math.hypot(mx, my);
+        }
+        return Math.abs(dx * my - dy * mx) / chord;
+    }
+}
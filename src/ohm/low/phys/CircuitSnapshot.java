@@ -0,0 +1,163 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupplySnapshot;
+import ohm.low.phys.base.ResistorConnection;
+import ohm.low.phys.base.ResistorSnapshot;
+
+/**
+ * Immutable circuit with resistor connected to power supply. The circuit is solved once on creation,
+ * so snapshot may be shared and read by many threads without locks or defensive copies.
+ * Variants of the circuit are derived by the with- methods, the original one is never changed
+ */
+public final class CircuitSnapshot {
+    private final DCPowerSupplySnapshot powerSupply;
+    private final ResistorSnapshot externalResistor;
+
+    private final double current;
+    private final double externalResistorVoltage;
+    private final double internalResistorVoltage;
+
+    /**
+     * Creates circuit snapshot
+     * @param powerSupply Power supply installed into circuit
+     * @param externalResistor External resistor installed into circuit
+     */
+    public CircuitSnapshot(DCPowerSupplySnapshot powerSupply, ResistorSnapshot externalResistor) {
+        this.powerSupply = powerSupply;
+        this.externalResistor = externalResistor;
+
+        double internalResistance = powerSupply.getInternalResistor().getResistance();
+        double externalResistance = externalResistor.getResistance();
+        double resistance = ResistorConnection.SeriesResistance(internalResistance, externalResistance);
+        current = (resistance == 0) ? Double.POSITIVE_INFINITY : powerSupply.getEmf() / resistance;
+        externalResistorVoltage = current * externalResistance;
+        internalResistorVoltage = current * internalResistance;
+    }
+
+    /**
+     * Takes the current values of the circuit elements
+     * @param connection Circuit to take values from, its elements may be changed later
+     * @return Snapshot of the circuit
+     */
+    public static CircuitSnapshot of(DCPowerSupplyConnection connection) {
+        return new CircuitSnapshot(DCPowerSupplySnapshot.of(connection.getPowerSupply()),
+                ResistorSnapshot.of(connection.getExternalResistor()));
+    }
+
+    /**
+     * @param emf New electromotive force value [ Volts ]
+     * @return Circuit with changed EMF
+     * @throws WrongPhysicsParameterException If EMF value < 0
+     */
+    public CircuitSnapshot withEmf(double emf) throws WrongPhysicsParameterException {
+        return new CircuitSnapshot(powerSupply.withEmf(emf), externalResistor);
+    }
+
+    /**
+     * @param resistance New internal resistance value [ Ohms ]
+     * @return Circuit with changed internal resistance
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public CircuitSnapshot withInternalResistance(double resistance) throws WrongPhysicsParameterException {
+        return new CircuitSnapshot(powerSupply.withInternalResistance(resistance), externalResistor);
+    }
+
+    /**
+     * @param resistance New external resistance value [ Ohms ]
+     * @return Circuit with changed external resistance
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public CircuitSnapshot withExternalResistance(double resistance) throws WrongPhysicsParameterException {
+        return new CircuitSnapshot(powerSupply, externalResistor.withResistance(resistance));
+    }
+
+    /**
+     * @param powerSupply New power supply
+     * @return Circuit with changed power supply
+     */
+    public CircuitSnapshot withPowerSupply(DCPowerSupplySnapshot powerSupply) {
+        return new CircuitSnapshot(powerSupply, externalResistor);
+    }
+
+    /**
+     * @param externalResistor New external resistor
+     * @return Circuit with changed external resistor
+     */
+    public CircuitSnapshot withExternalResistor(ResistorSnapshot externalResistor) {
+        return new CircuitSnapshot(powerSupply, externalResistor);
+    }
+
+    /**
+     * Fills all the values into the state holder, does not allocate
+     * @param state State object to fill
+     * @return Filled state object
+     */
+    public CircuitState solve(CircuitState state) {
+        return state.solve(powerSupply.getEmf(), powerSupply.getInternalResistor().getResistance(),
+                externalResistor.getResistance());
+    }
+
+    /**
+     * @return Current value [ Amps ]
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return External resistor voltage value [ Volts ]
+     */
+    public double getExternalResistorVoltage() {
+        return externalResistorVoltage;
+    }
+
+    /**
+     * @return Internal resistor voltage value [ Volts ]
+     */
+    public double getInternalResistorVoltage() {
+        return internalResistorVoltage;
+    }
+
+    /**
+     * @return true if circuit is short, false if not
+     */
+    public boolean isShortCircuit() {
+        return externalResistor.getResistance() == 0;
+    }
+
+    /**
+     * @return Full power value [ Watts ]
+     */
+    public double getFullPower() {
+        return powerSupply.getEmf() * current;
+    }
+
+    /**
+     * @return Power loss value [ Watts ]
+     */
+    public double getPowerLoss() {
+        return current * current * powerSupply.getInternalResistor().getResistance();
+    }
+
+    /**
+     * @return Power external value [ Watts ]
+     */
+    public double getExternalPower() {
+        return current * externalResistorVoltage;
+    }
+
+    /**
+     * @return Power supply connected to circuit
+     */
+    public DCPowerSupplySnapshot getPowerSupply() {
+        return powerSupply;
+    }
+
+    /**
+     * @return External resistor connected to circuit
+     */
+    public ResistorSnapshot getExternalResistor() {
+        return externalResistor;
+    }
+}
@@ -0,0 +1,157 @@
+package ohm.low.phys;
+
+import ohm.low.phys.base.ResistorConnection;
+import ohm.low.phys.metrics.Metrics;
+
+/**
+ * Reusable holder of all the values describing solved circuit.
+ * One object may be filled again and again, so solving does not allocate
+ */
+public class CircuitState {
+    private double emf;
+    private double internalResistance;
+    private double externalResistance;
+
+    private double current;
+    private double externalResistorVoltage;
+    private double internalResistorVoltage;
+    private double fullPower;
+    private double powerLoss;
+    private double externalPower;
+
+    /**
+     * Creates empty state, all the values are zeroes
+     */
+    public CircuitState() {
+
+    }
+
+    /**
+     * Solves circuit once and stores every derived value
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param externalResistance External resistance connected to the power supply [ Ohms ]
+     * @return This state object
+     */
+    public CircuitState solve(double emf, double internalResistance, double externalResistance) {
+        this.emf = emf;
+        this.internalResistance = internalResistance;
+        this.externalResistance = externalResistance;
+
+        double fullResistance = ResistorConnection.SeriesResistance(internalResistance, externalResistance);
+        current = (fullResistance == 0) ? Double.POSITIVE_INFINITY : emf / fullResistance;
+
+        externalResistorVoltage = current * externalResistance;
+        internalResistorVoltage = current * internalResistance;
+        fullPower = emf * current;
+        powerLoss = current * current * internalResistance;
+        externalPower = current * externalResistorVoltage;
+
+        if (Metrics.ENABLED) {
+            Metrics.CIRCUIT_SOLVES.increment();
+            if (externalResistance == 0) {
+                Metrics.SHORT_CIRCUITS.increment();
+            }
+            if (fullResistance == 0) {
+                Metrics.INFINITE_CURRENTS.increment();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return EMF value the state was solved for [ Volts ]
+     */
+    public double getEmf() {
+        return emf;
+    }
+
+    /**
+     * @return Internal resistance the state was solved for [ Ohms ]
+     */
+    public double getInternalResistance() {
+        return internalResistance;
+    }
+
+    /**
+     * @return External resistance the state was solved for [ Ohms ]
+     */
+    public double getExternalResistance() {
+        return externalResistance;
+    }
+
+    /**
+     * @return Current value [ Amps ]
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return External resistor voltage value [ Volts ]
+     */
+    public double getExternalResistorVoltage() {
+        return externalResistorVoltage;
+    }
+
+    /**
+     * @return Internal resistor voltage value [ Volts ]
+     */
+    public double getInternalResistorVoltage() {
+        return internalResistorVoltage;
+    }
+
+    /**
+     * @return Full power value [ Watts ]
+     */
+    public double getFullPower() {
+        return fullPower;
+    }
+
+    /**
+     * @return Power loss value [ Watts ]
+     */
+    public double getPowerLoss() {
+        return powerLoss;
+    }
+
+    /**
+     * @return Power external value [ Watts ]
+     */
+    public double getExternalPower() {
+        return externalPower;
+    }
+
+    /**
+     * Get value by its column
+     * @param column Column of the value
+     * @return Value of the column
+     */
+    public double getValue(SweepColumn column) {
+        switch (column) {
+            case CURRENT:
+                return current;
+            case EXTERNAL_VOLTAGE:
+                return externalResistorVoltage;
+            case INTERNAL_VOLTAGE:
+                return internalResistorVoltage;
+            case FULL_POWER:
+                return fullPower;
+            case POWER_LOSS:
+                return powerLoss;
+            case EXTERNAL_POWER:
+                return externalPower;
+            case EXTERNAL_RESISTANCE:
+                return externalResistance;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    /**
+     * @return true if circuit is short, false if not
+     */
+    public boolean isShortCircuit() {
+        return externalResistance == 0;
+    }
+}
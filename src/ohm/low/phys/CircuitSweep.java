@@ -0,0 +1,203 @@
+package ohm.low.phys;
+
+import ohm.low.phys.metrics.Metrics;
+import ohm.low.phys.metrics.SweepEvent;
+
+/**
+ * Sweep of the external resistance for the power supply circuit.
+ * All the values are stored as columns of primitive arrays, every column is filled by its own tight loop
+ */
+public class CircuitSweep {
+    private final double[] resistance;
+    private final double[] current;
+    private final double[] uExt;
+    private final double[] uInt;
+    private final double[] pFull;
+    private final double[] pLoss;
+    private final double[] pExt;
+
+    /**
+     * Creates sweep with preallocated columns
+     * @param size Count of points in the sweep
+     */
+    public CircuitSweep(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Sweep size is lesser than zero");
+        }
+
+        resistance = new double[size];
+        current = new double[size];
+        uExt = new double[size];
+        uInt = new double[size];
+        pFull = new double[size];
+        pLoss = new double[size];
+        pExt = new double[size];
+    }
+
+    /**
+     * Creates sweep and calculates it for uniformly distributed external resistance values
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance External resistance value the sweep goes to, not included [ Ohms ]
+     * @param steps Count of points in the sweep
+     * @return Calculated sweep
+     */
+    public static CircuitSweep uniform(double emf, double internalResistance,
+                                       double minResistance, double maxResistance, int steps) {
+        SweepEvent event = Metrics.ENABLED ? Metrics.beginSweep("uniform") : null;
+        CircuitSweep sweep = new CircuitSweep(steps);
+        sweep.fillResistanceUniform(minResistance, maxResistance);
+        sweep.calculate(emf, internalResistance);
+
+        if (Metrics.ENABLED) {
+            Metrics.endSweep(event, steps);
+        }
+        return sweep;
+    }
+
+    /**
+     * Fills resistance column with uniformly distributed values
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance External resistance value the sweep goes to, not included [ Ohms ]
+     */
+    public void fillResistanceUniform(double minResistance, double maxResistance) {
+        int size = resistance.length;
+        double range = maxResistance - minResistance;
+        for (int i = 0; i < size; ++i) {
+            resistance[i] = minResistance + range * i / size;
+        }
+    }
+
+    /**
+     * Calculates all the columns for the values stored in the resistance column
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     */
+    public void calculate(double emf, double internalResistance) {
+        calculate(emf, internalResistance, 0, resistance.length);
+    }
+
+    /**
+     * Calculates all the columns in the range for the values stored in the resistance column
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param from First index to calculate, inclusive
+     * @param to Last index to calculate, exclusive
+     */
+    public void calculate(double emf, double internalResistance, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            current[i] = emf / (internalResistance + resistance[i]);
+        }
+
+        if (internalResistance == 0) {
+            for (int i = from; i < to; ++i) {
+                if (resistance[i] == 0) {
+                    current[i] = Double.POSITIVE_INFINITY;
+                }
+            }
+        }
+
+        for (int i = from; i < to; ++i) {
+            uExt[i] = current[i] * resistance[i];
+        }
+
+        for (int i = from; i < to; ++i) {
+            uInt[i] = current[i] * internalResistance;
+        }
+
+        for (int i = from; i < to; ++i) {
+            pFull[i] = emf * current[i];
+        }
+
+        for (int i = from; i < to; ++i) {
+            pLoss[i] = current[i] * current[i] * internalResistance;
+        }
+
+        for (int i = from; i < to; ++i) {
+            pExt[i] = current[i] * uExt[i];
+        }
+    }
+
+    /**
+     * @return Count of points in the sweep
+     */
+    public int getSize() {
+        return resistance.length;
+    }
+
+    /**
+     * Get column by its value
+     * @param column Column of the value
+     * @return Column array
+     */
+    public double[] getColumn(SweepColumn column) {
+        switch (column) {
+            case CURRENT:
+                return current;
+            case EXTERNAL_VOLTAGE:
+                return uExt;
+            case INTERNAL_VOLTAGE:
+                return uInt;
+            case FULL_POWER:
+                return pFull;
+            case POWER_LOSS:
+                return pLoss;
+            case EXTERNAL_POWER:
+                return pExt;
+            case EXTERNAL_RESISTANCE:
+                return resistance;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    /**
+     * @return External resistance column [ Ohms ]
+     */
+    public double[] getResistance() {
+        return resistance;
+    }
+
+    /**
+     * @return Current column [ Amps ]
+     */
+    public double[] getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return External resistor voltage column [ Volts ]
+     */
+    public double[] getExternalResistorVoltage() {
+        return uExt;
+    }
+
+    /**
+     * @return Internal resistor voltage column [ Volts ]
+     */
+    public double[] getInternalResistorVoltage() {
+        return uInt;
+    }
+
+    /**
+     * @return Full power column [ Watts ]
+     */
+    public double[] getFullPower() {
+        return pFull;
+    }
+
+    /**
+     * @return Power loss column [ Watts ]
+     */
+    public double[] getPowerLoss() {
+        return pLoss;
+    }
+
+    /**
+     * @return External power column [ Watts ]
+     */
+    public double[] getExternalPower() {
+        return pExt;
+    }
+}
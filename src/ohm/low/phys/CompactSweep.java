@@ -0,0 +1,274 @@
+package ohm.low.phys;
+
+/**
+ * Sweep of the power supply circuit which stores only the current column.
+ * EMF and internal resistance are fixed for the sweep, so every other value is a function of the current:
+ * U = EMF - I * r, Uint = I * r, P = EMF * I, Ploss = I * I * r, Pext = I * U, R = EMF / I - r.
+ * These columns are calculated on demand, the current is stored with the chosen precision,
+ * so the sweep takes 7 to 28 times less memory than CircuitSweep. Sweep is immutable
+ */
+public final class CompactSweep {
+    private static final long OBJECT_OVERHEAD = 16 + 4 * 8 + 3 * 8;
+    private static final long ARRAY_OVERHEAD = 16;
+    private static final int MAX_CODE = Character.MAX_VALUE - 1;
+    private static final char INFINITE_CODE = Character.MAX_VALUE;
+
+    private final double emf;
+    private final double internalResistance;
+    private final SweepPrecision precision;
+    private final int size;
+
+    private final double[] doubles;
+    private final float[] floats;
+    private final char[] codes;
+    private final double codeOrigin;
+    private final double codeStep;
+
+    private CompactSweep(double emf, double internalResistance, SweepPrecision precision, double[] current,
+                         int size) {
+        this.emf = emf;
+        this.internalResistance = internalResistance;
+        this.precision = precision;
+        this.size = size;
+
+        double[] doubles = null;
+        float[] floats = null;
+        char[] codes = null;
+        double origin = 0;
+        double step = 0;
+        switch (precision) {
+            case DOUBLE:
+                doubles = new double[size];
+                System.arraycopy(current, 0, doubles, 0, size);
+                break;
+            case FLOAT:
+                floats = new float[size];
+                for (int i = 0; i < size; ++i) {
+                    floats[i] = (float) current[i];
+                }
+                break;
+            case QUANTIZED:
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < size; ++i) {
+                    if (Double.isFinite(current[i])) {
+                        min = Math.min(min, current[i]);
+                        max = Math.max(max, current[i]);
+                    }
+                }
+                origin = (min <= max) ? min : 0;
+                step = (max > min) ? (max - min) / MAX_CODE : 0;
+
+                codes = new char[size];
+                for (int i = 0; i < size; ++i) {
+                    if (!Double.isFinite(current[i])) {
+                        codes[i] = INFINITE_CODE;
+                    } else if (step > 0) {
+                        codes[i] = (char) Math.min(MAX_CODE, Math.round((current[i] - origin) / step));
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown precision " + precision);
+        }
+
+        this.doubles = doubles;
+        this.floats = floats;
+        this.codes = codes;
+        codeOrigin = origin;
+        codeStep = step;
+    }
+
+    /**
+     * Keeps current column of the calculated sweep
+     * @param sweep Calculated sweep
+     * @param emf Electromotive force value the sweep was calculated for [ Volts ]
+     * @param internalResistance Internal resistance the sweep was calculated for [ Ohms ]
+     * @param precision Storage precision of the current
+     * @return Compact sweep
+     */
+    public static CompactSweep of(CircuitSweep sweep, double emf, double internalResistance,
+                                  SweepPrecision precision) {
+        return new CompactSweep(emf, internalResistance, precision, sweep.getCurrent(), sweep.getSize());
+    }
+
+    /**
+     * Keeps current values
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param current Current values, positive infinity for short circuit [ Amps ]
+     * @param precision Storage precision of the current
+     * @return Compact sweep
+     */
+    public static CompactSweep of(double emf, double internalResistance, double[] current,
+                                  SweepPrecision precision) {
+        return new CompactSweep(emf, internalResistance, precision, current, current.length);
+    }
+
+    /**
+     * @return Count of points in the sweep
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return EMF value the sweep was calculated for [ Volts ]
+     */
+    public double getEmf() {
+        return emf;
+    }
+
+    /**
+     * @return Internal resistance the sweep was calculated for [ Ohms ]
+     */
+    public double getInternalResistance() {
+        return internalResistance;
+    }
+
+    /**
+     * @return Storage precision of the current
+     */
+    public SweepPrecision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @param index Index of the point
+     * @return Current value [ Amps ]
+     */
+    public double getCurrent(int index) {
+        switch (precision) {
+            case DOUBLE:
+                return doubles[index];
+            case FLOAT:
+                return floats[index];
+            default:
+                return decode(codes[index]);
+        }
+    }
+
+    /**
+     * Calculates value of the column at one point
+     * @param column Column of the value
+     * @param index Index of the point
+     * @return Value of the column
+     */
+    public double getValue(SweepColumn column, int index) {
+        return derive(column, getCurrent(index));
+    }
+
+    /**
+     * Calculates values of the column for the range of points
+     * @param column Column of the values
+     * @param from First point index, inclusive
+     * @param to Last point index, exclusive
+     * @param destination Array to write values to
+     * @param destinationFrom Index in destination array for the first value
+     */
+    public void fill(SweepColumn column, int from, int to, double[] destination, int destinationFrom) {
+        int end = destinationFrom + (to - from);
+        switch (precision) {
+            case DOUBLE:
+                System.arraycopy(doubles, from, destination, destinationFrom, to - from);
+                break;
+            case FLOAT:
+                for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                    destination[j] = floats[i];
+                }
+                break;
+            default:
+                for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                    destination[j] = decode(codes[i]);
+                }
+                break;
+        }
+        derive(column, destination, destinationFrom, end);
+    }
+
+    /**
+     * Calculates the whole column into a new array
+     * @param column Column of the values
+     * @return Column values
+     */
+    public double[] toArray(SweepColumn column) {
+        double[] values = new double[size];
+        fill(column, 0, size, values, 0);
+        return values;
+    }
+
+    /**
+     * @return Estimated memory used by the sweep [ Bytes ]
+     */
+    public long getBytes() {
+        return OBJECT_OVERHEAD + ARRAY_OVERHEAD + (long) size * precision.getBytes();
+    }
+
+    private double decode(char code) {
+        return (code == INFINITE_CODE) ? Double.POSITIVE_INFINITY : codeOrigin + code * codeStep;
+    }
+
+    /**
+     * Replaces currents in the range by the column values, every column has its own loop
+     */
+    private void derive(SweepColumn column, double[] values, int from, int to) {
+        double r = internalResistance;
+        switch (column) {
+            case CURRENT:
+                break;
+            case EXTERNAL_VOLTAGE:
+                for (int i = from; i < to; ++i) {
+                    values[i] = emf - values[i] * r;
+                }
+                break;
+            case INTERNAL_VOLTAGE:
+                for (int i = from; i < to; ++i) {
+                    values[i] = values[i] * r;
+                }
+                break;
+            case FULL_POWER:
+                for (int i = from; i < to; ++i) {
+                    values[i] = emf * values[i];
+                }
+                break;
+            case POWER_LOSS:
+                for (int i = from; i < to; ++i) {
+                    values[i] = values[i] * values[i] * r;
+                }
+                break;
+            case EXTERNAL_POWER:
+                for (int i = from; i < to; ++i) {
+                    values[i] = values[i] * (emf - values[i] * r);
+                }
+                break;
+            case EXTERNAL_RESISTANCE:
+                for (int i = from; i < to; ++i) {
+                    values[i] = emf / values[i] - r;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    private double derive(SweepColumn column, double current) {
+        switch (column) {
+            case CURRENT:
+                return current;
+            case EXTERNAL_VOLTAGE:
+                return emf - current * internalResistance;
+            case INTERNAL_VOLTAGE:
+                return current * internalResistance;
+            case FULL_POWER:
+                return emf * current;
+            case POWER_LOSS:
+                return current * current * internalResistance;
+            case EXTERNAL_POWER:
+                return current * (emf - current * internalResistance);
+            case EXTERNAL_RESISTANCE:
+                return emf / current - internalResistance;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+}
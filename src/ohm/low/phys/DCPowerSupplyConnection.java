@@ -1,11 +1,15 @@
 package ohm.low.phys;
 
 
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
 import ohm.low.phys.base.DCPowerSupply;
 import ohm.low.phys.base.Resistor;
 import ohm.low.phys.base.ResistorConnection;
 
 public class DCPowerSupplyConnection {
+    private static final double RESISTANCE_TOLERANCE = 1e-12;
+
     private DCPowerSupply powerSupply;
     private Resistor externalResistor;
 
@@ -40,12 +44,23 @@ public class DCPowerSupplyConnection {
      * @return Current value [ Amps ]
      */
     public double getCurrent() {
-        Resistor resistor = ResistorConnection.ConnectInSeries(powerSupply.getInternalResistor(), externalResistor);
-        if (resistor.getResistance() == 0) {
+        double resistance = ResistorConnection.SeriesResistance(powerSupply.getInternalResistor().getResistance(),
+                externalResistor.getResistance());
+        if (resistance == 0) {
             return Double.POSITIVE_INFINITY;
         }
 
-        return powerSupply.getEmf() / resistor.getResistance();
+        return powerSupply.getEmf() / resistance;
+    }
+
+    /**
+     * Solves circuit once and fills all the values into the state holder, does not allocate
+     * @param state State object to fill
+     * @return Filled state object
+     */
+    public CircuitState solve(CircuitState state) {
+        return state.solve(powerSupply.getEmf(), powerSupply.getInternalResistor().getResistance(),
+                externalResistor.getResistance());
     }
 
     /**
@@ -79,6 +94,144 @@ public class DCPowerSupplyConnection {
         return getCurrent() * getExternalResistorVoltage();
     }
 
+    /**
+     * Get part of the full power produced in external part of the circuit
+     * @return Efficiency in range [0..1]
+     */
+    public double getEfficiency() {
+        return getEfficiencyIfResistance(externalResistor.getResistance());
+    }
+
+    /**
+     * Calculates efficiency R / (R + r) for some external resistance
+     * @param resistance External resistance [ Ohms ]
+     * @return Efficiency in range [0..1]
+     */
+    public double getEfficiencyIfResistance(double resistance) {
+        double fullResistance = ResistorConnection.SeriesResistance(getInternalResistance(), resistance);
+        if (fullResistance == 0) {
+            return 0;
+        }
+        return (resistance == Double.POSITIVE_INFINITY) ? 1 : resistance / fullResistance;
+    }
+
+    /**
+     * Get max power which may be produced in external part of the circuit, it is reached at R = r
+     * @return Power value [ Watts ]
+     */
+    public double getMaxExternalPower() {
+        double internalResistance = getInternalResistance();
+        if (internalResistance == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double emf = powerSupply.getEmf();
+        return emf * emf / (4 * internalResistance);
+    }
+
+    /**
+     * Get external resistance giving max external power
+     * @return Resistance value, equal to the internal one [ Ohms ]
+     */
+    public double getMaxExternalPowerResistance() {
+        return getInternalResistance();
+    }
+
+    /**
+     * Calculates external resistance giving the current, R = EMF / I - r
+     * @param current Target current [ Amps ]
+     * @return Resistance value [ Ohms ]
+     * @throws WrongPhysicsParameterException If current is not in range (0..EMF / r]
+     */
+    public double getResistanceForCurrent(double current) throws WrongPhysicsParameterException {
+        double resistance = powerSupply.getEmf() / current - getInternalResistance();
+        if (!(current > 0) || !(resistance >= 0)) {
+            throw new WrongPhysicsParameterException("Current " + current + " A is not reachable");
+        }
+        return resistance;
+    }
+
+    /**
+     * Calculates external resistance giving the external resistor voltage, R = U * r / (EMF - U)
+     * @param voltage Target voltage [ Volts ]
+     * @return Resistance value, infinity for U = EMF [ Ohms ]
+     * @throws WrongPhysicsParameterException If voltage is not in range [0..EMF]
+     */
+    public double getResistanceForVoltage(double voltage) throws WrongPhysicsParameterException {
+        double emf = powerSupply.getEmf();
+        double internalResistance = getInternalResistance();
+        if (!(voltage >= 0 && voltage <= emf) || (internalResistance == 0 && voltage != emf)) {
+            throw new WrongPhysicsParameterException("Voltage " + voltage + " V is not reachable");
+        }
+        if (voltage == 0) {
+            return 0;
+        }
+        return (voltage == emf) ? Double.POSITIVE_INFINITY : voltage * internalResistance / (emf - voltage);
+    }
+
+    /**
+     * Calculates external resistance giving the external power. Power below the max one is reached twice:
+     * P * R^2 + (2 * P * r - EMF^2) * R + P * r^2 = 0
+     * @param power Target power [ Watts ]
+     * @param highResistance true for the root above r with the higher efficiency, false for the root below r
+     * @return Resistance value [ Ohms ]
+     * @throws WrongPhysicsParameterException If power is not in range (0..max power]
+     */
+    public double getResistanceForPower(double power, boolean highResistance) throws WrongPhysicsParameterException {
+        double emf = powerSupply.getEmf();
+        double internalResistance = getInternalResistance();
+        double discriminant = emf * emf - 4 * power * internalResistance;
+        if (!(power > 0) || !(discriminant >= 0)) {
+            throw new WrongPhysicsParameterException("Power " + power + " W is not reachable");
+        }
+        if (internalResistance == 0) {
+            return emf * emf / power;
+        }
+
+        // Roots are R1 * R2 = r^2, the smaller one is taken from the product to keep precision
+        double high = (emf * emf - 2 * power * internalResistance + emf * Math.sqrt(discriminant)) / (2 * power);
+        return highResistance ? high : internalResistance * internalResistance / high;
+    }
+
+    /**
+     * Calculates external resistance giving the efficiency, R = eta * r / (1 - eta)
+     * @param efficiency Target efficiency [0..1]
+     * @return Resistance value [ Ohms ]
+     * @throws WrongPhysicsParameterException If efficiency is not in range [0..1]
+     */
+    public double getResistanceForEfficiency(double efficiency) throws WrongPhysicsParameterException {
+        if (!(efficiency >= 0 && efficiency <= 1)) {
+            throw new WrongPhysicsParameterException("Efficiency is not in range 0..1");
+        }
+        return (efficiency == 1) ? Double.POSITIVE_INFINITY : efficiency * getInternalResistance() / (1 - efficiency);
+    }
+
+    /**
+     * Finds external resistance giving the value of any column by Brent's method,
+     * for the values without closed form inverse
+     * @param column Value to reach
+     * @param target Target value
+     * @param minResistance Lower bound of the search range [ Ohms ]
+     * @param maxResistance Upper bound of the search range [ Ohms ]
+     * @return Resistance value [ Ohms ]
+     * @throws WrongPhysicsParameterException If target is not reached in the range
+     */
+    public double findResistance(SweepColumn column, double target, double minResistance, double maxResistance)
+            throws WrongPhysicsParameterException {
+        double emf = powerSupply.getEmf();
+        double internalResistance = getInternalResistance();
+        CircuitState state = new CircuitState();
+        try {
+            return RootFinder.brent(r -> state.solve(emf, internalResistance, r).getValue(column) - target,
+                    minResistance, maxResistance, RESISTANCE_TOLERANCE * Math.max(1, maxResistance));
+        } catch (IllegalPhysicsSystemStateException e) {
+            throw new WrongPhysicsParameterException(e);
+        }
+    }
+
+    private double getInternalResistance() {
+        return powerSupply.getInternalResistor().getResistance();
+    }
+
     /**
      * Get power supply connected to circuit
      * @return Connected power supply
@@ -0,0 +1,93 @@
+package ohm.low.phys;
+
+/**
+ * Preallocated output buffers for the parameter grid sweep.
+ * Every column is split into pages with size multiple of a cache line,
+ * each page is written by exactly one task, so tasks never share cache lines
+ */
+public class GridSweepBuffers {
+    static final int PAGE_SHIFT = 16;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private final long size;
+    private final SweepColumn[] columns;
+    private final double[][][] pages;
+
+    /**
+     * Allocates buffers
+     * @param size Count of points in the grid
+     * @param columns Columns to allocate
+     */
+    public GridSweepBuffers(long size, SweepColumn... columns) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Grid size is lesser than zero");
+        }
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No columns requested");
+        }
+
+        this.size = size;
+        this.columns = columns.clone();
+
+        int pageCount = getPageCount(size);
+        pages = new double[columns.length][pageCount][];
+        for (int c = 0; c < columns.length; ++c) {
+            for (int p = 0; p < pageCount; ++p) {
+                long pageSize = Math.min(PAGE_SIZE, size - ((long) p << PAGE_SHIFT));
+                pages[c][p] = new double[(int) pageSize];
+            }
+        }
+    }
+
+    /**
+     * @return Count of points in the grid
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return Columns stored in buffers
+     */
+    public SweepColumn[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Get value of the column for the grid point
+     * @param column Column to read
+     * @param index Flat index of the grid point
+     * @return Column value
+     */
+    public double get(SweepColumn column, long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in range 0.." + size);
+        }
+        return pages[columnIndex(column)][(int) (index >>> PAGE_SHIFT)][(int) (index & (PAGE_SIZE - 1))];
+    }
+
+    int getPageCount() {
+        return pages[0].length;
+    }
+
+    double[] getPage(int column, int page) {
+        return pages[column][page];
+    }
+
+    private int columnIndex(SweepColumn column) {
+        for (int c = 0; c < columns.length; ++c) {
+            if (columns[c] == column) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Column " + column + " is not stored in buffers");
+    }
+
+    private static int getPageCount(long size) {
+        long count = (size + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid is too large");
+        }
+        return (int) count;
+    }
+}
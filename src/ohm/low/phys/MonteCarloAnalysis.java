@@ -0,0 +1,272 @@
+package ohm.low.phys;
+
+import ohm.low.phys.base.Tolerance;
+import ohm.low.phys.metrics.Metrics;
+import ohm.low.phys.metrics.SweepEvent;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo tolerance analysis of the power supply circuit.
+ * EMF, internal and external resistance are drawn from their tolerances, every sample is solved
+ * and its values are added to streaming histograms, samples are not stored.
+ * Samples are split into fixed blocks, every block has its own SplittableRandom stream split from the seed
+ * in block order, and sums are merged in block order too. So the result depends only on the seed
+ * and not on the count of threads
+ */
+public class MonteCarloAnalysis {
+    /**
+     * Count of samples drawn from one random stream
+     */
+    public static final int BLOCK_SIZE = 1 << 16;
+
+    private static final int PILOT_SAMPLES = 4096;
+    private static final int DEFAULT_BIN_COUNT = 1000;
+
+    private final double emf;
+    private final double internalResistance;
+    private final double externalResistance;
+    private final Tolerance emfTolerance;
+    private final Tolerance internalTolerance;
+    private final Tolerance externalTolerance;
+
+    /**
+     * Creates analysis for nominal values and tolerances the circuit has now
+     * @param circuit Circuit to analyse
+     */
+    public MonteCarloAnalysis(DCPowerSupplyConnection circuit) {
+        this(CircuitSnapshot.of(circuit));
+    }
+
+    /**
+     * Creates analysis for nominal values and tolerances of the circuit snapshot
+     * @param circuit Circuit to analyse
+     */
+    public MonteCarloAnalysis(CircuitSnapshot circuit) {
+        emf = circuit.getPowerSupply().getEmf();
+        internalResistance = circuit.getPowerSupply().getInternalResistor().getResistance();
+        externalResistance = circuit.getExternalResistor().getResistance();
+        emfTolerance = circuit.getPowerSupply().getEmfTolerance();
+        internalTolerance = circuit.getPowerSupply().getInternalResistor().getTolerance();
+        externalTolerance = circuit.getExternalResistor().getTolerance();
+    }
+
+    /**
+     * Runs analysis in the common fork/join pool
+     * @param samples Count of samples
+     * @param seed Seed of the random streams
+     * @param columns Values to collect histograms for
+     * @return Histograms of the values
+     */
+    public Result run(long samples, long seed, SweepColumn... columns) {
+        return run(samples, seed, DEFAULT_BIN_COUNT, ForkJoinPool.commonPool(), columns);
+    }
+
+    /**
+     * Runs analysis
+     * @param samples Count of samples
+     * @param seed Seed of the random streams
+     * @param binCount Count of bins in every histogram
+     * @param pool Pool to run tasks in
+     * @param columns Values to collect histograms for
+     * @return Histograms of the values
+     */
+    public Result run(long samples, long seed, int binCount, ForkJoinPool pool, SweepColumn... columns) {
+        if (samples < 0) {
+            throw new IllegalArgumentException("Samples count is lesser than zero");
+        }
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No columns requested");
+        }
+
+        SweepEvent event = Metrics.ENABLED ? Metrics.beginSweep("monteCarlo") : null;
+        SplittableRandom root = new SplittableRandom(seed);
+        StreamingHistogram[] totals = pilot(root.split(), binCount, columns);
+
+        long blockCount = (samples + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blockCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many samples");
+        }
+
+        int blocks = (int) blockCount;
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; ++b) {
+            streams[b] = root.split();
+        }
+
+        double[][] sums = new double[blocks][columns.length];
+        double[][] sumSquares = new double[blocks][columns.length];
+        pool.invoke(new BlocksTask(samples, streams, columns, totals, sums, sumSquares, 0, blocks));
+
+        for (int b = 0; b < blocks; ++b) {
+            for (int c = 0; c < columns.length; ++c) {
+                totals[c].addSums(sums[b][c], sumSquares[b][c]);
+            }
+        }
+
+        Map<SweepColumn, StreamingHistogram> histograms = new EnumMap<>(SweepColumn.class);
+        for (int c = 0; c < columns.length; ++c) {
+            histograms.put(columns[c], totals[c]);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.endSweep(event, samples);
+        }
+        return new Result(samples, histograms);
+    }
+
+    /**
+     * Draws pilot samples to choose histogram ranges
+     */
+    private StreamingHistogram[] pilot(SplittableRandom random, int binCount, SweepColumn[] columns) {
+        double[] min = new double[columns.length];
+        double[] max = new double[columns.length];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+
+        CircuitState state = new CircuitState();
+        for (int k = 0; k < PILOT_SAMPLES; ++k) {
+            draw(random, state);
+            for (int c = 0; c < columns.length; ++c) {
+                double value = state.getValue(columns[c]);
+                if (Double.isFinite(value)) {
+                    min[c] = Math.min(min[c], value);
+                    max[c] = Math.max(max[c], value);
+                }
+            }
+        }
+
+        StreamingHistogram[] histograms = new StreamingHistogram[columns.length];
+        for (int c = 0; c < columns.length; ++c) {
+            double low = min[c];
+            double high = max[c];
+            if (low > high) {
+                low = 0;
+                high = 1;
+            }
+
+            double margin = (high - low) / 2;
+            if (margin == 0) {
+                margin = Math.max(Math.abs(low) * 1e-6, 1e-12);
+            }
+            histograms[c] = new StreamingHistogram(low - margin, high + margin, binCount);
+        }
+        return histograms;
+    }
+
+    private void draw(SplittableRandom random, CircuitState state) {
+        state.solve(emfTolerance.sample(emf, random),
+                internalTolerance.sample(internalResistance, random),
+                externalTolerance.sample(externalResistance, random));
+    }
+
+    private class BlocksTask extends RecursiveAction {
+        private final long samples;
+        private final SplittableRandom[] streams;
+        private final SweepColumn[] columns;
+        private final StreamingHistogram[] totals;
+        private final double[][] sums;
+        private final double[][] sumSquares;
+        private final int fromBlock;
+        private final int toBlock;
+
+        BlocksTask(long samples, SplittableRandom[] streams, SweepColumn[] columns, StreamingHistogram[] totals,
+                   double[][] sums, double[][] sumSquares, int fromBlock, int toBlock) {
+            this.samples = samples;
+            this.streams = streams;
+            this.columns = columns;
+            this.totals = totals;
+            this.sums = sums;
+            this.sumSquares = sumSquares;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                invokeAll(new BlocksTask(samples, streams, columns, totals, sums, sumSquares, fromBlock, middle),
+                        new BlocksTask(samples, streams, columns, totals, sums, sumSquares, middle, toBlock));
+                return;
+            }
+            if (fromBlock == toBlock) {
+                return;
+            }
+
+            int block = fromBlock;
+            long count = Math.min(BLOCK_SIZE, samples - (long) block * BLOCK_SIZE);
+            SplittableRandom random = streams[block];
+            CircuitState state = new CircuitState();
+
+            StreamingHistogram[] local = new StreamingHistogram[columns.length];
+            for (int c = 0; c < columns.length; ++c) {
+                local[c] = totals[c].emptyCopy();
+            }
+
+            for (long k = 0; k < count; ++k) {
+                draw(random, state);
+                for (int c = 0; c < columns.length; ++c) {
+                    local[c].add(state.getValue(columns[c]));
+                }
+            }
+
+            for (int c = 0; c < columns.length; ++c) {
+                sums[block][c] = local[c].getSum();
+                sumSquares[block][c] = local[c].getSumSquares();
+                synchronized (totals[c]) {
+                    totals[c].mergeCounts(local[c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of the analysis
+     */
+    public static class Result {
+        private final long samples;
+        private final Map<SweepColumn, StreamingHistogram> histograms;
+
+        Result(long samples, Map<SweepColumn, StreamingHistogram> histograms) {
+            this.samples = samples;
+            this.histograms = histograms;
+        }
+
+        /**
+         * @return Count of drawn samples
+         */
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * @param column Value column
+         * @return Histogram of the value
+         * @throws IllegalArgumentException If histogram for the column was not requested
+         */
+        public StreamingHistogram getHistogram(SweepColumn column) {
+            StreamingHistogram histogram = histograms.get(column);
+            if (histogram == null) {
+                throw new IllegalArgumentException("Column " + column + " was not analysed");
+            }
+            return histogram;
+        }
+
+        /**
+         * Estimates part of samples with value in the range
+         * @param column Value column
+         * @param min Lower bound of the range
+         * @param max Upper bound of the range
+         * @return Part of samples in range [0..1]
+         */
+        public double getYield(SweepColumn column, double min, double max) {
+            StreamingHistogram histogram = getHistogram(column);
+            return histogram.cumulative(max) - histogram.cumulative(min);
+        }
+    }
+}
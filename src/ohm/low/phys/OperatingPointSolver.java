@@ -0,0 +1,259 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.base.NonlinearResistor;
+import ohm.low.phys.metrics.Metrics;
+import ohm.low.phys.metrics.SweepEvent;
+
+/**
+ * Finds operating point of the non-ohmic element connected to the power supply.
+ * Newton-Raphson iterations solve (EMF - U) / r = I(U) for the element voltage U.
+ * Root is kept in the bracket [0..EMF], steps leaving the bracket are replaced by bisection,
+ * so every non-falling curve converges. Every solve starts from the previous operating point,
+ * sweeps also extrapolate from two previous points, so neighbouring points take 1-3 iterations
+ */
+public class OperatingPointSolver {
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+    private static final double DEFAULT_VOLTAGE_TOLERANCE = 1e-12;
+    private static final double DEFAULT_RELATIVE_TOLERANCE = 1e-12;
+    private static final double RESIDUAL_TOLERANCE = 1e-6;
+
+    private final NonlinearResistor element;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double voltageTolerance = DEFAULT_VOLTAGE_TOLERANCE;
+    private double relativeTolerance = DEFAULT_RELATIVE_TOLERANCE;
+
+    private double voltage;
+    private int iterations;
+
+    /**
+     * Creates solver for the element
+     * @param element Element connected to the power supply as external resistor
+     */
+    public OperatingPointSolver(NonlinearResistor element) {
+        this.element = element;
+    }
+
+    /**
+     * Set convergence criteria, iterations stop when voltage step is lesser than
+     * voltageTolerance + relativeTolerance * |U|
+     * @param voltageTolerance Absolute voltage tolerance [ Volts ]
+     * @param relativeTolerance Relative voltage tolerance
+     * @param maxIterations Max count of iterations for one point
+     */
+    public void setTolerance(double voltageTolerance, double relativeTolerance, int maxIterations) {
+        if (!(voltageTolerance >= 0) || !(relativeTolerance >= 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("Wrong tolerance or iterations count");
+        }
+        this.voltageTolerance = voltageTolerance;
+        this.relativeTolerance = relativeTolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Solves circuit starting from the previous operating point
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param state State object to fill, external resistance is the static resistance U / I of the element
+     * @return Filled state object
+     * @throws IllegalPhysicsSystemStateException If iterations did not converge, e.g. thermal runaway
+     */
+    public CircuitState solve(double emf, double internalResistance, CircuitState state)
+            throws IllegalPhysicsSystemStateException {
+        boolean converged = converge(emf, internalResistance, voltage);
+        if (Metrics.ENABLED) {
+            Metrics.NEWTON_ITERATIONS.add(iterations);
+        }
+        if (!converged) {
+            throw new IllegalPhysicsSystemStateException("Operating point did not converge in "
+                    + iterations + " iterations");
+        }
+        return fill(emf, internalResistance, state);
+    }
+
+    /**
+     * Solves circuit for uniformly changed EMF, every point starts from the extrapolation of two previous ones
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param fromEmf First EMF value [ Volts ]
+     * @param toEmf Last EMF value [ Volts ]
+     * @param elementVoltage Array to write element voltages to, NaN for not converged points [ Volts ]
+     * @param elementCurrent Array to write element currents to, NaN for not converged points [ Amps ]
+     * @return Iteration statistics of the sweep
+     */
+    public Statistics sweepEmf(double internalResistance, double fromEmf, double toEmf,
+                               double[] elementVoltage, double[] elementCurrent) {
+        int size = elementVoltage.length;
+        if (elementCurrent.length != size) {
+            throw new IllegalArgumentException("Arrays have different lengths");
+        }
+
+        SweepEvent event = Metrics.ENABLED ? Metrics.beginSweep("newton") : null;
+        Statistics statistics = new Statistics();
+        double step = (size > 1) ? (toEmf - fromEmf) / (size - 1) : 0;
+        int known = 0;
+        for (int i = 0; i < size; ++i) {
+            double emf = (i == size - 1) ? toEmf : fromEmf + i * step;
+            double guess = voltage;
+            if (known >= 2) {
+                guess = 2 * elementVoltage[i - 1] - elementVoltage[i - 2];
+            }
+
+            boolean converged = converge(emf, internalResistance, guess);
+            statistics.add(iterations, converged);
+            if (converged) {
+                elementVoltage[i] = voltage;
+                elementCurrent[i] = element.getCurrentIfVoltage(voltage);
+                ++known;
+            } else {
+                elementVoltage[i] = Double.NaN;
+                elementCurrent[i] = Double.NaN;
+                voltage = 0;
+                known = 0;
+            }
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics.endSweep(event, size);
+            Metrics.NEWTON_ITERATIONS.add(statistics.getTotalIterations());
+        }
+        return statistics;
+    }
+
+    /**
+     * Newton iterations with bisection fallback, the root is left in the voltage field
+     * @return true if iterations converged
+     */
+    private boolean converge(double emf, double internalResistance, double guess) {
+        iterations = 0;
+        if (internalResistance == 0) {
+            voltage = emf;
+            return Double.isFinite(element.getCurrentIfVoltage(emf));
+        }
+
+        double conductance = 1 / internalResistance;
+        double low = Math.min(0, emf);
+        double high = Math.max(0, emf);
+        double u = (guess >= low && guess <= high) ? guess : 0.5 * (low + high);
+
+        while (iterations < maxIterations) {
+            ++iterations;
+            double residual = (emf - u) * conductance - element.getCurrentIfVoltage(u);
+            if (residual == 0) {
+                voltage = u;
+                return true;
+            }
+            if (residual > 0) {
+                low = u;
+            } else {
+                high = u;
+            }
+
+            double derivative = -conductance - element.getConductance(u);
+            double next = element.limitVoltage(u - residual / derivative, u);
+            boolean newton = next >= low && next <= high;
+            if (!newton) {
+                next = 0.5 * (low + high);
+            }
+
+            // Vanishing step at the vertical part of the curve or collapsed bisection is not a root,
+            // e.g. the edge of thermal runaway, so the residual is checked too
+            double change = Math.abs(next - u);
+            double scale = Math.abs(emf) * conductance + Math.abs(element.getCurrentIfVoltage(u));
+            u = next;
+            if (newton && change <= voltageTolerance + relativeTolerance * Math.abs(u)
+                    && Math.abs(residual) <= RESIDUAL_TOLERANCE * scale) {
+                voltage = u;
+                return true;
+            }
+        }
+        voltage = u;
+        return false;
+    }
+
+    private CircuitState fill(double emf, double internalResistance, CircuitState state) {
+        double current = element.getCurrentIfVoltage(voltage);
+        double resistance = (current == 0) ? element.getResistance() : voltage / current;
+        return state.solve(emf, internalResistance, resistance);
+    }
+
+    /**
+     * @return Element voltage at the last operating point [ Volts ]
+     */
+    public double getVoltage() {
+        return voltage;
+    }
+
+    /**
+     * @return Count of iterations of the last solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Forgets the previous operating point, the next solve starts cold
+     */
+    public void reset() {
+        voltage = 0;
+    }
+
+    /**
+     * Iteration and convergence statistics of the sweep
+     */
+    public static class Statistics {
+        private int points;
+        private long totalIterations;
+        private int maxIterations;
+        private int failedPoints;
+
+        void add(int iterations, boolean converged) {
+            ++points;
+            totalIterations += iterations;
+            maxIterations = Math.max(maxIterations, iterations);
+            if (!converged) {
+                ++failedPoints;
+            }
+        }
+
+        /**
+         * @return Count of solved points
+         */
+        public int getPoints() {
+            return points;
+        }
+
+        /**
+         * @return Count of iterations of all the points
+         */
+        public long getTotalIterations() {
+            return totalIterations;
+        }
+
+        /**
+         * @return Mean count of iterations for one point
+         */
+        public double getMeanIterations() {
+            return (points == 0) ? 0 : (double) totalIterations / points;
+        }
+
+        /**
+         * @return Max count of iterations for one point
+         */
+        public int getMaxIterations() {
+            return maxIterations;
+        }
+
+        /**
+         * @return Count of points which did not converge
+         */
+        public int getFailedPoints() {
+            return failedPoints;
+        }
+
+        @Override
+        public String toString() {
+            return "points=" + points + ", iterations mean=" + getMeanIterations() + " max=" + maxIterations
+                    + ", failed=" + failedPoints;
+        }
+    }
+}
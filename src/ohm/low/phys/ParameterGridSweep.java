@@ -0,0 +1,246 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.metrics.Metrics;
+import ohm.low.phys.metrics.SweepEvent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sweep over the grid EMF x internal resistance x external resistance.
+ * Grid point (e, i, x) has flat index (e * internalCount + i) * externalCount + x.
+ * Calculation is split into fork/join tasks, one task per buffers page
+ */
+public class ParameterGridSweep {
+    /**
+     * Receives count of calculated grid points
+     */
+    public interface ProgressListener {
+        /**
+         * Called from worker threads after every calculated page
+         * @param done Count of calculated points
+         * @param total Count of all the points in the grid
+         */
+        void progressChanged(long done, long total);
+    }
+
+    private final double[] emfValues;
+    private final double[] internalResistanceValues;
+    private final double[] externalResistanceValues;
+    private final long size;
+
+    /**
+     * Cancel request, it is taken by the running calculation or by the next one if none is running
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong done = new AtomicLong();
+    private volatile boolean lastCancelled;
+
+    /**
+     * Creates grid sweep
+     * @param emfValues EMF axis values [ Volts ]
+     * @param internalResistanceValues Internal resistance axis values [ Ohms ]
+     * @param externalResistanceValues External resistance axis values [ Ohms ]
+     * @throws WrongPhysicsParameterException If some EMF or resistance value < 0
+     */
+    public ParameterGridSweep(double[] emfValues, double[] internalResistanceValues,
+                              double[] externalResistanceValues) throws WrongPhysicsParameterException {
+        checkNotNegative(emfValues, "EMF is lesser than zero");
+        checkNotNegative(internalResistanceValues, "Resistance value lower than zero");
+        checkNotNegative(externalResistanceValues, "Resistance value lower than zero");
+
+        this.emfValues = emfValues.clone();
+        this.internalResistanceValues = internalResistanceValues.clone();
+        this.externalResistanceValues = externalResistanceValues.clone();
+        size = (long) emfValues.length * internalResistanceValues.length * externalResistanceValues.length;
+    }
+
+    /**
+     * Creates axis with uniformly distributed values, both ends are included
+     * @param min First value
+     * @param max Last value
+     * @param steps Count of values
+     * @return Axis values
+     */
+    public static double[] axis(double min, double max, int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Axis steps count is lesser than 1");
+        }
+
+        double[] values = new double[steps];
+        if (steps == 1) {
+            values[0] = min;
+            return values;
+        }
+
+        double range = max - min;
+        for (int i = 0; i < steps; ++i) {
+            values[i] = min + range * i / (steps - 1);
+        }
+        values[steps - 1] = max;
+        return values;
+    }
+
+    /**
+     * @return Count of points in the grid
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Calculates flat index of the grid point
+     * @param emfIndex Index on the EMF axis
+     * @param internalIndex Index on the internal resistance axis
+     * @param externalIndex Index on the external resistance axis
+     * @return Flat index
+     */
+    public long index(int emfIndex, int internalIndex, int externalIndex) {
+        return ((long) emfIndex * internalResistanceValues.length + internalIndex) * externalResistanceValues.length
+                + externalIndex;
+    }
+
+    /**
+     * Allocates buffers which fit the grid
+     * @param columns Columns to calculate
+     * @return Buffers for the grid
+     */
+    public GridSweepBuffers createBuffers(SweepColumn... columns) {
+        return new GridSweepBuffers(size, columns);
+    }
+
+    /**
+     * Calculates grid in the common fork/join pool, blocks until done or cancelled
+     * @param buffers Buffers to fill
+     * @param listener Progress listener, may be null
+     * @return true if all the grid is calculated, false if cancelled
+     */
+    public boolean calculate(GridSweepBuffers buffers, ProgressListener listener) {
+        return calculate(buffers, ForkJoinPool.commonPool(), listener);
+    }
+
+    /**
+     * Calculates grid in the pool, blocks until done or cancelled.
+     * Cancel requested before the start cancels this calculation, it returns at once
+     * @param buffers Buffers to fill
+     * @param pool Pool to run tasks in
+     * @param listener Progress listener, may be null
+     * @return true if all the grid is calculated, false if cancelled
+     */
+    public boolean calculate(GridSweepBuffers buffers, ForkJoinPool pool, ProgressListener listener) {
+        if (buffers.getSize() != size) {
+            throw new IllegalArgumentException("Buffers size does not match grid size");
+        }
+
+        SweepEvent event = Metrics.ENABLED ? Metrics.beginSweep("grid") : null;
+        done.set(0);
+        pool.invoke(new PagesTask(buffers, listener, 0, buffers.getPageCount()));
+
+        // The request is taken by this calculation, the next one runs unless cancelled again
+        cancelled.set(false);
+        lastCancelled = done.get() < size;
+        if (Metrics.ENABLED) {
+            Metrics.endSweep(event, done.get());
+        }
+        return !lastCancelled;
+    }
+
+    /**
+     * Cancels running calculation, pages being calculated are finished.
+     * If no calculation is running, the next one is cancelled
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * @return true if the last calculation was cancelled or cancel is requested
+     */
+    public boolean isCancelled() {
+        return lastCancelled || cancelled.get();
+    }
+
+    /**
+     * @return Count of calculated points
+     */
+    public long getDone() {
+        return done.get();
+    }
+
+    private void calculatePage(GridSweepBuffers buffers, int page) {
+        long start = (long) page << GridSweepBuffers.PAGE_SHIFT;
+        long end = Math.min(size, start + GridSweepBuffers.PAGE_SIZE);
+
+        int externalCount = externalResistanceValues.length;
+        int internalCount = internalResistanceValues.length;
+        long row = start / externalCount;
+        int x = (int) (start - row * externalCount);
+        int i = (int) (row % internalCount);
+        int e = (int) (row / internalCount);
+
+        SweepColumn[] columns = buffers.getColumns();
+        long index = start;
+        while (index < end) {
+            int length = (int) Math.min(externalCount - x, end - index);
+            int offset = (int) (index - start);
+            for (int c = 0; c < columns.length; ++c) {
+                columns[c].fill(emfValues[e], internalResistanceValues[i], externalResistanceValues,
+                        x, x + length, buffers.getPage(c, page), offset);
+            }
+
+            index += length;
+            x = 0;
+            if (++i == internalCount) {
+                i = 0;
+                ++e;
+            }
+        }
+    }
+
+    private static void checkNotNegative(double[] values, String message) throws WrongPhysicsParameterException {
+        for (double value : values) {
+            if (value < 0) {
+                throw new WrongPhysicsParameterException(message);
+            }
+        }
+    }
+
+    private class PagesTask extends RecursiveAction {
+        private final GridSweepBuffers buffers;
+        private final ProgressListener listener;
+        private final int fromPage;
+        private final int toPage;
+
+        PagesTask(GridSweepBuffers buffers, ProgressListener listener, int fromPage, int toPage) {
+            this.buffers = buffers;
+            this.listener = listener;
+            this.fromPage = fromPage;
+            this.toPage = toPage;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPage - fromPage > 1) {
+                int middle = (fromPage + toPage) >>> 1;
+                invokeAll(new PagesTask(buffers, listener, fromPage, middle),
+                        new PagesTask(buffers, listener, middle, toPage));
+                return;
+            }
+
+            if (fromPage == toPage || cancelled.get()) {
+                return;
+            }
+
+            calculatePage(buffers, fromPage);
+
+            long pageSize = buffers.getPage(0, fromPage).length;
+            long doneNow = done.addAndGet(pageSize);
+            if (listener != null) {
+                listener.progressChanged(doneNow, size);
+            }
+        }
+    }
+}
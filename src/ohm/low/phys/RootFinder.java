@@ -0,0 +1,134 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+/**
+ * Bracketed root finding by Brent's method: inverse quadratic interpolation and secant steps,
+ * bisection when the interpolation does not shrink the bracket fast enough.
+ * Converges for every continuous function changing its sign in the bracket
+ */
+public final class RootFinder {
+    /**
+     * Function of one variable which may fail, e.g. when the circuit can not be solved
+     */
+    public interface Function {
+        double apply(double x) throws IllegalPhysicsSystemStateException;
+    }
+
+    private static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    private RootFinder() {
+
+    }
+
+    /**
+     * Finds root with the default max count of iterations
+     * @param function Function to find root of
+     * @param low One end of the bracket
+     * @param high Other end of the bracket
+     * @param tolerance Absolute tolerance of the root
+     * @return Root of the function
+     * @throws WrongPhysicsParameterException If function does not change its sign in the bracket
+     * @throws IllegalPhysicsSystemStateException If function failed or iterations did not converge
+     */
+    public static double brent(Function function, double low, double high, double tolerance)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        return brent(function, low, high, tolerance, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Finds root of the function in the bracket
+     * @param function Function to find root of
+     * @param low One end of the bracket
+     * @param high Other end of the bracket
+     * @param tolerance Absolute tolerance of the root
+     * @param maxIterations Max count of function evaluations
+     * @return Root of the function
+     * @throws WrongPhysicsParameterException If function does not change its sign in the bracket
+     * @throws IllegalPhysicsSystemStateException If function failed or iterations did not converge
+     */
+    public static double brent(Function function, double low, double high, double tolerance, int maxIterations)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        double a = low;
+        double b = high;
+        double fa = function.apply(a);
+        double fb = function.apply(b);
+        if (fa == 0) {
+            return a;
+        }
+        if (fb == 0) {
+            return b;
+        }
+        if (!(fa * fb < 0)) {
+            throw new WrongPhysicsParameterException("Target is not reachable in range " + low + ".." + high);
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < maxIterations; ++iteration) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double bound = 2 * Math.ulp(b) + 0.5 * tolerance;
+            double middle = 0.5 * (c - b);
+            if (Math.abs(middle) <= bound || fb == 0) {
+                return b;
+            }
+
+            if (Math.abs(e) >= bound && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+
+                if (2 * p < Math.min(3 * middle * q - Math.abs(bound * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += (Math.abs(d) > bound) ? d : Math.copySign(bound, middle);
+            fb = function.apply(b);
+            if (Double.isNaN(fb)) {
+                throw new IllegalPhysicsSystemStateException("Function is not defined at " + b);
+            }
+        }
+        throw new IllegalPhysicsSystemStateException("Root was not found in " + maxIterations + " iterations");
+    }
+}
@@ -0,0 +1,265 @@
+package ohm.low.phys;
+
+/**
+ * Fixed-range histogram with running moments, takes values one by one and keeps constant memory.
+ * Values out of range go to underflow and overflow counters, NaN values are counted as invalid
+ */
+public class StreamingHistogram {
+    private final double min;
+    private final double max;
+    private final double binWidth;
+    private final long[] bins;
+
+    private long underflow;
+    private long overflow;
+    private long invalid;
+    private long infinite;
+    private long count;
+    private double sum;
+    private double sumSquares;
+    private double minValue = Double.POSITIVE_INFINITY;
+    private double maxValue = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates empty histogram
+     * @param min Lower bound of the first bin
+     * @param max Upper bound of the last bin
+     * @param binCount Count of bins
+     */
+    public StreamingHistogram(double min, double max, int binCount) {
+        if (!(max > min) || binCount < 1) {
+            throw new IllegalArgumentException("Wrong histogram range or bin count");
+        }
+
+        this.min = min;
+        this.max = max;
+        binWidth = (max - min) / binCount;
+        bins = new long[binCount];
+    }
+
+    /**
+     * Adds value to the histogram
+     * @param value Value to add
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            ++invalid;
+            return;
+        }
+
+        ++count;
+        if (value < min) {
+            ++underflow;
+        } else if (value >= max) {
+            ++overflow;
+        } else {
+            int bin = (int) ((value - min) / binWidth);
+            ++bins[Math.min(bin, bins.length - 1)];
+        }
+
+        if (Double.isInfinite(value)) {
+            ++infinite;
+        } else {
+            sum += value;
+            sumSquares += value * value;
+        }
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Adds all the values of other histogram with the same bins
+     * @param other Histogram to add
+     */
+    public void merge(StreamingHistogram other) {
+        mergeCounts(other);
+        sum += other.sum;
+        sumSquares += other.sumSquares;
+    }
+
+    /**
+     * Adds counters of other histogram with the same bins, sums are not added.
+     * Counters are integer, so the result does not depend on the merge order
+     */
+    void mergeCounts(StreamingHistogram other) {
+        if (other.min != min || other.max != max || other.bins.length != bins.length) {
+            throw new IllegalArgumentException("Histograms have different bins");
+        }
+
+        for (int i = 0; i < bins.length; ++i) {
+            bins[i] += other.bins[i];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+        invalid += other.invalid;
+        infinite += other.infinite;
+        count += other.count;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Adds sums of finite values
+     */
+    void addSums(double sum, double sumSquares) {
+        this.sum += sum;
+        this.sumSquares += sumSquares;
+    }
+
+    double getSum() {
+        return sum;
+    }
+
+    double getSumSquares() {
+        return sumSquares;
+    }
+
+    /**
+     * Estimates quantile by linear interpolation inside the bin
+     * @param probability Probability in range [0..1]
+     * @return Value below which the part of values lies
+     */
+    public double quantile(double probability) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("Probability is not in range 0..1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        double rank = probability * count;
+        if (rank <= underflow) {
+            return minValue;
+        }
+
+        double seen = underflow;
+        for (int i = 0; i < bins.length; ++i) {
+            if (seen + bins[i] >= rank && bins[i] > 0) {
+                return min + binWidth * (i + (rank - seen) / bins[i]);
+            }
+            seen += bins[i];
+        }
+        return maxValue;
+    }
+
+    /**
+     * Estimates part of the values lesser than the value
+     * @param value Value to compare with
+     * @return Part of values in range [0..1]
+     */
+    public double cumulative(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (value < min) {
+            return (value < minValue) ? 0 : (double) underflow / count;
+        }
+        if (value >= max) {
+            return (value >= maxValue) ? 1 : (double) (count - overflow) / count;
+        }
+
+        double position = (value - min) / binWidth;
+        int bin = Math.min((int) position, bins.length - 1);
+        double seen = underflow;
+        for (int i = 0; i < bin; ++i) {
+            seen += bins[i];
+        }
+        seen += bins[bin] * (position - bin);
+        return seen / count;
+    }
+
+    /**
+     * @return Mean of the finite values
+     */
+    public double getMean() {
+        long finite = getFiniteCount();
+        return (finite == 0) ? Double.NaN : sum / finite;
+    }
+
+    /**
+     * @return Standard deviation of the finite values
+     */
+    public double getStandardDeviation() {
+        long finite = getFiniteCount();
+        if (finite < 2) {
+            return Double.NaN;
+        }
+        double mean = sum / finite;
+        return Math.sqrt(Math.max(0, (sumSquares - finite * mean * mean) / (finite - 1)));
+    }
+
+    /**
+     * @return Count of added values, NaN values are not counted
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Count of NaN values
+     */
+    public long getInvalidCount() {
+        return invalid;
+    }
+
+    /**
+     * @return Count of values lesser than the histogram range
+     */
+    public long getUnderflow() {
+        return underflow;
+    }
+
+    /**
+     * @return Count of values greater than the histogram range
+     */
+    public long getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return Min added value
+     */
+    public double getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * @return Max added value
+     */
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return Count of values in every bin
+     */
+    public long[] getBins() {
+        return bins.clone();
+    }
+
+    /**
+     * @return Lower bound of the first bin
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return Upper bound of the last bin
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Creates empty histogram with the same bins
+     * @return New histogram
+     */
+    public StreamingHistogram emptyCopy() {
+        return new StreamingHistogram(min, max, bins.length);
+    }
+
+    private long getFiniteCount() {
+        return count - infinite;
+    }
+}
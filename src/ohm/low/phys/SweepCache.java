@@ -0,0 +1,231 @@
+package ohm.low.phys;
+
+import ohm.low.phys.metrics.Metrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of adaptively sampled sweeps. Sweeps are keyed by circuit parameters, resistance range
+ * and sampler resolution, the least recently used sweeps are evicted when the cache grows over its memory budget.
+ * Sweeps are kept as compact sweeps, only their current column is stored
+ */
+public class SweepCache {
+    private final long maxBytes;
+    private final SweepPrecision precision;
+    private final LinkedHashMap<Key, CompactSweep> sweeps = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates empty cache
+     * @param maxBytes Memory budget of the cached sweeps [ Bytes ]
+     */
+    public SweepCache(long maxBytes) {
+        this(maxBytes, SweepPrecision.DOUBLE);
+    }
+
+    /**
+     * Creates empty cache keeping sweeps with reduced precision
+     * @param maxBytes Memory budget of the cached sweeps [ Bytes ]
+     * @param precision Storage precision of the cached sweeps
+     */
+    public SweepCache(long maxBytes, SweepPrecision precision) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Memory budget is lesser than zero");
+        }
+        this.maxBytes = maxBytes;
+        this.precision = precision;
+    }
+
+    /**
+     * Returns cached sweep or samples it and puts it to the cache
+     * @param sampler Sampler to use if sweep is not cached, its resolution is a part of the key
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance Last external resistance value [ Ohms ]
+     * @return Sampled sweep
+     */
+    public CompactSweep sample(AdaptiveSampler sampler, double emf, double internalResistance,
+                               double minResistance, double maxResistance) {
+        return sample(sampler, emf, internalResistance, minResistance, maxResistance, null);
+    }
+
+    /**
+     * Returns cached sweep or samples it reporting the progress and puts it to the cache.
+     * Cached sweep is returned at once without progress calls, abandoned sweep is not cached
+     * @param sampler Sampler to use if sweep is not cached, its resolution is a part of the key
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance Last external resistance value [ Ohms ]
+     * @param progress Receiver of the sampled points, null for none
+     * @return Sampled sweep, null if progress abandoned the sampling
+     */
+    public CompactSweep sample(AdaptiveSampler sampler, double emf, double internalResistance,
+                               double minResistance, double maxResistance, SweepProgress progress) {
+        Key key = new Key(emf, internalResistance, minResistance, maxResistance,
+                sampler.getTolerance(), sampler.getMaxPoints());
+        synchronized (this) {
+            CompactSweep sweep = sweeps.get(key);
+            if (sweep != null) {
+                ++hits;
+                if (Metrics.ENABLED) {
+                    Metrics.sweepCache("hit", emf, internalResistance, sweep.getSize(), bytes);
+                }
+                return sweep;
+            }
+            ++misses;
+            if (Metrics.ENABLED) {
+                Metrics.sweepCache("miss", emf, internalResistance, 0, bytes);
+            }
+        }
+
+        CircuitSweep sampled = sampler.sample(emf, internalResistance, minResistance, maxResistance, progress);
+        if (sampled == null) {
+            return null;
+        }
+        CompactSweep sweep = CompactSweep.of(sampled, emf, internalResistance, precision);
+        put(key, sweep);
+        return sweep;
+    }
+
+    /**
+     * Removes all the sweeps, counters are kept
+     */
+    public synchronized void clear() {
+        sweeps.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return Count of sweeps found in the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Count of sweeps sampled because they were not in the cache
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Count of sweeps removed to keep the memory budget
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Count of cached sweeps
+     */
+    public synchronized int getSize() {
+        return sweeps.size();
+    }
+
+    /**
+     * @return Estimated memory used by the cached sweeps [ Bytes ]
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Memory budget of the cached sweeps [ Bytes ]
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return Storage precision of the cached sweeps
+     */
+    public SweepPrecision getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SweepCache: sweeps=" + sweeps.size() + ", bytes=" + bytes + "/" + maxBytes
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions;
+    }
+
+    private synchronized void put(Key key, CompactSweep sweep) {
+        long size = sweep.getBytes();
+        if (size > maxBytes) {
+            return;
+        }
+
+        CompactSweep previous = sweeps.put(key, sweep);
+        bytes += size;
+        if (previous != null) {
+            bytes -= previous.getBytes();
+        }
+
+        Iterator<Map.Entry<Key, CompactSweep>> eldest = sweeps.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<Key, CompactSweep> entry = eldest.next();
+            bytes -= entry.getValue().getBytes();
+            eldest.remove();
+            ++evictions;
+            if (Metrics.ENABLED) {
+                Metrics.sweepCache("eviction", entry.getKey().emf, entry.getKey().internalResistance,
+                        entry.getValue().getSize(), bytes);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final double emf;
+        private final double internalResistance;
+        private final double minResistance;
+        private final double maxResistance;
+        private final double tolerance;
+        private final int maxPoints;
+
+        Key(double emf, double internalResistance, double minResistance, double maxResistance,
+            double tolerance, int maxPoints) {
+            this.emf = emf;
+            this.internalResistance = internalResistance;
+            this.minResistance = minResistance;
+            this.maxResistance = maxResistance;
+            this.tolerance = tolerance;
+            this.maxPoints = maxPoints;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Double.compare(emf, key.emf) == 0
+                    && Double.compare(internalResistance, key.internalResistance) == 0
+                    && Double.compare(minResistance, key.minResistance) == 0
+                    && Double.compare(maxResistance, key.maxResistance) == 0
+                    && Double.compare(tolerance, key.tolerance) == 0
+                    && maxPoints == key.maxPoints;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(emf);
+            result = 31 * result + Double.hashCode(internalResistance);
+            result = 31 * result + Double.hashCode(minResistance);
+            result = 31 * result + Double.hashCode(maxResistance);
+            result = 31 * result + Double.hashCode(tolerance);
+            return 31 * result + maxPoints;
+        }
+    }
+}
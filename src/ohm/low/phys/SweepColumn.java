@@ -0,0 +1,93 @@
+package ohm.low.phys;
+
+/**
+ * Values which may be calculated for the power supply circuit during the sweep.
+ * Every column fills a range with its own primitive loop, so there is no per-point dispatch
+ */
+public enum SweepColumn {
+    CURRENT {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                destination[j] = current(emf, internalResistance, resistance[i]);
+            }
+        }
+    },
+    EXTERNAL_VOLTAGE {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                destination[j] = current(emf, internalResistance, resistance[i]) * resistance[i];
+            }
+        }
+    },
+    INTERNAL_VOLTAGE {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                destination[j] = current(emf, internalResistance, resistance[i]) * internalResistance;
+            }
+        }
+    },
+    FULL_POWER {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                destination[j] = emf * current(emf, internalResistance, resistance[i]);
+            }
+        }
+    },
+    POWER_LOSS {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                double current = current(emf, internalResistance, resistance[i]);
+                destination[j] = current * current * internalResistance;
+            }
+        }
+    },
+    EXTERNAL_POWER {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            for (int i = from, j = destinationFrom; i < to; ++i, ++j) {
+                double current = current(emf, internalResistance, resistance[i]);
+                destination[j] = current * (current * resistance[i]);
+            }
+        }
+    },
+    EXTERNAL_RESISTANCE {
+        @Override
+        public void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                         double[] destination, int destinationFrom) {
+            System.arraycopy(resistance, from, destination, destinationFrom, to - from);
+        }
+    };
+
+    /**
+     * Calculates column values for the range of external resistances
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param resistance External resistance values [ Ohms ]
+     * @param from First resistance index, inclusive
+     * @param to Last resistance index, exclusive
+     * @param destination Array to write values to
+     * @param destinationFrom Index in destination array for the first value
+     */
+    public abstract void fill(double emf, double internalResistance, double[] resistance, int from, int to,
+                              double[] destination, int destinationFrom);
+
+    /**
+     * Calculates current the same way as DCPowerSupplyConnection does
+     * @return Current value [ Amps ], positive infinity for short circuit
+     */
+    static double current(double emf, double internalResistance, double externalResistance) {
+        double resistance = internalResistance + externalResistance;
+        return (resistance == 0) ? Double.POSITIVE_INFINITY : emf / resistance;
+    }
+}
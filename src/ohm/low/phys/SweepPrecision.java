@@ -0,0 +1,32 @@
+package ohm.low.phys;
+
+/**
+ * Storage precision of the current column of the compact sweep
+ */
+public enum SweepPrecision {
+    /**
+     * 8 bytes per point, values are kept exactly
+     */
+    DOUBLE(Double.BYTES),
+    /**
+     * 4 bytes per point, about 7 significant digits, for display
+     */
+    FLOAT(Float.BYTES),
+    /**
+     * 2 bytes per point, 1/65534 of the current range of the sweep, for display
+     */
+    QUANTIZED(Character.BYTES);
+
+    private final int bytes;
+
+    SweepPrecision(int bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return Memory used by one point [ Bytes ]
+     */
+    public int getBytes() {
+        return bytes;
+    }
+}
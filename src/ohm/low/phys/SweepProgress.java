@@ -0,0 +1,11 @@
+package ohm.low.phys;
+
+public interface SweepProgress {
+    /**
+     * Called while the sweep is sampled with the points finished since the previous call,
+     * points come in order of growing external resistance
+     * @param current Current values of the new points, the array is not used by the sampler any more [ Amps ]
+     * @return False to abandon the sampling
+     */
+    boolean accept(double[] current);
+}
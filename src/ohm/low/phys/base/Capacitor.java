@@ -0,0 +1,45 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+public class Capacitor {
+    private final double capacitance;
+    private final double initialVoltage;
+
+    /**
+     * Creates discharged capacitor
+     * @param capacitance Capacitance value [ Farads ]
+     * @throws WrongPhysicsParameterException If capacitance <= 0
+     */
+    public Capacitor(double capacitance) throws WrongPhysicsParameterException {
+        this(capacitance, 0);
+    }
+
+    /**
+     * Creates charged capacitor
+     * @param capacitance Capacitance value [ Farads ]
+     * @param initialVoltage Voltage on the capacitor at the start of simulation [ Volts ]
+     * @throws WrongPhysicsParameterException If capacitance <= 0
+     */
+    public Capacitor(double capacitance, double initialVoltage) throws WrongPhysicsParameterException {
+        if (!(capacitance > 0) || capacitance == Double.POSITIVE_INFINITY) {
+            throw new WrongPhysicsParameterException("Capacitance is not greater than zero");
+        }
+        this.capacitance = capacitance;
+        this.initialVoltage = initialVoltage;
+    }
+
+    /**
+     * @return Capacitance value [ Farads ]
+     */
+    public double getCapacitance() {
+        return capacitance;
+    }
+
+    /**
+     * @return Voltage on the capacitor at the start of simulation [ Volts ]
+     */
+    public double getInitialVoltage() {
+        return initialVoltage;
+    }
+}
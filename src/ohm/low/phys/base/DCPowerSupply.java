@@ -5,6 +5,7 @@ import ohm.low.phys.Exception.WrongPhysicsParameterException;
 public class DCPowerSupply {
     private double emf;
     private Resistor internalResistor;
+    private Tolerance emfTolerance;
 
     /**
      * Creates power supply element
@@ -13,12 +14,25 @@ public class DCPowerSupply {
      * @throws WrongPhysicsParameterException If EMF value < 0
      */
     public DCPowerSupply(double emf, Resistor internalResistor) throws WrongPhysicsParameterException {
+        this(emf, internalResistor, Tolerance.NONE);
+    }
+
+    /**
+     * Creates power supply element with EMF tolerance
+     * @param emf Nominal electromotive force value [ Volts ]
+     * @param internalResistor Internal resistor installed in supply
+     * @param emfTolerance Distribution of the real EMF around the nominal one
+     * @throws WrongPhysicsParameterException If EMF value < 0
+     */
+    public DCPowerSupply(double emf, Resistor internalResistor, Tolerance emfTolerance)
+            throws WrongPhysicsParameterException {
         if (emf < 0) {
             throw new WrongPhysicsParameterException("EMF is lesser than zero");
         }
 
         this.emf = emf;
         this.internalResistor = internalResistor;
+        this.emfTolerance = Tolerance.check(emfTolerance);
     }
 
     /**
@@ -35,4 +49,11 @@ public class DCPowerSupply {
         return internalResistor;
     }
 
+    /**
+     * @return Distribution of the real EMF around the nominal one
+     */
+    public Tolerance getEmfTolerance() {
+        return emfTolerance;
+    }
+
 }
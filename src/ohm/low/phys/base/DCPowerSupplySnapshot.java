@@ -0,0 +1,109 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+/**
+ * Immutable power supply, may be shared between threads without locks.
+ * Changed supplies are derived by the with- methods, the original one is never changed
+ */
+public final class DCPowerSupplySnapshot {
+    private final double emf;
+    private final ResistorSnapshot internalResistor;
+    private final Tolerance emfTolerance;
+
+    /**
+     * Creates power supply snapshot
+     * @param emf Nominal electromotive force value [ Volts ]
+     * @param internalResistor Internal resistor installed in supply
+     * @param emfTolerance Distribution of the real EMF around the nominal one
+     * @throws WrongPhysicsParameterException If EMF value < 0
+     */
+    public DCPowerSupplySnapshot(double emf, ResistorSnapshot internalResistor, Tolerance emfTolerance)
+            throws WrongPhysicsParameterException {
+        if (!(emf >= 0)) {
+            throw new WrongPhysicsParameterException("EMF is lesser than zero");
+        }
+
+        this.emf = emf;
+        this.internalResistor = internalResistor;
+        this.emfTolerance = Tolerance.check(emfTolerance);
+    }
+
+    /**
+     * Creates snapshot of the values already checked by a power supply
+     * @throws IllegalArgumentException If EMF value < 0
+     */
+    private static DCPowerSupplySnapshot trusted(double emf, ResistorSnapshot internalResistor,
+                                                 Tolerance emfTolerance) {
+        try {
+            return new DCPowerSupplySnapshot(emf, internalResistor, emfTolerance);
+        } catch (WrongPhysicsParameterException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Takes the current values of the power supply and its internal resistor
+     * @param powerSupply Power supply to take values from
+     * @return Snapshot of the power supply
+     */
+    public static DCPowerSupplySnapshot of(DCPowerSupply powerSupply) {
+        return trusted(powerSupply.getEmf(), ResistorSnapshot.of(powerSupply.getInternalResistor()),
+                powerSupply.getEmfTolerance());
+    }
+
+    /**
+     * @param emf New electromotive force value [ Volts ]
+     * @return Snapshot with changed EMF
+     * @throws WrongPhysicsParameterException If EMF value < 0
+     */
+    public DCPowerSupplySnapshot withEmf(double emf) throws WrongPhysicsParameterException {
+        return new DCPowerSupplySnapshot(emf, internalResistor, emfTolerance);
+    }
+
+    /**
+     * @param resistance New internal resistance value [ Ohms ]
+     * @return Snapshot with changed internal resistance
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public DCPowerSupplySnapshot withInternalResistance(double resistance) throws WrongPhysicsParameterException {
+        return new DCPowerSupplySnapshot(emf, internalResistor.withResistance(resistance), emfTolerance);
+    }
+
+    /**
+     * @param internalResistor New internal resistor
+     * @return Snapshot with changed internal resistor
+     */
+    public DCPowerSupplySnapshot withInternalResistor(ResistorSnapshot internalResistor) {
+        return trusted(emf, internalResistor, emfTolerance);
+    }
+
+    /**
+     * @param emfTolerance New distribution of the real EMF
+     * @return Snapshot with changed EMF tolerance
+     */
+    public DCPowerSupplySnapshot withEmfTolerance(Tolerance emfTolerance) {
+        return trusted(emf, internalResistor, emfTolerance);
+    }
+
+    /**
+     * @return EMF value [ Volts ]
+     */
+    public double getEmf() {
+        return emf;
+    }
+
+    /**
+     * @return Internal resistor
+     */
+    public ResistorSnapshot getInternalResistor() {
+        return internalResistor;
+    }
+
+    /**
+     * @return Distribution of the real EMF around the nominal one
+     */
+    public Tolerance getEmfTolerance() {
+        return emfTolerance;
+    }
+}
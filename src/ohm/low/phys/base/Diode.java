@@ -0,0 +1,96 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+/**
+ * Diode with the Shockley curve I = Is * (exp(U / (n * Ut)) - 1), anode is the first terminal
+ */
+public class Diode implements NonlinearResistor {
+    private static final double BOLTZMANN_OVER_CHARGE = 8.617333262e-5;
+    private static final double ROOM_TEMPERATURE = 300;
+
+    private final double saturationCurrent;
+    private final double emissionCoefficient;
+    private final double thermalVoltage;
+    private final double criticalVoltage;
+
+    /**
+     * Creates diode working at the room temperature
+     * @param saturationCurrent Reverse saturation current [ Amps ]
+     * @param emissionCoefficient Ideality factor, 1..2
+     * @throws WrongPhysicsParameterException If saturation current or emission coefficient <= 0
+     */
+    public Diode(double saturationCurrent, double emissionCoefficient) throws WrongPhysicsParameterException {
+        this(saturationCurrent, emissionCoefficient, ROOM_TEMPERATURE);
+    }
+
+    /**
+     * Creates diode
+     * @param saturationCurrent Reverse saturation current [ Amps ]
+     * @param emissionCoefficient Ideality factor, 1..2
+     * @param temperature Junction temperature [ Kelvins ]
+     * @throws WrongPhysicsParameterException If any parameter <= 0
+     */
+    public Diode(double saturationCurrent, double emissionCoefficient, double temperature)
+            throws WrongPhysicsParameterException {
+        if (!(saturationCurrent > 0) || !(emissionCoefficient > 0) || !(temperature > 0)) {
+            throw new WrongPhysicsParameterException("Diode parameter is not greater than zero");
+        }
+        this.saturationCurrent = saturationCurrent;
+        this.emissionCoefficient = emissionCoefficient;
+        thermalVoltage = emissionCoefficient * BOLTZMANN_OVER_CHARGE * temperature;
+        criticalVoltage = thermalVoltage * Math.log(thermalVoltage / (Math.sqrt(2) * saturationCurrent));
+    }
+
+    /**
+     * @return Reverse saturation current [ Amps ]
+     */
+    public double getSaturationCurrent() {
+        return saturationCurrent;
+    }
+
+    /**
+     * @return Ideality factor
+     */
+    public double getEmissionCoefficient() {
+        return emissionCoefficient;
+    }
+
+    @Override
+    public double getResistance() {
+        return thermalVoltage / saturationCurrent;
+    }
+
+    @Override
+    public double getCurrentIfVoltage(double voltage) {
+        return saturationCurrent * Math.expm1(voltage / thermalVoltage);
+    }
+
+    @Override
+    public double getVoltageIfCurrent(double current) {
+        if (current <= -saturationCurrent) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return thermalVoltage * Math.log1p(current / saturationCurrent);
+    }
+
+    @Override
+    public double getConductance(double voltage) {
+        return saturationCurrent / thermalVoltage * Math.exp(voltage / thermalVoltage);
+    }
+
+    /**
+     * Junction voltage limiting: above the critical voltage the step is taken in the logarithm of the current
+     */
+    @Override
+    public double limitVoltage(double voltage, double previousVoltage) {
+        if (voltage <= criticalVoltage || Math.abs(voltage - previousVoltage) <= 2 * thermalVoltage) {
+            return voltage;
+        }
+        if (previousVoltage > 0) {
+            double argument = 1 + (voltage - previousVoltage) / thermalVoltage;
+            return (argument > 0) ? previousVoltage + thermalVoltage * Math.log(argument) : criticalVoltage;
+        }
+        return thermalVoltage * Math.log(voltage / thermalVoltage);
+    }
+}
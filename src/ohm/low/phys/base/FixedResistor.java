@@ -4,6 +4,7 @@ import ohm.low.phys.Exception.WrongPhysicsParameterException;
 
 public class FixedResistor implements Resistor {
     private double resistance;
+    private Tolerance tolerance;
 
     /**
      * Creates a resistor with fixed resistance value
@@ -11,10 +12,21 @@ public class FixedResistor implements Resistor {
      * @throws WrongPhysicsParameterException If resistance < 0
      */
     public FixedResistor(double resistance) throws WrongPhysicsParameterException {
+        this(resistance, Tolerance.NONE);
+    }
+
+    /**
+     * Creates a resistor with nominal resistance value and tolerance
+     * @param resistance Nominal resistance value [ Ohms ]
+     * @param tolerance Distribution of the real resistance around the nominal one
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public FixedResistor(double resistance, Tolerance tolerance) throws WrongPhysicsParameterException {
         if (resistance < 0) {
             throw new WrongPhysicsParameterException("Resistance value lower than zero");
         }
         this.resistance = resistance;
+        this.tolerance = Tolerance.check(tolerance);
     }
 
     @Override
@@ -22,6 +34,11 @@ public class FixedResistor implements Resistor {
         return resistance;
     }
 
+    @Override
+    public Tolerance getTolerance() {
+        return tolerance;
+    }
+
     @Override
     public double getCurrentIfVoltage(double voltage) {
         if (resistance == 0 && voltage != 0) {
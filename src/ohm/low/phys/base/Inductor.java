@@ -0,0 +1,45 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+public class Inductor {
+    private final double inductance;
+    private final double initialCurrent;
+
+    /**
+     * Creates inductor without current
+     * @param inductance Inductance value [ Henries ]
+     * @throws WrongPhysicsParameterException If inductance <= 0
+     */
+    public Inductor(double inductance) throws WrongPhysicsParameterException {
+        this(inductance, 0);
+    }
+
+    /**
+     * Creates inductor with current
+     * @param inductance Inductance value [ Henries ]
+     * @param initialCurrent Current through the inductor at the start of simulation [ Amps ]
+     * @throws WrongPhysicsParameterException If inductance <= 0
+     */
+    public Inductor(double inductance, double initialCurrent) throws WrongPhysicsParameterException {
+        if (!(inductance > 0) || inductance == Double.POSITIVE_INFINITY) {
+            throw new WrongPhysicsParameterException("Inductance is not greater than zero");
+        }
+        this.inductance = inductance;
+        this.initialCurrent = initialCurrent;
+    }
+
+    /**
+     * @return Inductance value [ Henries ]
+     */
+    public double getInductance() {
+        return inductance;
+    }
+
+    /**
+     * @return Current through the inductor at the start of simulation [ Amps ]
+     */
+    public double getInitialCurrent() {
+        return initialCurrent;
+    }
+}
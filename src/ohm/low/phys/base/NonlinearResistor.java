@@ -0,0 +1,24 @@
+package ohm.low.phys.base;
+
+/**
+ * Element with non-ohmic current-voltage curve. Curve must not fall, so the circuit has one operating point.
+ * Resistance of the element is the resistance at zero voltage, operating point is found by OperatingPointSolver
+ */
+public interface NonlinearResistor extends Resistor {
+    /**
+     * Calculates differential conductance dI/dU of the element
+     * @param voltage Voltage value on the element [ Volts ]
+     * @return Conductance value [ Siemens ]
+     */
+    double getConductance(double voltage);
+
+    /**
+     * Limits the Newton step, so the next current stays finite, e.g. for the exponential curves
+     * @param voltage Voltage proposed by the Newton step [ Volts ]
+     * @param previousVoltage Voltage of the previous iteration [ Volts ]
+     * @return Voltage to take for the next iteration [ Volts ]
+     */
+    default double limitVoltage(double voltage, double previousVoltage) {
+        return voltage;
+    }
+}
@@ -2,9 +2,14 @@ package ohm.low.phys.base;
 
 import ohm.low.phys.Exception.WrongPhysicsParameterException;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class Potentiometer implements Resistor {
     private double resistance;
     private double maxResistance;
+    private Tolerance tolerance = Tolerance.NONE;
+    private final List<ResistanceChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Creates a potentiometer
@@ -32,14 +37,35 @@ public class Potentiometer implements Resistor {
         return resistance;
     }
 
+    @Override
+    public Tolerance getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Set distribution of the real resistance around the set one
+     * @param tolerance Resistance tolerance
+     */
+    public void setTolerance(Tolerance tolerance) {
+        this.tolerance = Tolerance.check(tolerance);
+    }
+
     @Override
     public double getCurrentIfVoltage(double voltage) {
-        return 0;
+        if (resistance == 0 && voltage != 0) {
+            return Math.signum(voltage) * Double.POSITIVE_INFINITY;
+        }
+
+        if (voltage == 0) {
+            return 0;
+        }
+
+        return voltage / resistance;
     }
 
     @Override
     public double getVoltageIfCurrent(double current) {
-        return 0;
+        return current * resistance;
     }
 
     /**
@@ -53,7 +79,7 @@ public class Potentiometer implements Resistor {
             throw new WrongPhysicsParameterException("Position coefficient is not in range 1..100");
         }
 
-        resistance = maxResistance * coefficient / 100;
+        updateResistance(maxResistance * coefficient / 100);
         return resistance;
     }
 
@@ -61,6 +87,33 @@ public class Potentiometer implements Resistor {
         if (resistance < 0 || resistance > maxResistance) {
             throw new WrongPhysicsParameterException("Resistance is not in range 0.." + maxResistance);
         }
+        updateResistance(resistance);
+    }
+
+    /**
+     * Adds listener called after every resistance change
+     * @param listener Listener to add
+     */
+    public void addResistanceChangeListener(ResistanceChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes resistance change listener
+     * @param listener Listener to remove
+     */
+    public void removeResistanceChangeListener(ResistanceChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void updateResistance(double resistance) {
+        if (this.resistance == resistance) {
+            return;
+        }
+
         this.resistance = resistance;
+        for (ResistanceChangeListener listener : listeners) {
+            listener.resistanceChanged(this);
+        }
     }
 }
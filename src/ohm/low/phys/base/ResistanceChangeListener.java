@@ -0,0 +1,9 @@
+package ohm.low.phys.base;
+
+public interface ResistanceChangeListener {
+    /**
+     * Called after resistance of the resistor was changed
+     * @param resistor Resistor with the new resistance value
+     */
+    void resistanceChanged(Resistor resistor);
+}
@@ -20,4 +20,12 @@ public interface Resistor {
      * @return Voltage value on the resistor [ Volts ]
      */
     double getVoltageIfCurrent(double current);
+
+    /**
+     * Get distribution of the real resistance around the nominal one
+     * @return Resistance tolerance, Tolerance.NONE by default
+     */
+    default Tolerance getTolerance() {
+        return Tolerance.NONE;
+    }
 }
@@ -52,4 +52,62 @@ public class ResistorConnection {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Calculates full resistance of parallel connected resistors without creating a resistor object
+     * @param resistances List of connected resistances [ Ohms ]
+     * @return Result resistance value [ Ohms ]
+     */
+    public static double ParallelResistance(double ... resistances) {
+        double invertedSum = 0;
+
+        for (double resistance : resistances) {
+            if (resistance == 0) {
+                return 0;
+            }
+
+            invertedSum += 1 / resistance;
+        }
+
+        return (invertedSum == 0) ? Double.POSITIVE_INFINITY : 1 / invertedSum;
+    }
+
+    /**
+     * Calculates full resistance of two parallel connected resistances, allocation-free
+     * @param first First resistance [ Ohms ]
+     * @param second Second resistance [ Ohms ]
+     * @return Result resistance value [ Ohms ]
+     */
+    public static double ParallelResistance(double first, double second) {
+        if (first == 0 || second == 0) {
+            return 0;
+        }
+
+        double invertedSum = 1 / first + 1 / second;
+        return (invertedSum == 0) ? Double.POSITIVE_INFINITY : 1 / invertedSum;
+    }
+
+    /**
+     * Calculates full resistance of resistances connected in series without creating a resistor object
+     * @param resistances List of connected resistances [ Ohms ]
+     * @return Result resistance value [ Ohms ]
+     */
+    public static double SeriesResistance(double ... resistances) {
+        double resistanceSum = 0;
+        for (double r: resistances) {
+            resistanceSum += r;
+        }
+
+        return resistanceSum;
+    }
+
+    /**
+     * Calculates full resistance of two resistances connected in series, allocation-free
+     * @param first First resistance [ Ohms ]
+     * @param second Second resistance [ Ohms ]
+     * @return Result resistance value [ Ohms ]
+     */
+    public static double SeriesResistance(double first, double second) {
+        return first + second;
+    }
 }
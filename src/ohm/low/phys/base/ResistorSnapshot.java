@@ -0,0 +1,95 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+/**
+ * Immutable resistor, may be shared between threads without locks.
+ * Changed resistors are derived by the with- methods, the original one is never changed
+ */
+public final class ResistorSnapshot implements Resistor {
+    private final double resistance;
+    private final Tolerance tolerance;
+
+    /**
+     * Creates a resistor snapshot
+     * @param resistance Nominal resistance value [ Ohms ]
+     * @param tolerance Distribution of the real resistance around the nominal one
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public ResistorSnapshot(double resistance, Tolerance tolerance) throws WrongPhysicsParameterException {
+        if (!(resistance >= 0)) {
+            throw new WrongPhysicsParameterException("Resistance value lower than zero");
+        }
+        this.resistance = resistance;
+        this.tolerance = Tolerance.check(tolerance);
+    }
+
+    /**
+     * Takes the current resistance and tolerance of the resistor
+     * @param resistor Resistor to take values from, may be changed later
+     * @return Snapshot of the resistor, the same object for a snapshot
+     */
+    public static ResistorSnapshot of(Resistor resistor) {
+        if (resistor instanceof ResistorSnapshot) {
+            return (ResistorSnapshot) resistor;
+        }
+        return trusted(resistor.getResistance(), resistor.getTolerance());
+    }
+
+    /**
+     * Creates snapshot of the values already checked by a resistor
+     * @throws IllegalArgumentException If resistance < 0
+     */
+    private static ResistorSnapshot trusted(double resistance, Tolerance tolerance) {
+        try {
+            return new ResistorSnapshot(resistance, tolerance);
+        } catch (WrongPhysicsParameterException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param resistance New resistance value [ Ohms ]
+     * @return Snapshot with changed resistance
+     * @throws WrongPhysicsParameterException If resistance < 0
+     */
+    public ResistorSnapshot withResistance(double resistance) throws WrongPhysicsParameterException {
+        return new ResistorSnapshot(resistance, tolerance);
+    }
+
+    /**
+     * @param tolerance New distribution of the real resistance
+     * @return Snapshot with changed tolerance
+     */
+    public ResistorSnapshot withTolerance(Tolerance tolerance) {
+        return trusted(resistance, tolerance);
+    }
+
+    @Override
+    public double getResistance() {
+        return resistance;
+    }
+
+    @Override
+    public Tolerance getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public double getCurrentIfVoltage(double voltage) {
+        if (resistance == 0 && voltage != 0) {
+            return Math.signum(voltage) * Double.POSITIVE_INFINITY;
+        }
+
+        if (voltage == 0) {
+            return 0;
+        }
+
+        return voltage / resistance;
+    }
+
+    @Override
+    public double getVoltageIfCurrent(double current) {
+        return current * resistance;
+    }
+}
@@ -0,0 +1,99 @@
+package ohm.low.phys.base;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+/**
+ * Resistor heated by its own power in the steady state: R = R0 * (1 + alpha * dT), dT = Rth * P.
+ * For the given voltage the resistance is the root of R^2 - R0 * R - R0 * alpha * Rth * U^2 = 0.
+ * Resistor with negative coefficient has no steady state above some voltage (thermal runaway),
+ * its current is NaN there
+ */
+public class ThermalResistor implements NonlinearResistor {
+    private final double resistance;
+    private final double temperatureCoefficient;
+    private final double thermalResistance;
+    private final double heating;
+
+    /**
+     * Creates a resistor
+     * @param resistance Resistance at the ambient temperature [ Ohms ]
+     * @param temperatureCoefficient Relative change of resistance for one degree [ 1 / Kelvin ]
+     * @param thermalResistance Temperature rise for one watt of dissipated power [ Kelvins / Watt ]
+     * @throws WrongPhysicsParameterException If resistance <= 0 or thermal resistance < 0
+     */
+    public ThermalResistor(double resistance, double temperatureCoefficient, double thermalResistance)
+            throws WrongPhysicsParameterException {
+        if (!(resistance > 0)) {
+            throw new WrongPhysicsParameterException("Resistance value is not greater than zero");
+        }
+        if (!(thermalResistance >= 0)) {
+            throw new WrongPhysicsParameterException("Thermal resistance is lesser than zero");
+        }
+        this.resistance = resistance;
+        this.temperatureCoefficient = temperatureCoefficient;
+        this.thermalResistance = thermalResistance;
+        heating = resistance * temperatureCoefficient * thermalResistance;
+    }
+
+    /**
+     * @return Resistance at the ambient temperature [ Ohms ]
+     */
+    @Override
+    public double getResistance() {
+        return resistance;
+    }
+
+    /**
+     * @param voltage Voltage value on resistor [ Volts ]
+     * @return Steady state resistance, NaN for thermal runaway [ Ohms ]
+     */
+    public double getResistanceIfVoltage(double voltage) {
+        double discriminant = resistance * resistance + 4 * heating * voltage * voltage;
+        return (discriminant < 0) ? Double.NaN : (resistance + Math.sqrt(discriminant)) / 2;
+    }
+
+    /**
+     * @param voltage Voltage value on resistor [ Volts ]
+     * @return Steady state temperature rise over the ambient temperature [ Kelvins ]
+     */
+    public double getTemperatureRise(double voltage) {
+        return thermalResistance * voltage * voltage / getResistanceIfVoltage(voltage);
+    }
+
+    @Override
+    public double getCurrentIfVoltage(double voltage) {
+        return voltage / getResistanceIfVoltage(voltage);
+    }
+
+    @Override
+    public double getVoltageIfCurrent(double current) {
+        double denominator = 1 - heating * current * current;
+        return (denominator > 0) ? current * resistance / denominator : Double.NaN;
+    }
+
+    @Override
+    public double getConductance(double voltage) {
+        double discriminant = resistance * resistance + 4 * heating * voltage * voltage;
+        if (discriminant < 0) {
+            return Double.NaN;
+        }
+        double root = Math.sqrt(discriminant);
+        double r = (resistance + root) / 2;
+        double derivative = 2 * heating * voltage / root;
+        return (r - voltage * derivative) / (r * r);
+    }
+
+    /**
+     * @return Relative change of resistance for one degree [ 1 / Kelvin ]
+     */
+    public double getTemperatureCoefficient() {
+        return temperatureCoefficient;
+    }
+
+    /**
+     * @return Temperature rise for one watt of dissipated power [ Kelvins / Watt ]
+     */
+    public double getThermalResistance() {
+        return thermalResistance;
+    }
+}
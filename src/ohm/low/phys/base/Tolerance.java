@@ -0,0 +1,155 @@
+package ohm.low.phys.base;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the real element value around its nominal value.
+ * Deviations are relative, e.g. uniform(0.05) is the 5% resistor.
+ * Sampled values are never negative
+ */
+public final class Tolerance {
+    private enum Kind {NONE, UNIFORM, NORMAL, TRUNCATED_NORMAL}
+
+    /**
+     * Element always has its nominal value
+     */
+    public static final Tolerance NONE = new Tolerance(Kind.NONE, 0, 0);
+
+    private final Kind kind;
+    private final double deviation;
+    private final double limit;
+
+    private Tolerance(Kind kind, double deviation, double limit) {
+        this.kind = kind;
+        this.deviation = deviation;
+        this.limit = limit;
+    }
+
+    /**
+     * Value is uniformly distributed in range nominal * [1 - deviation, 1 + deviation]
+     * @param deviation Relative deviation, e.g. 0.05
+     * @return Tolerance
+     */
+    public static Tolerance uniform(double deviation) {
+        checkNotNegative(deviation);
+        return new Tolerance(Kind.UNIFORM, deviation, deviation);
+    }
+
+    /**
+     * Value is normally distributed with mean nominal and standard deviation nominal * sigma
+     * @param sigma Relative standard deviation
+     * @return Tolerance
+     */
+    public static Tolerance normal(double sigma) {
+        checkNotNegative(sigma);
+        return new Tolerance(Kind.NORMAL, sigma, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Value is normally distributed, values out of range nominal * [1 - limit, 1 + limit] are rejected
+     * @param sigma Relative standard deviation
+     * @param limit Relative limit, e.g. 0.05 for the sorted 5% resistors
+     * @return Tolerance
+     */
+    public static Tolerance truncatedNormal(double sigma, double limit) {
+        checkNotNegative(sigma);
+        checkNotNegative(limit);
+        return new Tolerance(Kind.TRUNCATED_NORMAL, sigma, limit);
+    }
+
+    /**
+     * Draws real value of the element
+     * @param nominal Nominal value
+     * @param random Random stream to draw from
+     * @return Sampled value, not lesser than zero
+     */
+    public double sample(double nominal, SplittableRandom random) {
+        double relative;
+        switch (kind) {
+            case UNIFORM:
+                relative = deviation * (2 * random.nextDouble() - 1);
+                break;
+            case NORMAL:
+                relative = deviation * gaussian(random);
+                break;
+            case TRUNCATED_NORMAL:
+                relative = truncatedGaussian(random);
+                break;
+            default:
+                return nominal;
+        }
+        return Math.max(0, nominal * (1 + relative));
+    }
+
+    /**
+     * @return true if element always has its nominal value
+     */
+    public boolean isNone() {
+        return kind == Kind.NONE;
+    }
+
+    /**
+     * @return Relative deviation or standard deviation of the distribution
+     */
+    public double getDeviation() {
+        return deviation;
+    }
+
+    /**
+     * @return Relative limit of the deviation, infinity for the normal distribution
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    /**
+     * Relative deviation of the truncated normal distribution by rejection. For the wide limit normal values
+     * out of the limit are rejected, for the narrow one uniform values in the limit are accepted with the normal
+     * density, so at least the half of the draws is accepted for any sigma and limit
+     */
+    private double truncatedGaussian(SplittableRandom random) {
+        if (deviation == 0 || limit == 0) {
+            return 0;
+        }
+        double relative;
+        if (limit >= deviation) {
+            do {
+                relative = deviation * gaussian(random);
+            } while (Math.abs(relative) > limit);
+        } else {
+            double ratio;
+            do {
+                relative = limit * (2 * random.nextDouble() - 1);
+                ratio = relative / deviation;
+            } while (random.nextDouble() > Math.exp(-0.5 * ratio * ratio));
+        }
+        return relative;
+    }
+
+    /**
+     * Checks tolerance argument of the elements
+     * @param tolerance Tolerance to check
+     * @return The same tolerance
+     */
+    static Tolerance check(Tolerance tolerance) {
+        if (tolerance == null) {
+            throw new IllegalArgumentException("Tolerance is null, use Tolerance.NONE for the exact value");
+        }
+        return tolerance;
+    }
+
+    /**
+     * Standard normal value by the Box-Muller transform
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static void checkNotNegative(double value) {
+        if (!(value >= 0)) {
+            throw new IllegalArgumentException("Tolerance deviation is lesser than zero");
+        }
+    }
+}
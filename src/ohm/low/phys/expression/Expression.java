@@ -0,0 +1,134 @@
+package ohm.low.phys.expression;
+
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.CompactSweep;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Derived quantity of the solved circuit, e.g. efficiency "Pext / Pfull" or conductance "1 / R".
+ * The formula is parsed once, constant parts are folded and the rest is compiled twice:
+ * to a tree of lambdas for one solved circuit and to a program of primitive loops for sweeps,
+ * where every operation fills a block of points at once, the way SweepColumn does.
+ * Quantities are emf, r, R, I, Uext, Uint, Pfull, Ploss, Pext, operators are + - * / ^,
+ * functions are abs, sqrt, exp, log, min, max. Expression is immutable and may be shared between threads
+ */
+public final class Expression {
+    private static final int BLOCK_SIZE = 256;
+
+    private final String formula;
+    private final PointEvaluator evaluator;
+    private final Node[] program;
+    private final int slotCount;
+    private final int resultSlot;
+    private final Set<Quantity> quantities = EnumSet.noneOf(Quantity.class);
+
+    private Expression(String formula, Node root) {
+        this.formula = formula;
+        evaluator = root.compile();
+
+        List<Node> nodes = new ArrayList<>();
+        root.collect(nodes);
+        List<Node> steps = new ArrayList<>();
+        int slot = Quantity.values().length;
+        for (Node node : nodes) {
+            if (node instanceof Node.Variable) {
+                Quantity quantity = ((Node.Variable) node).getQuantity();
+                node.slot = quantity.ordinal();
+                if (quantities.add(quantity)) {
+                    steps.add(node);
+                }
+            } else {
+                node.slot = slot++;
+                steps.add(node);
+            }
+        }
+        program = steps.toArray(new Node[0]);
+        slotCount = slot;
+        resultSlot = root.slot;
+    }
+
+    /**
+     * Parses and compiles the expression
+     * @param formula Text of the expression, e.g. "Pext / Pfull"
+     * @return Compiled expression
+     * @throws IllegalArgumentException If the text is not an expression or uses unknown names
+     */
+    public static Expression parse(String formula) {
+        return new Expression(formula, ExpressionParser.parse(formula));
+    }
+
+    /**
+     * @return Text of the expression
+     */
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @param quantity Quantity of the circuit
+     * @return True if the value depends on the quantity
+     */
+    public boolean uses(Quantity quantity) {
+        return quantities.contains(quantity);
+    }
+
+    /**
+     * Calculates value for one solved circuit
+     * @param state Solved circuit
+     * @return Value of the expression
+     */
+    public double evaluate(CircuitState state) {
+        return evaluator.evaluate(state);
+    }
+
+    /**
+     * Calculates values for the range of sweep points
+     * @param sweep Sweep of the circuit
+     * @param from First point index, inclusive
+     * @param to Last point index, exclusive
+     * @param destination Array to write values to
+     * @param destinationFrom Index in destination array for the first value
+     */
+    public void fill(CompactSweep sweep, int from, int to, double[] destination, int destinationFrom) {
+        if (from < 0 || to > sweep.getSize() || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " is not in the sweep of "
+                    + sweep.getSize());
+        }
+
+        int blockSize = Math.min(BLOCK_SIZE, to - from);
+        double[][] slots = new double[slotCount][];
+        for (Node node : program) {
+            slots[node.slot] = new double[blockSize];
+            node.prepare(slots, sweep);
+        }
+
+        double[] result = slots[resultSlot];
+        for (int start = from; start < to; start += blockSize) {
+            int count = Math.min(blockSize, to - start);
+            for (Node node : program) {
+                node.fill(slots, sweep, start, count);
+            }
+            System.arraycopy(result, 0, destination, destinationFrom + (start - from), count);
+        }
+    }
+
+    /**
+     * Calculates values for all the sweep points into a new array
+     * @param sweep Sweep of the circuit
+     * @return Values of the expression
+     */
+    public double[] toArray(CompactSweep sweep) {
+        double[] values = new double[sweep.getSize()];
+        fill(sweep, 0, values.length, values, 0);
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return formula;
+    }
+}
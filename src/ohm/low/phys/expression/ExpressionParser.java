@@ -0,0 +1,183 @@
+package ohm.low.phys.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser of the expressions:
+ * expression = term { ("+" | "-") term }
+ * term = factor { ("*" | "/") factor }
+ * factor = "-" factor | power
+ * power = primary [ "^" factor ]
+ * primary = number | quantity | function "(" expression { "," expression } ")" | "(" expression ")"
+ */
+class ExpressionParser {
+    private final String formula;
+    private int position;
+
+    private ExpressionParser(String formula) {
+        this.formula = formula;
+    }
+
+    /**
+     * @param formula Text of the expression
+     * @return Root node, constant parts are folded
+     * @throws IllegalArgumentException If the text is not an expression
+     */
+    static Node parse(String formula) {
+        ExpressionParser parser = new ExpressionParser(formula);
+        Node root = parser.expression();
+        parser.skipSpaces();
+        if (parser.position < formula.length()) {
+            throw parser.error("unexpected '" + formula.charAt(parser.position) + "'");
+        }
+        return root;
+    }
+
+    private Node expression() {
+        Node node = term();
+        while (true) {
+            if (accept('+')) {
+                node = Node.binary(Operator.ADD, node, term());
+            } else if (accept('-')) {
+                node = Node.binary(Operator.SUBTRACT, node, term());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node term() {
+        Node node = factor();
+        while (true) {
+            if (accept('*')) {
+                node = Node.binary(Operator.MULTIPLY, node, factor());
+            } else if (accept('/')) {
+                node = Node.binary(Operator.DIVIDE, node, factor());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node factor() {
+        if (accept('-')) {
+            return Node.unary(Function.NEGATE, factor());
+        }
+        Node node = primary();
+        if (accept('^')) {
+            node = Node.binary(Operator.POWER, node, factor());
+        }
+        return node;
+    }
+
+    private Node primary() {
+        skipSpaces();
+        if (position == formula.length()) {
+            throw error("unexpected end");
+        }
+
+        char c = formula.charAt(position);
+        if (accept('(')) {
+            Node node = expression();
+            expect(')');
+            return node;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return number();
+        }
+        if (Character.isLetter(c)) {
+            return name();
+        }
+        throw error("unexpected '" + c + "'");
+    }
+
+    private Node number() {
+        int start = position;
+        while (position < formula.length() && (Character.isDigit(formula.charAt(position))
+                || formula.charAt(position) == '.')) {
+            ++position;
+        }
+        if (position < formula.length() && (formula.charAt(position) == 'e' || formula.charAt(position) == 'E')) {
+            int mark = position++;
+            if (position < formula.length() && (formula.charAt(position) == '+' || formula.charAt(position) == '-')) {
+                ++position;
+            }
+            if (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+                while (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+                    ++position;
+                }
+            } else {
+                position = mark;
+            }
+        }
+
+        try {
+            return new Node.Constant(Double.parseDouble(formula.substring(start, position)));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("wrong number");
+        }
+    }
+
+    private Node name() {
+        int start = position;
+        while (position < formula.length() && Character.isLetterOrDigit(formula.charAt(position))) {
+            ++position;
+        }
+        String name = formula.substring(start, position);
+
+        Quantity quantity = Quantity.byName(name);
+        if (quantity != null) {
+            return new Node.Variable(quantity);
+        }
+
+        if (!accept('(')) {
+            position = start;
+            throw error("unknown quantity " + name);
+        }
+        List<Node> arguments = new ArrayList<>();
+        do {
+            arguments.add(expression());
+        } while (accept(','));
+        expect(')');
+
+        Function function = Function.byName(name);
+        if (function != null && arguments.size() == 1) {
+            return Node.unary(function, arguments.get(0));
+        }
+        Operator operator = Operator.functionByName(name);
+        if (operator != null && arguments.size() == 2) {
+            return Node.binary(operator, arguments.get(0), arguments.get(1));
+        }
+        position = start;
+        throw error((function == null && operator == null) ? "unknown function " + name
+                : "wrong count of arguments of " + name);
+    }
+
+    private boolean accept(char c) {
+        skipSpaces();
+        if (position < formula.length() && formula.charAt(position) == c) {
+            ++position;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("expected '" + c + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < formula.length() && Character.isWhitespace(formula.charAt(position))) {
+            ++position;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Wrong expression \"" + formula + "\" at " + (position + 1) + ": "
+                + message);
+    }
+}
@@ -0,0 +1,113 @@
+package ohm.low.phys.expression;
+
+/**
+ * Functions of one argument and the unary minus.
+ * Every function is compiled to its own lambda for one point and fills blocks of points with its own loop
+ */
+enum Function {
+    NEGATE("-") {
+        @Override
+        PointEvaluator compile(PointEvaluator argument) {
+            return state -> -argument.evaluate(state);
+        }
+
+        @Override
+        void fill(double[] argument, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = -argument[i];
+            }
+        }
+    },
+    ABS("abs") {
+        @Override
+        PointEvaluator compile(PointEvaluator argument) {
+            return state -> Math.abs(argument.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] argument, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.abs(argument[i]);
+            }
+        }
+    },
+    SQRT("sqrt") {
+        @Override
+        PointEvaluator compile(PointEvaluator argument) {
+            return state -> Math.sqrt(argument.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] argument, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.sqrt(argument[i]);
+            }
+        }
+    },
+    EXP("exp") {
+        @Override
+        PointEvaluator compile(PointEvaluator argument) {
+            return state -> Math.exp(argument.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] argument, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.exp(argument[i]);
+            }
+        }
+    },
+    LOG("log") {
+        @Override
+        PointEvaluator compile(PointEvaluator argument) {
+            return state -> Math.log(argument.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] argument, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.log(argument[i]);
+            }
+        }
+    };
+
+    private final String name;
+
+    Function(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return Function name, "-" for the unary minus
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param argument Compiled argument
+     * @return Compiled function
+     */
+    abstract PointEvaluator compile(PointEvaluator argument);
+
+    /**
+     * Calculates function for the block of points
+     * @param argument Argument values
+     * @param destination Array to write values to, may be the argument
+     * @param count Count of points from the start of the arrays
+     */
+    abstract void fill(double[] argument, double[] destination, int count);
+
+    /**
+     * @param name Function name
+     * @return Function of one argument, null if there is no function with the name
+     */
+    static Function byName(String name) {
+        for (Function function : values()) {
+            if (function != NEGATE && function.name.equals(name)) {
+                return function;
+            }
+        }
+        return null;
+    }
+}
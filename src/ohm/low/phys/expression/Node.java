@@ -0,0 +1,192 @@
+package ohm.low.phys.expression;
+
+import ohm.low.phys.CompactSweep;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed node of the expression. Nodes are compiled once to the lambda tree for one point,
+ * for blocks of points every node writes its values to its own slot, a row of the workspace,
+ * and nodes are run in the post order, so one block is one loop per node
+ */
+abstract class Node {
+    /**
+     * Row of the block workspace with values of the node
+     */
+    int slot = -1;
+
+    /**
+     * @return Compiled node for one point
+     */
+    abstract PointEvaluator compile();
+
+    /**
+     * Adds the node and its children to the program in the post order
+     */
+    abstract void collect(List<Node> program);
+
+    /**
+     * Fills values of the node which do not change from block to block
+     * @param slots Block workspace
+     * @param sweep Sweep the workspace is filled for
+     */
+    void prepare(double[][] slots, CompactSweep sweep) {
+
+    }
+
+    /**
+     * Calculates values of the node for the block, the children are calculated already
+     * @param slots Block workspace
+     * @param sweep Sweep of the block
+     * @param from Index of the first point of the block in the sweep
+     * @param count Count of points in the block
+     */
+    abstract void fill(double[][] slots, CompactSweep sweep, int from, int count);
+
+    boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * Creates unary node, constant argument is folded
+     */
+    static Node unary(Function function, Node argument) {
+        Node node = new Unary(function, argument);
+        return argument.isConstant() ? new Constant(node.compile().evaluate(null)) : node;
+    }
+
+    /**
+     * Creates binary node, constant operands are folded
+     */
+    static Node binary(Operator operator, Node left, Node right) {
+        Node node = new Binary(operator, left, right);
+        return (left.isConstant() && right.isConstant()) ? new Constant(node.compile().evaluate(null)) : node;
+    }
+
+    static final class Constant extends Node {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        PointEvaluator compile() {
+            return state -> value;
+        }
+
+        @Override
+        void collect(List<Node> program) {
+            program.add(this);
+        }
+
+        @Override
+        void prepare(double[][] slots, CompactSweep sweep) {
+            Arrays.fill(slots[slot], value);
+        }
+
+        @Override
+        void fill(double[][] slots, CompactSweep sweep, int from, int count) {
+
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    static final class Variable extends Node {
+        private final Quantity quantity;
+
+        Variable(Quantity quantity) {
+            this.quantity = quantity;
+        }
+
+        Quantity getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        PointEvaluator compile() {
+            return quantity.getGetter();
+        }
+
+        @Override
+        void collect(List<Node> program) {
+            program.add(this);
+        }
+
+        @Override
+        void prepare(double[][] slots, CompactSweep sweep) {
+            if (quantity == Quantity.EMF) {
+                Arrays.fill(slots[slot], sweep.getEmf());
+            } else if (quantity == Quantity.INTERNAL_RESISTANCE) {
+                Arrays.fill(slots[slot], sweep.getInternalResistance());
+            }
+        }
+
+        @Override
+        void fill(double[][] slots, CompactSweep sweep, int from, int count) {
+            if (quantity.getColumn() != null) {
+                sweep.fill(quantity.getColumn(), from, from + count, slots[slot], 0);
+            }
+        }
+    }
+
+    static final class Unary extends Node {
+        private final Function function;
+        private final Node argument;
+
+        Unary(Function function, Node argument) {
+            this.function = function;
+            this.argument = argument;
+        }
+
+        @Override
+        PointEvaluator compile() {
+            return function.compile(argument.compile());
+        }
+
+        @Override
+        void collect(List<Node> program) {
+            argument.collect(program);
+            program.add(this);
+        }
+
+        @Override
+        void fill(double[][] slots, CompactSweep sweep, int from, int count) {
+            function.fill(slots[argument.slot], slots[slot], count);
+        }
+    }
+
+    static final class Binary extends Node {
+        private final Operator operator;
+        private final Node left;
+        private final Node right;
+
+        Binary(Operator operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        PointEvaluator compile() {
+            return operator.compile(left.compile(), right.compile());
+        }
+
+        @Override
+        void collect(List<Node> program) {
+            left.collect(program);
+            right.collect(program);
+            program.add(this);
+        }
+
+        @Override
+        void fill(double[][] slots, CompactSweep sweep, int from, int count) {
+            operator.fill(slots[left.slot], slots[right.slot], slots[slot], count);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ohm.low.phys.expression;
+
+/**
+ * Binary operators and functions of two arguments.
+ * Every operator is compiled to its own lambda for one point and fills blocks of points with its own loop
+ */
+enum Operator {
+    ADD("+") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> left.evaluate(state) + right.evaluate(state);
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = left[i] + right[i];
+            }
+        }
+    },
+    SUBTRACT("-") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> left.evaluate(state) - right.evaluate(state);
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = left[i] - right[i];
+            }
+        }
+    },
+    MULTIPLY("*") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> left.evaluate(state) * right.evaluate(state);
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = left[i] * right[i];
+            }
+        }
+    },
+    DIVIDE("/") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> left.evaluate(state) / right.evaluate(state);
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = left[i] / right[i];
+            }
+        }
+    },
+    POWER("^") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> Math.pow(left.evaluate(state), right.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.pow(left[i], right[i]);
+            }
+        }
+    },
+    MIN("min") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> Math.min(left.evaluate(state), right.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.min(left[i], right[i]);
+            }
+        }
+    },
+    MAX("max") {
+        @Override
+        PointEvaluator compile(PointEvaluator left, PointEvaluator right) {
+            return state -> Math.max(left.evaluate(state), right.evaluate(state));
+        }
+
+        @Override
+        void fill(double[] left, double[] right, double[] destination, int count) {
+            for (int i = 0; i < count; ++i) {
+                destination[i] = Math.max(left[i], right[i]);
+            }
+        }
+    };
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return Operator symbol or function name
+     */
+    String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return True if the operator is written as a function of two arguments
+     */
+    boolean isFunction() {
+        return Character.isLetter(symbol.charAt(0));
+    }
+
+    /**
+     * @param left Compiled left operand
+     * @param right Compiled right operand
+     * @return Compiled operation
+     */
+    abstract PointEvaluator compile(PointEvaluator left, PointEvaluator right);
+
+    /**
+     * Calculates operation for the block of points
+     * @param left Left operand values
+     * @param right Right operand values
+     * @param destination Array to write values to, may be one of the operands
+     * @param count Count of points from the start of the arrays
+     */
+    abstract void fill(double[] left, double[] right, double[] destination, int count);
+
+    /**
+     * @param name Function name
+     * @return Function of two arguments, null if there is no function with the name
+     */
+    static Operator functionByName(String name) {
+        for (Operator operator : values()) {
+            if (operator.isFunction() && operator.symbol.equals(name)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+}
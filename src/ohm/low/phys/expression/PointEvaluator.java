@@ -0,0 +1,15 @@
+package ohm.low.phys.expression;
+
+import ohm.low.phys.CircuitState;
+
+/**
+ * Compiled node of the expression for one solved circuit, nodes are lambdas calling their children
+ */
+@FunctionalInterface
+interface PointEvaluator {
+    /**
+     * @param state Solved circuit, null is allowed for the nodes without quantities
+     * @return Value of the node
+     */
+    double evaluate(CircuitState state);
+}
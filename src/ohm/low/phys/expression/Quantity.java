@@ -0,0 +1,61 @@
+package ohm.low.phys.expression;
+
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.SweepColumn;
+
+/**
+ * Solved values of the power supply circuit which may be used in the expressions.
+ * Names are those of the batch mode output
+ */
+public enum Quantity {
+    EMF("emf", null, CircuitState::getEmf),
+    INTERNAL_RESISTANCE("r", null, CircuitState::getInternalResistance),
+    EXTERNAL_RESISTANCE("R", SweepColumn.EXTERNAL_RESISTANCE, CircuitState::getExternalResistance),
+    CURRENT("I", SweepColumn.CURRENT, CircuitState::getCurrent),
+    EXTERNAL_VOLTAGE("Uext", SweepColumn.EXTERNAL_VOLTAGE, CircuitState::getExternalResistorVoltage),
+    INTERNAL_VOLTAGE("Uint", SweepColumn.INTERNAL_VOLTAGE, CircuitState::getInternalResistorVoltage),
+    FULL_POWER("Pfull", SweepColumn.FULL_POWER, CircuitState::getFullPower),
+    POWER_LOSS("Ploss", SweepColumn.POWER_LOSS, CircuitState::getPowerLoss),
+    EXTERNAL_POWER("Pext", SweepColumn.EXTERNAL_POWER, CircuitState::getExternalPower);
+
+    private final String name;
+    private final SweepColumn column;
+    private final PointEvaluator getter;
+
+    Quantity(String name, SweepColumn column, PointEvaluator getter) {
+        this.name = name;
+        this.column = column;
+        this.getter = getter;
+    }
+
+    /**
+     * @return Name of the quantity in the expressions
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Sweep column of the quantity, null for EMF and internal resistance, which are fixed for the sweep
+     */
+    public SweepColumn getColumn() {
+        return column;
+    }
+
+    PointEvaluator getGetter() {
+        return getter;
+    }
+
+    /**
+     * @param name Name of the quantity in the expressions
+     * @return Quantity, null if there is no quantity with the name
+     */
+    static Quantity byName(String name) {
+        for (Quantity quantity : values()) {
+            if (quantity.name.equals(name)) {
+                return quantity;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,243 @@
+package ohm.low.phys.io;
+
+import ohm.low.phys.SweepColumn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Read-only sweep file. Columns are mapped, not loaded, so any row is read in constant time
+ * and the file may be larger than the heap
+ */
+public class SweepFile implements Closeable {
+    private final FileChannel channel;
+    private final long rows;
+    private final double emf;
+    private final double internalResistance;
+    private final SweepColumn[] columns;
+    private final Map<SweepColumn, DoubleBuffer[]> chunks = new EnumMap<>(SweepColumn.class);
+
+    /**
+     * Opens and maps the file
+     * @param path File path
+     * @throws IOException If file can not be read or it is not a sweep file
+     */
+    public SweepFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, SweepFileFormat.HEADER_SIZE);
+            byte[] magic = new byte[SweepFileFormat.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, SweepFileFormat.MAGIC)) {
+                throw new IOException("Not a sweep file");
+            }
+            int version = header.getInt();
+            if (version != SweepFileFormat.VERSION) {
+                throw new IOException("Unsupported sweep file version " + version);
+            }
+
+            int columnCount = header.getInt();
+            rows = header.getLong();
+            emf = header.getDouble();
+            internalResistance = header.getDouble();
+            if (columnCount <= 0 || columnCount > SweepColumn.values().length || rows < 0) {
+                throw new IOException("Sweep file header is broken");
+            }
+
+            columns = new SweepColumn[columnCount];
+            ByteBuffer descriptors = read(SweepFileFormat.HEADER_SIZE,
+                    columnCount * SweepFileFormat.DESCRIPTOR_SIZE);
+            for (int c = 0; c < columnCount; ++c) {
+                columns[c] = SweepFileFormat.getName(descriptors);
+                long offset = descriptors.getLong();
+                if (offset < 0 || offset + rows * Double.BYTES > channel.size()) {
+                    throw new IOException("Column " + columns[c] + " is out of the file");
+                }
+                chunks.put(columns[c], SweepFileFormat.doubles(
+                        SweepFileFormat.map(channel, FileChannel.MapMode.READ_ONLY, offset, rows)));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Count of rows in every column
+     */
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return Electromotive force value the sweep is made for [ Volts ]
+     */
+    public double getEmf() {
+        return emf;
+    }
+
+    /**
+     * @return Internal resistance the sweep is made for [ Ohms ]
+     */
+    public double getInternalResistance() {
+        return internalResistance;
+    }
+
+    /**
+     * @return Columns stored in the file, in the file order
+     */
+    public SweepColumn[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * @param column Column to check
+     * @return true if the file has the column
+     */
+    public boolean hasColumn(SweepColumn column) {
+        return chunks.containsKey(column);
+    }
+
+    /**
+     * Reads one value
+     * @param column Column to read
+     * @param index Row index
+     * @return Value of the row
+     */
+    public double get(SweepColumn column, long index) {
+        checkRange(index, 1);
+        return value(getChunks(column), index);
+    }
+
+    /**
+     * Reads range of values
+     * @param column Column to read
+     * @param index Index of the first row to read
+     * @param destination Array to read to
+     * @param from Index of the first destination value
+     * @param count Count of values to read
+     */
+    public void read(SweepColumn column, long index, double[] destination, int from, int count) {
+        DoubleBuffer[] columnChunks = getChunks(column);
+        checkRange(index, count);
+
+        while (count > 0) {
+            DoubleBuffer chunk = columnChunks[(int) (index >>> SweepFileFormat.CHUNK_SHIFT)];
+            int position = (int) (index & SweepFileFormat.CHUNK_MASK);
+            int length = Math.min(count, chunk.capacity() - position);
+
+            DoubleBuffer source = chunk.duplicate();
+            source.position(position);
+            source.get(destination, from, length);
+
+            index += length;
+            from += length;
+            count -= length;
+        }
+    }
+
+    /**
+     * Reduces range of rows to the points for the chart. Rows are split into equal buckets,
+     * the rows with min and max y value of every bucket are taken in the row order,
+     * so peaks are kept whatever the decimation is. Ranges not longer than the output are copied as is
+     * @param xColumn Column of x values
+     * @param yColumn Column of y values
+     * @param from First row, inclusive
+     * @param to Last row, exclusive
+     * @param x Destination of x values, two values for every bucket
+     * @param y Destination of y values, two values for every bucket
+     * @return Count of written points
+     */
+    public int decimate(SweepColumn xColumn, SweepColumn yColumn, long from, long to, double[] x, double[] y) {
+        checkRange(from, to - from);
+        int capacity = Math.min(x.length, y.length);
+        long length = to - from;
+        if (length <= capacity) {
+            read(xColumn, from, x, 0, (int) length);
+            read(yColumn, from, y, 0, (int) length);
+            return (int) length;
+        }
+
+        DoubleBuffer[] xChunks = getChunks(xColumn);
+        DoubleBuffer[] yChunks = getChunks(yColumn);
+        int buckets = capacity / 2;
+        int count = 0;
+        for (int b = 0; b < buckets; ++b) {
+            long first = from + length * b / buckets;
+            long last = from + length * (b + 1) / buckets;
+
+            long minIndex = first;
+            long maxIndex = first;
+            double min = value(yChunks, first);
+            double max = min;
+            for (long i = first + 1; i < last; ++i) {
+                double value = value(yChunks, i);
+                if (value < min) {
+                    min = value;
+                    minIndex = i;
+                } else if (value > max) {
+                    max = value;
+                    maxIndex = i;
+                }
+            }
+
+            long firstIndex = Math.min(minIndex, maxIndex);
+            long lastIndex = Math.max(minIndex, maxIndex);
+            x[count] = value(xChunks, firstIndex);
+            y[count++] = value(yChunks, firstIndex);
+            if (lastIndex != firstIndex) {
+                x[count] = value(xChunks, lastIndex);
+                y[count++] = value(yChunks, lastIndex);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes the file, the mapped memory is released by the garbage collector
+     * @throws IOException If closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        channel.close();
+    }
+
+    private static double value(DoubleBuffer[] columnChunks, long index) {
+        return columnChunks[(int) (index >>> SweepFileFormat.CHUNK_SHIFT)]
+                .get((int) (index & SweepFileFormat.CHUNK_MASK));
+    }
+
+    private ByteBuffer read(long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Sweep file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private DoubleBuffer[] getChunks(SweepColumn column) {
+        DoubleBuffer[] columnChunks = chunks.get(column);
+        if (columnChunks == null) {
+            throw new IllegalArgumentException("Column " + column + " is not in the file");
+        }
+        return columnChunks;
+    }
+
+    private void checkRange(long index, long count) {
+        if (index < 0 || count < 0 || index + count > rows) {
+            throw new IndexOutOfBoundsException("Rows " + index + ".." + (index + count) + " are out of " + rows);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ohm.low.phys.io;
+
+import ohm.low.phys.SweepColumn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the sweep file, all the numbers are little-endian:
+ * <pre>
+ * header, 64 bytes:  magic "OHMSWEEP", int version, int column count, long row count,
+ *                    double EMF, double internal resistance, reserved
+ * descriptors:       for every column 24 bytes of ASCII column name padded with zeroes, long data offset
+ * column data:       row count doubles for every column, every column starts at a 4096 bytes boundary
+ * </pre>
+ * Column data is mapped by chunks, a chunk is the largest part of a column one MappedByteBuffer may hold
+ */
+final class SweepFileFormat {
+    static final byte[] MAGIC = "OHMSWEEP".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NAME_SIZE = 24;
+    static final int DESCRIPTOR_SIZE = NAME_SIZE + Long.BYTES;
+    static final int ALIGNMENT = 4096;
+
+    static final int CHUNK_SHIFT = 27;
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private SweepFileFormat() {
+
+    }
+
+    /**
+     * @return Offset of the first column data
+     */
+    static long dataOffset(int columnCount) {
+        return align(HEADER_SIZE + (long) columnCount * DESCRIPTOR_SIZE);
+    }
+
+    /**
+     * @return Offset of the next column data
+     */
+    static long nextOffset(long offset, long rows) {
+        return align(offset + rows * Double.BYTES);
+    }
+
+    static long align(long offset) {
+        return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    static void putName(ByteBuffer buffer, SweepColumn column) {
+        byte[] name = column.name().getBytes(StandardCharsets.US_ASCII);
+        buffer.put(name);
+        for (int i = name.length; i < NAME_SIZE; ++i) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    static SweepColumn getName(ByteBuffer buffer) throws IOException {
+        byte[] name = new byte[NAME_SIZE];
+        buffer.get(name);
+        int length = 0;
+        while (length < NAME_SIZE && name[length] != 0) {
+            ++length;
+        }
+
+        String text = new String(name, 0, length, StandardCharsets.US_ASCII);
+        try {
+            return SweepColumn.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown sweep column " + text);
+        }
+    }
+
+    /**
+     * Maps column data by chunks
+     * @return Mapped chunks of the column
+     */
+    static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long offset, long rows)
+            throws IOException {
+        int chunks = (int) ((rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] buffers = new MappedByteBuffer[chunks];
+        for (int c = 0; c < chunks; ++c) {
+            long first = (long) c << CHUNK_SHIFT;
+            long size = Math.min(CHUNK_SIZE, rows - first) * Double.BYTES;
+            buffers[c] = channel.map(mode, offset + first * Double.BYTES, size);
+        }
+        return buffers;
+    }
+
+    /**
+     * @return Little-endian double views of the mapped chunks
+     */
+    static DoubleBuffer[] doubles(MappedByteBuffer[] chunks) {
+        DoubleBuffer[] views = new DoubleBuffer[chunks.length];
+        for (int c = 0; c < chunks.length; ++c) {
+            views[c] = chunks[c].duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return views;
+    }
+}
@@ -0,0 +1,208 @@
+package ohm.low.phys.io;
+
+import ohm.low.phys.CircuitSweep;
+import ohm.low.phys.SweepColumn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates sweep file of the fixed size and writes column values straight into the mapped file
+ */
+public class SweepFileWriter implements Closeable {
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final long rows;
+    private final Map<SweepColumn, DoubleBuffer[]> chunks = new EnumMap<>(SweepColumn.class);
+    private final List<MappedByteBuffer> mapped = new ArrayList<>();
+
+    /**
+     * Creates file, existing file is replaced
+     * @param path File path
+     * @param rows Count of rows in every column
+     * @param emf Electromotive force value the sweep is made for [ Volts ]
+     * @param internalResistance Internal resistance the sweep is made for [ Ohms ]
+     * @param columns Columns stored in the file
+     * @throws IOException If file can not be created
+     */
+    public SweepFileWriter(Path path, long rows, double emf, double internalResistance, SweepColumn... columns)
+            throws IOException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Rows count is lesser than zero");
+        }
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No columns requested");
+        }
+
+        this.rows = rows;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(
+                    SweepFileFormat.HEADER_SIZE + columns.length * SweepFileFormat.DESCRIPTOR_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.put(SweepFileFormat.MAGIC)
+                    .putInt(SweepFileFormat.VERSION)
+                    .putInt(columns.length)
+                    .putLong(rows)
+                    .putDouble(emf)
+                    .putDouble(internalResistance)
+                    .position(SweepFileFormat.HEADER_SIZE);
+
+            long offset = SweepFileFormat.dataOffset(columns.length);
+            for (SweepColumn column : columns) {
+                if (chunks.containsKey(column)) {
+                    throw new IllegalArgumentException("Column " + column + " is requested twice");
+                }
+                SweepFileFormat.putName(header, column);
+                header.putLong(offset);
+                MappedByteBuffer[] columnChunks =
+                        SweepFileFormat.map(channel, FileChannel.MapMode.READ_WRITE, offset, rows);
+                mapped.addAll(Arrays.asList(columnChunks));
+                chunks.put(column, SweepFileFormat.doubles(columnChunks));
+                offset = SweepFileFormat.nextOffset(offset, rows);
+            }
+            // Mapping grows the file only for the columns with rows, the empty sweep has to reach its data offset
+            if (channel.size() < offset) {
+                channel.write(ByteBuffer.allocate(1), offset - 1);
+            }
+
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes sweep of uniformly distributed external resistance values, the sweep is calculated by blocks,
+     * so it may be larger than the heap
+     * @param path File path
+     * @param emf Electromotive force value [ Volts ]
+     * @param internalResistance Internal resistance of the power supply [ Ohms ]
+     * @param minResistance First external resistance value [ Ohms ]
+     * @param maxResistance External resistance value the sweep goes to, not included [ Ohms ]
+     * @param rows Count of points in the sweep
+     * @param columns Columns stored in the file
+     * @throws IOException If file can not be written
+     */
+    public static void writeUniform(Path path, double emf, double internalResistance,
+                                    double minResistance, double maxResistance, long rows,
+                                    SweepColumn... columns) throws IOException {
+        try (SweepFileWriter writer = new SweepFileWriter(path, rows, emf, internalResistance, columns)) {
+            CircuitSweep sweep = new CircuitSweep((int) Math.min(BLOCK_SIZE, rows));
+            double[] resistance = sweep.getResistance();
+            double range = maxResistance - minResistance;
+
+            for (long first = 0; first < rows; first += BLOCK_SIZE) {
+                int count = (int) Math.min(BLOCK_SIZE, rows - first);
+                for (int i = 0; i < count; ++i) {
+                    resistance[i] = minResistance + range * (first + i) / rows;
+                }
+                sweep.calculate(emf, internalResistance, 0, count);
+
+                for (SweepColumn column : columns) {
+                    writer.write(column, first, sweep.getColumn(column), 0, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes values to the column
+     * @param column Column to write to
+     * @param index Index of the first row to write
+     * @param values Source values
+     * @param from Index of the first source value
+     * @param count Count of values to write
+     */
+    public void write(SweepColumn column, long index, double[] values, int from, int count) {
+        DoubleBuffer[] columnChunks = getChunks(column);
+        checkRange(index, count);
+
+        while (count > 0) {
+            DoubleBuffer chunk = columnChunks[(int) (index >>> SweepFileFormat.CHUNK_SHIFT)];
+            int position = (int) (index & SweepFileFormat.CHUNK_MASK);
+            int length = Math.min(count, chunk.capacity() - position);
+
+            DoubleBuffer target = chunk.duplicate();
+            target.position(position);
+            target.put(values, from, length);
+
+            index += length;
+            from += length;
+            count -= length;
+        }
+    }
+
+    /**
+     * Writes one value to the column
+     * @param column Column to write to
+     * @param index Row index
+     * @param value Value to write
+     */
+    public void set(SweepColumn column, long index, double value) {
+        checkRange(index, 1);
+        getChunks(column)[(int) (index >>> SweepFileFormat.CHUNK_SHIFT)]
+                .put((int) (index & SweepFileFormat.CHUNK_MASK), value);
+    }
+
+    /**
+     * @return Count of rows in every column
+     */
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Forces written values to the storage device
+     * @throws IOException If writing fails
+     */
+    public void force() throws IOException {
+        for (MappedByteBuffer chunk : mapped) {
+            chunk.force();
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Closes the file. Written values stay in the file, the mapped memory is released by the garbage collector
+     * @throws IOException If closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        mapped.clear();
+        channel.close();
+    }
+
+    private DoubleBuffer[] getChunks(SweepColumn column) {
+        DoubleBuffer[] columnChunks = chunks.get(column);
+        if (columnChunks == null) {
+            throw new IllegalArgumentException("Column " + column + " is not in the file");
+        }
+        return columnChunks;
+    }
+
+    private void checkRange(long index, long count) {
+        if (index < 0 || count < 0 || index + count > rows) {
+            throw new IndexOutOfBoundsException("Rows " + index + ".." + (index + count) + " are out of " + rows);
+        }
+    }
+}
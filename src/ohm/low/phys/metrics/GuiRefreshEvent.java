@@ -0,0 +1,23 @@
+package ohm.low.phys.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for every frame shown by the control panel
+ */
+@Name("ohm.GuiRefresh")
+@Label("GUI Refresh")
+@Category({"Ohm Law", "GUI"})
+@Description("Solved circuit state shown in the control panel")
+final class GuiRefreshEvent extends jdk.jfr.Event {
+    @Label("Input Latency")
+    @Timespan
+    long latency;
+
+    @Label("Dropped Inputs")
+    long dropped;
+}
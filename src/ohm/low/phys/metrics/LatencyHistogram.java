@@ -0,0 +1,134 @@
+package ohm.low.phys.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of latencies. Every power of two is split into 8 buckets,
+ * so percentiles are reported with at most 12.5% error in constant memory
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_COUNT;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BITS - 1) * SUB_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates empty histogram
+     * @param name Name of the histogram in the snapshot
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param latency Latency of one event [ Nanoseconds ]
+     */
+    public void record(long latency) {
+        long value = Math.max(0, latency);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return Name of the histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Count of recorded events
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return Mean latency, 0 if there are no events [ Nanoseconds ]
+     */
+    public double getMean() {
+        long events = count.sum();
+        return (events == 0) ? 0 : (double) sum.sum() / events;
+    }
+
+    /**
+     * @return Max latency [ Nanoseconds ]
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param probability Probability in range [0..1]
+     * @return Latency percentile, middle of its bucket, 0 if there are no events [ Nanoseconds ]
+     */
+    public long getPercentile(double probability) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("Probability is not in range 0..1");
+        }
+
+        long total = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(probability * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(max.get(), (lowerBound(i) + lowerBound(i + 1)) / 2);
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Removes all the events
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + " count=" + getCount() + " mean=" + Math.round(getMean()) + "ns p50=" + getPercentile(0.5)
+                + "ns p99=" + getPercentile(0.99) + "ns max=" + getMax() + "ns";
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_COUNT + SUB_BITS + 1;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_COUNT;
+        return (long) (SUB_COUNT + sub) << (exponent - SUB_BITS);
+    }
+}
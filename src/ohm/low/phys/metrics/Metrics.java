@@ -0,0 +1,236 @@
+package ohm.low.phys.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, latency histograms and flight recorder events of the physics core.
+ * Everything is off unless the JVM is started with -Dohm.metrics=true. The flag is a static final constant,
+ * so the JIT removes the instrumentation of the hot paths when it is off:
+ * every call site is guarded by if (Metrics.ENABLED).
+ * Counters are striped LongAdders, so solver threads do not contend
+ */
+public final class Metrics {
+    /**
+     * true if metrics are collected
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("ohm.metrics");
+
+    private static final List<String> COUNTER_NAMES = new ArrayList<>();
+    private static final List<LongAdder> COUNTERS = new ArrayList<>();
+    private static final List<LatencyHistogram> HISTOGRAMS = new ArrayList<>();
+
+    /**
+     * Count of single circuit solves
+     */
+    public static final LongAdder CIRCUIT_SOLVES = counter("circuit.solves");
+    /**
+     * Count of solves with zero external resistance
+     */
+    public static final LongAdder SHORT_CIRCUITS = counter("circuit.shortCircuits");
+    /**
+     * Count of solves with zero full resistance and infinite current
+     */
+    public static final LongAdder INFINITE_CURRENTS = counter("circuit.infiniteCurrents");
+    /**
+     * Count of calculated sweep points
+     */
+    public static final LongAdder SWEEP_POINTS = counter("sweep.points");
+    /**
+     * Count of network solves
+     */
+    public static final LongAdder NETWORK_SOLVES = counter("network.solves");
+    /**
+     * Count of numeric factorizations of the network matrices
+     */
+    public static final LongAdder NETWORK_FACTORIZATIONS = counter("network.factorizations");
+    /**
+     * Count of accepted transient steps
+     */
+    public static final LongAdder TRANSIENT_STEPS = counter("transient.steps");
+    /**
+     * Count of resistor grid solves
+     */
+    public static final LongAdder GRID_SOLVES = counter("grid.solves");
+    /**
+     * Count of conjugate gradient iterations of the resistor grid solves
+     */
+    public static final LongAdder GRID_ITERATIONS = counter("grid.iterations");
+    /**
+     * Count of off-heap network solves
+     */
+    public static final LongAdder STORE_SOLVES = counter("store.solves");
+    /**
+     * Count of conjugate gradient iterations of the off-heap network solves
+     */
+    public static final LongAdder STORE_ITERATIONS = counter("store.iterations");
+    /**
+     * Count of Newton iterations of the operating point solver
+     */
+    public static final LongAdder NEWTON_ITERATIONS = counter("newton.iterations");
+    /**
+     * Count of sweeps found in the sweep cache
+     */
+    public static final LongAdder CACHE_HITS = counter("cache.hits");
+    /**
+     * Count of sweeps not found in the sweep cache
+     */
+    public static final LongAdder CACHE_MISSES = counter("cache.misses");
+    /**
+     * Count of sweeps evicted from the sweep cache
+     */
+    public static final LongAdder CACHE_EVICTIONS = counter("cache.evictions");
+    /**
+     * Count of frames shown by the control panel
+     */
+    public static final LongAdder GUI_REFRESHES = counter("gui.refreshes");
+    /**
+     * Count of requests handled by the HTTP service
+     */
+    public static final LongAdder HTTP_REQUESTS = counter("http.requests");
+    /**
+     * Count of requests rejected by the HTTP service because all the permits were taken
+     */
+    public static final LongAdder HTTP_REJECTIONS = counter("http.rejections");
+    /**
+     * Count of requests of the HTTP service which ran out of time
+     */
+    public static final LongAdder HTTP_TIMEOUTS = counter("http.timeouts");
+
+    /**
+     * Duration of sweeps
+     */
+    public static final LatencyHistogram SWEEP_LATENCY = histogram("sweep.latency");
+    /**
+     * Duration of network solves
+     */
+    public static final LatencyHistogram NETWORK_SOLVE_LATENCY = histogram("network.solveLatency");
+    /**
+     * Time from the input event to the shown frame
+     */
+    public static final LatencyHistogram GUI_REFRESH_LATENCY = histogram("gui.refreshLatency");
+    /**
+     * Time from taking the request to the end of the response
+     */
+    public static final LatencyHistogram HTTP_LATENCY = histogram("http.latency");
+
+    private Metrics() {
+
+    }
+
+    private static LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        COUNTER_NAMES.add(name);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    private static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Starts timing of the sweep
+     * @param kind Kind of the sweep, e.g. "adaptive"
+     * @return Event to pass to endSweep
+     */
+    public static SweepEvent beginSweep(String kind) {
+        SweepEvent event = new SweepEvent(kind);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends timing of the sweep, records its latency and commits the flight recorder event
+     * @param event Event returned by beginSweep
+     * @param points Count of calculated points
+     */
+    public static void endSweep(SweepEvent event, long points) {
+        event.end();
+        SWEEP_LATENCY.record(System.nanoTime() - event.getStartNanos());
+        SWEEP_POINTS.add(points);
+        if (event.shouldCommit()) {
+            event.setPoints(points);
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts sweep cache action and commits the flight recorder event
+     * @param action One of "hit", "miss", "eviction"
+     * @param emf EMF of the sweep [ Volts ]
+     * @param internalResistance Internal resistance of the sweep [ Ohms ]
+     * @param points Count of points in the sweep
+     * @param bytes Memory used by the cache after the action [ Bytes ]
+     */
+    public static void sweepCache(String action, double emf, double internalResistance, int points, long bytes) {
+        switch (action) {
+            case "hit":
+                CACHE_HITS.increment();
+                break;
+            case "miss":
+                CACHE_MISSES.increment();
+                break;
+            default:
+                CACHE_EVICTIONS.increment();
+                break;
+        }
+
+        SweepCacheEvent event = new SweepCacheEvent();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.emf = emf;
+            event.internalResistance = internalResistance;
+            event.points = points;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records shown frame and commits the flight recorder event
+     * @param latency Time from the input event to the shown frame [ Nanoseconds ]
+     * @param dropped Count of inputs dropped so far
+     */
+    public static void guiRefresh(long latency, long dropped) {
+        GUI_REFRESHES.increment();
+        GUI_REFRESH_LATENCY.record(latency);
+
+        GuiRefreshEvent event = new GuiRefreshEvent();
+        if (event.shouldCommit()) {
+            event.latency = latency;
+            event.dropped = dropped;
+            event.commit();
+        }
+    }
+
+    /**
+     * Dumps all the metrics as text, one metric per line
+     * @return Metrics snapshot
+     */
+    public static String snapshot() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < COUNTERS.size(); ++i) {
+            text.append(COUNTER_NAMES.get(i)).append(' ').append(COUNTERS.get(i).sum()).append('\n');
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            text.append(histogram).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Sets all the metrics to zero
+     */
+    public static void reset() {
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+}
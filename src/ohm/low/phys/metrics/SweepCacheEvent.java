@@ -0,0 +1,30 @@
+package ohm.low.phys.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for every hit, miss and eviction of the sweep cache
+ */
+@Name("ohm.SweepCache")
+@Label("Sweep Cache")
+@Category({"Ohm Law", "Cache"})
+@Description("Lookup or eviction of a cached sweep")
+final class SweepCacheEvent extends jdk.jfr.Event {
+    @Label("Action")
+    String action;
+
+    @Label("EMF")
+    double emf;
+
+    @Label("Internal Resistance")
+    double internalResistance;
+
+    @Label("Points")
+    int points;
+
+    @Label("Cached Bytes")
+    long bytes;
+}
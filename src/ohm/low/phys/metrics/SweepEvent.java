@@ -0,0 +1,39 @@
+package ohm.low.phys.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one sweep, created by Metrics.beginSweep
+ */
+@Name("ohm.Sweep")
+@Label("Sweep")
+@Category({"Ohm Law", "Solver"})
+@Description("Calculation of the circuit values for a range of parameters")
+public final class SweepEvent extends jdk.jfr.Event {
+    @Label("Kind")
+    private String kind;
+
+    @Label("Points")
+    private long points;
+
+    private transient long startNanos = System.nanoTime();
+
+    SweepEvent(String kind) {
+        this.kind = kind;
+    }
+
+    String getKind() {
+        return kind;
+    }
+
+    void setPoints(long points) {
+        this.points = points;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+}
@@ -0,0 +1,823 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matrix-free preconditioned conjugate gradient solver of the resistor grid.
+ * Nodal equations G * V = I are never assembled: the grid conductance arrays are applied as a 5-point stencil.
+ * Fixed potentials are moved to the right side, so the system stays symmetric positive definite.
+ * Preconditioner is one multigrid V-cycle: red-black Gauss-Seidel smoothing and 2x2 aggregation,
+ * coarse grids are stencils of the same kind with summed conductances, the coarsest one is solved by Cholesky.
+ * Iteration count does not grow much with the grid size, so grids of 10^7 nodes take tens of iterations.
+ * Every kernel runs on the fork/join pool by blocks of rows, long rows of ladders are split, sums are added in block order,
+ * so results do not depend on the count of threads. Every solve starts from the previous solution
+ */
+public class GridSolver {
+    private static final double DEFAULT_TOLERANCE = 1e-10;
+    private static final int DEFAULT_MAX_ITERATIONS = 200;
+    private static final int COARSEST_NODES = 256;
+    private static final int BLOCK_NODES = 1 << 15;
+    /**
+     * Aggregation prolongs piecewise constant corrections, which are too small on smooth errors of 2D grids,
+     * scaling them up keeps the iteration count flat with the grid size
+     */
+    private static final double OVER_CORRECTION = 1.8;
+
+    private final ResistorGrid grid;
+    private final ForkJoinPool pool;
+    private final Level[] levels;
+
+    private final double[] voltage;
+    private final double[] rightSide;
+    private final double[] residual;
+    private final double[] preconditioned;
+    private final double[] direction;
+    private final double[] product;
+
+    private double tolerance = DEFAULT_TOLERANCE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double[] history = new double[DEFAULT_MAX_ITERATIONS + 1];
+    private int iterations;
+    private double relativeResidual;
+
+    /**
+     * Creates solver running in the common fork/join pool
+     * @param grid Grid to solve, its values are read again on every solve
+     */
+    public GridSolver(ResistorGrid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates solver
+     * @param grid Grid to solve, its values are read again on every solve
+     * @param pool Pool to run kernels in
+     */
+    public GridSolver(ResistorGrid grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+
+        int nodes = grid.getNodeCount();
+        voltage = new double[nodes];
+        rightSide = new double[nodes];
+        residual = new double[nodes];
+        preconditioned = new double[nodes];
+        direction = new double[nodes];
+        product = new double[nodes];
+
+        int count = 1;
+        for (int rows = grid.getRows(), cols = grid.getCols(); (long) rows * cols > COARSEST_NODES; ++count) {
+            rows = coarse(rows);
+            cols = coarse(cols);
+        }
+        levels = new Level[count];
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        for (int l = 0; l < count; ++l) {
+            levels[l] = new Level(rows, cols, l > 0, l == count - 1);
+            rows = coarse(rows);
+            cols = coarse(cols);
+        }
+    }
+
+    /**
+     * Set convergence criteria
+     * @param tolerance Max relative residual |I - G * V| / |I|
+     * @param maxIterations Max count of iterations
+     */
+    public void setTolerance(double tolerance, int maxIterations) {
+        if (!(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("Wrong tolerance or iterations count");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        history = new double[maxIterations + 1];
+    }
+
+    /**
+     * Solves the grid starting from the previous solution
+     * @throws IllegalPhysicsSystemStateException If iterations did not converge,
+     * e.g. some part of the grid is connected neither to the ground nor to the voltage source
+     */
+    public void solve() throws IllegalPhysicsSystemStateException {
+        try {
+            iterate();
+        } finally {
+            if (Metrics.ENABLED) {
+                Metrics.GRID_SOLVES.increment();
+                Metrics.GRID_ITERATIONS.add(iterations);
+            }
+        }
+        if (!(relativeResidual <= tolerance)) {
+            throw new IllegalPhysicsSystemStateException("Grid did not converge in " + iterations
+                    + " iterations, relative residual " + relativeResidual);
+        }
+    }
+
+    private void iterate() {
+        build();
+        Level fine = levels[0];
+
+        double rightNorm = Math.sqrt(forNodes(fine, (first, end) -> dot(rightSide, rightSide, first, end)));
+        if (rightNorm == 0) {
+            Arrays.fill(voltage, 0);
+            iterations = 0;
+            relativeResidual = 0;
+            history[0] = 0;
+            return;
+        }
+
+        double residualNorm = Math.sqrt(forBlocks(fine, (fromRow, toRow, fromCol, toCol) -> {
+            fine.apply(voltage, residual, fromRow, toRow, fromCol, toCol);
+            double sum = 0;
+            for (int i = fromRow * fine.cols + fromCol, end = (toRow - 1) * fine.cols + toCol; i < end; ++i) {
+                residual[i] = rightSide[i] - residual[i];
+                sum += residual[i] * residual[i];
+            }
+            return sum;
+        }));
+
+        iterations = 0;
+        relativeResidual = residualNorm / rightNorm;
+        history[0] = relativeResidual;
+        if (relativeResidual <= tolerance) {
+            return;
+        }
+
+        precondition();
+        System.arraycopy(preconditioned, 0, direction, 0, direction.length);
+        double rz = forNodes(fine, (first, end) -> dot(residual, preconditioned, first, end));
+
+        while (iterations < maxIterations) {
+            double pq = forBlocks(fine, (fromRow, toRow, fromCol, toCol) -> {
+                fine.apply(direction, product, fromRow, toRow, fromCol, toCol);
+                return dot(direction, product, fromRow * fine.cols + fromCol, (toRow - 1) * fine.cols + toCol);
+            });
+            if (!(pq > 0)) {
+                break;
+            }
+
+            double alpha = rz / pq;
+            residualNorm = Math.sqrt(forNodes(fine, (first, end) -> {
+                double sum = 0;
+                for (int i = first; i < end; ++i) {
+                    voltage[i] += alpha * direction[i];
+                    residual[i] -= alpha * product[i];
+                    sum += residual[i] * residual[i];
+                }
+                return sum;
+            }));
+
+            ++iterations;
+            relativeResidual = residualNorm / rightNorm;
+            history[iterations] = relativeResidual;
+            if (relativeResidual <= tolerance) {
+                break;
+            }
+
+            precondition();
+            double rzNext = forNodes(fine, (first, end) -> dot(residual, preconditioned, first, end));
+            double beta = rzNext / rz;
+            rz = rzNext;
+            forNodes(fine, (first, end) -> {
+                for (int i = first; i < end; ++i) {
+                    direction[i] = preconditioned[i] + beta * direction[i];
+                }
+                return 0;
+            });
+        }
+    }
+
+    /**
+     * Forgets the previous solution, the next solve starts from zero potentials
+     */
+    public void reset() {
+        Arrays.fill(voltage, 0);
+    }
+
+    /**
+     * @param row Row of the node
+     * @param col Column of the node
+     * @return Node potential [ Volts ]
+     */
+    public double getVoltage(int row, int col) {
+        return voltage[grid.node(row, col)];
+    }
+
+    /**
+     * @return Potentials of all the nodes by node index, must not be changed [ Volts ]
+     */
+    public double[] getVoltages() {
+        return voltage;
+    }
+
+    /**
+     * @param row Row of the node
+     * @param col Column of the node, lesser than cols - 1
+     * @return Current from the node to its right neighbour [ Amps ]
+     */
+    public double getHorizontalCurrent(int row, int col) {
+        int node = grid.node(row, col);
+        return grid.getHorizontal()[row * (grid.getCols() - 1) + col] * (voltage[node] - voltage[node + 1]);
+    }
+
+    /**
+     * @param row Row of the node, lesser than rows - 1
+     * @param col Column of the node
+     * @return Current from the node to its lower neighbour [ Amps ]
+     */
+    public double getVerticalCurrent(int row, int col) {
+        int node = grid.node(row, col);
+        return grid.getVertical()[node] * (voltage[node] - voltage[node + grid.getCols()]);
+    }
+
+    /**
+     * Current flowing out of the node through its resistors, for the fixed node it is the current of its source
+     * @param row Row of the node
+     * @param col Column of the node
+     * @return Current [ Amps ]
+     */
+    public double getNodeCurrent(int row, int col) {
+        int cols = grid.getCols();
+        int node = grid.node(row, col);
+        double[] horizontal = grid.getHorizontal();
+        double[] vertical = grid.getVertical();
+        double v = voltage[node];
+
+        double current = grid.getGround()[node] * v;
+        if (col > 0) {
+            current += horizontal[node - row - 1] * (v - voltage[node - 1]);
+        }
+        if (col < cols - 1) {
+            current += horizontal[node - row] * (v - voltage[node + 1]);
+        }
+        if (row > 0) {
+            current += vertical[node - cols] * (v - voltage[node - cols]);
+        }
+        if (row < grid.getRows() - 1) {
+            current += vertical[node] * (v - voltage[node + cols]);
+        }
+        return current;
+    }
+
+    /**
+     * @return Count of iterations of the last solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Relative residual |I - G * V| / |I| after the last solve
+     */
+    public double getRelativeResidual() {
+        return relativeResidual;
+    }
+
+    /**
+     * @return Relative residual before the first iteration and after every iteration of the last solve
+     */
+    public double[] getResidualHistory() {
+        return Arrays.copyOf(history, iterations + 1);
+    }
+
+    /**
+     * @return Count of grids in the multigrid hierarchy, the finest one included
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    private static int coarse(int size) {
+        return (size + 1) / 2;
+    }
+
+    /**
+     * Copies the grid to the finest level with fixed nodes eliminated and sums it up to the coarse levels.
+     * Resistor between free node and fixed node becomes resistor to the ground of the free node
+     * with its current on the right side, fixed node becomes identity equation scaled by the conductances
+     * of the node, so its residual is a current like the residuals of the free nodes
+     */
+    private void build() {
+        Level fine = levels[0];
+        int rows = fine.rows;
+        int cols = fine.cols;
+        double[] horizontal = grid.getHorizontal();
+        double[] vertical = grid.getVertical();
+        double[] ground = grid.getGround();
+        double[] injected = grid.getInjectedCurrent();
+        double[] fixed = grid.getFixedVoltage();
+        boolean hasFixed = grid.getFixedCount() > 0;
+
+        forBlocks(fine, (fromRow, toRow, fromCol, toCol) -> {
+            for (int row = fromRow; row < toRow; ++row) {
+                for (int col = fromCol; col < toCol; ++col) {
+                    int node = row * cols + col;
+                    if (hasFixed && !Double.isNaN(fixed[node])) {
+                        double g = conductanceSum(node, row, col);
+                        fine.ground[node] = g;
+                        rightSide[node] = g * fixed[node];
+                        if (col < cols - 1) {
+                            fine.horizontal[node - row] = 0;
+                        }
+                        if (row < rows - 1) {
+                            fine.vertical[node] = 0;
+                        }
+                        continue;
+                    }
+
+                    double g = ground[node];
+                    double i = injected[node];
+                    if (col > 0) {
+                        double h = horizontal[node - row - 1];
+                        if (hasFixed && !Double.isNaN(fixed[node - 1])) {
+                            g += h;
+                            i += h * fixed[node - 1];
+                        }
+                    }
+                    if (col < cols - 1) {
+                        double h = horizontal[node - row];
+                        if (hasFixed && !Double.isNaN(fixed[node + 1])) {
+                            g += h;
+                            i += h * fixed[node + 1];
+                            h = 0;
+                        }
+                        fine.horizontal[node - row] = h;
+                    }
+                    if (row > 0) {
+                        double v = vertical[node - cols];
+                        if (hasFixed && !Double.isNaN(fixed[node - cols])) {
+                            g += v;
+                            i += v * fixed[node - cols];
+                        }
+                    }
+                    if (row < rows - 1) {
+                        double v = vertical[node];
+                        if (hasFixed && !Double.isNaN(fixed[node + cols])) {
+                            g += v;
+                            i += v * fixed[node + cols];
+                            v = 0;
+                        }
+                        fine.vertical[node] = v;
+                    }
+                    fine.ground[node] = g;
+                    rightSide[node] = i;
+                }
+            }
+            return 0;
+        });
+        forBlocks(fine, fine::calculateDiagonal);
+
+        for (int l = 1; l < levels.length; ++l) {
+            Level coarse = levels[l];
+            Level finer = levels[l - 1];
+            forBlocks(coarse, (fromRow, toRow, fromCol, toCol) -> coarse.sum(finer, fromRow, toRow, fromCol, toCol));
+            forBlocks(coarse, coarse::calculateDiagonal);
+        }
+        levels[levels.length - 1].factorize();
+    }
+
+    /**
+     * @return Sum of the conductances connected to the node, 1 for the node without them [ Siemens ]
+     */
+    private double conductanceSum(int node, int row, int col) {
+        int cols = grid.getCols();
+        double[] horizontal = grid.getHorizontal();
+        double[] vertical = grid.getVertical();
+        double sum = grid.getGround()[node];
+        if (col > 0) {
+            sum += horizontal[node - row - 1];
+        }
+        if (col < cols - 1) {
+            sum += horizontal[node - row];
+        }
+        if (row > 0) {
+            sum += vertical[node - cols];
+        }
+        if (row < grid.getRows() - 1) {
+            sum += vertical[node];
+        }
+        return (sum > 0) ? sum : 1;
+    }
+
+    /**
+     * preconditioned = M^-1 * residual, one V-cycle from zero
+     */
+    private void precondition() {
+        levels[0].x = preconditioned;
+        levels[0].b = residual;
+        cycle(0);
+    }
+
+    private void cycle(int l) {
+        Level level = levels[l];
+        if (level.isCoarsest()) {
+            level.solveCoarsest();
+            return;
+        }
+
+        Level coarse = levels[l + 1];
+        double[] x = level.x;
+        double[] b = level.b;
+        double[] r = level.r;
+        forNodes(level, (first, end) -> {
+            Arrays.fill(x, first, end, 0);
+            return 0;
+        });
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> level.smooth(0, fromRow, toRow, fromCol, toCol));
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> level.smooth(1, fromRow, toRow, fromCol, toCol));
+
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> {
+            level.apply(x, r, fromRow, toRow, fromCol, toCol);
+            for (int i = fromRow * level.cols + fromCol, end = (toRow - 1) * level.cols + toCol; i < end; ++i) {
+                r[i] = b[i] - r[i];
+            }
+            return 0;
+        });
+        forBlocks(coarse, (fromRow, toRow, fromCol, toCol) -> coarse.restrict(level, fromRow, toRow, fromCol, toCol));
+        cycle(l + 1);
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> level.prolong(coarse, fromRow, toRow, fromCol, toCol));
+
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> level.smooth(1, fromRow, toRow, fromCol, toCol));
+        forBlocks(level, (fromRow, toRow, fromCol, toCol) -> level.smooth(0, fromRow, toRow, fromCol, toCol));
+    }
+
+    private static double dot(double[] a, double[] b, int first, int end) {
+        double sum = 0;
+        for (int i = first; i < end; ++i) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Kernel over the block of the level: whole rows from fromRow to toRow, or a part of one long row
+     */
+    private interface BlockKernel {
+        /**
+         * @return Partial sum of the block, 0 if kernel does not sum anything
+         */
+        double run(int fromRow, int toRow, int fromCol, int toCol);
+    }
+
+    /**
+     * Kernel over the range of node indices
+     */
+    private interface NodesKernel {
+        /**
+         * @return Partial sum of the range, 0 if kernel does not sum anything
+         */
+        double run(int first, int end);
+    }
+
+    private double forNodes(Level level, NodesKernel kernel) {
+        return forBlocks(level, (fromRow, toRow, fromCol, toCol) ->
+                kernel.run(fromRow * level.cols + fromCol, (toRow - 1) * level.cols + toCol));
+    }
+
+    /**
+     * Runs kernel over all the nodes of the level by blocks of about BLOCK_NODES nodes,
+     * rows longer than the block are split, small levels and single thread pools run in the calling thread
+     * @return Sum of the block results in block order
+     */
+    private double forBlocks(Level level, BlockKernel kernel) {
+        int rowsPerBlock = Math.max(1, BLOCK_NODES / level.cols);
+        int colsPerBlock = Math.min(level.cols, BLOCK_NODES);
+        int rowBlocks = (level.rows + rowsPerBlock - 1) / rowsPerBlock;
+        int colBlocks = (level.cols + colsPerBlock - 1) / colsPerBlock;
+        int blocks = rowBlocks * colBlocks;
+        if (blocks == 1) {
+            return kernel.run(0, level.rows, 0, level.cols);
+        }
+
+        double[] partial = new double[blocks];
+        BlocksTask task = new BlocksTask(level, rowsPerBlock, colsPerBlock, colBlocks, kernel, partial, 0, blocks);
+        if (pool.getParallelism() == 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        double sum = 0;
+        for (double value : partial) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static class BlocksTask extends RecursiveAction {
+        private final Level level;
+        private final int rowsPerBlock;
+        private final int colsPerBlock;
+        private final int colBlocks;
+        private final BlockKernel kernel;
+        private final double[] partial;
+        private final int fromBlock;
+        private final int toBlock;
+
+        BlocksTask(Level level, int rowsPerBlock, int colsPerBlock, int colBlocks, BlockKernel kernel,
+                   double[] partial, int fromBlock, int toBlock) {
+            this.level = level;
+            this.rowsPerBlock = rowsPerBlock;
+            this.colsPerBlock = colsPerBlock;
+            this.colBlocks = colBlocks;
+            this.kernel = kernel;
+            this.partial = partial;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                invokeAll(new BlocksTask(level, rowsPerBlock, colsPerBlock, colBlocks, kernel, partial,
+                                fromBlock, middle),
+                        new BlocksTask(level, rowsPerBlock, colsPerBlock, colBlocks, kernel, partial,
+                                middle, toBlock));
+                return;
+            }
+
+            int fromRow = (fromBlock / colBlocks) * rowsPerBlock;
+            int fromCol = (fromBlock % colBlocks) * colsPerBlock;
+            partial[fromBlock] = kernel.run(fromRow, Math.min(level.rows, fromRow + rowsPerBlock),
+                    fromCol, Math.min(level.cols, fromCol + colsPerBlock));
+        }
+    }
+
+    /**
+     * One grid of the multigrid hierarchy: 5-point stencil of conductances and the vectors of its cycle
+     */
+    private static final class Level {
+        private final int rows;
+        private final int cols;
+        private final double[] horizontal;
+        private final double[] vertical;
+        private final double[] ground;
+        private final double[] diagonal;
+        private final double[] r;
+        private final boolean coarsest;
+        private final double correction;
+
+        private double[] x;
+        private double[] b;
+        private double[] cholesky;
+
+        Level(int rows, int cols, boolean ownVectors, boolean coarsest) {
+            this.rows = rows;
+            this.cols = cols;
+            this.coarsest = coarsest;
+            correction = (rows > 1 && cols > 1) ? OVER_CORRECTION : 1;
+            int nodes = rows * cols;
+            horizontal = new double[rows * (cols - 1)];
+            vertical = new double[(rows - 1) * cols];
+            ground = new double[nodes];
+            diagonal = new double[nodes];
+            r = coarsest ? null : new double[nodes];
+            if (ownVectors) {
+                x = new double[nodes];
+                b = new double[nodes];
+            }
+        }
+
+        boolean isCoarsest() {
+            return coarsest;
+        }
+
+        double calculateDiagonal(int fromRow, int toRow, int fromCol, int toCol) {
+            for (int row = fromRow; row < toRow; ++row) {
+                for (int col = fromCol; col < toCol; ++col) {
+                    int node = row * cols + col;
+                    double d = ground[node];
+                    if (col > 0) {
+                        d += horizontal[node - row - 1];
+                    }
+                    if (col < cols - 1) {
+                        d += horizontal[node - row];
+                    }
+                    if (row > 0) {
+                        d += vertical[node - cols];
+                    }
+                    if (row < rows - 1) {
+                        d += vertical[node];
+                    }
+                    diagonal[node] = d;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * y = A * x for the block
+         */
+        void apply(double[] x, double[] y, int fromRow, int toRow, int fromCol, int toCol) {
+            for (int row = fromRow; row < toRow; ++row) {
+                boolean up = row > 0;
+                boolean down = row < rows - 1;
+                int start = row * cols;
+                int edges = start - row;
+                for (int col = fromCol; col < toCol; ++col) {
+                    int node = start + col;
+                    double sum = diagonal[node] * x[node];
+                    if (col > 0) {
+                        sum -= horizontal[edges + col - 1] * x[node - 1];
+                    }
+                    if (col < cols - 1) {
+                        sum -= horizontal[edges + col] * x[node + 1];
+                    }
+                    if (up) {
+                        sum -= vertical[node - cols] * x[node - cols];
+                    }
+                    if (down) {
+                        sum -= vertical[node] * x[node + cols];
+                    }
+                    y[node] = sum;
+                }
+            }
+        }
+
+        /**
+         * Gauss-Seidel update of the nodes of one color, nodes of one color do not touch each other
+         * @param color 0 for nodes with even row + col, 1 for odd
+         */
+        double smooth(int color, int fromRow, int toRow, int fromCol, int toCol) {
+            for (int row = fromRow; row < toRow; ++row) {
+                boolean up = row > 0;
+                boolean down = row < rows - 1;
+                int start = row * cols;
+                int edges = start - row;
+                for (int col = fromCol + ((row + fromCol + color) & 1); col < toCol; col += 2) {
+                    int node = start + col;
+                    double d = diagonal[node];
+                    if (d == 0) {
+                        continue;
+                    }
+                    double sum = b[node];
+                    if (col > 0) {
+                        sum += horizontal[edges + col - 1] * x[node - 1];
+                    }
+                    if (col < cols - 1) {
+                        sum += horizontal[edges + col] * x[node + 1];
+                    }
+                    if (up) {
+                        sum += vertical[node - cols] * x[node - cols];
+                    }
+                    if (down) {
+                        sum += vertical[node] * x[node + cols];
+                    }
+                    x[node] = sum / d;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Galerkin coarse stencil of the 2x2 aggregation: conductances crossing block borders
+         * and ground conductances of the block are summed
+         */
+        double sum(Level fine, int fromRow, int toRow, int fromCol, int toCol) {
+            int rowStep = (fine.rows > 1) ? 2 : 1;
+            int colStep = (fine.cols > 1) ? 2 : 1;
+            for (int row = fromRow; row < toRow; ++row) {
+                int fineRowFrom = row * rowStep;
+                int fineRowTo = Math.min(fine.rows, fineRowFrom + rowStep);
+                for (int col = fromCol; col < toCol; ++col) {
+                    int fineColFrom = col * colStep;
+                    int fineColTo = Math.min(fine.cols, fineColFrom + colStep);
+                    int node = row * cols + col;
+
+                    double g = 0;
+                    for (int fr = fineRowFrom; fr < fineRowTo; ++fr) {
+                        for (int fc = fineColFrom; fc < fineColTo; ++fc) {
+                            g += fine.ground[fr * fine.cols + fc];
+                        }
+                    }
+                    ground[node] = g;
+
+                    if (col < cols - 1) {
+                        int fineCol = fineColTo - 1;
+                        double h = 0;
+                        for (int fr = fineRowFrom; fr < fineRowTo; ++fr) {
+                            h += fine.horizontal[fr * (fine.cols - 1) + fineCol];
+                        }
+                        horizontal[node - row] = h;
+                    }
+                    if (row < rows - 1) {
+                        int fineRow = fineRowTo - 1;
+                        double v = 0;
+                        for (int fc = fineColFrom; fc < fineColTo; ++fc) {
+                            v += fine.vertical[fineRow * fine.cols + fc];
+                        }
+                        vertical[node] = v;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * b = sum of the fine residual over the block
+         */
+        double restrict(Level fine, int fromRow, int toRow, int fromCol, int toCol) {
+            int rowStep = (fine.rows > 1) ? 2 : 1;
+            int colStep = (fine.cols > 1) ? 2 : 1;
+            for (int row = fromRow; row < toRow; ++row) {
+                int fineRowFrom = row * rowStep;
+                int fineRowTo = Math.min(fine.rows, fineRowFrom + rowStep);
+                for (int col = fromCol; col < toCol; ++col) {
+                    int fineColFrom = col * colStep;
+                    int fineColTo = Math.min(fine.cols, fineColFrom + colStep);
+                    double sum = 0;
+                    for (int fr = fineRowFrom; fr < fineRowTo; ++fr) {
+                        for (int fc = fineColFrom; fc < fineColTo; ++fc) {
+                            sum += fine.r[fr * fine.cols + fc];
+                        }
+                    }
+                    b[row * cols + col] = sum;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * x += coarse x of the block of every node, scaled by the over-correction of the 2D levels
+         */
+        double prolong(Level coarse, int fromRow, int toRow, int fromCol, int toCol) {
+            int rowShift = (rows > 1) ? 1 : 0;
+            int colShift = (cols > 1) ? 1 : 0;
+            for (int row = fromRow; row < toRow; ++row) {
+                int coarseStart = (row >> rowShift) * coarse.cols;
+                int start = row * cols;
+                for (int col = fromCol; col < toCol; ++col) {
+                    x[start + col] += correction * coarse.x[coarseStart + (col >> colShift)];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Dense Cholesky factorization of the coarsest grid, rows without conductances are skipped
+         */
+        void factorize() {
+            int n = rows * cols;
+            if (cholesky == null) {
+                cholesky = new double[n * n];
+            }
+            double[] a = cholesky;
+            Arrays.fill(a, 0);
+            for (int node = 0; node < n; ++node) {
+                int row = node / cols;
+                int col = node - row * cols;
+                a[node * n + node] = (diagonal[node] == 0) ? 1 : diagonal[node];
+                if (col < cols - 1) {
+                    a[node * n + node + 1] = -horizontal[node - row];
+                    a[(node + 1) * n + node] = -horizontal[node - row];
+                }
+                if (row < rows - 1) {
+                    a[node * n + node + cols] = -vertical[node];
+                    a[(node + cols) * n + node] = -vertical[node];
+                }
+            }
+
+            for (int j = 0; j < n; ++j) {
+                double d = a[j * n + j];
+                for (int k = 0; k < j; ++k) {
+                    d -= a[j * n + k] * a[j * n + k];
+                }
+                // Floating part of the grid gives zero pivot, it is kept as is and iterations report the failure
+                d = (d > 0) ? Math.sqrt(d) : 1;
+                a[j * n + j] = d;
+                for (int i = j + 1; i < n; ++i) {
+                    double s = a[i * n + j];
+                    for (int k = 0; k < j; ++k) {
+                        s -= a[i * n + k] * a[j * n + k];
+                    }
+                    a[i * n + j] = s / d;
+                }
+            }
+        }
+
+        void solveCoarsest() {
+            int n = rows * cols;
+            double[] a = cholesky;
+            for (int i = 0; i < n; ++i) {
+                double s = b[i];
+                for (int k = 0; k < i; ++k) {
+                    s -= a[i * n + k] * x[k];
+                }
+                x[i] = s / a[i * n + i];
+            }
+            for (int i = n - 1; i >= 0; --i) {
+                double s = x[i];
+                for (int k = i + 1; k < n; ++k) {
+                    s -= a[k * n + i] * x[k];
+                }
+                x[i] = s / a[i * n + i];
+            }
+        }
+    }
+}
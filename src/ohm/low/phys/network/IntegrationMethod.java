@@ -0,0 +1,15 @@
+package ohm.low.phys.network;
+
+/**
+ * Implicit method used to replace capacitors and inductors by their companion models on every time step
+ */
+public enum IntegrationMethod {
+    /**
+     * First order, damps oscillations, stable for any step
+     */
+    BACKWARD_EULER,
+    /**
+     * Second order, keeps energy of LC circuits, may ring on sharp edges
+     */
+    TRAPEZOIDAL
+}
@@ -0,0 +1,136 @@
+package ohm.low.phys.network;
+
+import java.util.Arrays;
+
+/**
+ * Fill-reducing ordering of the symmetric matrix rows by minimum degree.
+ * The elimination graph is kept explicitly: when a node is eliminated its neighbours become a clique.
+ * Degrees are kept in bucket lists, so the next node is found without scanning all of them
+ */
+class MinimumDegreeOrdering {
+    private MinimumDegreeOrdering() {
+
+    }
+
+    /**
+     * Orders the first rows of the matrix by minimum degree, the rest rows are placed after them as is
+     * @param matrix Matrix with symmetric pattern
+     * @param orderedCount Count of the first rows to order
+     * @return Permutation, permutation[k] is the row eliminated at step k
+     */
+    static int[] order(SparseMatrix matrix, int orderedCount) {
+        int size = matrix.getSize();
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columns = matrix.getColumns();
+
+        int[][] adjacency = new int[orderedCount][];
+        int[] degree = new int[orderedCount];
+        for (int i = 0; i < orderedCount; ++i) {
+            int[] neighbours = new int[rowPointers[i + 1] - rowPointers[i]];
+            int count = 0;
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; ++p) {
+                int j = columns[p];
+                if (j != i && j < orderedCount) {
+                    neighbours[count++] = j;
+                }
+            }
+            adjacency[i] = neighbours;
+            degree[i] = count;
+        }
+
+        int[] head = new int[orderedCount + 1];
+        int[] next = new int[orderedCount];
+        int[] previous = new int[orderedCount];
+        Arrays.fill(head, -1);
+        for (int i = 0; i < orderedCount; ++i) {
+            insert(head, next, previous, degree, i);
+        }
+
+        boolean[] eliminated = new boolean[orderedCount];
+        int[] marker = new int[orderedCount];
+        Arrays.fill(marker, -1);
+        int stamp = 0;
+        int[] permutation = new int[size];
+        int minDegree = 0;
+
+        for (int step = 0; step < orderedCount; ++step) {
+            while (head[minDegree] == -1) {
+                ++minDegree;
+            }
+            int pivot = head[minDegree];
+            remove(head, next, previous, degree, pivot);
+            eliminated[pivot] = true;
+            permutation[step] = pivot;
+
+            int[] pivotNeighbours = adjacency[pivot];
+            int pivotDegree = degree[pivot];
+            for (int k = 0; k < pivotDegree; ++k) {
+                int q = pivotNeighbours[k];
+                remove(head, next, previous, degree, q);
+                mergeClique(adjacency, degree, eliminated, marker, stamp++, q, pivot, pivotNeighbours, pivotDegree);
+                insert(head, next, previous, degree, q);
+                if (degree[q] < minDegree) {
+                    minDegree = degree[q];
+                }
+            }
+            adjacency[pivot] = null;
+        }
+
+        for (int i = orderedCount; i < size; ++i) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+
+    /**
+     * Replaces adjacency of q by (adj(q) + adj(pivot)) - {q, pivot}, without eliminated nodes
+     */
+    private static void mergeClique(int[][] adjacency, int[] degree, boolean[] eliminated, int[] marker, int stamp,
+                                    int q, int pivot, int[] pivotNeighbours, int pivotDegree) {
+        int[] neighbours = adjacency[q];
+        int count = 0;
+        marker[q] = stamp;
+        for (int k = 0; k < degree[q]; ++k) {
+            int j = neighbours[k];
+            if (!eliminated[j] && marker[j] != stamp) {
+                marker[j] = stamp;
+                neighbours[count++] = j;
+            }
+        }
+
+        for (int k = 0; k < pivotDegree; ++k) {
+            int j = pivotNeighbours[k];
+            if (j != pivot && marker[j] != stamp) {
+                marker[j] = stamp;
+                if (count == neighbours.length) {
+                    neighbours = Arrays.copyOf(neighbours, Math.max(4, 2 * count));
+                }
+                neighbours[count++] = j;
+            }
+        }
+
+        adjacency[q] = neighbours;
+        degree[q] = count;
+    }
+
+    private static void insert(int[] head, int[] next, int[] previous, int[] degree, int node) {
+        int d = degree[node];
+        next[node] = head[d];
+        previous[node] = -1;
+        if (head[d] != -1) {
+            previous[head[d]] = node;
+        }
+        head[d] = node;
+    }
+
+    private static void remove(int[] head, int[] next, int[] previous, int[] degree, int node) {
+        if (previous[node] != -1) {
+            next[previous[node]] = next[node];
+        } else {
+            head[degree[node]] = next[node];
+        }
+        if (next[node] != -1) {
+            previous[next[node]] = previous[node];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package ohm.low.phys.network;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Fill-reducing ordering of the symmetric matrix rows by nested dissection.
+ * Every part of the graph is split by the middle level of the breadth-first search level structure
+ * rooted at a pseudo-peripheral node. Separator is eliminated after both halves, so fill stays inside them.
+ * Small parts are placed in reversed breadth-first order. Works in O(n log n) and is used for large networks
+ */
+class NestedDissectionOrdering {
+    private static final int LEAF_SIZE = 64;
+
+    private final int[] adjacencyPointers;
+    private final int[] adjacency;
+    private final int[] owner;
+    private final int[] level;
+    private final int[] queue;
+    private final int[] permutation;
+    private int nextId;
+    private int visitedCount;
+
+    private NestedDissectionOrdering(SparseMatrix matrix, int orderedCount) {
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columns = matrix.getColumns();
+
+        adjacencyPointers = new int[orderedCount + 1];
+        int[] buffer = new int[rowPointers[orderedCount]];
+        int count = 0;
+        for (int i = 0; i < orderedCount; ++i) {
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; ++p) {
+                int j = columns[p];
+                if (j != i && j < orderedCount) {
+                    buffer[count++] = j;
+                }
+            }
+            adjacencyPointers[i + 1] = count;
+        }
+        adjacency = Arrays.copyOf(buffer, count);
+
+        owner = new int[orderedCount];
+        level = new int[orderedCount];
+        queue = new int[orderedCount];
+        permutation = new int[matrix.getSize()];
+    }
+
+    /**
+     * Orders the first rows of the matrix by nested dissection, the rest rows are placed after them as is
+     * @param matrix Matrix with symmetric pattern
+     * @param orderedCount Count of the first rows to order
+     * @return Permutation, permutation[k] is the row eliminated at step k
+     */
+    static int[] order(SparseMatrix matrix, int orderedCount) {
+        return new NestedDissectionOrdering(matrix, orderedCount).order(orderedCount);
+    }
+
+    private int[] order(int orderedCount) {
+        Deque<int[]> parts = new ArrayDeque<>();
+        Deque<Integer> starts = new ArrayDeque<>();
+
+        int[] all = new int[orderedCount];
+        for (int i = 0; i < orderedCount; ++i) {
+            all[i] = i;
+        }
+        parts.push(all);
+        starts.push(0);
+
+        while (!parts.isEmpty()) {
+            int[] part = parts.pop();
+            int start = starts.pop();
+            if (part.length == 0) {
+                continue;
+            }
+
+            int partId = ++nextId;
+            for (int node : part) {
+                owner[node] = partId;
+            }
+
+            int componentId = ++nextId;
+            int[] component = component(part[0], partId, componentId);
+            if (component.length < part.length) {
+                parts.push(collect(part, partId, component.length));
+                starts.push(start + component.length);
+                parts.push(component);
+                starts.push(start);
+                continue;
+            }
+
+            int root = pseudoPeripheral(part[0], componentId);
+            int depth = levels(root, componentId);
+            if (part.length <= LEAF_SIZE || depth < 3) {
+                for (int k = 0; k < part.length; ++k) {
+                    permutation[start + k] = queue[part.length - 1 - k];
+                }
+                continue;
+            }
+
+            int middle = depth / 2;
+            int lowCount = 0;
+            int separatorCount = 0;
+            for (int node : part) {
+                if (level[node] < middle) {
+                    ++lowCount;
+                } else if (level[node] == middle) {
+                    ++separatorCount;
+                }
+            }
+
+            int[] low = new int[lowCount];
+            int[] high = new int[part.length - lowCount - separatorCount];
+            int l = 0;
+            int h = 0;
+            int s = start + part.length - separatorCount;
+            for (int node : part) {
+                if (level[node] < middle) {
+                    low[l++] = node;
+                } else if (level[node] > middle) {
+                    high[h++] = node;
+                } else {
+                    permutation[s++] = node;
+                }
+            }
+
+            parts.push(high);
+            starts.push(start + lowCount);
+            parts.push(low);
+            starts.push(start);
+        }
+
+        for (int i = orderedCount; i < permutation.length; ++i) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+
+    /**
+     * Finds nodes of the part connected to the node and marks them with the component id
+     * @return Nodes of the component
+     */
+    private int[] component(int node, int partId, int componentId) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = node;
+        owner[node] = componentId;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int p = adjacencyPointers[v]; p < adjacencyPointers[v + 1]; ++p) {
+                int w = adjacency[p];
+                if (owner[w] == partId) {
+                    owner[w] = componentId;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * Collects nodes of the part which are not in the found component
+     */
+    private int[] collect(int[] part, int partId, int componentSize) {
+        int[] rest = new int[part.length - componentSize];
+        int count = 0;
+        for (int node : part) {
+            if (owner[node] == partId) {
+                rest[count++] = node;
+            }
+        }
+        return rest;
+    }
+
+    /**
+     * Finds node with the deepest level structure by repeated breadth-first search
+     */
+    private int pseudoPeripheral(int node, int id) {
+        int root = node;
+        int depth = levels(root, id);
+        while (true) {
+            int candidate = queue[visitedCount - 1];
+            int candidateDepth = levels(candidate, id);
+            if (candidateDepth <= depth) {
+                return root;
+            }
+            root = candidate;
+            depth = candidateDepth;
+        }
+    }
+
+    /**
+     * Builds breadth-first level structure of the nodes marked with id, visited nodes are left in the queue
+     * @return Count of levels
+     */
+    private int levels(int root, int id) {
+        int visited = ++nextId;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        level[root] = 0;
+        owner[root] = visited;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int p = adjacencyPointers[v]; p < adjacencyPointers[v + 1]; ++p) {
+                int w = adjacency[p];
+                if (owner[w] == id) {
+                    owner[w] = visited;
+                    level[w] = level[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+
+        for (int i = 0; i < tail; ++i) {
+            owner[queue[i]] = id;
+        }
+        visitedCount = tail;
+        return level[queue[tail - 1]] + 1;
+    }
+}
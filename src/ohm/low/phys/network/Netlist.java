@@ -0,0 +1,348 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.Potentiometer;
+import ohm.low.phys.base.ResistanceChangeListener;
+import ohm.low.phys.base.Resistor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Network of resistors and sources placed between named nodes.
+ * Nodes are created on the first use, node GROUND has zero potential.
+ * Elements are stored in primitive arrays and addressed by the index returned when they are added.
+ * Netlist listens to its potentiometers, close it when it is not used any more,
+ * so the potentiometers do not keep it reachable
+ */
+public class Netlist implements AutoCloseable {
+    /**
+     * Name of the zero potential node
+     */
+    public static final String GROUND = "0";
+
+    static final int GROUND_INDEX = -1;
+
+    private final Map<String, Integer> nodeIndices = new HashMap<>();
+    private final List<String> nodeNames = new ArrayList<>();
+
+    private Resistor[] resistors = new Resistor[16];
+    private int[] resistorNodeA = new int[16];
+    private int[] resistorNodeB = new int[16];
+    /**
+     * Listener added to the potentiometer of the resistor, null for other resistors
+     */
+    private ResistanceChangeListener[] listeners = new ResistanceChangeListener[16];
+    private int resistorCount;
+
+    private DCPowerSupply[] supplies = new DCPowerSupply[4];
+    private int[] supplyPlus = new int[4];
+    private int[] supplyMinus = new int[4];
+    private double[] supplyEmf = new double[4];
+    private int supplyCount;
+
+    private int[] currentSourceFrom = new int[4];
+    private int[] currentSourceTo = new int[4];
+    private double[] currentSourceValue = new double[4];
+    private int currentSourceCount;
+
+    private boolean[] changed = new boolean[16];
+    private int[] changedResistors = new int[16];
+    private int changedCount;
+
+    private int structureVersion;
+    private int sourceVersion;
+
+    /**
+     * Creates empty netlist
+     */
+    public Netlist() {
+
+    }
+
+    /**
+     * Get index of the node, node is created if it does not exist
+     * @param name Node name
+     * @return Node index, -1 for the ground
+     */
+    public int node(String name) {
+        if (GROUND.equals(name)) {
+            return GROUND_INDEX;
+        }
+
+        Integer index = nodeIndices.get(name);
+        if (index == null) {
+            index = nodeNames.size();
+            nodeIndices.put(name, index);
+            nodeNames.add(name);
+            ++structureVersion;
+        }
+        return index;
+    }
+
+    /**
+     * Get index of the existing node
+     * @param name Node name
+     * @return Node index, -1 for the ground
+     * @throws IllegalArgumentException If there is no such node
+     */
+    public int getNodeIndex(String name) {
+        if (GROUND.equals(name)) {
+            return GROUND_INDEX;
+        }
+
+        Integer index = nodeIndices.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown node " + name);
+        }
+        return index;
+    }
+
+    /**
+     * @param index Node index
+     * @return Node name
+     */
+    public String getNodeName(int index) {
+        return (index == GROUND_INDEX) ? GROUND : nodeNames.get(index);
+    }
+
+    /**
+     * @return Count of nodes, ground is not counted
+     */
+    public int getNodeCount() {
+        return nodeNames.size();
+    }
+
+    /**
+     * Places resistor between two nodes
+     * @param nodeA First node name
+     * @param nodeB Second node name
+     * @param resistor Resistor to place
+     * @return Resistor index
+     */
+    public int addResistor(String nodeA, String nodeB, Resistor resistor) {
+        if (resistorCount == resistors.length) {
+            int capacity = 2 * resistorCount;
+            resistors = Arrays.copyOf(resistors, capacity);
+            resistorNodeA = Arrays.copyOf(resistorNodeA, capacity);
+            resistorNodeB = Arrays.copyOf(resistorNodeB, capacity);
+            listeners = Arrays.copyOf(listeners, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+            changedResistors = Arrays.copyOf(changedResistors, capacity);
+        }
+
+        int index = resistorCount++;
+        resistors[index] = resistor;
+        resistorNodeA[index] = node(nodeA);
+        resistorNodeB[index] = node(nodeB);
+        ++structureVersion;
+
+        if (resistor instanceof Potentiometer) {
+            listeners[index] = r -> markChanged(index);
+            ((Potentiometer) resistor).addResistanceChangeListener(listeners[index]);
+        }
+        return index;
+    }
+
+    /**
+     * Stops listening to the potentiometers of the network, their changes are not tracked any more
+     */
+    @Override
+    public void close() {
+        for (int k = 0; k < resistorCount; ++k) {
+            if (listeners[k] != null) {
+                ((Potentiometer) resistors[k]).removeResistanceChangeListener(listeners[k]);
+                listeners[k] = null;
+            }
+        }
+    }
+
+    /**
+     * Marks resistor as changed, so the solver takes its new resistance.
+     * Potentiometers are tracked automatically, other mutable resistors must be marked by the caller
+     * @param resistor Resistor index
+     */
+    public void markChanged(int resistor) {
+        checkIndex(resistor, resistorCount);
+        if (!changed[resistor]) {
+            changed[resistor] = true;
+            changedResistors[changedCount++] = resistor;
+        }
+    }
+
+    /**
+     * Places power supply between two nodes
+     * @param plusNode Node connected to the positive terminal
+     * @param minusNode Node connected to the negative terminal
+     * @param supply Power supply to place
+     * @return Power supply index
+     */
+    public int addPowerSupply(String plusNode, String minusNode, DCPowerSupply supply) {
+        if (supplyCount == supplies.length) {
+            int capacity = 2 * supplyCount;
+            supplies = Arrays.copyOf(supplies, capacity);
+            supplyPlus = Arrays.copyOf(supplyPlus, capacity);
+            supplyMinus = Arrays.copyOf(supplyMinus, capacity);
+            supplyEmf = Arrays.copyOf(supplyEmf, capacity);
+        }
+
+        supplies[supplyCount] = supply;
+        supplyPlus[supplyCount] = node(plusNode);
+        supplyMinus[supplyCount] = node(minusNode);
+        supplyEmf[supplyCount] = supply.getEmf();
+        ++structureVersion;
+        return supplyCount++;
+    }
+
+    /**
+     * Places ideal current source between two nodes
+     * @param fromNode Node the current flows from into the source
+     * @param toNode Node the current flows to out of the source
+     * @param current Current value [ Amps ]
+     * @return Current source index
+     */
+    public int addCurrentSource(String fromNode, String toNode, double current) {
+        if (currentSourceCount == currentSourceValue.length) {
+            int capacity = 2 * currentSourceCount;
+            currentSourceFrom = Arrays.copyOf(currentSourceFrom, capacity);
+            currentSourceTo = Arrays.copyOf(currentSourceTo, capacity);
+            currentSourceValue = Arrays.copyOf(currentSourceValue, capacity);
+        }
+
+        currentSourceFrom[currentSourceCount] = node(fromNode);
+        currentSourceTo[currentSourceCount] = node(toNode);
+        currentSourceValue[currentSourceCount] = current;
+        ++structureVersion;
+        return currentSourceCount++;
+    }
+
+    /**
+     * Changes EMF of the power supply, factorization of the network stays valid
+     * @param supply Power supply index
+     * @param emf New EMF value [ Volts ]
+     * @throws WrongPhysicsParameterException If EMF value < 0
+     */
+    public void setEmf(int supply, double emf) throws WrongPhysicsParameterException {
+        checkIndex(supply, supplyCount);
+        if (emf < 0) {
+            throw new WrongPhysicsParameterException("EMF is lesser than zero");
+        }
+        supplyEmf[supply] = emf;
+        ++sourceVersion;
+    }
+
+    /**
+     * Changes current of the current source, factorization of the network stays valid
+     * @param source Current source index
+     * @param current New current value [ Amps ]
+     */
+    public void setSourceCurrent(int source, double current) {
+        checkIndex(source, currentSourceCount);
+        currentSourceValue[source] = current;
+        ++sourceVersion;
+    }
+
+    /**
+     * @return Count of resistors
+     */
+    public int getResistorCount() {
+        return resistorCount;
+    }
+
+    /**
+     * @param resistor Resistor index
+     * @return Resistor placed into the network
+     */
+    public Resistor getResistor(int resistor) {
+        checkIndex(resistor, resistorCount);
+        return resistors[resistor];
+    }
+
+    /**
+     * @return Count of power supplies
+     */
+    public int getSupplyCount() {
+        return supplyCount;
+    }
+
+    /**
+     * @param supply Power supply index
+     * @return EMF value of the power supply in the network [ Volts ]
+     */
+    public double getEmf(int supply) {
+        checkIndex(supply, supplyCount);
+        return supplyEmf[supply];
+    }
+
+    /**
+     * @return Count of current sources
+     */
+    public int getCurrentSourceCount() {
+        return currentSourceCount;
+    }
+
+    int getStructureVersion() {
+        return structureVersion;
+    }
+
+    int getSourceVersion() {
+        return sourceVersion;
+    }
+
+    int getChangedCount() {
+        return changedCount;
+    }
+
+    int getChangedResistor(int k) {
+        return changedResistors[k];
+    }
+
+    void clearChanged() {
+        for (int k = 0; k < changedCount; ++k) {
+            changed[changedResistors[k]] = false;
+        }
+        changedCount = 0;
+    }
+
+    int getResistorNodeA(int resistor) {
+        return resistorNodeA[resistor];
+    }
+
+    int getResistorNodeB(int resistor) {
+        return resistorNodeB[resistor];
+    }
+
+    Resistor getSupplyResistor(int supply) {
+        return supplies[supply].getInternalResistor();
+    }
+
+    int getSupplyPlus(int supply) {
+        return supplyPlus[supply];
+    }
+
+    int getSupplyMinus(int supply) {
+        return supplyMinus[supply];
+    }
+
+    int getCurrentSourceFrom(int source) {
+        return currentSourceFrom[source];
+    }
+
+    int getCurrentSourceTo(int source) {
+        return currentSourceTo[source];
+    }
+
+    double getCurrentSourceValue(int source) {
+        return currentSourceValue[source];
+    }
+
+    private static void checkIndex(int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in range 0.." + (count - 1));
+        }
+    }
+}
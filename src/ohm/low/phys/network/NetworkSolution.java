@@ -0,0 +1,99 @@
+package ohm.low.phys.network;
+
+/**
+ * Solved state of the network: node potentials and currents of the elements.
+ * Solution vector is x = base + alpha * correction, values are calculated on demand,
+ * so creating a solution after a single resistor change does not touch every node
+ */
+public class NetworkSolution {
+    private final Netlist netlist;
+    private final int nodeCount;
+    private final int[] resistorRows;
+    private final int[] supplyRows;
+    private final double[] supplyConductance;
+    private final double[] resistance;
+    private final double[] supplyEmf;
+
+    private final double[] base;
+    private final double[] correction;
+    private final double alpha;
+    private final int updatedResistor;
+    private final double updatedResistance;
+
+    NetworkSolution(Netlist netlist, int nodeCount, int[] resistorRows, int[] supplyRows, double[] supplyConductance,
+                    double[] resistance, double[] supplyEmf, double[] base, double[] correction, double alpha,
+                    int updatedResistor, double updatedResistance) {
+        this.netlist = netlist;
+        this.nodeCount = nodeCount;
+        this.resistorRows = resistorRows;
+        this.supplyRows = supplyRows;
+        this.supplyConductance = supplyConductance;
+        this.resistance = resistance;
+        this.supplyEmf = supplyEmf;
+        this.base = base;
+        this.correction = correction;
+        this.alpha = alpha;
+        this.updatedResistor = updatedResistor;
+        this.updatedResistance = updatedResistance;
+    }
+
+    /**
+     * @param node Node name
+     * @return Node potential [ Volts ]
+     */
+    public double getVoltage(String node) {
+        return getVoltage(netlist.getNodeIndex(node));
+    }
+
+    /**
+     * @param node Node index
+     * @return Node potential [ Volts ]
+     */
+    public double getVoltage(int node) {
+        if (node == Netlist.GROUND_INDEX) {
+            return 0;
+        }
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node index " + node + " is not in range 0.." + (nodeCount - 1));
+        }
+        return value(node);
+    }
+
+    /**
+     * @param resistor Resistor index
+     * @return Current through the resistor from its first node to the second one [ Amps ]
+     */
+    public double getResistorCurrent(int resistor) {
+        if (resistorRows[resistor] >= 0) {
+            return value(resistorRows[resistor]);
+        }
+
+        double r = (resistor == updatedResistor) ? updatedResistance : resistance[resistor];
+        return getResistorVoltage(resistor) / r;
+    }
+
+    /**
+     * @param resistor Resistor index
+     * @return Voltage between the first and the second node of the resistor [ Volts ]
+     */
+    public double getResistorVoltage(int resistor) {
+        return getVoltage(netlist.getResistorNodeA(resistor)) - getVoltage(netlist.getResistorNodeB(resistor));
+    }
+
+    /**
+     * @param supply Power supply index
+     * @return Current flowing out of the positive terminal of the power supply [ Amps ]
+     */
+    public double getSupplyCurrent(int supply) {
+        if (supplyRows[supply] >= 0) {
+            return -value(supplyRows[supply]);
+        }
+
+        double voltage = getVoltage(netlist.getSupplyPlus(supply)) - getVoltage(netlist.getSupplyMinus(supply));
+        return (supplyEmf[supply] - voltage) * supplyConductance[supply];
+    }
+
+    private double value(int row) {
+        return (alpha == 0) ? base[row] : base[row] + alpha * correction[row];
+    }
+}
@@ -0,0 +1,331 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.RootFinder;
+import ohm.low.phys.base.Potentiometer;
+import ohm.low.phys.metrics.Metrics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Solves the netlist by modified nodal analysis.
+ * Unknowns are potentials of the nodes and currents of the voltage defining elements
+ * (ideal power supplies and zero resistors). Power supply with internal resistance is placed
+ * as a current source parallel to the conductance, so it does not add an unknown.
+ * The matrix is kept in CSR form and factorized by SparseLU in minimum degree order,
+ * large networks are ordered by nested dissection.
+ * Factorization is kept between solves: changing EMF or source current only changes the right hand side.
+ * Changed resistors are taken from the netlist, potentiometers mark themselves on every move
+ */
+public class NetworkSolver {
+    private static final double UPDATE_TOLERANCE = 1e-10;
+    private static final double RESISTANCE_TOLERANCE = 1e-12;
+
+    private final Netlist netlist;
+
+    private int analyzedVersion = -1;
+    private SparseMatrix matrix;
+    private SparseLU factorization;
+    private int nodeCount;
+    private int[] resistorRows;
+    private int[] supplyRows;
+    private double[] supplyConductance;
+    private double[] factoredResistance;
+
+    private int solvedSourceVersion;
+    private double[] supplyEmf;
+    private double[] solution;
+
+    private int updatedResistor = -1;
+    private double updatedResistance;
+    private double[] updateVector;
+    private double updateDotU;
+    private double solutionDotU;
+
+    private NetworkSolution lastSolution;
+
+    /**
+     * Creates solver for the netlist
+     * @param netlist Network to solve
+     */
+    public NetworkSolver(Netlist netlist) {
+        this.netlist = netlist;
+    }
+
+    /**
+     * Solves the network. Matrix is factorized if netlist structure was changed.
+     * Change of a single resistor is applied as a rank-one (Sherman-Morrison) update of the cached solution:
+     * x = x0 - (delta * u'x0 / (1 + delta * u'w)) * w, where u = e(a) - e(b), w = A0^-1 u
+     * and delta is the conductance change. Vector w is calculated once per changed resistor,
+     * so repeated moves of the same potentiometer take O(1), node values are calculated on demand.
+     * If more than one resistor is changed, the matrix is factorized again
+     * @return Solution of the network
+     * @throws IllegalPhysicsSystemStateException If some node is not connected to the ground or network is singular
+     */
+    public NetworkSolution solve() throws IllegalPhysicsSystemStateException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        if (factorization == null || analyzedVersion != netlist.getStructureVersion()) {
+            factorize();
+        } else if (netlist.getChangedCount() > 0) {
+            applyChanges();
+        }
+
+        if (solution == null || solvedSourceVersion != netlist.getSourceVersion()) {
+            solveBase();
+            lastSolution = null;
+        }
+
+        if (lastSolution == null) {
+            double alpha = 0;
+            if (updatedResistor >= 0) {
+                double delta = conductance(updatedResistance) - conductance(factoredResistance[updatedResistor]);
+                alpha = -delta * solutionDotU / (1 + delta * updateDotU);
+            }
+            lastSolution = new NetworkSolution(netlist, nodeCount, resistorRows, supplyRows, supplyConductance,
+                    factoredResistance, supplyEmf, solution, updateVector, alpha, updatedResistor, updatedResistance);
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics.NETWORK_SOLVES.increment();
+            Metrics.NETWORK_SOLVE_LATENCY.record(System.nanoTime() - start);
+        }
+        return lastSolution;
+    }
+
+    /**
+     * Reads element values and factorizes the matrix again.
+     * Symbolic analysis is reused if the matrix pattern is the same
+     * @throws IllegalPhysicsSystemStateException If some node is not connected to the ground or network is singular
+     */
+    public void factorize() throws IllegalPhysicsSystemStateException {
+        if (analyzedVersion != netlist.getStructureVersion()) {
+            checkConnectivity();
+        }
+
+        netlist.clearChanged();
+        updatedResistor = -1;
+        updateVector = null;
+        solution = null;
+        lastSolution = null;
+
+        SparseMatrix assembled = assemble();
+        if (factorization == null || !assembled.hasSamePattern(matrix)) {
+            factorization = SparseLU.analyze(assembled, NodalAssembly.order(assembled, nodeCount));
+        }
+        matrix = assembled;
+        analyzedVersion = netlist.getStructureVersion();
+        factorization.factorize(matrix);
+        if (Metrics.ENABLED) {
+            Metrics.NETWORK_FACTORIZATIONS.increment();
+        }
+    }
+
+    /**
+     * Finds resistance of the potentiometer giving the target value of the solution by Brent's method,
+     * for the networks without closed form inverse. Every evaluation moves the potentiometer,
+     * so it is solved by the rank-one update without factorization
+     * @param potentiometer Potentiometer placed into the netlist
+     * @param quantity Value taken from the solution, e.g. s -> s.getVoltage("out")
+     * @param target Target value
+     * @return Resistance value, the potentiometer is left at it [ Ohms ]
+     * @throws WrongPhysicsParameterException If target is not reached in the potentiometer range
+     * @throws IllegalPhysicsSystemStateException If network can not be solved
+     */
+    public double findResistance(Potentiometer potentiometer, ToDoubleFunction<NetworkSolution> quantity,
+                                 double target) throws WrongPhysicsParameterException,
+            IllegalPhysicsSystemStateException {
+        double maxResistance = potentiometer.getMaxResistance();
+        double resistance = RootFinder.brent(r -> {
+            try {
+                potentiometer.setResistance(r);
+            } catch (WrongPhysicsParameterException e) {
+                throw new IllegalPhysicsSystemStateException(e);
+            }
+            return quantity.applyAsDouble(solve()) - target;
+        }, 0, maxResistance, RESISTANCE_TOLERANCE * Math.max(1, maxResistance));
+
+        potentiometer.setResistance(resistance);
+        return resistance;
+    }
+
+    /**
+     * @return Index of the resistor applied as the rank-one update, -1 if solution is not updated
+     */
+    public int getUpdatedResistor() {
+        return updatedResistor;
+    }
+
+    private void applyChanges() throws IllegalPhysicsSystemStateException {
+        int changedResistor = -1;
+        int changedCount = 0;
+        for (int k = 0; k < netlist.getChangedCount(); ++k) {
+            int r = netlist.getChangedResistor(k);
+            double resistance = netlist.getResistor(r).getResistance();
+            double known = (r == updatedResistor) ? updatedResistance : factoredResistance[r];
+            if (resistance != known) {
+                changedResistor = r;
+                ++changedCount;
+            }
+        }
+        netlist.clearChanged();
+
+        if (changedCount == 0) {
+            return;
+        }
+        if (changedCount > 1 || (updatedResistor >= 0 && changedResistor != updatedResistor)) {
+            factorize();
+            return;
+        }
+
+        double resistance = netlist.getResistor(changedResistor).getResistance();
+        if (resistance == 0 || factoredResistance[changedResistor] == 0) {
+            factorize();
+            return;
+        }
+
+        if (updatedResistor != changedResistor) {
+            int a = netlist.getResistorNodeA(changedResistor);
+            int b = netlist.getResistorNodeB(changedResistor);
+            double[] u = new double[matrix.getSize()];
+            if (a != Netlist.GROUND_INDEX) {
+                u[a] = 1;
+            }
+            if (b != Netlist.GROUND_INDEX) {
+                u[b] = -1;
+            }
+            updateVector = new double[u.length];
+            factorization.solve(u, updateVector);
+            updateDotU = difference(updateVector, a, b);
+            if (solution != null) {
+                solutionDotU = difference(solution, a, b);
+            }
+        }
+
+        double delta = conductance(resistance) - conductance(factoredResistance[changedResistor]);
+        if (!(Math.abs(1 + delta * updateDotU) > UPDATE_TOLERANCE * (1 + Math.abs(delta * updateDotU)))) {
+            factorize();
+            return;
+        }
+
+        updatedResistor = changedResistor;
+        updatedResistance = resistance;
+        lastSolution = null;
+    }
+
+    private void solveBase() {
+        int size = matrix.getSize();
+        double[] rightHandSide = new double[size];
+        supplyEmf = new double[netlist.getSupplyCount()];
+
+        for (int s = 0; s < supplyEmf.length; ++s) {
+            double emf = netlist.getEmf(s);
+            supplyEmf[s] = emf;
+            if (supplyRows[s] >= 0) {
+                rightHandSide[supplyRows[s]] = emf;
+            } else {
+                inject(rightHandSide, netlist.getSupplyPlus(s), netlist.getSupplyMinus(s),
+                        emf * supplyConductance[s]);
+            }
+        }
+
+        for (int c = 0; c < netlist.getCurrentSourceCount(); ++c) {
+            inject(rightHandSide, netlist.getCurrentSourceTo(c), netlist.getCurrentSourceFrom(c),
+                    netlist.getCurrentSourceValue(c));
+        }
+
+        solution = new double[size];
+        factorization.solve(rightHandSide, solution);
+        solvedSourceVersion = netlist.getSourceVersion();
+
+        if (updatedResistor >= 0) {
+            solutionDotU = difference(solution, netlist.getResistorNodeA(updatedResistor),
+                    netlist.getResistorNodeB(updatedResistor));
+        }
+    }
+
+    private static double difference(double[] x, int a, int b) {
+        double va = (a == Netlist.GROUND_INDEX) ? 0 : x[a];
+        double vb = (b == Netlist.GROUND_INDEX) ? 0 : x[b];
+        return va - vb;
+    }
+
+    private static double conductance(double resistance) {
+        return 1 / resistance;
+    }
+
+    /**
+     * @return Current factorization, null if the network was never factorized
+     */
+    public SparseLU getFactorization() {
+        return factorization;
+    }
+
+    /**
+     * @return Current nodal analysis matrix, null if the network was never factorized
+     */
+    public SparseMatrix getMatrix() {
+        return matrix;
+    }
+
+    private SparseMatrix assemble() {
+        NodalAssembly assembly = new NodalAssembly(netlist, 0);
+        nodeCount = assembly.nodeCount;
+        resistorRows = assembly.resistorRows;
+        factoredResistance = assembly.resistance;
+        supplyRows = assembly.supplyRows;
+        supplyConductance = assembly.supplyConductance;
+        return assembly.toMatrix();
+    }
+
+    private static void inject(double[] rightHandSide, int into, int outOf, double current) {
+        if (into != Netlist.GROUND_INDEX) {
+            rightHandSide[into] += current;
+        }
+        if (outOf != Netlist.GROUND_INDEX) {
+            rightHandSide[outOf] -= current;
+        }
+    }
+
+    private void checkConnectivity() throws IllegalPhysicsSystemStateException {
+        int nodes = netlist.getNodeCount();
+        int ground = nodes;
+        int[] root = new int[nodes + 1];
+        for (int i = 0; i <= nodes; ++i) {
+            root[i] = i;
+        }
+
+        for (int r = 0; r < netlist.getResistorCount(); ++r) {
+            if (netlist.getResistor(r).getResistance() != Double.POSITIVE_INFINITY) {
+                union(root, index(netlist.getResistorNodeA(r), ground), index(netlist.getResistorNodeB(r), ground));
+            }
+        }
+        for (int s = 0; s < netlist.getSupplyCount(); ++s) {
+            union(root, index(netlist.getSupplyPlus(s), ground), index(netlist.getSupplyMinus(s), ground));
+        }
+
+        int groundRoot = find(root, ground);
+        for (int i = 0; i < nodes; ++i) {
+            if (find(root, i) != groundRoot) {
+                throw new IllegalPhysicsSystemStateException("Node " + netlist.getNodeName(i)
+                        + " is not connected to the ground");
+            }
+        }
+    }
+
+    private static int index(int node, int ground) {
+        return (node == Netlist.GROUND_INDEX) ? ground : node;
+    }
+
+    private static int find(int[] root, int i) {
+        while (root[i] != i) {
+            root[i] = root[root[i]];
+            i = root[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] root, int a, int b) {
+        root[find(root, a)] = find(root, b);
+    }
+}
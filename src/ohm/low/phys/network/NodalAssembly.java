@@ -0,0 +1,199 @@
+package ohm.low.phys.network;
+
+import java.util.Arrays;
+
+/**
+ * Modified nodal analysis matrix of the netlist resistors and power supplies, shared by the solvers.
+ * Zero resistors and ideal power supplies add rows of their currents after the node rows,
+ * other resistors and supplies are stamped as conductances. Nodes without any conductance get GMIN
+ * to the ground, so the matrix of the network with open parts is not singular
+ */
+final class NodalAssembly {
+    private static final double GMIN = 1e-12;
+    private static final int NESTED_DISSECTION_THRESHOLD = 5000;
+
+    /**
+     * Count of the node rows
+     */
+    final int nodeCount;
+    /**
+     * Row of the current of every resistor, -1 if resistor is stamped as conductance
+     */
+    final int[] resistorRows;
+    /**
+     * Resistance of every resistor at the assembly [ Ohms ]
+     */
+    final double[] resistance;
+    /**
+     * Row of the current of every power supply, -1 if supply is stamped as conductance
+     */
+    final int[] supplyRows;
+    /**
+     * Internal conductance of every power supply, zero for the ideal one [ Siemens ]
+     */
+    final double[] supplyConductance;
+
+    private int size;
+    private final Triplets triplets;
+    private final boolean[] connected;
+
+    /**
+     * Reads the netlist and stamps its resistors and power supplies
+     * @param netlist Network to assemble
+     * @param extraConductances Count of the conductances the caller stamps later
+     */
+    NodalAssembly(Netlist netlist, int extraConductances) {
+        nodeCount = netlist.getNodeCount();
+        int resistorCount = netlist.getResistorCount();
+        int supplyCount = netlist.getSupplyCount();
+
+        size = nodeCount;
+        resistorRows = new int[resistorCount];
+        resistance = new double[resistorCount];
+        for (int r = 0; r < resistorCount; ++r) {
+            resistance[r] = netlist.getResistor(r).getResistance();
+            resistorRows[r] = (resistance[r] == 0) ? size++ : -1;
+        }
+        supplyRows = new int[supplyCount];
+        supplyConductance = new double[supplyCount];
+        for (int s = 0; s < supplyCount; ++s) {
+            supplyConductance[s] = supplyConductance(netlist, s);
+            supplyRows[s] = (supplyConductance[s] == 0) ? size++ : -1;
+        }
+
+        triplets = new Triplets(nodeCount + 2 * size + 4 * (resistorCount + supplyCount + extraConductances));
+        connected = new boolean[nodeCount];
+
+        for (int r = 0; r < resistorCount; ++r) {
+            int a = netlist.getResistorNodeA(r);
+            int b = netlist.getResistorNodeB(r);
+            if (resistorRows[r] >= 0) {
+                stampVoltageRow(resistorRows[r], a, b);
+            } else {
+                stampConductance(a, b, 1 / resistance[r]);
+            }
+        }
+
+        for (int s = 0; s < supplyCount; ++s) {
+            int plus = netlist.getSupplyPlus(s);
+            int minus = netlist.getSupplyMinus(s);
+            if (supplyRows[s] >= 0) {
+                stampVoltageRow(supplyRows[s], plus, minus);
+            } else {
+                stampConductance(plus, minus, supplyConductance[s]);
+            }
+        }
+    }
+
+    /**
+     * @param netlist Network
+     * @param supply Supply index
+     * @return Internal conductance of the power supply, zero for the ideal one [ Siemens ]
+     */
+    static double supplyConductance(Netlist netlist, int supply) {
+        double resistance = netlist.getSupplyResistor(supply).getResistance();
+        return (resistance == 0) ? 0 : 1 / resistance;
+    }
+
+    /**
+     * Reserves entries of the conductance between two nodes, which value is set in the matrix later.
+     * Nodes of the reserved conductance do not get GMIN
+     * @param a First node index
+     * @param b Second node index
+     */
+    void reserveConductance(int a, int b) {
+        stampConductance(a, b, 0);
+        markConnected(a);
+        markConnected(b);
+    }
+
+    /**
+     * @return Assembled matrix, its size is the count of nodes and current rows
+     */
+    SparseMatrix toMatrix() {
+        for (int i = 0; i < nodeCount; ++i) {
+            triplets.add(i, i, connected[i] ? 0 : GMIN);
+        }
+        return triplets.toMatrix(size);
+    }
+
+    /**
+     * @param assembled Assembled matrix
+     * @param nodeCount Count of the node rows
+     * @return Fill reducing order of the matrix rows, nested dissection for the large networks
+     */
+    static int[] order(SparseMatrix assembled, int nodeCount) {
+        if (nodeCount > NESTED_DISSECTION_THRESHOLD) {
+            return NestedDissectionOrdering.order(assembled, nodeCount);
+        }
+        return MinimumDegreeOrdering.order(assembled, nodeCount);
+    }
+
+    private void stampConductance(int a, int b, double conductance) {
+        if (a != Netlist.GROUND_INDEX) {
+            triplets.add(a, a, conductance);
+        }
+        if (b != Netlist.GROUND_INDEX) {
+            triplets.add(b, b, conductance);
+        }
+        if (a != Netlist.GROUND_INDEX && b != Netlist.GROUND_INDEX) {
+            triplets.add(a, b, -conductance);
+            triplets.add(b, a, -conductance);
+        }
+        if (conductance != 0) {
+            markConnected(a);
+            markConnected(b);
+        }
+    }
+
+    private void stampVoltageRow(int row, int plus, int minus) {
+        triplets.add(row, row, 0);
+        if (plus != Netlist.GROUND_INDEX) {
+            triplets.add(plus, row, 1);
+            triplets.add(row, plus, 1);
+        }
+        if (minus != Netlist.GROUND_INDEX) {
+            triplets.add(minus, row, -1);
+            triplets.add(row, minus, -1);
+        }
+    }
+
+    private void markConnected(int node) {
+        if (node != Netlist.GROUND_INDEX) {
+            connected[node] = true;
+        }
+    }
+
+    /**
+     * Growable list of matrix entries
+     */
+    private static class Triplets {
+        private int[] rows;
+        private int[] cols;
+        private double[] vals;
+        private int count;
+
+        Triplets(int capacity) {
+            rows = new int[capacity];
+            cols = new int[capacity];
+            vals = new double[capacity];
+        }
+
+        void add(int row, int col, double value) {
+            if (count == rows.length) {
+                int capacity = 2 * count + 1;
+                rows = Arrays.copyOf(rows, capacity);
+                cols = Arrays.copyOf(cols, capacity);
+                vals = Arrays.copyOf(vals, capacity);
+            }
+            rows[count] = row;
+            cols[count] = col;
+            vals[count] = value;
+            ++count;
+        }
+
+        SparseMatrix toMatrix(int size) {
+            return SparseMatrix.fromTriplets(size, rows, cols, vals, count);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ohm.low.phys.network;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Vector of doubles in one direct buffer, accessed through the byte buffer view var handle,
+ * which is compiled to plain loads and stores. One buffer instead of chunks keeps the random access
+ * of the solver as fast as the access of double[]
+ */
+final class OffHeapDoubles {
+    /**
+     * Max length of the vector, the buffer is limited by int bytes
+     */
+    static final int MAX_LENGTH = Integer.MAX_VALUE / Double.BYTES;
+
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class,
+            ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    OffHeapDoubles(int length) {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Wrong vector length " + length);
+        }
+        buffer = ByteBuffer.allocateDirect(length * Double.BYTES);
+    }
+
+    double get(int index) {
+        return (double) DOUBLE.get(buffer, index * Double.BYTES);
+    }
+
+    void set(int index, double value) {
+        DOUBLE.set(buffer, index * Double.BYTES, value);
+    }
+
+    void add(int index, double value) {
+        int offset = index * Double.BYTES;
+        DOUBLE.set(buffer, offset, (double) DOUBLE.get(buffer, offset) + value);
+    }
+
+    void fill(double value) {
+        for (int offset = 0, size = buffer.capacity(); offset < size; offset += Double.BYTES) {
+            DOUBLE.set(buffer, offset, value);
+        }
+    }
+}
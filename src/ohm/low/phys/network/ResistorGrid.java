@@ -0,0 +1,289 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.Resistor;
+import ohm.low.phys.base.Tolerance;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Rectangular grid of resistors solved by GridSolver: rows x cols nodes, every node is connected to its right
+ * and lower neighbours and may be connected to the ground. Ladder is a grid of one row.
+ * Conductances are kept in primitive arrays, zero conductance is a missing resistor, so grids of millions
+ * of elements do not create an object per element. Nodes are driven by fixed potentials and injected currents.
+ * Node (row, col) has index row * cols + col
+ */
+public class ResistorGrid {
+    private final int rows;
+    private final int cols;
+    private final double[] horizontal;
+    private final double[] vertical;
+    private final double[] ground;
+    private final double[] injectedCurrent;
+    private final double[] fixedVoltage;
+    private int fixedCount;
+
+    /**
+     * Creates grid without resistors
+     * @param rows Count of rows
+     * @param cols Count of nodes in a row
+     */
+    public ResistorGrid(int rows, int cols) {
+        if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Wrong grid size " + rows + "x" + cols);
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        horizontal = new double[rows * (cols - 1)];
+        vertical = new double[(rows - 1) * cols];
+        ground = new double[rows * cols];
+        injectedCurrent = new double[rows * cols];
+        fixedVoltage = new double[rows * cols];
+        Arrays.fill(fixedVoltage, Double.NaN);
+    }
+
+    /**
+     * Creates mesh with every neighbour connected by equal resistors
+     * @param rows Count of rows
+     * @param cols Count of nodes in a row
+     * @param resistance Resistance of every element [ Ohms ]
+     * @return Grid
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public static ResistorGrid mesh(int rows, int cols, double resistance) throws WrongPhysicsParameterException {
+        double conductance = conductance(resistance);
+        ResistorGrid grid = new ResistorGrid(rows, cols);
+        Arrays.fill(grid.horizontal, conductance);
+        Arrays.fill(grid.vertical, conductance);
+        return grid;
+    }
+
+    /**
+     * Creates ladder: series resistors between neighbour nodes and shunt resistors from every node
+     * but the first one to the ground. Node 0 is the input
+     * @param sections Count of series resistors
+     * @param seriesResistance Resistance of the series element [ Ohms ]
+     * @param shuntResistance Resistance of the shunt element [ Ohms ]
+     * @return Grid of one row and sections + 1 nodes
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public static ResistorGrid ladder(int sections, double seriesResistance, double shuntResistance)
+            throws WrongPhysicsParameterException {
+        double series = conductance(seriesResistance);
+        double shunt = conductance(shuntResistance);
+        ResistorGrid grid = new ResistorGrid(1, sections + 1);
+        Arrays.fill(grid.horizontal, series);
+        Arrays.fill(grid.ground, 1, sections + 1, shunt);
+        return grid;
+    }
+
+    /**
+     * Replaces every element by the value drawn around its current one, e.g. the spread of the sensor mesh
+     * @param tolerance Distribution of the resistance
+     * @param seed Seed of the random stream, equal seeds give equal grids
+     */
+    public void applyTolerance(Tolerance tolerance, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        spread(horizontal, tolerance, random);
+        spread(vertical, tolerance, random);
+        spread(ground, tolerance, random);
+    }
+
+    private static void spread(double[] conductances, Tolerance tolerance, SplittableRandom random) {
+        for (int i = 0; i < conductances.length; ++i) {
+            if (conductances[i] > 0) {
+                double resistance = tolerance.sample(1 / conductances[i], random);
+                conductances[i] = (resistance > 0) ? 1 / resistance : Double.MAX_VALUE;
+            }
+        }
+    }
+
+    /**
+     * @param row Row of the node
+     * @param col Column of the node
+     * @return Index of the node
+     */
+    public int node(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Node " + row + "," + col + " is not in grid " + rows + "x" + cols);
+        }
+        return row * cols + col;
+    }
+
+    /**
+     * Sets resistor between the node and its right neighbour
+     * @param row Row of the node
+     * @param col Column of the node, lesser than cols - 1
+     * @param resistance Resistance value, positive infinity removes the resistor [ Ohms ]
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setHorizontalResistance(int row, int col, double resistance) throws WrongPhysicsParameterException {
+        if (col >= cols - 1) {
+            throw new IndexOutOfBoundsException("Node " + row + "," + col + " has no right neighbour");
+        }
+        node(row, col);
+        horizontal[row * (cols - 1) + col] = conductance(resistance);
+    }
+
+    /**
+     * Sets resistor between the node and its lower neighbour
+     * @param row Row of the node, lesser than rows - 1
+     * @param col Column of the node
+     * @param resistance Resistance value, positive infinity removes the resistor [ Ohms ]
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setVerticalResistance(int row, int col, double resistance) throws WrongPhysicsParameterException {
+        if (row >= rows - 1) {
+            throw new IndexOutOfBoundsException("Node " + row + "," + col + " has no lower neighbour");
+        }
+        vertical[node(row, col)] = conductance(resistance);
+    }
+
+    /**
+     * Sets resistor between the node and the ground
+     * @param row Row of the node
+     * @param col Column of the node
+     * @param resistance Resistance value, positive infinity removes the resistor [ Ohms ]
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setGroundResistance(int row, int col, double resistance) throws WrongPhysicsParameterException {
+        ground[node(row, col)] = conductance(resistance);
+    }
+
+    /**
+     * Sets resistor between the node and its right neighbour
+     * @param row Row of the node
+     * @param col Column of the node, lesser than cols - 1
+     * @param resistor Resistor, its current resistance is copied
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setHorizontalResistor(int row, int col, Resistor resistor) throws WrongPhysicsParameterException {
+        setHorizontalResistance(row, col, resistor.getResistance());
+    }
+
+    /**
+     * Sets resistor between the node and its lower neighbour
+     * @param row Row of the node, lesser than rows - 1
+     * @param col Column of the node
+     * @param resistor Resistor, its current resistance is copied
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setVerticalResistor(int row, int col, Resistor resistor) throws WrongPhysicsParameterException {
+        setVerticalResistance(row, col, resistor.getResistance());
+    }
+
+    /**
+     * Connects the node to the ideal voltage source
+     * @param row Row of the node
+     * @param col Column of the node
+     * @param voltage Potential of the node [ Volts ]
+     */
+    public void fixVoltage(int row, int col, double voltage) {
+        if (!Double.isFinite(voltage)) {
+            throw new IllegalArgumentException("Voltage is not finite");
+        }
+        int node = node(row, col);
+        if (Double.isNaN(fixedVoltage[node])) {
+            ++fixedCount;
+        }
+        fixedVoltage[node] = voltage;
+    }
+
+    /**
+     * Disconnects the node from the voltage source
+     * @param row Row of the node
+     * @param col Column of the node
+     */
+    public void releaseVoltage(int row, int col) {
+        int node = node(row, col);
+        if (!Double.isNaN(fixedVoltage[node])) {
+            --fixedCount;
+        }
+        fixedVoltage[node] = Double.NaN;
+    }
+
+    /**
+     * Sets current injected into the node by the ideal current source
+     * @param row Row of the node
+     * @param col Column of the node
+     * @param current Current flowing into the node [ Amps ]
+     */
+    public void setInjectedCurrent(int row, int col, double current) {
+        if (!Double.isFinite(current)) {
+            throw new IllegalArgumentException("Current is not finite");
+        }
+        injectedCurrent[node(row, col)] = current;
+    }
+
+    /**
+     * @return Count of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Count of nodes in a row
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return Count of nodes
+     */
+    public int getNodeCount() {
+        return rows * cols;
+    }
+
+    /**
+     * @return Count of nodes with fixed potential
+     */
+    public int getFixedCount() {
+        return fixedCount;
+    }
+
+    /**
+     * @return Conductances between the node and its right neighbour, index row * (cols - 1) + col [ Siemens ]
+     */
+    double[] getHorizontal() {
+        return horizontal;
+    }
+
+    /**
+     * @return Conductances between the node and its lower neighbour, index of the upper node [ Siemens ]
+     */
+    double[] getVertical() {
+        return vertical;
+    }
+
+    /**
+     * @return Conductances between the node and the ground [ Siemens ]
+     */
+    double[] getGround() {
+        return ground;
+    }
+
+    /**
+     * @return Currents injected into the nodes [ Amps ]
+     */
+    double[] getInjectedCurrent() {
+        return injectedCurrent;
+    }
+
+    /**
+     * @return Fixed potentials of the nodes, NaN for the free nodes [ Volts ]
+     */
+    double[] getFixedVoltage() {
+        return fixedVoltage;
+    }
+
+    private static double conductance(double resistance) throws WrongPhysicsParameterException {
+        if (!(resistance > 0)) {
+            throw new WrongPhysicsParameterException("Resistance of the grid element is not positive");
+        }
+        return 1 / resistance;
+    }
+}
@@ -0,0 +1,396 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Resistor network kept out of the Java heap, for networks of 10^8 elements and more.
+ * Elements (node A, node B, conductance) and nodes (fixed potential, injected current) are records
+ * in direct buffers or in buffers mapped from the file, so the network costs neither object headers nor GC scans.
+ * Buffers are accessed through var handles, which are compiled to plain loads and stores.
+ * Elements are addressed by index and are seen as Resistor through StoredResistor flyweights.
+ * Zero conductance is a missing element, so a fresh file is a network without elements.
+ * File layout, little endian: 32 bytes header, 16 bytes per node, 16 bytes per element.
+ * Direct stores count against -XX:MaxDirectMemorySize, mapped ones only against the address space
+ */
+public final class ResistorStore implements Closeable {
+    /**
+     * Index of the zero potential node
+     */
+    public static final int GROUND = -1;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final int MAGIC = 0x4e4d484f;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 16;
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int nodeCount;
+    private final long resistorCount;
+    private final ByteBuffer[] nodes;
+    private final ByteBuffer[] resistors;
+    private final FileChannel channel;
+
+    private ResistorStore(int nodeCount, long resistorCount, FileChannel channel, FileChannel.MapMode mode)
+            throws IOException {
+        this.nodeCount = nodeCount;
+        this.resistorCount = resistorCount;
+        this.channel = channel;
+        nodes = chunks(nodeCount, HEADER_BYTES, mode);
+        resistors = chunks(resistorCount, HEADER_BYTES + (long) nodeCount * RECORD_BYTES, mode);
+    }
+
+    /**
+     * Creates network in the direct memory, nodes are free and there are no elements
+     * @param nodeCount Count of nodes, ground is not counted
+     * @param resistorCount Count of element places
+     * @return Network
+     */
+    public static ResistorStore allocate(int nodeCount, long resistorCount) {
+        checkSize(nodeCount, resistorCount);
+        try {
+            ResistorStore store = new ResistorStore(nodeCount, resistorCount, null, null);
+            store.releaseAll();
+            return store;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates the file and maps the network from it, nodes are free and there are no elements.
+     * Existing file is replaced
+     * @param file File to create
+     * @param nodeCount Count of nodes, ground is not counted
+     * @param resistorCount Count of element places
+     * @return Network, writable
+     * @throws IOException If file can not be created or mapped
+     */
+    public static ResistorStore create(Path file, int nodeCount, long resistorCount) throws IOException {
+        checkSize(nodeCount, resistorCount);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(0).putLong(resistorCount).flip();
+            channel.write(header, 0);
+            long size = HEADER_BYTES + ((long) nodeCount + resistorCount) * RECORD_BYTES;
+            channel.write(ByteBuffer.allocate(1), size - 1);
+
+            ResistorStore store = new ResistorStore(nodeCount, resistorCount, channel, FileChannel.MapMode.READ_WRITE);
+            store.releaseAll();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the network from the file written by the store created by create()
+     * @param file Network file
+     * @param writable True to change the network and the file, false to map it read only
+     * @return Network
+     * @throws IOException If file can not be mapped or it is not a network file
+     */
+    public static ResistorStore open(Path file, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Header is read in full
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a network file");
+            }
+            int nodeCount = header.getInt();
+            header.getInt();
+            long resistorCount = header.getLong();
+            if (nodeCount < 0 || resistorCount < 0
+                    || channel.size() < HEADER_BYTES + ((long) nodeCount + resistorCount) * RECORD_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+            return new ResistorStore(nodeCount, resistorCount, channel,
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void checkSize(int nodeCount, long resistorCount) {
+        if (nodeCount < 0 || resistorCount < 0) {
+            throw new IllegalArgumentException("Wrong network size " + nodeCount + " nodes, "
+                    + resistorCount + " elements");
+        }
+    }
+
+    private ByteBuffer[] chunks(long records, long offset, FileChannel.MapMode mode) throws IOException {
+        int count = (int) ((records + CHUNK_MASK) >>> CHUNK_SHIFT);
+        ByteBuffer[] buffers = new ByteBuffer[count];
+        for (int c = 0; c < count; ++c) {
+            long first = (long) c << CHUNK_SHIFT;
+            int bytes = (int) (Math.min(records - first, 1L << CHUNK_SHIFT) * RECORD_BYTES);
+            ByteBuffer buffer = (channel == null)
+                    ? ByteBuffer.allocateDirect(bytes)
+                    : channel.map(mode, offset + first * RECORD_BYTES, bytes);
+            buffers[c] = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffers;
+    }
+
+    private void releaseAll() {
+        for (int node = 0; node < nodeCount; ++node) {
+            DOUBLE.set(nodeChunk(node), offset(node), Double.NaN);
+        }
+    }
+
+    /**
+     * Places the element between two nodes
+     * @param resistor Element index
+     * @param nodeA First node, GROUND for the ground
+     * @param nodeB Second node, GROUND for the ground
+     * @param resistance Resistance value, positive infinity removes the element [ Ohms ]
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setResistor(long resistor, int nodeA, int nodeB, double resistance)
+            throws WrongPhysicsParameterException {
+        double conductance = conductance(resistance);
+        checkNode(nodeA);
+        checkNode(nodeB);
+        ByteBuffer chunk = resistorChunk(resistor);
+        int offset = offset(resistor);
+        INT.set(chunk, offset, nodeA);
+        INT.set(chunk, offset + Integer.BYTES, nodeB);
+        DOUBLE.set(chunk, offset + 2 * Integer.BYTES, conductance);
+    }
+
+    /**
+     * Changes resistance of the placed element
+     * @param resistor Element index
+     * @param resistance Resistance value, positive infinity removes the element [ Ohms ]
+     * @throws WrongPhysicsParameterException If resistance is not positive
+     */
+    public void setResistance(long resistor, double resistance) throws WrongPhysicsParameterException {
+        DOUBLE.set(resistorChunk(resistor), offset(resistor) + 2 * Integer.BYTES, conductance(resistance));
+    }
+
+    /**
+     * @param resistor Element index
+     * @return Resistance of the element, positive infinity for the missing one [ Ohms ]
+     */
+    public double getResistance(long resistor) {
+        return 1 / getConductance(resistor);
+    }
+
+    /**
+     * @param resistor Element index
+     * @return Conductance of the element, 0 for the missing one [ Siemens ]
+     */
+    public double getConductance(long resistor) {
+        return conductance(resistorChunk(resistor), offset(resistor));
+    }
+
+    /**
+     * @param resistor Element index
+     * @return First node of the element, GROUND for the ground
+     */
+    public int getNodeA(long resistor) {
+        return nodeA(resistorChunk(resistor), offset(resistor));
+    }
+
+    /**
+     * @param resistor Element index
+     * @return Second node of the element, GROUND for the ground
+     */
+    public int getNodeB(long resistor) {
+        return nodeB(resistorChunk(resistor), offset(resistor));
+    }
+
+    /**
+     * Get flyweight view of the element, it keeps only the store and the index
+     * @param resistor Element index
+     * @return Resistor reading its values from the store
+     */
+    public StoredResistor getResistor(long resistor) {
+        resistorChunk(resistor);
+        return new StoredResistor(this, resistor);
+    }
+
+    /**
+     * Connects the node to the ideal voltage source
+     * @param node Node index
+     * @param voltage Potential of the node [ Volts ]
+     */
+    public void fixVoltage(int node, double voltage) {
+        if (!Double.isFinite(voltage)) {
+            throw new IllegalArgumentException("Voltage is not finite");
+        }
+        DOUBLE.set(nodeChunk(node), offset(node), voltage);
+    }
+
+    /**
+     * Disconnects the node from the voltage source
+     * @param node Node index
+     */
+    public void releaseVoltage(int node) {
+        DOUBLE.set(nodeChunk(node), offset(node), Double.NaN);
+    }
+
+    /**
+     * @param node Node index
+     * @return Potential of the voltage source of the node, NaN for the free node [ Volts ]
+     */
+    public double getFixedVoltage(int node) {
+        return (double) DOUBLE.get(nodeChunk(node), offset(node));
+    }
+
+    /**
+     * Sets current injected into the node by the ideal current source
+     * @param node Node index
+     * @param current Current flowing into the node [ Amps ]
+     */
+    public void setInjectedCurrent(int node, double current) {
+        if (!Double.isFinite(current)) {
+            throw new IllegalArgumentException("Current is not finite");
+        }
+        DOUBLE.set(nodeChunk(node), offset(node) + Double.BYTES, current);
+    }
+
+    /**
+     * @param node Node index
+     * @return Current injected into the node [ Amps ]
+     */
+    public double getInjectedCurrent(int node) {
+        return (double) DOUBLE.get(nodeChunk(node), offset(node) + Double.BYTES);
+    }
+
+    /**
+     * @return Count of nodes, ground is not counted
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return Count of element places
+     */
+    public long getResistorCount() {
+        return resistorCount;
+    }
+
+    /**
+     * @return True if the store is mapped from the file
+     */
+    public boolean isMapped() {
+        return channel != null;
+    }
+
+    /**
+     * Writes changes of the mapped store to the file, does nothing for the direct one
+     */
+    public void force() {
+        if (channel == null) {
+            return;
+        }
+        for (ByteBuffer buffer : nodes) {
+            forceChunk(buffer);
+        }
+        for (ByteBuffer buffer : resistors) {
+            forceChunk(buffer);
+        }
+    }
+
+    private static void forceChunk(ByteBuffer buffer) {
+        if (!buffer.isReadOnly()) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    /**
+     * Closes the file of the mapped store. Memory is given back when the store becomes unreachable,
+     * buffers of the runtime can not be released explicitly
+     * @throws IOException If file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Buffers of the elements, RECORD_BYTES per element: node A int, node B int, conductance double.
+     * Records are read by nodeA(), nodeB() and conductance()
+     */
+    ByteBuffer[] getResistorChunks() {
+        return resistors;
+    }
+
+    static int getRecordBytes() {
+        return RECORD_BYTES;
+    }
+
+    static int nodeA(ByteBuffer chunk, int offset) {
+        return (int) INT.get(chunk, offset);
+    }
+
+    static int nodeB(ByteBuffer chunk, int offset) {
+        return (int) INT.get(chunk, offset + Integer.BYTES);
+    }
+
+    static double conductance(ByteBuffer chunk, int offset) {
+        return (double) DOUBLE.get(chunk, offset + 2 * Integer.BYTES);
+    }
+
+    private ByteBuffer resistorChunk(long resistor) {
+        if (resistor < 0 || resistor >= resistorCount) {
+            throw new IndexOutOfBoundsException("Element " + resistor + " is not in the network of "
+                    + resistorCount);
+        }
+        return resistors[(int) (resistor >>> CHUNK_SHIFT)];
+    }
+
+    private ByteBuffer nodeChunk(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node " + node + " is not in the network of " + nodeCount);
+        }
+        return nodes[node >>> CHUNK_SHIFT];
+    }
+
+    private void checkNode(int node) {
+        if (node != GROUND) {
+            nodeChunk(node);
+        }
+    }
+
+    private static int offset(long record) {
+        return ((int) record & CHUNK_MASK) * RECORD_BYTES;
+    }
+
+    private static double conductance(double resistance) throws WrongPhysicsParameterException {
+        if (!(resistance > 0)) {
+            throw new WrongPhysicsParameterException("Resistance of the network element is not positive");
+        }
+        return 1 / resistance;
+    }
+}
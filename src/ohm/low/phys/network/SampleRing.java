@@ -0,0 +1,89 @@
+package ohm.low.phys.network;
+
+/**
+ * Ring buffer keeping the last samples of a transient simulation.
+ * Memory is allocated once, so simulation of any length runs in constant memory
+ */
+public class SampleRing implements TransientConsumer {
+    private final int capacity;
+    private final int width;
+    private final double[] times;
+    private final double[] values;
+
+    private int next;
+    private long total;
+
+    /**
+     * Creates empty ring
+     * @param capacity Count of the kept samples
+     * @param width Count of values in every sample
+     */
+    public SampleRing(int capacity, int width) {
+        if (capacity < 1 || width < 0) {
+            throw new IllegalArgumentException("Wrong ring capacity or sample width");
+        }
+        this.capacity = capacity;
+        this.width = width;
+        times = new double[capacity];
+        values = new double[Math.multiplyExact(capacity, width)];
+    }
+
+    @Override
+    public void accept(double time, double[] sample) {
+        times[next] = time;
+        System.arraycopy(sample, 0, values, next * width, width);
+        next = (next + 1 == capacity) ? 0 : next + 1;
+        ++total;
+    }
+
+    /**
+     * @return Count of the kept samples
+     */
+    public int size() {
+        return (int) Math.min(total, capacity);
+    }
+
+    /**
+     * @return Count of all the samples passed to the ring
+     */
+    public long getTotalCount() {
+        return total;
+    }
+
+    /**
+     * @param sample Sample index, 0 is the oldest kept sample
+     * @return Time of the sample [ Seconds ]
+     */
+    public double getTime(int sample) {
+        return times[position(sample)];
+    }
+
+    /**
+     * @param sample Sample index, 0 is the oldest kept sample
+     * @param probe Probe index
+     * @return Value of the probe in the sample
+     */
+    public double getValue(int sample, int probe) {
+        if (probe < 0 || probe >= width) {
+            throw new IndexOutOfBoundsException("Probe index " + probe + " is not in range 0.." + (width - 1));
+        }
+        return values[position(sample) * width + probe];
+    }
+
+    /**
+     * Removes all the samples
+     */
+    public void clear() {
+        next = 0;
+        total = 0;
+    }
+
+    private int position(int sample) {
+        int size = size();
+        if (sample < 0 || sample >= size) {
+            throw new IndexOutOfBoundsException("Sample index " + sample + " is not in range 0.." + (size - 1));
+        }
+        int position = next - size + sample;
+        return (position < 0) ? position + capacity : position;
+    }
+}
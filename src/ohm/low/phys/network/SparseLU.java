@@ -0,0 +1,218 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+
+/**
+ * Sparse LU factorization P A P' = L D L' of the symmetric nodal analysis matrix, U = D L' is not stored.
+ * Factorization is done without pivoting in the fill-reducing order, so symbolic analysis
+ * (elimination tree and pattern of L) is done once and numeric factorization may be repeated
+ * for new values with the same pattern. Solving for new right hand side only needs forward
+ * and backward substitution. Object keeps its work arrays, so it is not thread-safe
+ */
+public class SparseLU {
+    private static final double PIVOT_TOLERANCE = 1e-13;
+
+    private final int size;
+    private final int[] permutation;
+    private final int[] inversePermutation;
+
+    private final int[] parent;
+    private final int[] lowerPointers;
+    private final int[] lowerRows;
+    private final double[] lowerValues;
+    private final double[] diagonal;
+
+    private final int[] lowerCount;
+    private final int[] flag;
+    private final int[] pattern;
+    private final double[] work;
+    private final double[] scale;
+
+    private boolean factorized;
+
+    private SparseLU(SparseMatrix matrix, int[] permutation) {
+        size = matrix.getSize();
+        this.permutation = permutation;
+
+        inversePermutation = new int[size];
+        for (int k = 0; k < size; ++k) {
+            inversePermutation[permutation[k]] = k;
+        }
+
+        parent = new int[size];
+        lowerPointers = new int[size + 1];
+        lowerCount = new int[size];
+        flag = new int[size];
+        pattern = new int[size];
+        work = new double[size];
+        scale = new double[size];
+        diagonal = new double[size];
+
+        int nonZeros = buildEliminationTree(matrix);
+        lowerRows = new int[nonZeros];
+        lowerValues = new double[nonZeros];
+    }
+
+    /**
+     * Makes symbolic analysis of the matrix
+     * @param matrix Matrix with symmetric pattern
+     * @param permutation Elimination order, permutation[k] is the row eliminated at step k
+     * @return Factorization object ready for numeric factorization
+     */
+    public static SparseLU analyze(SparseMatrix matrix, int[] permutation) {
+        return new SparseLU(matrix, permutation);
+    }
+
+    /**
+     * Calculates numeric factorization, matrix must have the pattern the analysis was done for
+     * @param matrix Matrix to factorize
+     * @throws IllegalPhysicsSystemStateException If matrix is singular, e.g. loop of ideal voltage sources
+     */
+    public void factorize(SparseMatrix matrix) throws IllegalPhysicsSystemStateException {
+        factorized = false;
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columns = matrix.getColumns();
+        double[] values = matrix.getValues();
+
+        for (int k = 0; k < size; ++k) {
+            work[k] = 0;
+            scale[k] = 0;
+            int top = size;
+            flag[k] = k;
+            lowerCount[k] = 0;
+
+            int row = permutation[k];
+            for (int p = rowPointers[row]; p < rowPointers[row + 1]; ++p) {
+                int i = inversePermutation[columns[p]];
+                if (i <= k) {
+                    work[i] += values[p];
+                    scale[k] += Math.abs(values[p]);
+                    int length = 0;
+                    for (; flag[i] != k; i = parent[i]) {
+                        pattern[length++] = i;
+                        flag[i] = k;
+                    }
+                    while (length > 0) {
+                        pattern[--top] = pattern[--length];
+                    }
+                }
+            }
+
+            diagonal[k] = work[k];
+            work[k] = 0;
+            for (; top < size; ++top) {
+                int i = pattern[top];
+                double yi = work[i];
+                work[i] = 0;
+
+                int end = lowerPointers[i] + lowerCount[i];
+                for (int p = lowerPointers[i]; p < end; ++p) {
+                    work[lowerRows[p]] -= lowerValues[p] * yi;
+                }
+
+                double lki = yi / diagonal[i];
+                diagonal[k] -= lki * yi;
+                scale[k] += Math.abs(lki * yi);
+                lowerRows[end] = k;
+                lowerValues[end] = lki;
+                ++lowerCount[i];
+            }
+
+            if (!(Math.abs(diagonal[k]) > PIVOT_TOLERANCE * scale[k])) {
+                throw new IllegalPhysicsSystemStateException("Circuit matrix is singular at row " + permutation[k]);
+            }
+        }
+        factorized = true;
+    }
+
+    /**
+     * Solves A x = b with the calculated factorization
+     * @param b Right hand side
+     * @param x Vector to write solution to, may be the same array as b
+     */
+    public void solve(double[] b, double[] x) {
+        if (!factorized) {
+            throw new IllegalStateException("Matrix is not factorized");
+        }
+
+        double[] y = work;
+        for (int k = 0; k < size; ++k) {
+            y[k] = b[permutation[k]];
+        }
+
+        for (int j = 0; j < size; ++j) {
+            double yj = y[j];
+            for (int p = lowerPointers[j]; p < lowerPointers[j + 1]; ++p) {
+                y[lowerRows[p]] -= lowerValues[p] * yj;
+            }
+        }
+
+        for (int j = 0; j < size; ++j) {
+            y[j] /= diagonal[j];
+        }
+
+        for (int j = size - 1; j >= 0; --j) {
+            double yj = y[j];
+            for (int p = lowerPointers[j]; p < lowerPointers[j + 1]; ++p) {
+                yj -= lowerValues[p] * y[lowerRows[p]];
+            }
+            y[j] = yj;
+        }
+
+        for (int k = 0; k < size; ++k) {
+            x[permutation[k]] = y[k];
+        }
+    }
+
+    /**
+     * @return Count of rows and columns
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Count of non zero entries in L, fill-in included
+     */
+    public int getFactorNonZeros() {
+        return lowerPointers[size];
+    }
+
+    /**
+     * @return true if numeric factorization is calculated
+     */
+    public boolean isFactorized() {
+        return factorized;
+    }
+
+    private int buildEliminationTree(SparseMatrix matrix) {
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columns = matrix.getColumns();
+
+        for (int k = 0; k < size; ++k) {
+            parent[k] = -1;
+            flag[k] = k;
+            lowerCount[k] = 0;
+
+            int row = permutation[k];
+            for (int p = rowPointers[row]; p < rowPointers[row + 1]; ++p) {
+                int i = inversePermutation[columns[p]];
+                if (i < k) {
+                    for (; flag[i] != k; i = parent[i]) {
+                        if (parent[i] == -1) {
+                            parent[i] = k;
+                        }
+                        ++lowerCount[i];
+                        flag[i] = k;
+                    }
+                }
+            }
+        }
+
+        lowerPointers[0] = 0;
+        for (int k = 0; k < size; ++k) {
+            lowerPointers[k + 1] = lowerPointers[k] + lowerCount[k];
+        }
+        return lowerPointers[size];
+    }
+}
@@ -0,0 +1,189 @@
+package ohm.low.phys.network;
+
+import java.util.Arrays;
+
+/**
+ * Square sparse matrix in compressed sparse row (CSR) form.
+ * Column indices are sorted inside every row, duplicates are summed
+ */
+public class SparseMatrix {
+    private static final int INSERTION_SORT_LIMIT = 32;
+
+    private final int size;
+    private final int[] rowPointers;
+    private final int[] columns;
+    private final double[] values;
+
+    private SparseMatrix(int size, int[] rowPointers, int[] columns, double[] values) {
+        this.size = size;
+        this.rowPointers = rowPointers;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Builds matrix from (row, column, value) triplets, duplicated entries are summed
+     * @param size Count of rows and columns
+     * @param rows Row indices of entries
+     * @param cols Column indices of entries
+     * @param vals Values of entries
+     * @param count Count of entries
+     * @return Matrix in CSR form
+     */
+    public static SparseMatrix fromTriplets(int size, int[] rows, int[] cols, double[] vals, int count) {
+        int[] rowCounts = new int[size + 1];
+        for (int k = 0; k < count; ++k) {
+            rowCounts[rows[k] + 1]++;
+        }
+        for (int i = 0; i < size; ++i) {
+            rowCounts[i + 1] += rowCounts[i];
+        }
+
+        int[] next = rowCounts.clone();
+        int[] sortedColumns = new int[count];
+        double[] sortedValues = new double[count];
+        for (int k = 0; k < count; ++k) {
+            int position = next[rows[k]]++;
+            sortedColumns[position] = cols[k];
+            sortedValues[position] = vals[k];
+        }
+
+        int[] rowPointers = new int[size + 1];
+        int[] marker = new int[size];
+        Arrays.fill(marker, -1);
+        int nonZeros = 0;
+        for (int i = 0; i < size; ++i) {
+            int rowStart = nonZeros;
+            for (int p = rowCounts[i]; p < rowCounts[i + 1]; ++p) {
+                int column = sortedColumns[p];
+                if (marker[column] >= rowStart) {
+                    sortedValues[marker[column]] += sortedValues[p];
+                } else {
+                    marker[column] = nonZeros;
+                    sortedColumns[nonZeros] = column;
+                    sortedValues[nonZeros] = sortedValues[p];
+                    ++nonZeros;
+                }
+            }
+            sortRow(sortedColumns, sortedValues, rowStart, nonZeros);
+            rowPointers[i + 1] = nonZeros;
+        }
+
+        return new SparseMatrix(size, rowPointers,
+                Arrays.copyOf(sortedColumns, nonZeros), Arrays.copyOf(sortedValues, nonZeros));
+    }
+
+    /**
+     * Calculates y = A * x
+     * @param x Vector to multiply
+     * @param y Vector to write result to
+     */
+    public void multiply(double[] x, double[] y) {
+        for (int i = 0; i < size; ++i) {
+            double sum = 0;
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; ++p) {
+                sum += values[p] * x[columns[p]];
+            }
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * @return Count of rows and columns
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Count of stored entries
+     */
+    public int getNonZeros() {
+        return rowPointers[size];
+    }
+
+    /**
+     * @return Row start positions, size + 1 values
+     */
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    /**
+     * @return Column index of every stored entry
+     */
+    public int[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Value of every stored entry
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Finds position of the stored entry
+     * @param row Row index
+     * @param column Column index
+     * @return Position in the values array, -1 if the entry is not stored
+     */
+    int indexOf(int row, int column) {
+        int low = rowPointers[row];
+        int high = rowPointers[row + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (columns[middle] < column) {
+                low = middle + 1;
+            } else if (columns[middle] > column) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if matrices have the same sparsity pattern
+     * @param other Matrix to compare with
+     * @return true if patterns are equal
+     */
+    public boolean hasSamePattern(SparseMatrix other) {
+        return other != null && size == other.size
+                && Arrays.equals(rowPointers, other.rowPointers)
+                && Arrays.equals(columns, other.columns);
+    }
+
+    private static void sortRow(int[] cols, double[] vals, int from, int to) {
+        if (to - from > INSERTION_SORT_LIMIT) {
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; ++i) {
+                keys[i - from] = ((long) cols[i] << 32) | (i - from);
+            }
+            Arrays.sort(keys);
+
+            double[] rowValues = Arrays.copyOfRange(vals, from, to);
+            for (int i = from; i < to; ++i) {
+                long key = keys[i - from];
+                cols[i] = (int) (key >>> 32);
+                vals[i] = rowValues[(int) key];
+            }
+            return;
+        }
+
+        for (int i = from + 1; i < to; ++i) {
+            int column = cols[i];
+            double value = vals[i];
+            int j = i - 1;
+            while (j >= from && cols[j] > column) {
+                cols[j + 1] = cols[j];
+                vals[j + 1] = vals[j];
+                --j;
+            }
+            cols[j + 1] = column;
+            vals[j + 1] = value;
+        }
+    }
+}
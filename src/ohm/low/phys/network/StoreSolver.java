@@ -0,0 +1,380 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.metrics.Metrics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Matrix-free Jacobi-preconditioned conjugate gradient solver of the off-heap network.
+ * Every iteration streams the element records of ResistorStore once, node vectors are kept in the direct memory,
+ * so heap usage does not depend on the network size and GC pauses stay those of a small heap.
+ * Fixed potentials are moved to the right side, so the system stays symmetric positive definite.
+ * Direct memory of the solver is 6 doubles per node. Every solve starts from the previous solution
+ */
+public class StoreSolver {
+    private static final double DEFAULT_TOLERANCE = 1e-10;
+    private static final int DEFAULT_MAX_ITERATIONS = 10_000;
+
+    private final ResistorStore store;
+    private final int nodeCount;
+
+    private final OffHeapDoubles voltage;
+    private final OffHeapDoubles rightSide;
+    /**
+     * Diagonal of the free node, -1 for the node with fixed potential, its row is identity
+     */
+    private final OffHeapDoubles diagonal;
+    private final OffHeapDoubles residual;
+    private final OffHeapDoubles direction;
+    private final OffHeapDoubles product;
+
+    private double tolerance = DEFAULT_TOLERANCE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double[] history = new double[DEFAULT_MAX_ITERATIONS + 1];
+    private int iterations;
+    private double relativeResidual;
+
+    /**
+     * Creates solver
+     * @param store Network to solve, its values are read again on every solve, up to 2^28 - 1 nodes
+     */
+    public StoreSolver(ResistorStore store) {
+        if (store.getNodeCount() > OffHeapDoubles.MAX_LENGTH) {
+            throw new IllegalArgumentException("Network of " + store.getNodeCount() + " nodes is too large, max is "
+                    + OffHeapDoubles.MAX_LENGTH);
+        }
+        this.store = store;
+        nodeCount = store.getNodeCount();
+        voltage = new OffHeapDoubles(nodeCount);
+        rightSide = new OffHeapDoubles(nodeCount);
+        diagonal = new OffHeapDoubles(nodeCount);
+        residual = new OffHeapDoubles(nodeCount);
+        direction = new OffHeapDoubles(nodeCount);
+        product = new OffHeapDoubles(nodeCount);
+    }
+
+    /**
+     * Set convergence criteria
+     * @param tolerance Max relative residual |I - G * V| / |I|
+     * @param maxIterations Max count of iterations
+     */
+    public void setTolerance(double tolerance, int maxIterations) {
+        if (!(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("Wrong tolerance or iterations count");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        history = new double[maxIterations + 1];
+    }
+
+    /**
+     * Solves the network starting from the previous solution
+     * @throws IllegalPhysicsSystemStateException If current is injected into the node without elements
+     * or iterations did not converge, e.g. some part of the network is connected neither to the ground
+     * nor to the voltage source
+     */
+    public void solve() throws IllegalPhysicsSystemStateException {
+        try {
+            build();
+            iterate();
+        } finally {
+            if (Metrics.ENABLED) {
+                Metrics.STORE_SOLVES.increment();
+                Metrics.STORE_ITERATIONS.add(iterations);
+            }
+        }
+        if (!(relativeResidual <= tolerance)) {
+            throw new IllegalPhysicsSystemStateException("Network did not converge in " + iterations
+                    + " iterations, relative residual " + relativeResidual);
+        }
+    }
+
+    /**
+     * Calculates diagonal and right side, potentials of the fixed nodes are set to their sources
+     */
+    private void build() throws IllegalPhysicsSystemStateException {
+        iterations = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            double fixed = store.getFixedVoltage(node);
+            if (Double.isNaN(fixed)) {
+                diagonal.set(node, 0);
+                rightSide.set(node, store.getInjectedCurrent(node));
+            } else {
+                diagonal.set(node, -1);
+                rightSide.set(node, fixed);
+                voltage.set(node, fixed);
+            }
+        }
+
+        int recordBytes = ResistorStore.getRecordBytes();
+        for (ByteBuffer chunk : store.getResistorChunks()) {
+            for (int offset = 0, size = chunk.capacity(); offset < size; offset += recordBytes) {
+                double g = ResistorStore.conductance(chunk, offset);
+                if (g == 0) {
+                    continue;
+                }
+                int a = ResistorStore.nodeA(chunk, offset);
+                int b = ResistorStore.nodeB(chunk, offset);
+                boolean freeA = a != ResistorStore.GROUND && diagonal.get(a) >= 0;
+                boolean freeB = b != ResistorStore.GROUND && diagonal.get(b) >= 0;
+                if (freeA) {
+                    diagonal.add(a, g);
+                    if (b != ResistorStore.GROUND && !freeB) {
+                        rightSide.add(a, g * voltage.get(b));
+                    }
+                }
+                if (freeB) {
+                    diagonal.add(b, g);
+                    if (a != ResistorStore.GROUND && !freeA) {
+                        rightSide.add(b, g * voltage.get(a));
+                    }
+                }
+            }
+        }
+
+        for (int node = 0; node < nodeCount; ++node) {
+            if (diagonal.get(node) == 0) {
+                if (rightSide.get(node) != 0) {
+                    throw new IllegalPhysicsSystemStateException("Current is injected into node " + node
+                            + " without elements");
+                }
+                diagonal.set(node, -1);
+                voltage.set(node, 0);
+            }
+        }
+    }
+
+    /**
+     * Conjugate gradient iterations, every vector loop is a method of its own,
+     * so the JIT compiles each of them with the buffer accesses inlined
+     */
+    private void iterate() {
+        double rightNorm = Math.sqrt(freeRightSquare());
+        if (rightNorm == 0) {
+            clearFree();
+            relativeResidual = 0;
+            history[0] = 0;
+            return;
+        }
+
+        relativeResidual = Math.sqrt(initialResidual()) / rightNorm;
+        history[0] = relativeResidual;
+        if (relativeResidual <= tolerance) {
+            return;
+        }
+
+        double rz = updateDirection(0);
+        while (iterations < maxIterations) {
+            apply(direction, product);
+            double pq = dot(direction, product);
+            if (!(pq > 0)) {
+                break;
+            }
+
+            double residualNorm = Math.sqrt(step(rz / pq));
+            ++iterations;
+            relativeResidual = residualNorm / rightNorm;
+            history[iterations] = relativeResidual;
+            if (relativeResidual <= tolerance) {
+                break;
+            }
+
+            double rzNext = preconditionedDot();
+            double beta = rzNext / rz;
+            rz = rzNext;
+            updateDirection(beta);
+        }
+    }
+
+    /**
+     * residual = I - G * V, potentials of the fixed nodes are in place,
+     * so the full stencil gives the residual of the eliminated system
+     * @return Squared norm of the residual
+     */
+    private double initialResidual() {
+        for (int node = 0; node < nodeCount; ++node) {
+            double d = diagonal.get(node);
+            residual.set(node, (d < 0) ? 0 : d * voltage.get(node) - store.getInjectedCurrent(node));
+        }
+        subtractElements(voltage, residual);
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            double r = (diagonal.get(node) < 0) ? 0 : -residual.get(node);
+            residual.set(node, r);
+            sum += r * r;
+        }
+        return sum;
+    }
+
+    /**
+     * voltage += alpha * direction, residual -= alpha * product
+     * @return Squared norm of the residual
+     */
+    private double step(double alpha) {
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            voltage.add(node, alpha * direction.get(node));
+            double r = residual.get(node) - alpha * product.get(node);
+            residual.set(node, r);
+            sum += r * r;
+        }
+        return sum;
+    }
+
+    /**
+     * @return residual * M^-1 * residual
+     */
+    private double preconditionedDot() {
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            sum += residual.get(node) * precondition(node);
+        }
+        return sum;
+    }
+
+    /**
+     * direction = M^-1 * residual + beta * direction
+     * @return residual * M^-1 * residual
+     */
+    private double updateDirection(double beta) {
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            double z = precondition(node);
+            direction.set(node, (beta == 0) ? z : z + beta * direction.get(node));
+            sum += residual.get(node) * z;
+        }
+        return sum;
+    }
+
+    private double precondition(int node) {
+        double d = diagonal.get(node);
+        return (d < 0) ? residual.get(node) : residual.get(node) / d;
+    }
+
+    /**
+     * y = G * x for the free nodes, y = x for the fixed ones.
+     * x must be zero at the fixed nodes, so the elements touching them need no checks in the element loop
+     */
+    private void apply(OffHeapDoubles x, OffHeapDoubles y) {
+        multiplyDiagonal(x, y);
+        subtractElements(x, y);
+        restoreFixed(x, y);
+    }
+
+    private void multiplyDiagonal(OffHeapDoubles x, OffHeapDoubles y) {
+        for (int node = 0; node < nodeCount; ++node) {
+            y.set(node, Math.max(diagonal.get(node), 0) * x.get(node));
+        }
+    }
+
+    private void restoreFixed(OffHeapDoubles x, OffHeapDoubles y) {
+        for (int node = 0; node < nodeCount; ++node) {
+            if (diagonal.get(node) < 0) {
+                y.set(node, x.get(node));
+            }
+        }
+    }
+
+    /**
+     * y -= g * x of the neighbour through every element not touching the ground
+     */
+    private void subtractElements(OffHeapDoubles x, OffHeapDoubles y) {
+        int recordBytes = ResistorStore.getRecordBytes();
+        for (ByteBuffer chunk : store.getResistorChunks()) {
+            for (int offset = 0, size = chunk.capacity(); offset < size; offset += recordBytes) {
+                double g = ResistorStore.conductance(chunk, offset);
+                int a = ResistorStore.nodeA(chunk, offset);
+                int b = ResistorStore.nodeB(chunk, offset);
+                if (g == 0 || a == ResistorStore.GROUND || b == ResistorStore.GROUND) {
+                    continue;
+                }
+                y.add(a, -g * x.get(b));
+                y.add(b, -g * x.get(a));
+            }
+        }
+    }
+
+    /**
+     * Right side of the fixed nodes is their potential, so only the currents of the free nodes scale the residual
+     * @return Squared norm of the right side of the free nodes
+     */
+    private double freeRightSquare() {
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            if (diagonal.get(node) >= 0) {
+                double i = rightSide.get(node);
+                sum += i * i;
+            }
+        }
+        return sum;
+    }
+
+    private void clearFree() {
+        for (int node = 0; node < nodeCount; ++node) {
+            if (diagonal.get(node) >= 0) {
+                voltage.set(node, 0);
+            }
+        }
+    }
+
+    private double dot(OffHeapDoubles a, OffHeapDoubles b) {
+        double sum = 0;
+        for (int node = 0; node < nodeCount; ++node) {
+            sum += a.get(node) * b.get(node);
+        }
+        return sum;
+    }
+
+    /**
+     * Forgets the previous solution, the next solve starts from zero potentials
+     */
+    public void reset() {
+        voltage.fill(0);
+    }
+
+    /**
+     * @param node Node index, GROUND for the ground
+     * @return Node potential [ Volts ]
+     */
+    public double getVoltage(int node) {
+        if (node == ResistorStore.GROUND) {
+            return 0;
+        }
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node " + node + " is not in the network of " + nodeCount);
+        }
+        return voltage.get(node);
+    }
+
+    /**
+     * @param resistor Element index
+     * @return Current through the element from node A to node B [ Amps ]
+     */
+    public double getCurrent(long resistor) {
+        return store.getConductance(resistor)
+                * (getVoltage(store.getNodeA(resistor)) - getVoltage(store.getNodeB(resistor)));
+    }
+
+    /**
+     * @return Count of iterations of the last solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Relative residual |I - G * V| / |I| of the last solve
+     */
+    public double getRelativeResidual() {
+        return relativeResidual;
+    }
+
+    /**
+     * @return Relative residual before the first iteration and after every iteration of the last solve
+     */
+    public double[] getResidualHistory() {
+        return Arrays.copyOf(history, iterations + 1);
+    }
+}
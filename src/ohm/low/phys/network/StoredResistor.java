@@ -0,0 +1,63 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.base.Resistor;
+
+/**
+ * Flyweight view of the element of ResistorStore: it keeps only the store and the element index,
+ * the resistance is read from the store on every call, so changes of the store are seen at once
+ */
+public final class StoredResistor implements Resistor {
+    private final ResistorStore store;
+    private final long index;
+
+    StoredResistor(ResistorStore store, long index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * @return Store of the element
+     */
+    public ResistorStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return Element index in the store
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    @Override
+    public double getResistance() {
+        return store.getResistance(index);
+    }
+
+    @Override
+    public double getCurrentIfVoltage(double voltage) {
+        return voltage * store.getConductance(index);
+    }
+
+    @Override
+    public double getVoltageIfCurrent(double current) {
+        return (current == 0) ? 0 : current * store.getResistance(index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StoredResistor)) {
+            return false;
+        }
+        StoredResistor other = (StoredResistor) o;
+        return store == other.store && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + Long.hashCode(index);
+    }
+}
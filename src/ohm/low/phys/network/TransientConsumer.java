@@ -0,0 +1,10 @@
+package ohm.low.phys.network;
+
+public interface TransientConsumer {
+    /**
+     * Called after every accepted time step
+     * @param time Time of the sample [ Seconds ]
+     * @param values Values of the probes, the array is reused for the next sample
+     */
+    void accept(double time, double[] values);
+}
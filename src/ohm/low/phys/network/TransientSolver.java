@@ -0,0 +1,640 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.base.Capacitor;
+import ohm.low.phys.base.Inductor;
+import ohm.low.phys.metrics.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Time domain simulation of the netlist with capacitors and inductors.
+ * On every step capacitors and inductors are replaced by companion models: conductance parallel
+ * to the current source keeping the history of the element. Conductances depend only on the step,
+ * so the nodal analysis matrix is factorized again only when the step is changed and the inner loop
+ * only builds the right hand side and makes substitutions in preallocated vectors.
+ * Trapezoidal method starts with one backward Euler step, because currents of capacitors
+ * and voltages of inductors are not known at the start.
+ * Adaptive step is controlled by the local truncation error estimated from the difference
+ * between the extrapolated and the calculated state (Milne's device)
+ */
+public class TransientSolver {
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final double MAX_FACTOR = 2;
+    private static final double GROW_THRESHOLD = 1.25;
+    private static final double TIME_EPSILON = 1e-9;
+
+    private static final int CAPACITOR = 0;
+    private static final int INDUCTOR = 1;
+
+    private static final int PROBE_NODE = 0;
+    private static final int PROBE_VOLTAGE = 1;
+    private static final int PROBE_CURRENT = 2;
+
+    private final Netlist netlist;
+
+    private int[] elementKind = new int[4];
+    private int[] elementNodeA = new int[4];
+    private int[] elementNodeB = new int[4];
+    private double[] elementValue = new double[4];
+    private double[] elementInitial = new double[4];
+    private int elementCount;
+
+    private int[] probeKind = new int[4];
+    private int[] probeIndex = new int[4];
+    private int probeCount;
+
+    private IntegrationMethod method = IntegrationMethod.TRAPEZOIDAL;
+    private boolean adaptive;
+    private double step = 1e-6;
+    private double minStep;
+    private double maxStep;
+    private double relativeTolerance;
+    private double absoluteTolerance;
+
+    private boolean prepared;
+    private int preparedStructureVersion;
+    private SparseMatrix matrix;
+    private SparseLU factorization;
+    private double[] baseValues;
+    private double[] factoredResistance;
+    private int[] resistorRows;
+    private int[] supplyRows;
+    private double[] supplyConductance;
+    private int[] positions;
+    private double factoredStep = Double.NaN;
+    private IntegrationMethod factoredMethod;
+
+    private double[] rightHandSide;
+    private double[] solution;
+    private double[] conductance;
+    private double[] history;
+    private double[][] states = new double[3][];
+    private double[] times = new double[3];
+    private int historyCount;
+    private double[] trialState;
+    private double[] companion;
+    private double[] trialCompanion;
+    private double[] probeValues;
+
+    private boolean started;
+    private double time;
+    private long acceptedSteps;
+    private long rejectedSteps;
+    private long factorizations;
+
+    /**
+     * Creates solver for the netlist, resistors and sources are taken from the netlist
+     * @param netlist Network to simulate
+     */
+    public TransientSolver(Netlist netlist) {
+        this.netlist = netlist;
+    }
+
+    /**
+     * Places capacitor between two nodes
+     * @param nodeA First node name
+     * @param nodeB Second node name
+     * @param capacitor Capacitor to place
+     * @return Element index
+     */
+    public int addCapacitor(String nodeA, String nodeB, Capacitor capacitor) {
+        return addElement(CAPACITOR, nodeA, nodeB, capacitor.getCapacitance(), capacitor.getInitialVoltage());
+    }
+
+    /**
+     * Places inductor between two nodes
+     * @param nodeA First node name
+     * @param nodeB Second node name
+     * @param inductor Inductor to place
+     * @return Element index
+     */
+    public int addInductor(String nodeA, String nodeB, Inductor inductor) {
+        return addElement(INDUCTOR, nodeA, nodeB, inductor.getInductance(), inductor.getInitialCurrent());
+    }
+
+    private int addElement(int kind, String nodeA, String nodeB, double value, double initial) {
+        if (elementCount == elementKind.length) {
+            int capacity = 2 * elementCount;
+            elementKind = Arrays.copyOf(elementKind, capacity);
+            elementNodeA = Arrays.copyOf(elementNodeA, capacity);
+            elementNodeB = Arrays.copyOf(elementNodeB, capacity);
+            elementValue = Arrays.copyOf(elementValue, capacity);
+            elementInitial = Arrays.copyOf(elementInitial, capacity);
+        }
+
+        elementKind[elementCount] = kind;
+        elementNodeA[elementCount] = netlist.node(nodeA);
+        elementNodeB[elementCount] = netlist.node(nodeB);
+        elementValue[elementCount] = value;
+        elementInitial[elementCount] = initial;
+        prepared = false;
+        started = false;
+        return elementCount++;
+    }
+
+    /**
+     * Adds node potential to the values passed to the consumer
+     * @param node Node name
+     * @return Probe index in the values array
+     */
+    public int probeVoltage(String node) {
+        return addProbe(PROBE_NODE, netlist.node(node));
+    }
+
+    /**
+     * Adds voltage between the first and the second node of the element to the values passed to the consumer
+     * @param element Capacitor or inductor index
+     * @return Probe index in the values array
+     */
+    public int probeElementVoltage(int element) {
+        checkElement(element);
+        return addProbe(PROBE_VOLTAGE, element);
+    }
+
+    /**
+     * Adds current through the element from its first node to the second one to the values passed to the consumer
+     * @param element Capacitor or inductor index
+     * @return Probe index in the values array
+     */
+    public int probeElementCurrent(int element) {
+        checkElement(element);
+        return addProbe(PROBE_CURRENT, element);
+    }
+
+    private int addProbe(int kind, int index) {
+        if (probeCount == probeKind.length) {
+            probeKind = Arrays.copyOf(probeKind, 2 * probeCount);
+            probeIndex = Arrays.copyOf(probeIndex, 2 * probeCount);
+        }
+        probeKind[probeCount] = kind;
+        probeIndex[probeCount] = index;
+        prepared = false;
+        return probeCount++;
+    }
+
+    /**
+     * @param method Integration method for the next steps
+     */
+    public void setMethod(IntegrationMethod method) {
+        this.method = method;
+    }
+
+    /**
+     * Makes steps of the same size
+     * @param step Time step [ Seconds ]
+     */
+    public void setFixedStep(double step) {
+        if (!(step > 0) || step == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Step is not greater than zero");
+        }
+        adaptive = false;
+        this.step = step;
+    }
+
+    /**
+     * Changes step to keep the local truncation error of capacitor voltages and inductor currents
+     * lesser than relativeTolerance * |value| + absoluteTolerance
+     * @param initialStep First time step [ Seconds ]
+     * @param minStep Min time step, steps are not rejected at this size [ Seconds ]
+     * @param maxStep Max time step [ Seconds ]
+     * @param relativeTolerance Relative part of the allowed error
+     * @param absoluteTolerance Absolute part of the allowed error [ Volts or Amps ]
+     */
+    public void setAdaptiveStep(double initialStep, double minStep, double maxStep,
+                                double relativeTolerance, double absoluteTolerance) {
+        if (!(minStep > 0) || !(maxStep >= minStep) || !(initialStep >= minStep) || !(initialStep <= maxStep)) {
+            throw new IllegalArgumentException("Wrong step limits");
+        }
+        if (!(relativeTolerance >= 0) || !(absoluteTolerance >= 0) || relativeTolerance + absoluteTolerance == 0) {
+            throw new IllegalArgumentException("Wrong tolerance");
+        }
+        adaptive = true;
+        step = initialStep;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+    }
+
+    /**
+     * Returns simulation to the zero time, elements take their initial values.
+     * Simulation is also started again after any element is added
+     */
+    public void reset() {
+        started = false;
+    }
+
+    /**
+     * Continues simulation, every accepted step is passed to the consumer.
+     * Steps do not allocate, netlist is analyzed again only if its structure or resistances were changed
+     * @param duration Simulated time [ Seconds ]
+     * @param consumer Consumer of the probe values, may be null
+     * @throws IllegalPhysicsSystemStateException If network is singular
+     */
+    public void run(double duration, TransientConsumer consumer) throws IllegalPhysicsSystemStateException {
+        if (!(duration >= 0)) {
+            throw new IllegalArgumentException("Duration is lesser than zero");
+        }
+
+        prepare();
+        if (!started) {
+            start();
+        }
+
+        double startTime = time;
+        double endTime = startTime + duration;
+        if (!adaptive) {
+            long steps = Math.round(duration / step);
+            for (long n = 1; n <= steps; ++n) {
+                solveStep(step, stepMethod());
+                accept(startTime + n * step, consumer);
+            }
+            return;
+        }
+
+        while (endTime - time > TIME_EPSILON * step) {
+            double h = (endTime - time < (1 + TIME_EPSILON) * step) ? endTime - time : step;
+            IntegrationMethod stepMethod = stepMethod();
+            solveStep(h, stepMethod);
+
+            int order = (stepMethod == IntegrationMethod.TRAPEZOIDAL) ? 2 : 1;
+            double factor = MAX_FACTOR;
+            if (historyCount > order) {
+                double ratio = errorRatio(h, order);
+                factor = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, SAFETY * Math.pow(ratio, -1.0 / (order + 1))));
+                if (ratio > 1 && h > minStep) {
+                    ++rejectedSteps;
+                    step = Math.max(minStep, h * factor);
+                    continue;
+                }
+            }
+
+            accept((h == step) ? time + h : endTime, consumer);
+            if (factor >= GROW_THRESHOLD || factor < SAFETY) {
+                step = Math.max(minStep, Math.min(maxStep, step * factor));
+            }
+        }
+    }
+
+    private IntegrationMethod stepMethod() {
+        return (historyCount < 2) ? IntegrationMethod.BACKWARD_EULER : method;
+    }
+
+    /**
+     * Takes initial values of the elements
+     */
+    private void start() {
+        for (int k = 0; k < elementCount; ++k) {
+            states[0][k] = elementInitial[k];
+            companion[k] = 0;
+        }
+        Arrays.fill(solution, 0);
+        times[0] = 0;
+        time = 0;
+        historyCount = 1;
+        acceptedSteps = 0;
+        rejectedSteps = 0;
+        started = true;
+    }
+
+    /**
+     * Solves the network for one step, new state is written to the trial vectors
+     */
+    private void solveStep(double h, IntegrationMethod stepMethod) throws IllegalPhysicsSystemStateException {
+        if (h != factoredStep || stepMethod != factoredMethod) {
+            factorize(h, stepMethod);
+        }
+
+        boolean trapezoidal = stepMethod == IntegrationMethod.TRAPEZOIDAL;
+        Arrays.fill(rightHandSide, 0);
+        for (int s = 0; s < supplyRows.length; ++s) {
+            double emf = netlist.getEmf(s);
+            if (supplyRows[s] >= 0) {
+                rightHandSide[supplyRows[s]] = emf;
+            } else {
+                inject(netlist.getSupplyPlus(s), netlist.getSupplyMinus(s), emf * supplyConductance[s]);
+            }
+        }
+        for (int c = 0; c < netlist.getCurrentSourceCount(); ++c) {
+            inject(netlist.getCurrentSourceTo(c), netlist.getCurrentSourceFrom(c), netlist.getCurrentSourceValue(c));
+        }
+
+        double[] state = states[0];
+        for (int k = 0; k < elementCount; ++k) {
+            double g = conductance[k];
+            double injected;
+            if (elementKind[k] == CAPACITOR) {
+                injected = g * state[k] + (trapezoidal ? companion[k] : 0);
+            } else {
+                injected = -(state[k] + (trapezoidal ? g * companion[k] : 0));
+            }
+            history[k] = injected;
+            inject(elementNodeA[k], elementNodeB[k], injected);
+        }
+
+        factorization.solve(rightHandSide, solution);
+
+        for (int k = 0; k < elementCount; ++k) {
+            double voltage = voltage(elementNodeA[k]) - voltage(elementNodeB[k]);
+            double current = conductance[k] * voltage - history[k];
+            if (elementKind[k] == CAPACITOR) {
+                trialState[k] = voltage;
+                trialCompanion[k] = current;
+            } else {
+                trialState[k] = current;
+                trialCompanion[k] = voltage;
+            }
+        }
+    }
+
+    /**
+     * Max ratio of the estimated local truncation error to the allowed one
+     */
+    private double errorRatio(double h, int order) {
+        double t0 = times[0];
+        double t1 = times[1];
+        double tn = t0 + h;
+        double[] x0 = states[0];
+        double[] x1 = states[1];
+        double[] x2 = states[2];
+
+        // Error constants of the methods with the extrapolation predictor of the same order, for equal steps
+        double constant = (order == 1) ? 1.0 / 3 : 1.0 / 13;
+        double ratio = 0;
+        for (int k = 0; k < elementCount; ++k) {
+            double predicted;
+            if (order == 1) {
+                predicted = x0[k] + (x0[k] - x1[k]) * (tn - t0) / (t0 - t1);
+            } else {
+                double t2 = times[2];
+                predicted = x0[k] * (tn - t1) * (tn - t2) / ((t0 - t1) * (t0 - t2))
+                        + x1[k] * (tn - t0) * (tn - t2) / ((t1 - t0) * (t1 - t2))
+                        + x2[k] * (tn - t0) * (tn - t1) / ((t2 - t0) * (t2 - t1));
+            }
+            double error = constant * Math.abs(trialState[k] - predicted);
+            double allowed = relativeTolerance * Math.max(Math.abs(trialState[k]), Math.abs(x0[k]))
+                    + absoluteTolerance;
+            ratio = Math.max(ratio, error / allowed);
+        }
+        return ratio;
+    }
+
+    /**
+     * Makes trial state current and passes probe values to the consumer
+     */
+    private void accept(double newTime, TransientConsumer consumer) {
+        double[] oldest = states[2];
+        states[2] = states[1];
+        states[1] = states[0];
+        states[0] = trialState;
+        trialState = oldest;
+        times[2] = times[1];
+        times[1] = times[0];
+        times[0] = newTime;
+        historyCount = Math.min(3, historyCount + 1);
+
+        double[] swap = companion;
+        companion = trialCompanion;
+        trialCompanion = swap;
+
+        time = newTime;
+        ++acceptedSteps;
+        if (Metrics.ENABLED) {
+            Metrics.TRANSIENT_STEPS.increment();
+        }
+        if (consumer == null) {
+            return;
+        }
+
+        for (int p = 0; p < probeCount; ++p) {
+            int index = probeIndex[p];
+            switch (probeKind[p]) {
+                case PROBE_NODE:
+                    probeValues[p] = voltage(index);
+                    break;
+                case PROBE_VOLTAGE:
+                    probeValues[p] = (elementKind[index] == CAPACITOR) ? states[0][index] : companion[index];
+                    break;
+                default:
+                    probeValues[p] = (elementKind[index] == CAPACITOR) ? companion[index] : states[0][index];
+                    break;
+            }
+        }
+        consumer.accept(time, probeValues);
+    }
+
+    /**
+     * Adds companion conductances for the step to the static part of the matrix and factorizes it
+     */
+    private void factorize(double h, IntegrationMethod stepMethod) throws IllegalPhysicsSystemStateException {
+        boolean trapezoidal = stepMethod == IntegrationMethod.TRAPEZOIDAL;
+        double[] values = matrix.getValues();
+        System.arraycopy(baseValues, 0, values, 0, values.length);
+
+        for (int k = 0; k < elementCount; ++k) {
+            double g;
+            if (elementKind[k] == CAPACITOR) {
+                g = (trapezoidal ? 2 : 1) * elementValue[k] / h;
+            } else {
+                g = (trapezoidal ? 0.5 : 1) * h / elementValue[k];
+            }
+            conductance[k] = g;
+            addValue(values, positions[4 * k], g);
+            addValue(values, positions[4 * k + 1], g);
+            addValue(values, positions[4 * k + 2], -g);
+            addValue(values, positions[4 * k + 3], -g);
+        }
+
+        factoredStep = Double.NaN;
+        factorization.factorize(matrix);
+        factoredStep = h;
+        factoredMethod = stepMethod;
+        ++factorizations;
+        if (Metrics.ENABLED) {
+            Metrics.NETWORK_FACTORIZATIONS.increment();
+        }
+    }
+
+    private static void addValue(double[] values, int position, double value) {
+        if (position >= 0) {
+            values[position] += value;
+        }
+    }
+
+    /**
+     * Assembles static part of the matrix and allocates all the vectors if netlist was changed
+     */
+    private void prepare() {
+        if (prepared && preparedStructureVersion == netlist.getStructureVersion() && !resistancesChanged()) {
+            return;
+        }
+
+        // Companion conductances are reserved, their values are set for every step
+        NodalAssembly assembly = new NodalAssembly(netlist, elementCount);
+        for (int k = 0; k < elementCount; ++k) {
+            assembly.reserveConductance(elementNodeA[k], elementNodeB[k]);
+        }
+        int nodeCount = assembly.nodeCount;
+        resistorRows = assembly.resistorRows;
+        factoredResistance = assembly.resistance;
+        supplyRows = assembly.supplyRows;
+        supplyConductance = assembly.supplyConductance;
+
+        SparseMatrix assembled = assembly.toMatrix();
+        int size = assembled.getSize();
+        if (factorization == null || !assembled.hasSamePattern(matrix)) {
+            factorization = SparseLU.analyze(assembled, NodalAssembly.order(assembled, nodeCount));
+        }
+        matrix = assembled;
+        baseValues = matrix.getValues().clone();
+
+        positions = new int[4 * elementCount];
+        for (int k = 0; k < elementCount; ++k) {
+            int a = elementNodeA[k];
+            int b = elementNodeB[k];
+            boolean hasA = a != Netlist.GROUND_INDEX;
+            boolean hasB = b != Netlist.GROUND_INDEX;
+            positions[4 * k] = hasA ? matrix.indexOf(a, a) : -1;
+            positions[4 * k + 1] = hasB ? matrix.indexOf(b, b) : -1;
+            positions[4 * k + 2] = (hasA && hasB) ? matrix.indexOf(a, b) : -1;
+            positions[4 * k + 3] = (hasA && hasB) ? matrix.indexOf(b, a) : -1;
+        }
+
+        rightHandSide = new double[size];
+        double[] oldSolution = solution;
+        solution = new double[size];
+        conductance = new double[elementCount];
+        history = new double[elementCount];
+        trialState = new double[elementCount];
+        trialCompanion = new double[elementCount];
+        probeValues = new double[probeCount];
+        for (int h = 0; h < states.length; ++h) {
+            states[h] = resize(states[h], elementCount);
+        }
+        companion = resize(companion, elementCount);
+        if (oldSolution != null) {
+            System.arraycopy(oldSolution, 0, solution, 0, Math.min(nodeCount, oldSolution.length));
+        }
+
+        if (prepared && preparedStructureVersion != netlist.getStructureVersion()) {
+            started = false;
+        }
+        factoredStep = Double.NaN;
+        preparedStructureVersion = netlist.getStructureVersion();
+        prepared = true;
+    }
+
+    private boolean resistancesChanged() {
+        for (int r = 0; r < factoredResistance.length; ++r) {
+            if (netlist.getResistor(r).getResistance() != factoredResistance[r]) {
+                return true;
+            }
+        }
+        for (int s = 0; s < supplyConductance.length; ++s) {
+            if (supplyConductance[s] != NodalAssembly.supplyConductance(netlist, s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double[] resize(double[] vector, int size) {
+        return (vector == null) ? new double[size] : Arrays.copyOf(vector, size);
+    }
+
+    private void inject(int into, int outOf, double current) {
+        if (into != Netlist.GROUND_INDEX) {
+            rightHandSide[into] += current;
+        }
+        if (outOf != Netlist.GROUND_INDEX) {
+            rightHandSide[outOf] -= current;
+        }
+    }
+
+    private double voltage(int node) {
+        return (node == Netlist.GROUND_INDEX) ? 0 : solution[node];
+    }
+
+    private void checkElement(int element) {
+        if (element < 0 || element >= elementCount) {
+            throw new IndexOutOfBoundsException("Element index " + element + " is not in range 0.."
+                    + (elementCount - 1));
+        }
+    }
+
+    /**
+     * @param element Capacitor or inductor index
+     * @return Voltage between the first and the second node of the element [ Volts ]
+     */
+    public double getElementVoltage(int element) {
+        checkElement(element);
+        if (!started) {
+            return 0;
+        }
+        return (elementKind[element] == CAPACITOR) ? states[0][element] : companion[element];
+    }
+
+    /**
+     * @param element Capacitor or inductor index
+     * @return Current through the element from its first node to the second one [ Amps ]
+     */
+    public double getElementCurrent(int element) {
+        checkElement(element);
+        if (!started) {
+            return 0;
+        }
+        return (elementKind[element] == CAPACITOR) ? companion[element] : states[0][element];
+    }
+
+    /**
+     * @param node Node name
+     * @return Node potential after the last step [ Volts ]
+     */
+    public double getVoltage(String node) {
+        return started ? voltage(netlist.getNodeIndex(node)) : 0;
+    }
+
+    /**
+     * @return Simulated time [ Seconds ]
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return Size of the next step [ Seconds ]
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * @return Count of probes, the length of values passed to the consumer
+     */
+    public int getProbeCount() {
+        return probeCount;
+    }
+
+    /**
+     * @return Count of accepted steps since the start
+     */
+    public long getAcceptedSteps() {
+        return acceptedSteps;
+    }
+
+    /**
+     * @return Count of steps rejected by the error control since the start
+     */
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    /**
+     * @return Count of numeric factorizations
+     */
+    public long getFactorizations() {
+        return factorizations;
+    }
+}
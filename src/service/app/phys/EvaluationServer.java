@@ -0,0 +1,651 @@
+package service.app.phys;
+
+import batch.app.phys.BatchSimulator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ohm.low.phys.CircuitState;
+import ohm.low.phys.DCPowerSupplyConnection;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import ohm.low.phys.metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP service evaluating circuits, every request runs on its own virtual thread when the runtime has them.
+ * <ul>
+ *     <li>GET /evaluate?emf=&amp;r=&amp;R= solves one circuit and returns its values as JSON object</li>
+ *     <li>GET /sweep?emf=&amp;r=&amp;from=&amp;to=&amp;points= streams CSV rows for uniformly changed R</li>
+ *     <li>POST /batch takes rows of the batch mode and streams their results as CSV</li>
+ * </ul>
+ * CSV output is the batch mode output, wrong rows and failures are reported by the trailing lines starting with '#'.
+ * Count of requests in work is limited by permits, requests waiting for a permit longer than the queue timeout
+ * are rejected with 503. Results are written as soon as the buffer is full and the writes block while the client
+ * does not read, so slow clients slow down only their own requests. Requests running longer than the request
+ * timeout are stopped at the next read or write, requests blocked on the client that long are cut off
+ * by the watchdog, which interrupts the blocked thread and so closes its connection
+ */
+public class EvaluationServer {
+    private static final String USAGE = "Usage: --serve [port]";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int MAX_CONCURRENT_REQUESTS =
+            Integer.getInteger("ohm.http.maxConcurrent", 4 * Runtime.getRuntime().availableProcessors());
+    private static final long QUEUE_TIMEOUT_MILLIS = Long.getLong("ohm.http.queueTimeoutMillis", 100);
+    private static final long REQUEST_TIMEOUT_MILLIS = Long.getLong("ohm.http.requestTimeoutMillis", 30_000);
+    private static final long MAX_BATCH_BYTES = Long.getLong("ohm.http.maxBatchBytes", 256L << 20);
+
+    private static final int BACKLOG = 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 << 10;
+    private static final int SWEEP_BUFFER_SIZE = 4 << 10;
+    private static final int MAX_ERROR_BYTES = 16 << 10;
+    private static final long MAX_SWEEP_POINTS = 100_000_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+    private final long requestTimeoutMillis;
+    private final long maxBatchBytes;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Creates stopped server with the batch size limit of the ohm.http.maxBatchBytes property.
+     * Short responses are delayed by Nagle's algorithm for about 40 ms unless the JVM is launched
+     * with -Dsun.net.httpserver.nodelay=true, the command line server sets it itself
+     * @param address Address to listen at, port 0 picks free port
+     * @param maxConcurrentRequests Max count of requests in work
+     * @param queueTimeoutMillis Max time to wait for the permit before rejection [ Milliseconds ]
+     * @param requestTimeoutMillis Max time of one request [ Milliseconds ]
+     * @throws IOException If address can not be bound
+     */
+    public EvaluationServer(InetSocketAddress address, int maxConcurrentRequests, long queueTimeoutMillis,
+                            long requestTimeoutMillis) throws IOException {
+        this(address, maxConcurrentRequests, queueTimeoutMillis, requestTimeoutMillis, MAX_BATCH_BYTES);
+    }
+
+    /**
+     * Creates stopped server
+     * @param address Address to listen at, port 0 picks free port
+     * @param maxConcurrentRequests Max count of requests in work
+     * @param queueTimeoutMillis Max time to wait for the permit before rejection [ Milliseconds ]
+     * @param requestTimeoutMillis Max time of one request [ Milliseconds ]
+     * @param maxBatchBytes Max size of the batch body, larger ones are rejected with 413 [ Bytes ]
+     * @throws IOException If address can not be bound
+     */
+    public EvaluationServer(InetSocketAddress address, int maxConcurrentRequests, long queueTimeoutMillis,
+                            long requestTimeoutMillis, long maxBatchBytes) throws IOException {
+        if (maxConcurrentRequests < 1 || queueTimeoutMillis < 0 || requestTimeoutMillis < 1 || maxBatchBytes < 0) {
+            throw new IllegalArgumentException("Wrong limits of the server");
+        }
+
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        permits = new Semaphore(maxConcurrentRequests);
+        executor = newExecutor(2 * maxConcurrentRequests);
+        watchdog = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "ohm-http-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/evaluate", exchange -> handle(exchange, "GET", this::evaluate));
+        server.createContext("/sweep", exchange -> handle(exchange, "GET", this::sweep));
+        server.createContext("/batch", exchange -> handle(exchange, "POST", this::batch));
+    }
+
+    /**
+     * Runs server from the command line on the loopback address until the process is stopped
+     * @param args Port to listen at
+     * @return Process exit code: 0 if server started, 2 if it failed
+     */
+    public static int run(String[] args) {
+        if (args.length > 1) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        int port;
+        try {
+            port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        // Headers and body of the short response go in separate writes, with Nagle's algorithm the body
+        // waits for the delayed acknowledgement of the headers. The property is read once by the first server
+        // of the JVM, so it is set here before the server is created rather than for every embedding application
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        EvaluationServer server;
+        try {
+            server = new EvaluationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    MAX_CONCURRENT_REQUESTS, QUEUE_TIMEOUT_MILLIS, REQUEST_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            System.err.println("Server failed: " + e.getMessage());
+            return 2;
+        }
+
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            System.err.println(server);
+            if (Metrics.ENABLED) {
+                System.err.print(Metrics.snapshot());
+            }
+        }));
+        System.err.println("Listening at http://" + server.getAddress().getHostString() + ":" + server.getPort());
+        return 0;
+    }
+
+    /**
+     * Virtual thread per task when the runtime has virtual threads, pool of platform threads otherwise.
+     * Pool does not queue tasks, when all its threads are busy the accepting thread runs the task itself
+     * and stops taking new connections until it is done
+     */
+    private static ExecutorService newExecutor(int maxPlatformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return new ThreadPoolExecutor(0, maxPlatformThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    task -> {
+                        Thread thread = new Thread(task, "ohm-http-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    /**
+     * Starts listening
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops listening and waits for the requests in work
+     * @param delaySeconds Max time to wait for the requests in work [ Seconds ]
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * @return Bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return Bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Count of handled requests
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return Count of requests rejected with 503
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return Count of requests which ran out of time
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationServer requests=" + getRequests() + " rejections=" + getRejections()
+                + " timeouts=" + getTimeouts();
+    }
+
+    private interface Endpoint {
+        void handle(HttpExchange exchange, long deadline) throws IOException, RequestException;
+    }
+
+    /**
+     * Request which can not be handled, it is answered with the status and the message
+     */
+    private static class RequestException extends Exception {
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendText(exchange, 405, "Method is not allowed");
+                return;
+            }
+            if (!acquire(Math.min(queueTimeoutMillis, requestTimeoutMillis))) {
+                rejections.increment();
+                if (Metrics.ENABLED) {
+                    Metrics.HTTP_REJECTIONS.increment();
+                }
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendText(exchange, 503, "Server is busy");
+                return;
+            }
+
+            Deadline timer = new Deadline(Thread.currentThread());
+            ScheduledFuture<?> expiry = watchdog.schedule(timer::expire, deadline - System.nanoTime(),
+                    TimeUnit.NANOSECONDS);
+            try {
+                endpoint.handle(exchange, deadline);
+            } catch (RequestException e) {
+                sendText(exchange, e.getStatus(), e.getMessage());
+            } catch (InterruptedByTimeoutException e) {
+                timeouts.increment();
+                if (Metrics.ENABLED) {
+                    Metrics.HTTP_TIMEOUTS.increment();
+                }
+                if (exchange.getResponseCode() < 0) {
+                    sendText(exchange, 503, "Request timed out");
+                } else {
+                    writeTrailer(exchange, "# error: request timed out after " + requestTimeoutMillis + " ms\n");
+                }
+            } catch (IOException e) {
+                if (timer.finish()) {
+                    timeouts.increment();
+                    if (Metrics.ENABLED) {
+                        Metrics.HTTP_TIMEOUTS.increment();
+                    }
+                }
+                throw e;
+            } finally {
+                timer.finish();
+                expiry.cancel(false);
+                permits.release();
+            }
+        } catch (IOException e) {
+            // Client went away, nothing to answer
+        } finally {
+            exchange.close();
+            requests.increment();
+            if (Metrics.ENABLED) {
+                Metrics.HTTP_REQUESTS.increment();
+                Metrics.HTTP_LATENCY.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private boolean acquire(long timeoutMillis) {
+        try {
+            return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void evaluate(HttpExchange exchange, long deadline) throws IOException, RequestException {
+        Map<String, String> query = parseQuery(exchange);
+        double emf = getDouble(query, "emf");
+        double internalResistance = getDouble(query, "r");
+        double externalResistance = getDouble(query, "R");
+
+        DCPowerSupplyConnection connection;
+        try {
+            connection = new DCPowerSupplyConnection(new DCPowerSupply(emf, new FixedResistor(internalResistance)),
+                    new FixedResistor(externalResistance));
+        } catch (WrongPhysicsParameterException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+
+        CircuitState state = connection.solve(new CircuitState());
+        StringBuilder json = new StringBuilder(512).append('{');
+        appendJson(json, "emf", emf);
+        appendJson(json, "r", internalResistance);
+        appendJson(json, "R", externalResistance);
+        appendJson(json, "current", state.getCurrent());
+        appendJson(json, "externalVoltage", state.getExternalResistorVoltage());
+        appendJson(json, "internalVoltage", state.getInternalResistorVoltage());
+        appendJson(json, "fullPower", state.getFullPower());
+        appendJson(json, "powerLoss", state.getPowerLoss());
+        appendJson(json, "externalPower", state.getExternalPower());
+        appendJson(json, "efficiency", connection.getEfficiency());
+        appendJson(json, "maxExternalPower", connection.getMaxExternalPower());
+        appendJson(json, "maxExternalPowerResistance", connection.getMaxExternalPowerResistance());
+        json.append("\"shortCircuit\":").append(state.isShortCircuit()).append('}');
+
+        send(exchange, 200, "application/json", json.toString());
+    }
+
+    /**
+     * Sweep is one sweep row of the batch mode, so it is streamed in constant memory for any count of points
+     */
+    private void sweep(HttpExchange exchange, long deadline) throws IOException, RequestException {
+        Map<String, String> query = parseQuery(exchange);
+        double emf = getDouble(query, "emf");
+        double internalResistance = getDouble(query, "r");
+        double fromResistance = getDouble(query, "from");
+        double toResistance = getDouble(query, "to");
+        double points = getDouble(query, "points");
+
+        try {
+            new DCPowerSupplyConnection(new DCPowerSupply(emf, new FixedResistor(internalResistance)),
+                    new FixedResistor(Math.min(fromResistance, toResistance)));
+        } catch (WrongPhysicsParameterException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+        if (!(points >= 1) || points != Math.rint(points) || points > MAX_SWEEP_POINTS) {
+            throw new RequestException(400, "points is not an integer in range 1.." + MAX_SWEEP_POINTS);
+        }
+
+        String row = emf + "," + internalResistance + "," + fromResistance + "," + toResistance + "," + (long) points;
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(row.getBytes(StandardCharsets.US_ASCII)));
+        stream(exchange, in, deadline, SWEEP_BUFFER_SIZE);
+    }
+
+    /**
+     * Request body is spooled to a temporary file before the first result is written.
+     * Most clients do not read the response until the whole request is sent, so writing results
+     * while the rows are still coming would block both sides as soon as the socket buffers are full
+     */
+    private void batch(HttpExchange exchange, long deadline) throws IOException, RequestException {
+        Path spool = Files.createTempFile("ohm-batch-", ".csv");
+        try {
+            try (ReadableByteChannel body = new DeadlineReadableChannel(
+                    Channels.newChannel(exchange.getRequestBody()), deadline);
+                 FileChannel file = FileChannel.open(spool, StandardOpenOption.WRITE)) {
+                long size = 0;
+                long count;
+                while ((count = file.transferFrom(body, size, STREAM_BUFFER_SIZE)) > 0) {
+                    size += count;
+                    if (size > maxBatchBytes) {
+                        throw new RequestException(413, "Batch is larger than " + maxBatchBytes + " bytes");
+                    }
+                }
+            }
+
+            try (FileChannel file = FileChannel.open(spool, StandardOpenOption.READ)) {
+                stream(exchange, file, deadline, STREAM_BUFFER_SIZE);
+            }
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Runs batch simulator between the channels, rows are written to the client as soon as the buffer is full
+     */
+    private void stream(HttpExchange exchange, ReadableByteChannel in, long deadline, int bufferSize)
+            throws IOException {
+        ByteArrayOutputStream errorBytes = new ByteArrayOutputStream();
+        PrintStream errors = new PrintStream(new LimitedOutputStream(errorBytes, MAX_ERROR_BYTES), false,
+                StandardCharsets.US_ASCII);
+        BatchSimulator simulator = new BatchSimulator(errors, bufferSize);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/csv");
+        exchange.sendResponseHeaders(200, 0);
+        simulator.run(new DeadlineReadableChannel(in, deadline),
+                new DeadlineWritableChannel(Channels.newChannel(exchange.getResponseBody()), deadline));
+
+        errors.flush();
+        StringBuilder trailer = new StringBuilder();
+        if (simulator.getErrorCount() > 0) {
+            trailer.append("# errors=").append(simulator.getErrorCount()).append('\n');
+            for (String line : errorBytes.toString(StandardCharsets.US_ASCII).split("\n")) {
+                if (!line.isEmpty()) {
+                    trailer.append("# ").append(line).append('\n');
+                }
+            }
+        }
+        writeTrailer(exchange, trailer.toString());
+    }
+
+    private static void writeTrailer(HttpExchange exchange, String text) throws IOException {
+        OutputStream body = exchange.getResponseBody();
+        body.write(text.getBytes(StandardCharsets.US_ASCII));
+        body.flush();
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        send(exchange, status, "text/plain", text + '\n');
+    }
+
+    private static void send(HttpExchange exchange, int status, String type, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    private static double getDouble(Map<String, String> query, String name) throws RequestException {
+        String text = query.get(name);
+        if (text == null) {
+            throw new RequestException(400, "Parameter " + name + " is missing");
+        }
+        double value;
+        try {
+            value = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Parameter " + name + " is not a number");
+        }
+        if (!Double.isFinite(value)) {
+            throw new RequestException(400, "Parameter " + name + " is not finite");
+        }
+        return value;
+    }
+
+    private static void appendJson(StringBuilder json, String name, double value) {
+        json.append('"').append(name).append("\":");
+        if (Double.isFinite(value)) {
+            json.append(value);
+        } else {
+            json.append("null");
+        }
+        json.append(',');
+    }
+
+    /**
+     * Interrupts the request thread blocked on the client at the deadline. Sockets of the exchange are
+     * interruptible channels, so the blocked read or write fails and the connection is closed
+     */
+    private static class Deadline {
+        private final Thread thread;
+        private boolean finished;
+        private boolean expired;
+
+        Deadline(Thread thread) {
+            this.thread = thread;
+        }
+
+        synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Stops the watch, the request thread is not interrupted after it
+         * @return true if the request thread was interrupted
+         */
+        synchronized boolean finish() {
+            if (!finished) {
+                finished = true;
+                if (expired) {
+                    Thread.interrupted();
+                }
+            }
+            return expired;
+        }
+    }
+
+    /**
+     * Fails reads after the deadline, the check is done once for every filled buffer
+     */
+    private static class DeadlineReadableChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+        private final long deadline;
+
+        DeadlineReadableChannel(ReadableByteChannel channel, long deadline) {
+            this.channel = channel;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new InterruptedByTimeoutException();
+            }
+            return channel.read(destination);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fails writes after the deadline, the check is done once for every flushed buffer
+     */
+    private static class DeadlineWritableChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+        private final long deadline;
+
+        DeadlineWritableChannel(WritableByteChannel channel, long deadline) {
+            this.channel = channel;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new InterruptedByTimeoutException();
+            }
+            return channel.write(source);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Keeps first bytes written to it and drops the rest, so a batch of wrong rows does not eat the memory
+     */
+    private static class LimitedOutputStream extends OutputStream {
+        private final OutputStream stream;
+        private long remaining;
+
+        LimitedOutputStream(OutputStream stream, long limit) {
+            this.stream = stream;
+            remaining = limit;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (remaining > 0) {
+                --remaining;
+                stream.write(value);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int count = (int) Math.min(length, remaining);
+            if (count > 0) {
+                remaining -= count;
+                stream.write(bytes, offset, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package service.app.phys;
+
+import ohm.low.phys.metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load test of the evaluation server: starts the server in this process,
+ * runs clients sending single evaluations for a fixed time, then sends one batch request.
+ * Reports p50/p99 latency and throughput of the evaluations and rows per second of the batch.
+ * Usage: java -Dsun.net.httpserver.nodelay=true -cp target/classes service.app.phys.LoadTest
+ * [clients [seconds [batchRows]]], without the flag every evaluation waits for the delayed acknowledgement
+ */
+public class LoadTest {
+    private static final int DEFAULT_CLIENTS = 64;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_BATCH_ROWS = 1_000_000;
+    private static final int WARMUP_SECONDS = 2;
+    private static final long NANOS_PER_MILLISECOND = 1_000_000;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final URI base;
+
+    private final LatencyHistogram latency = new LatencyHistogram("evaluate");
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private LoadTest(int port) {
+        base = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int batchRows = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_BATCH_ROWS;
+
+        EvaluationServer server = new EvaluationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                4 * Runtime.getRuntime().availableProcessors(), 100, 30_000);
+        server.start();
+        try {
+            LoadTest test = new LoadTest(server.getPort());
+            test.evaluate(clients, WARMUP_SECONDS);
+            test.reset();
+
+            long start = System.nanoTime();
+            test.evaluate(clients, seconds);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.println(test.report(elapsed));
+
+            if (batchRows > 0) {
+                System.out.println(test.batch(batchRows));
+            }
+            System.out.println(server);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Runs clients sending evaluations one after another for the given time
+     */
+    private void evaluate(int clients, int seconds) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; ++c) {
+            long seed = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() - end < 0) {
+                    evaluateOnce(random.nextDouble() * 100);
+                }
+                done.countDown();
+            }, "load-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+    }
+
+    private void evaluateOnce(double externalResistance) {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/evaluate?emf=12&r=1&R=" + externalResistance))
+                .GET().build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latency.record(System.nanoTime() - start);
+            if (response.statusCode() == 200) {
+                succeeded.increment();
+            } else if (response.statusCode() == 503) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        } catch (IOException e) {
+            failed.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reset() {
+        latency.reset();
+        succeeded.reset();
+        rejected.reset();
+        failed.reset();
+    }
+
+    private String report(double elapsedSeconds) {
+        return String.format("evaluate: %d ok, %d rejected, %d failed, %.0f requests/s, "
+                        + "p50=%.3f ms, p99=%.3f ms, max=%.3f ms",
+                succeeded.sum(), rejected.sum(), failed.sum(), succeeded.sum() / elapsedSeconds,
+                (double) latency.getPercentile(0.5) / NANOS_PER_MILLISECOND,
+                (double) latency.getPercentile(0.99) / NANOS_PER_MILLISECOND,
+                (double) latency.getMax() / NANOS_PER_MILLISECOND);
+    }
+
+    /**
+     * Sends one batch of single circuit rows and reads the streamed result line by line
+     */
+    private String batch(int rows) throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder(rows * 16);
+        Random random = new Random(0);
+        for (int i = 0; i < rows; ++i) {
+            body.append("12,1,").append(random.nextInt(100_000) / 1000.0).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.US_ASCII)).build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long firstByte = -1;
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.US_ASCII))) {
+            while (reader.readLine() != null) {
+                if (firstByte < 0) {
+                    firstByte = System.nanoTime() - start;
+                }
+                ++lines;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return String.format("batch: status %d, %d rows in %.3f s, %.0f rows/s, first line after %.3f ms",
+                response.statusCode(), lines - 1, elapsed, (lines - 1) / elapsed,
+                (double) firstByte / NANOS_PER_MILLISECOND);
+    }
+}
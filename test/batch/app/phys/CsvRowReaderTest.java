@@ -0,0 +1,34 @@
+package batch.app.phys;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowReaderTest {
+    @Test
+    void onlyFirstLineHeaderIsSkipped() throws IOException {
+        String input = "emf,r,R\n# comment\n\n12,1,10\nabc,1,2\nNaN,1,2\nInfinity,1,2\n";
+        CsvRowReader reader = new CsvRowReader(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), 64);
+        double[] fields = new double[3];
+
+        assertEquals(3, reader.readRow(fields));
+        assertEquals(4, reader.getLine());
+        assertFalse(reader.isMalformed());
+        assertEquals(12, fields[0]);
+
+        for (long line = 5; line <= 7; ++line) {
+            assertEquals(3, reader.readRow(fields));
+            assertEquals(line, reader.getLine());
+            assertTrue(reader.isMalformed());
+        }
+        assertEquals(-1, reader.readRow(fields));
+    }
+}
@@ -0,0 +1,53 @@
+package batch.app.phys;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvRowWriterTest {
+    @Test
+    void partialWritesAreContinued() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvRowWriter writer = new CsvRowWriter(new TrickleChannel(out), 256, 3);
+        writer.writeLine("emf,r,R");
+        writer.writeRow(new double[] {12, 1, 10}, 3);
+        writer.writeLine("# end");
+        writer.flush();
+        assertEquals("emf,r,R\n12,1,10\n# end\n", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Writes at most 3 bytes per call, like a non-blocking channel with a full socket buffer
+     */
+    private static class TrickleChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream out;
+
+        TrickleChannel(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = Math.min(3, source.remaining());
+            for (int i = 0; i < count; ++i) {
+                out.write(source.get());
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
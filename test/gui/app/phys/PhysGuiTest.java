@@ -0,0 +1,21 @@
+package gui.app.phys;
+
+import ohm.low.phys.SweepPrecision;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhysGuiTest {
+    @Test
+    void parsesPrecision() {
+        assertEquals(SweepPrecision.DOUBLE, PhysGui.parsePrecision(null));
+        assertEquals(SweepPrecision.FLOAT, PhysGui.parsePrecision("FLOAT"));
+        assertEquals(SweepPrecision.QUANTIZED, PhysGui.parsePrecision(" quantized "));
+    }
+
+    @Test
+    void unknownPrecisionFallsBackToDouble() {
+        assertEquals(SweepPrecision.DOUBLE, PhysGui.parsePrecision("FLAOT"));
+        assertEquals(SweepPrecision.DOUBLE, PhysGui.parsePrecision(""));
+    }
+}
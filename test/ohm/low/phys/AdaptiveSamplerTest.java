@@ -0,0 +1,30 @@
+package ohm.low.phys;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveSamplerTest {
+    @Test
+    void sweepDoesNotExceedMaxPoints() {
+        for (int maxPoints = 33; maxPoints <= 200; ++maxPoints) {
+            AdaptiveSampler sampler = new AdaptiveSampler(1e-9, maxPoints);
+            CircuitSweep sweep = sampler.sample(12, 0.5, 0, 1000);
+            assertTrue(sweep.getSize() <= maxPoints, "Sweep of " + sweep.getSize() + " points, max " + maxPoints);
+            assertTrue(sampler.isBudgetExhausted());
+            assertTrue(sampler.getErrorBound() > sampler.getTolerance());
+        }
+    }
+
+    @Test
+    void sweepWithinBudgetMeetsTolerance() {
+        AdaptiveSampler sampler = new AdaptiveSampler(1e-3, 40_000);
+        CircuitSweep sweep = sampler.sample(12, 0.5, 0, 1000);
+        assertFalse(sampler.isBudgetExhausted());
+        assertTrue(sampler.getErrorBound() <= sampler.getTolerance());
+        assertEquals(0, sweep.getResistance()[0]);
+        assertEquals(1000, sweep.getResistance()[sweep.getSize() - 1]);
+    }
+}
@@ -0,0 +1,163 @@
+package ohm.low.phys;
+
+import com.sun.management.ThreadMXBean;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import ohm.low.phys.base.Potentiometer;
+import ohm.low.phys.base.ResistorConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Primitive solve path must not allocate once it is compiled,
+ * allocated bytes of the thread are measured around a warmed loop.
+ * Closed form inverses give back the target when the found resistance is solved
+ */
+class DCPowerSupplyConnectionTest {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int LOOP = 100_000;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final CircuitState state = new CircuitState();
+    private DCPowerSupplyConnection circuit;
+    private Potentiometer potentiometer;
+    private double sink;
+
+    @BeforeEach
+    void setUp() throws WrongPhysicsParameterException {
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "Allocated memory of threads is not measured");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        potentiometer = new Potentiometer(100);
+        circuit = new DCPowerSupplyConnection(new DCPowerSupply(12, new FixedResistor(2)), potentiometer);
+    }
+
+    @Test
+    void solveFillsState() throws WrongPhysicsParameterException {
+        potentiometer.setPosition(40);
+        circuit.solve(state);
+        assertEquals(circuit.getCurrent(), state.getCurrent(), 0);
+        assertEquals(circuit.getExternalResistorVoltage(), state.getExternalResistorVoltage(), 1e-12);
+        assertEquals(circuit.getInternalResistorVoltage(), state.getInternalResistorVoltage(), 1e-12);
+        assertEquals(circuit.getFullPower(), state.getFullPower(), 1e-12);
+        assertEquals(circuit.getPowerLoss(), state.getPowerLoss(), 1e-12);
+        assertEquals(circuit.getExternalPower(), state.getExternalPower(), 1e-12);
+    }
+
+    @Test
+    void resistanceForCurrentAndVoltage() throws WrongPhysicsParameterException {
+        assertEquals(4, circuit.getResistanceForCurrent(2), 1e-12);
+        assertEquals(0, circuit.getResistanceForCurrent(6), 0);
+        assertEquals(10, circuit.getResistanceForVoltage(10), 1e-12);
+        assertEquals(0, circuit.getResistanceForVoltage(0), 0);
+        assertEquals(Double.POSITIVE_INFINITY, circuit.getResistanceForVoltage(12), 0);
+        assertEquals(4, circuit.getResistanceForEfficiency(2.0 / 3), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY, circuit.getResistanceForEfficiency(1), 0);
+    }
+
+    @Test
+    void resistanceForPowerHasTwoRoots() throws WrongPhysicsParameterException {
+        double power = 10;
+        double high = circuit.getResistanceForPower(power, true);
+        double low = circuit.getResistanceForPower(power, false);
+        assertTrue(low < 2 && high > 2);
+        assertEquals(4, low * high, 1e-12);
+        assertEquals(power, externalPower(high), 1e-12);
+        assertEquals(power, externalPower(low), 1e-12);
+
+        // Max power 18 W at R = r is the double root
+        assertEquals(2, circuit.getResistanceForPower(18, true), 1e-12);
+        assertEquals(2, circuit.getResistanceForPower(18, false), 1e-12);
+    }
+
+    @Test
+    void resistanceOfIdealSupply() throws WrongPhysicsParameterException {
+        DCPowerSupplyConnection ideal = new DCPowerSupplyConnection(new DCPowerSupply(12, new FixedResistor(0)),
+                new FixedResistor(1));
+        assertEquals(4, ideal.getResistanceForCurrent(3), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY, ideal.getResistanceForVoltage(12), 0);
+        assertEquals(14.4, ideal.getResistanceForPower(10, true), 1e-12);
+        assertEquals(14.4, ideal.getResistanceForPower(10, false), 1e-12);
+        assertThrows(WrongPhysicsParameterException.class, () -> ideal.getResistanceForVoltage(6));
+    }
+
+    @Test
+    void unreachableTargetsThrow() {
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForCurrent(0));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForCurrent(7));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForVoltage(-1));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForVoltage(13));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForPower(0, true));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForPower(18.5, true));
+        assertThrows(WrongPhysicsParameterException.class, () -> circuit.getResistanceForEfficiency(1.5));
+        assertThrows(WrongPhysicsParameterException.class,
+                () -> circuit.findResistance(SweepColumn.CURRENT, 7, 0, 1000));
+        assertThrows(WrongPhysicsParameterException.class,
+                () -> circuit.findResistance(SweepColumn.EXTERNAL_POWER, 10, 3, 8));
+    }
+
+    @Test
+    void findResistanceAgreesWithClosedForms() throws WrongPhysicsParameterException {
+        assertEquals(circuit.getResistanceForCurrent(0.5),
+                circuit.findResistance(SweepColumn.CURRENT, 0.5, 0, 1000), 1e-9);
+        assertEquals(circuit.getResistanceForVoltage(9),
+                circuit.findResistance(SweepColumn.EXTERNAL_VOLTAGE, 9, 0, 1000), 1e-9);
+        assertEquals(circuit.getResistanceForPower(10, true),
+                circuit.findResistance(SweepColumn.EXTERNAL_POWER, 10, 2, 1000), 1e-9);
+        assertEquals(circuit.getResistanceForPower(10, false),
+                circuit.findResistance(SweepColumn.EXTERNAL_POWER, 10, 0, 2), 1e-9);
+    }
+
+    @Test
+    void solveDoesNotAllocate() {
+        assertEquals(0, allocatedBytes(this::solveLoop));
+    }
+
+    @Test
+    void resistanceConnectionsDoNotAllocate() {
+        assertEquals(0, allocatedBytes(this::resistanceLoop));
+    }
+
+    private double externalPower(double resistance) {
+        return new CircuitState().solve(12, 2, resistance).getExternalPower();
+    }
+
+    /**
+     * @return Bytes allocated by the last of the warmup rounds of the loop
+     */
+    private long allocatedBytes(Runnable loop) {
+        long threadId = Thread.currentThread().getId();
+        long allocated = -1;
+        for (int round = 0; round < WARMUP_ROUNDS; ++round) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            loop.run();
+            allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            if (allocated == 0) {
+                break;
+            }
+        }
+        return allocated;
+    }
+
+    private void solveLoop() {
+        double sum = 0;
+        for (int i = 0; i < LOOP; ++i) {
+            sum += circuit.solve(state).getExternalPower();
+        }
+        sink += sum;
+    }
+
+    private void resistanceLoop() {
+        double sum = 0;
+        for (int i = 0; i < LOOP; ++i) {
+            sum += ResistorConnection.SeriesResistance(i, 2) + ResistorConnection.ParallelResistance(i, 2);
+        }
+        sink += sum;
+    }
+}
@@ -0,0 +1,70 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.Diode;
+import ohm.low.phys.base.ThermalResistor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sweeps start every point from the extrapolation of two previous ones, so dense sweeps
+ * take few iterations, points past thermal runaway are reported as failed
+ */
+class OperatingPointSolverTest {
+    private static final int POINTS = 10_000;
+
+    @Test
+    void diodeSweepTakesFewIterations() throws WrongPhysicsParameterException {
+        Diode diode = new Diode(1e-12, 1);
+        double[] voltage = new double[POINTS];
+        double[] current = new double[POINTS];
+        OperatingPointSolver.Statistics statistics =
+                new OperatingPointSolver(diode).sweepEmf(100, 0, 10, voltage, current);
+
+        assertEquals(POINTS, statistics.getPoints());
+        assertEquals(0, statistics.getFailedPoints(), statistics.toString());
+        assertTrue(statistics.getMaxIterations() <= 3, statistics.toString());
+        assertTrue(statistics.getMeanIterations() < 2.5, statistics.toString());
+        for (int i = 0; i < POINTS; ++i) {
+            double emf = 10.0 * i / (POINTS - 1);
+            assertEquals(current[i], diode.getCurrentIfVoltage(voltage[i]), 1e-15);
+            assertEquals(emf, voltage[i] + 100 * current[i], 1e-9);
+        }
+    }
+
+    @Test
+    void thermalRunawayPointsFail() throws WrongPhysicsParameterException {
+        // Runaway starts at the element voltage R / (2 * sqrt(R * |alpha| * Rth)) = 11.18 V
+        ThermalResistor resistor = new ThermalResistor(100, -0.004, 50);
+        double[] voltage = new double[POINTS];
+        double[] current = new double[POINTS];
+        OperatingPointSolver.Statistics statistics =
+                new OperatingPointSolver(resistor).sweepEmf(10, 0, 40, voltage, current);
+
+        assertTrue(statistics.getFailedPoints() > 0, statistics.toString());
+        assertFalse(Double.isNaN(voltage[0]));
+        assertTrue(Double.isNaN(voltage[POINTS - 1]));
+        assertTrue(Double.isNaN(current[POINTS - 1]));
+        int failed = 0;
+        for (int i = 0; i < POINTS; ++i) {
+            assertEquals(Double.isNaN(voltage[i]), Double.isNaN(current[i]));
+            if (Double.isNaN(voltage[i])) {
+                ++failed;
+            } else {
+                assertTrue(voltage[i] <= 11.19, "Operating point past runaway at " + voltage[i] + " V");
+            }
+        }
+        assertEquals(statistics.getFailedPoints(), failed);
+    }
+
+    @Test
+    void solvePastRunawayThrows() throws WrongPhysicsParameterException {
+        OperatingPointSolver solver = new OperatingPointSolver(new ThermalResistor(100, -0.004, 50));
+        assertThrows(IllegalPhysicsSystemStateException.class, () -> solver.solve(40, 10, new CircuitState()));
+    }
+}
@@ -0,0 +1,26 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParameterGridSweepTest {
+    @Test
+    void cancelBeforeStartIsHonoured() throws WrongPhysicsParameterException {
+        ParameterGridSweep sweep = new ParameterGridSweep(ParameterGridSweep.axis(1, 10, 10),
+                ParameterGridSweep.axis(0, 5, 10), ParameterGridSweep.axis(0, 100, 1000));
+        GridSweepBuffers buffers = sweep.createBuffers(SweepColumn.CURRENT);
+
+        sweep.cancel();
+        assertFalse(sweep.calculate(buffers, null));
+        assertTrue(sweep.isCancelled());
+        assertEquals(0, sweep.getDone());
+
+        assertTrue(sweep.calculate(buffers, null));
+        assertFalse(sweep.isCancelled());
+        assertEquals(sweep.getSize(), sweep.getDone());
+    }
+}
@@ -0,0 +1,54 @@
+package ohm.low.phys;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RootFinderTest {
+    @Test
+    void findsRootsOfSmoothFunctions() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        assertEquals(Math.sqrt(2), RootFinder.brent(x -> x * x - 2, 0, 2, 1e-14), 1e-14);
+        assertEquals(Math.sqrt(2), RootFinder.brent(x -> x * x - 2, 2, 0, 1e-14), 1e-14);
+        assertEquals(Math.PI, RootFinder.brent(Math::sin, 3, 4, 1e-14), 1e-14);
+        assertEquals(Math.log(5), RootFinder.brent(x -> Math.exp(x) - 5, -10, 10, 1e-12), 1e-12);
+    }
+
+    @Test
+    void returnsRootAtBracketEnd() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        assertEquals(1, RootFinder.brent(x -> x - 1, 1, 5, 1e-12), 0);
+        assertEquals(5, RootFinder.brent(x -> x - 5, 1, 5, 1e-12), 0);
+    }
+
+    @Test
+    void convergesOnSteepFunctionInFewEvaluations()
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        int[] evaluations = new int[1];
+        double root = RootFinder.brent(x -> {
+            ++evaluations[0];
+            return Math.pow(x, 9) - 1e-9;
+        }, 0, 1, 1e-15);
+        assertEquals(0.1, root, 1e-14);
+        assertTrue(evaluations[0] < 100, evaluations[0] + " evaluations");
+    }
+
+    @Test
+    void failsWithoutSignChange() {
+        assertThrows(WrongPhysicsParameterException.class, () -> RootFinder.brent(x -> x * x + 1, -1, 1, 1e-12));
+    }
+
+    @Test
+    void failsWhenFunctionIsUndefined() {
+        assertThrows(IllegalPhysicsSystemStateException.class,
+                () -> RootFinder.brent(x -> (x > 0.3 && x < 0.7) ? Double.NaN : x - 0.5, 0, 1, 1e-12));
+    }
+
+    @Test
+    void failsWhenIterationsRunOut() {
+        assertThrows(IllegalPhysicsSystemStateException.class,
+                () -> RootFinder.brent(x -> Math.pow(x, 9) - 1e-9, 0, 1, 1e-15, 2));
+    }
+}
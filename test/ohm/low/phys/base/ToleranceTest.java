@@ -0,0 +1,41 @@
+package ohm.low.phys.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToleranceTest {
+    @Test
+    void narrowTruncatedNormalStaysInLimit() {
+        Tolerance tolerance = Tolerance.truncatedNormal(1, 1e-9);
+        SplittableRandom random = new SplittableRandom(1);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int k = 0; k < 100_000; ++k) {
+                double value = tolerance.sample(100, random);
+                assertTrue(Math.abs(value - 100) <= 100 * 1e-9, "Sample " + value + " out of the limit");
+            }
+        });
+    }
+
+    @Test
+    void wideTruncatedNormalStaysInLimit() {
+        Tolerance tolerance = Tolerance.truncatedNormal(0.05, 0.1);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int k = 0; k < 100_000; ++k) {
+            double value = tolerance.sample(1, random);
+            assertTrue(Math.abs(value - 1) <= 0.1, "Sample " + value + " out of the limit");
+        }
+    }
+
+    @Test
+    void nullToleranceIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ResistorSnapshot(1, null));
+        assertThrows(IllegalArgumentException.class, () -> new FixedResistor(1, null));
+        assertThrows(IllegalArgumentException.class, () -> new Potentiometer(1).setTolerance(null));
+    }
+}
@@ -0,0 +1,111 @@
+package ohm.low.phys.io;
+
+import ohm.low.phys.SweepColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SweepFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenValuesAreReadBack() throws IOException {
+        Path path = directory.resolve("sweep.bin");
+        int rows = 1000;
+        try (SweepFileWriter writer = new SweepFileWriter(path, rows, 12, 2,
+                SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT)) {
+            double[] resistance = new double[rows];
+            for (int i = 0; i < rows; ++i) {
+                resistance[i] = i;
+            }
+            writer.write(SweepColumn.EXTERNAL_RESISTANCE, 0, resistance, 0, rows);
+            for (int i = 0; i < rows; ++i) {
+                writer.set(SweepColumn.CURRENT, i, 12 / (2.0 + i));
+            }
+        }
+
+        try (SweepFile file = new SweepFile(path)) {
+            assertEquals(rows, file.getRowCount());
+            assertEquals(12, file.getEmf());
+            assertEquals(2, file.getInternalResistance());
+            assertArrayEquals(new SweepColumn[] {SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT},
+                    file.getColumns());
+            assertTrue(file.hasColumn(SweepColumn.CURRENT));
+            assertFalse(file.hasColumn(SweepColumn.FULL_POWER));
+
+            assertEquals(12 / 502.0, file.get(SweepColumn.CURRENT, 500));
+            double[] values = new double[12];
+            file.read(SweepColumn.EXTERNAL_RESISTANCE, 990, values, 2, 10);
+            for (int i = 0; i < 10; ++i) {
+                assertEquals(990 + i, values[2 + i]);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> file.get(SweepColumn.CURRENT, rows));
+            assertThrows(IllegalArgumentException.class, () -> file.get(SweepColumn.FULL_POWER, 0));
+        }
+    }
+
+    @Test
+    void decimationKeepsPeaks() throws IOException {
+        Path path = directory.resolve("peaks.bin");
+        int rows = 10_000;
+        try (SweepFileWriter writer = new SweepFileWriter(path, rows, 1, 0,
+                SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT)) {
+            for (int i = 0; i < rows; ++i) {
+                writer.set(SweepColumn.EXTERNAL_RESISTANCE, i, i);
+                writer.set(SweepColumn.CURRENT, i, (i == 4321) ? 100 : (i == 8765) ? -100 : 0);
+            }
+        }
+
+        try (SweepFile file = new SweepFile(path)) {
+            double[] x = new double[100];
+            double[] y = new double[100];
+            int count = file.decimate(SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT, 0, rows, x, y);
+            assertTrue(count <= 100);
+            boolean max = false;
+            boolean min = false;
+            for (int i = 0; i < count; ++i) {
+                max |= x[i] == 4321 && y[i] == 100;
+                min |= x[i] == 8765 && y[i] == -100;
+                if (i > 0) {
+                    assertTrue(x[i] > x[i - 1], "Points are not in the row order");
+                }
+            }
+            assertTrue(max && min, "Peaks are lost");
+
+            assertEquals(50, file.decimate(SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT, 100, 150, x, y));
+            assertEquals(100, x[0]);
+            assertEquals(149, x[49]);
+        }
+    }
+
+    @Test
+    void uniformSweepIsWritten() throws IOException {
+        Path path = directory.resolve("uniform.bin");
+        SweepFileWriter.writeUniform(path, 10, 1, 0, 100, 100, SweepColumn.EXTERNAL_RESISTANCE, SweepColumn.CURRENT);
+        try (SweepFile file = new SweepFile(path)) {
+            assertEquals(100, file.getRowCount());
+            assertEquals(42, file.get(SweepColumn.EXTERNAL_RESISTANCE, 42), 1e-12);
+            assertEquals(10 / 43.0, file.get(SweepColumn.CURRENT, 42), 1e-12);
+        }
+    }
+
+    @Test
+    void emptySweepIsOpened() throws IOException {
+        Path path = directory.resolve("empty.bin");
+        new SweepFileWriter(path, 0, 1, 0, SweepColumn.CURRENT, SweepColumn.FULL_POWER).close();
+        try (SweepFile file = new SweepFile(path)) {
+            assertEquals(0, file.getRowCount());
+            assertEquals(0, file.decimate(SweepColumn.CURRENT, SweepColumn.FULL_POWER, 0, 0,
+                    new double[4], new double[4]));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+
+/**
+ * Potentials of the grid nodes by the direct solver of the same network
+ */
+final class GridReference {
+    private GridReference() {
+    }
+
+    static double[] solve(ResistorGrid grid) throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        double[] horizontal = grid.getHorizontal();
+        double[] vertical = grid.getVertical();
+        double[] ground = grid.getGround();
+        double[] injected = grid.getInjectedCurrent();
+        double[] fixed = grid.getFixedVoltage();
+
+        Netlist netlist = new Netlist();
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                int node = grid.node(row, col);
+                String name = name(grid, row, col);
+                if (col < cols - 1 && horizontal[node - row] > 0) {
+                    netlist.addResistor(name, name(grid, row, col + 1), new FixedResistor(1 / horizontal[node - row]));
+                }
+                if (row < rows - 1 && vertical[node] > 0) {
+                    netlist.addResistor(name, name(grid, row + 1, col), new FixedResistor(1 / vertical[node]));
+                }
+                if (ground[node] > 0) {
+                    netlist.addResistor(name, Netlist.GROUND, new FixedResistor(1 / ground[node]));
+                }
+                if (injected[node] != 0) {
+                    netlist.addCurrentSource(Netlist.GROUND, name, injected[node]);
+                }
+                if (!Double.isNaN(fixed[node]) && fixed[node] != 0) {
+                    netlist.addPowerSupply(name, Netlist.GROUND, new DCPowerSupply(fixed[node], new FixedResistor(0)));
+                }
+            }
+        }
+
+        NetworkSolution solution = new NetworkSolver(netlist).solve();
+        double[] voltages = new double[grid.getNodeCount()];
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                String name = name(grid, row, col);
+                voltages[grid.node(row, col)] = name.equals(Netlist.GROUND) ? 0 : solution.getVoltage(name);
+            }
+        }
+        return voltages;
+    }
+
+    static double maxDifference(double[] expected, double[] actual) {
+        double max = 0;
+        for (int i = 0; i < expected.length; ++i) {
+            max = Math.max(max, Math.abs(expected[i] - actual[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Nodes fixed at zero potential are the ground itself, so they need no power supply
+     */
+    private static String name(ResistorGrid grid, int row, int col) {
+        return (grid.getFixedVoltage()[grid.node(row, col)] == 0) ? Netlist.GROUND : row + ":" + col;
+    }
+}
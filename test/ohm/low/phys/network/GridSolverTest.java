@@ -0,0 +1,39 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridSolverTest {
+    private static final double VOLTAGE_TOLERANCE = 1e-8;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 1e6})
+    void meshMatchesNetworkSolver(double resistance)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        ResistorGrid grid = ResistorGrid.mesh(30, 30, resistance);
+        grid.fixVoltage(0, 0, 1);
+        grid.fixVoltage(29, 29, 0);
+        assertMatches(grid);
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 1e6})
+    void ladderMatchesNetworkSolver(double resistance)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        ResistorGrid grid = ResistorGrid.ladder(200, resistance, 50 * resistance);
+        grid.fixVoltage(0, 0, 1);
+        assertMatches(grid);
+    }
+
+    private static void assertMatches(ResistorGrid grid)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        GridSolver solver = new GridSolver(grid);
+        solver.solve();
+        double error = GridReference.maxDifference(GridReference.solve(grid), solver.getVoltages());
+        assertTrue(error < VOLTAGE_TOLERANCE, "Potentials differ by " + error + " V");
+    }
+}
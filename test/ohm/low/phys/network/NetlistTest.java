@@ -0,0 +1,29 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.Potentiometer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NetlistTest {
+    @Test
+    void closedNetlistStopsListening() throws WrongPhysicsParameterException {
+        Potentiometer shared = new Potentiometer(100);
+        Netlist first = new Netlist();
+        Netlist second = new Netlist();
+        first.addResistor("a", Netlist.GROUND, shared);
+        second.addResistor("a", Netlist.GROUND, shared);
+
+        shared.setResistance(10);
+        assertEquals(1, first.getChangedCount());
+        assertEquals(1, second.getChangedCount());
+
+        first.clearChanged();
+        second.clearChanged();
+        first.close();
+        shared.setResistance(20);
+        assertEquals(0, first.getChangedCount());
+        assertEquals(1, second.getChangedCount());
+    }
+}
@@ -0,0 +1,24 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NodalAssemblyTest {
+    @Test
+    void dividerWithIdealSupply()
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        Netlist netlist = new Netlist();
+        netlist.addPowerSupply("in", Netlist.GROUND, new DCPowerSupply(10, new FixedResistor(0)));
+        netlist.addResistor("in", "a", new FixedResistor(100));
+        netlist.addResistor("a", Netlist.GROUND, new FixedResistor(100));
+
+        NetworkSolution solution = new NetworkSolver(netlist).solve();
+        assertEquals(10, solution.getVoltage("in"), 1e-9);
+        assertEquals(5, solution.getVoltage("a"), 1e-9);
+    }
+}
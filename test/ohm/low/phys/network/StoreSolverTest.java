@@ -0,0 +1,125 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreSolverTest {
+    private static final double VOLTAGE_TOLERANCE = 1e-8;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 1e6})
+    void meshMatchesNetworkSolver(double resistance)
+            throws IOException, WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        ResistorGrid grid = ResistorGrid.mesh(20, 20, resistance);
+        grid.fixVoltage(0, 0, 1);
+        grid.fixVoltage(19, 19, 0);
+        try (ResistorStore store = copy(grid, ResistorStore.allocate(grid.getNodeCount(), elementCount(grid)))) {
+            assertMatches(grid, store);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 1e6})
+    void ladderMatchesNetworkSolver(double resistance)
+            throws IOException, WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        ResistorGrid grid = ResistorGrid.ladder(100, resistance, 50 * resistance);
+        grid.fixVoltage(0, 0, 1);
+        grid.setInjectedCurrent(0, 50, 1e-3 / resistance);
+        try (ResistorStore store = copy(grid, ResistorStore.allocate(grid.getNodeCount(), elementCount(grid)))) {
+            assertMatches(grid, store);
+        }
+    }
+
+    @Test
+    void fileStoreIsOpenedAgain(@TempDir Path directory)
+            throws IOException, WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        ResistorGrid grid = ResistorGrid.mesh(10, 10, 1e3);
+        grid.fixVoltage(0, 0, 5);
+        grid.fixVoltage(9, 9, 0);
+        Path file = directory.resolve("mesh.ohm");
+        try (ResistorStore store = ResistorStore.create(file, grid.getNodeCount(), elementCount(grid))) {
+            copy(grid, store);
+            assertTrue(store.isMapped());
+            store.force();
+        }
+
+        try (ResistorStore store = ResistorStore.open(file, false)) {
+            assertEquals(grid.getNodeCount(), store.getNodeCount());
+            assertEquals(elementCount(grid), store.getResistorCount());
+            assertEquals(5, store.getFixedVoltage(0));
+            assertTrue(Double.isNaN(store.getFixedVoltage(1)));
+            assertEquals(1e3, store.getResistance(0), 1e-9);
+            assertMatches(grid, store);
+        }
+    }
+
+    @Test
+    void unconnectedFixedNodeKeepsItsVoltage() throws IOException, IllegalPhysicsSystemStateException {
+        try (ResistorStore store = ResistorStore.allocate(2, 1)) {
+            store.fixVoltage(0, 3);
+            StoreSolver solver = new StoreSolver(store);
+            solver.solve();
+            assertEquals(3, solver.getVoltage(0));
+            assertEquals(0, solver.getVoltage(1));
+            assertEquals(0, solver.getRelativeResidual());
+        }
+    }
+
+    private static void assertMatches(ResistorGrid grid, ResistorStore store)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        StoreSolver solver = new StoreSolver(store);
+        solver.solve();
+        double[] voltages = new double[store.getNodeCount()];
+        for (int node = 0; node < voltages.length; ++node) {
+            voltages[node] = solver.getVoltage(node);
+        }
+        double error = GridReference.maxDifference(GridReference.solve(grid), voltages);
+        assertTrue(error < VOLTAGE_TOLERANCE, "Potentials differ by " + error + " V");
+    }
+
+    private static long elementCount(ResistorGrid grid) {
+        return grid.getHorizontal().length + grid.getVertical().length + grid.getGround().length;
+    }
+
+    /**
+     * Copies elements and sources of the grid, store nodes are the grid nodes
+     */
+    private static ResistorStore copy(ResistorGrid grid, ResistorStore store) throws WrongPhysicsParameterException {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        double[] horizontal = grid.getHorizontal();
+        double[] vertical = grid.getVertical();
+        double[] ground = grid.getGround();
+        long element = 0;
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                int node = grid.node(row, col);
+                if (col < cols - 1 && horizontal[node - row] > 0) {
+                    store.setResistor(element++, node, node + 1, 1 / horizontal[node - row]);
+                }
+                if (row < rows - 1 && vertical[node] > 0) {
+                    store.setResistor(element++, node, node + cols, 1 / vertical[node]);
+                }
+                if (ground[node] > 0) {
+                    store.setResistor(element++, node, ResistorStore.GROUND, 1 / ground[node]);
+                }
+                double fixed = grid.getFixedVoltage()[node];
+                if (!Double.isNaN(fixed)) {
+                    store.fixVoltage(node, fixed);
+                }
+                store.setInjectedCurrent(node, grid.getInjectedCurrent()[node]);
+            }
+        }
+        return store;
+    }
+}
@@ -0,0 +1,73 @@
+package ohm.low.phys.network;
+
+import ohm.low.phys.Exception.IllegalPhysicsSystemStateException;
+import ohm.low.phys.Exception.WrongPhysicsParameterException;
+import ohm.low.phys.base.Capacitor;
+import ohm.low.phys.base.DCPowerSupply;
+import ohm.low.phys.base.FixedResistor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransientSolverTest {
+    private static final double RESISTANCE = 1000;
+    private static final double CAPACITANCE = 1e-6;
+    private static final double TIME_CONSTANT = RESISTANCE * CAPACITANCE;
+    private static final double EXPECTED = 1 - Math.exp(-1);
+
+    @Test
+    void backwardEulerIsFirstOrder() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        double coarse = chargeError(IntegrationMethod.BACKWARD_EULER, TIME_CONSTANT / 100);
+        double fine = chargeError(IntegrationMethod.BACKWARD_EULER, TIME_CONSTANT / 200);
+        assertTrue(coarse < 3e-3, "Error " + coarse);
+        assertEquals(2, coarse / fine, 0.1);
+    }
+
+    @Test
+    void trapezoidalIsSecondOrder() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        double coarse = chargeError(IntegrationMethod.TRAPEZOIDAL, TIME_CONSTANT / 100);
+        double fine = chargeError(IntegrationMethod.TRAPEZOIDAL, TIME_CONSTANT / 200);
+        assertTrue(coarse < 3e-5, "Error " + coarse);
+        assertEquals(4, coarse / fine, 0.4);
+    }
+
+    @Test
+    void adaptiveStepKeepsTolerance() throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        TransientSolver solver = chargingCircuit();
+        solver.setAdaptiveStep(TIME_CONSTANT / 1000, TIME_CONSTANT / 1e6, TIME_CONSTANT, 1e-6, 1e-9);
+        solver.run(TIME_CONSTANT, null);
+
+        assertEquals(TIME_CONSTANT, solver.getTime(), TIME_CONSTANT * 1e-9);
+        assertEquals(EXPECTED, solver.getVoltage("out"), 1e-4);
+        assertTrue(solver.getAcceptedSteps() < 1000, "Steps " + solver.getAcceptedSteps());
+        assertTrue(solver.getStep() > TIME_CONSTANT / 1000, "Step did not grow");
+
+        solver.run(20 * TIME_CONSTANT, null);
+        assertEquals(1, solver.getVoltage("out"), 1e-4);
+    }
+
+    /**
+     * @return Difference of the capacitor voltage after one time constant from 1 - 1 / e [ Volts ]
+     */
+    private static double chargeError(IntegrationMethod method, double step)
+            throws WrongPhysicsParameterException, IllegalPhysicsSystemStateException {
+        TransientSolver solver = chargingCircuit();
+        solver.setMethod(method);
+        solver.setFixedStep(step);
+        solver.run(TIME_CONSTANT, null);
+        return Math.abs(solver.getVoltage("out") - EXPECTED);
+    }
+
+    /**
+     * 1 V supply charging the capacitor through the resistor from zero
+     */
+    private static TransientSolver chargingCircuit() throws WrongPhysicsParameterException {
+        Netlist netlist = new Netlist();
+        netlist.addPowerSupply("in", Netlist.GROUND, new DCPowerSupply(1, new FixedResistor(0)));
+        netlist.addResistor("in", "out", new FixedResistor(RESISTANCE));
+        TransientSolver solver = new TransientSolver(netlist);
+        solver.addCapacitor("out", Netlist.GROUND, new Capacitor(CAPACITANCE));
+        return solver;
+    }
+}
@@ -0,0 +1,207 @@
+package service.app.phys;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import batch.app.phys.BatchSimulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationServerTest {
+    private static final long REQUEST_TIMEOUT_MILLIS = 500;
+    private static final long MAX_BATCH_BYTES = 1 << 10;
+    private static final long WAIT_MILLIS = 5_000;
+
+    private EvaluationServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new EvaluationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                1, 100, REQUEST_TIMEOUT_MILLIS, MAX_BATCH_BYTES);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void evaluateReturnsCircuitValues() throws IOException {
+        HttpURLConnection connection = open("/evaluate?emf=12&r=2&R=4");
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("application/json"));
+        String json = read(connection.getInputStream());
+
+        assertEquals(12, jsonValue(json, "emf"), 0);
+        assertEquals(2, jsonValue(json, "r"), 0);
+        assertEquals(4, jsonValue(json, "R"), 0);
+        assertEquals(2, jsonValue(json, "current"), 1e-12);
+        assertEquals(8, jsonValue(json, "externalVoltage"), 1e-12);
+        assertEquals(4, jsonValue(json, "internalVoltage"), 1e-12);
+        assertEquals(24, jsonValue(json, "fullPower"), 1e-12);
+        assertEquals(8, jsonValue(json, "powerLoss"), 1e-12);
+        assertEquals(16, jsonValue(json, "externalPower"), 1e-12);
+        assertEquals(2.0 / 3, jsonValue(json, "efficiency"), 1e-12);
+        assertEquals(18, jsonValue(json, "maxExternalPower"), 1e-12);
+        assertEquals(2, jsonValue(json, "maxExternalPowerResistance"), 1e-12);
+        assertTrue(json.endsWith("\"shortCircuit\":false}"), json);
+    }
+
+    @Test
+    void wrongRequestsAreRejected() throws IOException {
+        assertEquals(400, open("/evaluate?emf=12&r=2").getResponseCode());
+        assertEquals(400, open("/evaluate?emf=12&r=-2&R=4").getResponseCode());
+        assertEquals(400, open("/sweep?emf=12&r=1&from=0&to=10&points=0.5").getResponseCode());
+        assertEquals(405, open("/batch").getResponseCode());
+    }
+
+    @Test
+    void sweepStreamsEveryPoint() throws IOException {
+        HttpURLConnection connection = open("/sweep?emf=12&r=1&from=0&to=100&points=1000");
+        assertEquals(200, connection.getResponseCode());
+        String[] lines = read(connection.getInputStream()).split("\n");
+
+        assertEquals(1001, lines.length);
+        assertEquals(BatchSimulator.HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("12,1,0,"), lines[1]);
+        assertTrue(lines[1000].startsWith("12,1,100,"), lines[1000]);
+    }
+
+    @Test
+    void batchReportsWrongRowsInTrailer() throws IOException {
+        HttpURLConnection connection = post("12,1,10\n12,x,10\n12,1,5\n12,-1,5\n");
+        assertEquals(200, connection.getResponseCode());
+        String[] lines = read(connection.getInputStream()).split("\n");
+
+        assertEquals(BatchSimulator.HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("12,1,10,"), lines[1]);
+        assertTrue(lines[2].startsWith("12,1,5,"), lines[2]);
+        assertEquals("# errors=2", lines[3]);
+        assertTrue(lines[4].startsWith("# Line 2: "), lines[4]);
+        assertTrue(lines[5].startsWith("# Line 4: "), lines[5]);
+        assertEquals(6, lines.length);
+    }
+
+    @Test
+    void largeBatchIsRejected() throws IOException {
+        StringBuilder body = new StringBuilder();
+        while (body.length() <= MAX_BATCH_BYTES) {
+            body.append("12,1,10\n");
+        }
+        assertEquals(413, post(body.toString()).getResponseCode());
+        assertEquals(200, open("/evaluate?emf=12&r=1&R=10").getResponseCode());
+    }
+
+    @Test
+    void busyServerAnswers503() throws IOException {
+        server.stop(0);
+        server = new EvaluationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                1, 50, 60_000, MAX_BATCH_BYTES);
+        server.start();
+
+        // Batch waiting for the rest of its body holds the only permit
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /batch HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1000\r\n\r\n12,1,10\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            assertEquals(503, awaitStatus(503));
+            assertTrue(server.getRejections() > 0);
+        }
+        assertEquals(200, awaitStatus(200));
+    }
+
+    /**
+     * Repeats the evaluation until it is answered with the status or the wait is over
+     * @return Last status
+     */
+    private int awaitStatus(int status) throws IOException {
+        long start = System.nanoTime();
+        int last;
+        do {
+            HttpURLConnection connection = open("/evaluate?emf=12&r=1&R=10");
+            last = connection.getResponseCode();
+            connection.disconnect();
+        } while (last != status && System.nanoTime() - start < WAIT_MILLIS * 1_000_000);
+        return last;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path)
+                .openConnection();
+        connection.setReadTimeout((int) WAIT_MILLIS);
+        return connection;
+    }
+
+    private HttpURLConnection post(String body) throws IOException {
+        HttpURLConnection connection = open("/batch");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.US_ASCII));
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static double jsonValue(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":([^,}]+)").matcher(json);
+        assertTrue(matcher.find(), name + " is missing in " + json);
+        double value = Double.parseDouble(matcher.group(1));
+        assertFalse(matcher.find(), name + " is repeated in " + json);
+        return value;
+    }
+
+    @Test
+    void stalledBatchIsCutOff() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /batch HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1000\r\n\r\n12,1,10\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            long start = System.nanoTime();
+            InputStream in = socket.getInputStream();
+            try {
+                while (in.read() >= 0) {
+                    // Server may answer before it closes the connection
+                }
+            } catch (IOException e) {
+                // Connection is reset
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis < 5_000, "Stalled request held for " + elapsedMillis + " ms");
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort()
+                + "/evaluate?emf=12&r=1&R=10").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        connection.disconnect();
+        assertEquals(1, server.getTimeouts());
+    }
+}